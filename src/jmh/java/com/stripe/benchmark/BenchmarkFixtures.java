@@ -0,0 +1,208 @@
+package com.stripe.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.stripe.Stripe;
+
+/** Generates realistic JSON payloads used as inputs by the benchmarks. */
+final class BenchmarkFixtures {
+  private static final String[] CURRENCIES = {"usd", "eur", "gbp", "jpy", "cad"};
+  private static final String[] TYPES = {"charge", "refund", "payout", "adjustment", "transfer"};
+
+  private BenchmarkFixtures() {}
+
+  /**
+   * Returns the JSON payload of a charge, with the nested objects returned by the API.
+   *
+   * @param index index of the charge, used to derive IDs and amounts
+   * @return the JSON payload
+   */
+  static JsonObject charge(int index) {
+    JsonObject address = new JsonObject();
+    address.addProperty("city", "San Francisco");
+    address.addProperty("country", "US");
+    address.addProperty("line1", "510 Townsend St");
+    address.add("line2", null);
+    address.addProperty("postal_code", "94103");
+    address.addProperty("state", "CA");
+
+    JsonObject billingDetails = new JsonObject();
+    billingDetails.add("address", address);
+    billingDetails.addProperty("email", String.format("customer%d@example.com", index));
+    billingDetails.addProperty("name", "Jenny Rosen");
+    billingDetails.add("phone", null);
+
+    JsonObject outcome = new JsonObject();
+    outcome.addProperty("network_status", "approved_by_network");
+    outcome.add("reason", null);
+    outcome.addProperty("risk_level", "normal");
+    outcome.addProperty("risk_score", index % 100);
+    outcome.addProperty("seller_message", "Payment complete.");
+    outcome.addProperty("type", "authorized");
+
+    JsonObject checks = new JsonObject();
+    checks.add("address_line1_check", null);
+    checks.addProperty("address_postal_code_check", "pass");
+    checks.addProperty("cvc_check", "pass");
+
+    JsonObject card = new JsonObject();
+    card.addProperty("brand", "visa");
+    card.add("checks", checks);
+    card.addProperty("country", "US");
+    card.addProperty("exp_month", 8);
+    card.addProperty("exp_year", 2030);
+    card.addProperty("fingerprint", "Xt5EWLLDS7FJjR1c");
+    card.addProperty("funding", "credit");
+    card.addProperty("last4", "4242");
+    card.addProperty("network", "visa");
+
+    JsonObject paymentMethodDetails = new JsonObject();
+    paymentMethodDetails.add("card", card);
+    paymentMethodDetails.addProperty("type", "card");
+
+    JsonObject metadata = new JsonObject();
+    metadata.addProperty("order_id", String.format("order_%d", index));
+    metadata.addProperty("channel", "web");
+
+    JsonObject refunds = new JsonObject();
+    refunds.addProperty("object", "list");
+    refunds.add("data", new JsonArray());
+    refunds.addProperty("has_more", false);
+    refunds.addProperty("total_count", 0);
+    refunds.addProperty("url", String.format("/v1/charges/ch_%024d/refunds", index));
+
+    JsonObject charge = new JsonObject();
+    charge.addProperty("id", String.format("ch_%024d", index));
+    charge.addProperty("object", "charge");
+    charge.addProperty("amount", 1000 + index);
+    charge.addProperty("amount_captured", 1000 + index);
+    charge.addProperty("amount_refunded", 0);
+    charge.add("application", null);
+    charge.add("application_fee", null);
+    charge.addProperty("balance_transaction", String.format("txn_%024d", index));
+    charge.add("billing_details", billingDetails);
+    charge.addProperty("calculated_statement_descriptor", "STRIPE* EXAMPLE");
+    charge.addProperty("captured", true);
+    charge.addProperty("created", 1600000000L + index);
+    charge.addProperty("currency", CURRENCIES[index % CURRENCIES.length]);
+    charge.addProperty("customer", String.format("cus_%014d", index % 1000));
+    charge.addProperty("description", "Benchmark charge");
+    charge.addProperty("disputed", false);
+    charge.add("failure_code", null);
+    charge.add("failure_message", null);
+    charge.add("fraud_details", new JsonObject());
+    charge.add("invoice", null);
+    charge.addProperty("livemode", false);
+    charge.add("metadata", metadata);
+    charge.add("outcome", outcome);
+    charge.addProperty("paid", true);
+    charge.addProperty("payment_intent", String.format("pi_%024d", index));
+    charge.addProperty("payment_method", String.format("pm_%024d", index));
+    charge.add("payment_method_details", paymentMethodDetails);
+    charge.addProperty("receipt_email", String.format("customer%d@example.com", index));
+    charge.addProperty("receipt_url", "https://pay.stripe.com/receipts/acct_1/ch_1/rcpt_1");
+    charge.addProperty("refunded", false);
+    charge.add("refunds", refunds);
+    charge.add("shipping", null);
+    charge.addProperty("status", "succeeded");
+    return charge;
+  }
+
+  /**
+   * Returns the JSON payload of a balance transaction.
+   *
+   * @param index index of the balance transaction, used to derive IDs and amounts
+   * @return the JSON payload
+   */
+  static JsonObject balanceTransaction(int index) {
+    long amount = 1000 + index;
+    long fee = 30 + amount * 29 / 1000;
+
+    JsonObject feeDetail = new JsonObject();
+    feeDetail.addProperty("amount", fee);
+    feeDetail.add("application", null);
+    feeDetail.addProperty("currency", "usd");
+    feeDetail.addProperty("description", "Stripe processing fees");
+    feeDetail.addProperty("type", "stripe_fee");
+
+    JsonArray feeDetails = new JsonArray();
+    feeDetails.add(feeDetail);
+
+    JsonObject balanceTransaction = new JsonObject();
+    balanceTransaction.addProperty("id", String.format("txn_%024d", index));
+    balanceTransaction.addProperty("object", "balance_transaction");
+    balanceTransaction.addProperty("amount", amount);
+    balanceTransaction.addProperty("available_on", 1600500000L + index);
+    balanceTransaction.addProperty("created", 1600000000L + index);
+    balanceTransaction.addProperty("currency", CURRENCIES[index % CURRENCIES.length]);
+    balanceTransaction.addProperty("description", "Benchmark balance transaction");
+    balanceTransaction.add("exchange_rate", null);
+    balanceTransaction.addProperty("fee", fee);
+    balanceTransaction.add("fee_details", feeDetails);
+    balanceTransaction.addProperty("net", amount - fee);
+    balanceTransaction.addProperty("reporting_category", TYPES[index % TYPES.length]);
+    balanceTransaction.addProperty("source", String.format("ch_%024d", index));
+    balanceTransaction.addProperty("status", (index % 3 == 0) ? "pending" : "available");
+    balanceTransaction.addProperty("type", TYPES[index % TYPES.length]);
+    return balanceTransaction;
+  }
+
+  /**
+   * Returns the JSON payload of a page of charges.
+   *
+   * @param size number of charges in the page
+   * @return the JSON payload
+   */
+  static String chargePage(int size) {
+    JsonArray data = new JsonArray();
+    for (int i = 0; i < size; i++) {
+      data.add(charge(i));
+    }
+    return page("/v1/charges", data);
+  }
+
+  /**
+   * Returns the JSON payload of a page of balance transactions.
+   *
+   * @param offset index of the first balance transaction in the page
+   * @param size number of balance transactions in the page
+   * @return the JSON payload
+   */
+  static String balanceTransactionPage(int offset, int size) {
+    JsonArray data = new JsonArray();
+    for (int i = offset; i < offset + size; i++) {
+      data.add(balanceTransaction(i));
+    }
+    return page("/v1/balance_transactions", data);
+  }
+
+  /**
+   * Returns the JSON payload of a {@code charge.succeeded} event.
+   *
+   * @return the JSON payload
+   */
+  static String chargeSucceededEvent() {
+    JsonObject data = new JsonObject();
+    data.add("object", charge(0));
+
+    JsonObject event = new JsonObject();
+    event.addProperty("id", "evt_000000000000000000000000");
+    event.addProperty("object", "event");
+    event.addProperty("api_version", Stripe.API_VERSION);
+    event.addProperty("created", 1600000000L);
+    event.add("data", data);
+    event.addProperty("livemode", false);
+    event.addProperty("pending_webhooks", 1);
+    event.addProperty("type", "charge.succeeded");
+    return event.toString();
+  }
+
+  private static String page(String url, JsonArray data) {
+    JsonObject page = new JsonObject();
+    page.addProperty("object", "list");
+    page.add("data", data);
+    page.addProperty("has_more", true);
+    page.addProperty("url", url);
+    return page.toString();
+  }
+}
@@ -0,0 +1,152 @@
+package com.stripe.benchmark;
+
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.BalanceTransaction;
+import com.stripe.model.ColumnarFrame;
+import com.stripe.net.ApiResource;
+import com.stripe.net.HttpClient;
+import com.stripe.net.HttpHeaders;
+import com.stripe.net.LiveStripeResponseGetter;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.ResponseProjection;
+import com.stripe.net.StripeRequest;
+import com.stripe.net.StripeResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to load a list of balance transactions in memory and sum their fees by currency, as a list
+ * of projected model objects, and as a {@link ColumnarFrame}; and time to only sum the fees of the
+ * loaded transactions.
+ *
+ * <p>Requests are answered instantly by an in-memory client, so that the time is spent parsing and
+ * aggregating.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarFrameBenchmark {
+  private static final int PAGES = 10;
+  private static final int PAGE_SIZE = 100;
+
+  private PageHttpClient httpClient;
+  private RequestOptions projectedOptions;
+  private List<BalanceTransaction> loadedModels;
+  private ColumnarFrame loadedFrame;
+
+  /** Installs the in-memory client. */
+  @Setup
+  public void setUp() {
+    Stripe.apiKey = "sk_test_123";
+    this.httpClient = new PageHttpClient(BenchmarkFixtures.balanceTransactionPage(0, PAGE_SIZE));
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(this.httpClient));
+    this.projectedOptions =
+        RequestOptions.builder()
+            .setResponseProjection(
+                ResponseProjection.of("amount", "fee", "net", "created", "currency", "type"))
+            .build();
+    try {
+      this.loadedModels = loadModels();
+      this.loadedFrame = loadFrame();
+    } catch (StripeException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Restores the default response getter. */
+  @TearDown
+  public void tearDown() {
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter());
+  }
+
+  @Benchmark
+  public Map<String, Long> models() throws StripeException {
+    return sumFees(loadModels());
+  }
+
+  @Benchmark
+  public Map<String, Long> frame() throws StripeException {
+    return loadFrame().groupBySum("currency", "fee");
+  }
+
+  @Benchmark
+  public Map<String, Long> sumLoadedModels() {
+    return sumFees(this.loadedModels);
+  }
+
+  @Benchmark
+  public Map<String, Long> sumLoadedFrame() {
+    return this.loadedFrame.groupBySum("currency", "fee");
+  }
+
+  private List<BalanceTransaction> loadModels() throws StripeException {
+    this.httpClient.pagesServed.set(0);
+    List<BalanceTransaction> transactions = new ArrayList<>();
+    for (BalanceTransaction transaction :
+        BalanceTransaction.list(new HashMap<>(), this.projectedOptions).autoPagingIterable()) {
+      transactions.add(transaction);
+    }
+    return transactions;
+  }
+
+  private static Map<String, Long> sumFees(List<BalanceTransaction> transactions) {
+    Map<String, Long> fees = new HashMap<>();
+    for (BalanceTransaction transaction : transactions) {
+      fees.merge(transaction.getCurrency(), transaction.getFee(), Long::sum);
+    }
+    return fees;
+  }
+
+  private ColumnarFrame loadFrame() throws StripeException {
+    this.httpClient.pagesServed.set(0);
+    ColumnarFrame frame =
+        ColumnarFrame.builder()
+            .addLongColumn("amount")
+            .addLongColumn("fee")
+            .addLongColumn("net")
+            .addLongColumn("created")
+            .addStringColumn("currency")
+            .addStringColumn("type")
+            .build();
+    frame.appendAll(BalanceTransaction::list, new HashMap<>(), null);
+    return frame;
+  }
+
+  /** Serves the same page, the last one without {@code has_more}. */
+  private static final class PageHttpClient extends HttpClient {
+    private final String page;
+    private final String lastPage;
+    private final AtomicInteger pagesServed = new AtomicInteger();
+
+    PageHttpClient(String page) {
+      this.page = page;
+      this.lastPage = page.replace("\"has_more\":true", "\"has_more\":false");
+    }
+
+    @Override
+    public StripeResponse request(StripeRequest request) {
+      String body = (this.pagesServed.incrementAndGet() < PAGES) ? this.page : this.lastPage;
+      return new StripeResponse(200, HttpHeaders.of(Collections.emptyMap()), body);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.stripe.benchmark;
+
+import com.stripe.net.FormEncoder;
+import com.stripe.net.HttpContent;
+import com.stripe.param.PaymentIntentCreateParams;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Form encoding of metadata-heavy request params.
+ *
+ * <p>Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormEncoderBenchmark {
+  @Param({"5", "50"})
+  public int metadataSize;
+
+  private Map<String, Object> params;
+
+  /** Builds the params. */
+  @Setup
+  public void setUp() {
+    PaymentIntentCreateParams.Builder builder =
+        PaymentIntentCreateParams.builder()
+            .setAmount(2000L)
+            .setCurrency("usd")
+            .setCustomer("cus_123")
+            .addPaymentMethodType("card")
+            .setDescription("Order #1234 (3 items)");
+    for (int i = 0; i < this.metadataSize; i++) {
+      builder.putMetadata("key_" + i, "value " + i + " \u00e9\u00fc");
+    }
+    this.params = new HashMap<>(builder.build().toMap());
+  }
+
+  @Benchmark
+  public HttpContent encodeParams() throws IOException {
+    return FormEncoder.createHttpContent(this.params);
+  }
+}
@@ -0,0 +1,52 @@
+package com.stripe.benchmark;
+
+import com.stripe.net.IdempotencyKeyGenerator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of idempotency key generators when many threads send POST requests at once. Run with
+ * {@code -t} to compare other thread counts, e.g. the number of cores of the target machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class IdempotencyKeyBenchmark {
+  private final IdempotencyKeyGenerator random = IdempotencyKeyGenerator.random();
+  private final IdempotencyKeyGenerator timeOrdered = IdempotencyKeyGenerator.timeOrdered();
+
+  @Benchmark
+  public String randomUuid() {
+    return this.random.generateKey();
+  }
+
+  @Benchmark
+  public String timeOrdered() {
+    return this.timeOrdered.generateKey();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public String randomUuidSingleThread() {
+    return this.random.generateKey();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public String timeOrderedSingleThread() {
+    return this.timeOrdered.generateKey();
+  }
+}
@@ -0,0 +1,69 @@
+package com.stripe.benchmark;
+
+import com.stripe.model.Charge;
+import com.stripe.model.ChargeCollection;
+import com.stripe.model.Event;
+import com.stripe.model.StripeObject;
+import com.stripe.net.JsonCodec;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding throughput of {@link JsonCodec}s: the default streaming {@link
+ * com.stripe.net.GsonJsonCodec}, and {@link TreeJsonCodec}, which parses payloads into a tree
+ * first.
+ *
+ * <p>The codec under test is instantiated from its fully-qualified class name (it must have a
+ * public no-arg constructor), so other codecs can be compared by adding their class name to the
+ * {@code codec} parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+  @Param({"com.stripe.net.GsonJsonCodec", "com.stripe.benchmark.TreeJsonCodec"})
+  public String codec;
+
+  private JsonCodec jsonCodec;
+  private String chargeJson;
+  private String chargePageJson;
+  private String eventJson;
+
+  /** Instantiates the codec and generates the payloads. */
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    this.jsonCodec = (JsonCodec) Class.forName(this.codec).getDeclaredConstructor().newInstance();
+    this.chargeJson = BenchmarkFixtures.charge(0).toString();
+    this.chargePageJson = BenchmarkFixtures.chargePage(100);
+    this.eventJson = BenchmarkFixtures.chargeSucceededEvent();
+  }
+
+  @Benchmark
+  public Charge decodeCharge() {
+    return this.jsonCodec.deserialize(this.chargeJson, Charge.class);
+  }
+
+  @Benchmark
+  public ChargeCollection decodeChargePage() {
+    return this.jsonCodec.deserialize(this.chargePageJson, ChargeCollection.class);
+  }
+
+  @Benchmark
+  public StripeObject decodeEventWithDataObject() {
+    Event event = this.jsonCodec.deserialize(this.eventJson, Event.class);
+    return event.getDataObjectDeserializer().getObject().orElse(null);
+  }
+}
@@ -0,0 +1,121 @@
+package com.stripe.benchmark;
+
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Charge;
+import com.stripe.model.NdjsonExporter;
+import com.stripe.net.ApiResource;
+import com.stripe.net.HttpClient;
+import com.stripe.net.HttpHeaders;
+import com.stripe.net.LiveStripeResponseGetter;
+import com.stripe.net.StripeRequest;
+import com.stripe.net.StripeResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to export a list of charges to a newline-delimited JSON file, by auto-paginating and
+ * serializing each charge with {@code toJson()}, and with {@link NdjsonExporter}.
+ *
+ * <p>Requests are answered instantly by an in-memory client, so that the time is spent
+ * deserializing, serializing and writing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NdjsonExportBenchmark {
+  private static final int PAGES = 10;
+  private static final int PAGE_SIZE = 100;
+
+  private PageHttpClient httpClient;
+  private Path directory;
+
+  /** Installs the in-memory client. */
+  @Setup
+  public void setUp() throws IOException {
+    Stripe.apiKey = "sk_test_123";
+    this.httpClient = new PageHttpClient(BenchmarkFixtures.chargePage(PAGE_SIZE));
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(this.httpClient));
+    this.directory = Files.createTempDirectory("ndjson-export");
+  }
+
+  /** Restores the default response getter. */
+  @TearDown
+  public void tearDown() throws IOException {
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter());
+    try (Stream<Path> files = Files.list(this.directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(this.directory);
+  }
+
+  @Benchmark
+  public long toJson() throws StripeException, IOException {
+    this.httpClient.pagesServed.set(0);
+    long bytes = 0;
+    try (OutputStream out =
+        new BufferedOutputStream(
+            Files.newOutputStream(this.directory.resolve("to-json.ndjson")), 64 * 1024)) {
+      for (Charge charge : Charge.list(new HashMap<>()).autoPagingIterable()) {
+        // toJson() pretty-prints, so the lines must be joined again
+        byte[] line = charge.toJson().replace('\n', ' ').getBytes(StandardCharsets.UTF_8);
+        out.write(line);
+        out.write('\n');
+        bytes += line.length + 1;
+      }
+    }
+    return bytes;
+  }
+
+  @Benchmark
+  public long exporter() throws StripeException, IOException {
+    this.httpClient.pagesServed.set(0);
+    return NdjsonExporter.builder(Charge::list, this.directory, "exporter")
+        .build()
+        .export()
+        .getBytes();
+  }
+
+  /** Serves the same page, the last one without {@code has_more}. */
+  private static final class PageHttpClient extends HttpClient {
+    private final String page;
+    private final String lastPage;
+    private final AtomicInteger pagesServed = new AtomicInteger();
+
+    PageHttpClient(String page) {
+      this.page = page;
+      this.lastPage = page.replace("\"has_more\":true", "\"has_more\":false");
+    }
+
+    @Override
+    public StripeResponse request(StripeRequest request) {
+      String body = (this.pagesServed.incrementAndGet() < PAGES) ? this.page : this.lastPage;
+      return new StripeResponse(200, HttpHeaders.of(Collections.emptyMap()), body);
+    }
+  }
+}
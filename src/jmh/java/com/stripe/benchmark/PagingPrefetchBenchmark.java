@@ -0,0 +1,103 @@
+package com.stripe.benchmark;
+
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Charge;
+import com.stripe.model.PagingOptions;
+import com.stripe.net.ApiResource;
+import com.stripe.net.HttpClient;
+import com.stripe.net.HttpHeaders;
+import com.stripe.net.LiveStripeResponseGetter;
+import com.stripe.net.StripeRequest;
+import com.stripe.net.StripeResponse;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to auto-paginate through a list of charges when both the requests and the processing of each
+ * object take time, with and without fetching pages ahead.
+ *
+ * <p>Requests are answered by an in-memory client after a fixed latency, and each charge is
+ * "processed" by waiting for a fixed time, so that a page takes about as long to fetch as to
+ * process. Without prefetching, the two alternate; with it, they overlap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PagingPrefetchBenchmark {
+  private static final int PAGES = 10;
+  private static final int PAGE_SIZE = 100;
+  private static final long LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+  private static final long PROCESSING_NANOS_PER_OBJECT = LATENCY_NANOS / PAGE_SIZE;
+
+  @Param({"0", "1", "2"})
+  public int prefetchPages;
+
+  private SlowHttpClient httpClient;
+  private PagingOptions pagingOptions;
+
+  /** Installs the in-memory client. */
+  @Setup
+  public void setUp() {
+    Stripe.apiKey = "sk_test_123";
+    this.httpClient = new SlowHttpClient(BenchmarkFixtures.chargePage(PAGE_SIZE));
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(this.httpClient));
+    this.pagingOptions = PagingOptions.builder().setPrefetchPages(this.prefetchPages).build();
+  }
+
+  /** Restores the default response getter. */
+  @TearDown
+  public void tearDown() {
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter());
+  }
+
+  @Benchmark
+  public int listAll() throws StripeException {
+    this.httpClient.pagesServed.set(0);
+    int count = 0;
+    for (Charge charge : Charge.list(new HashMap<>()).autoPagingIterable(this.pagingOptions)) {
+      if (charge.getId() != null) {
+        count++;
+      }
+      LockSupport.parkNanos(PROCESSING_NANOS_PER_OBJECT);
+    }
+    return count;
+  }
+
+  /** Serves the same page after a fixed latency, the last one without {@code has_more}. */
+  private static final class SlowHttpClient extends HttpClient {
+    private final String page;
+    private final String lastPage;
+    private final AtomicInteger pagesServed = new AtomicInteger();
+
+    SlowHttpClient(String page) {
+      this.page = page;
+      this.lastPage = page.replace("\"has_more\":true", "\"has_more\":false");
+    }
+
+    @Override
+    public StripeResponse request(StripeRequest request) {
+      LockSupport.parkNanos(LATENCY_NANOS);
+      String body = (this.pagesServed.incrementAndGet() < PAGES) ? this.page : this.lastPage;
+      return new StripeResponse(200, HttpHeaders.of(Collections.emptyMap()), body);
+    }
+  }
+}
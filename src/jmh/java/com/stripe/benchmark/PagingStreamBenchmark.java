@@ -0,0 +1,115 @@
+package com.stripe.benchmark;
+
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Charge;
+import com.stripe.net.ApiResource;
+import com.stripe.net.HttpClient;
+import com.stripe.net.HttpHeaders;
+import com.stripe.net.LiveStripeResponseGetter;
+import com.stripe.net.StripeRequest;
+import com.stripe.net.StripeResponse;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to aggregate a CPU-heavy value over all the charges of a list, with a stream over the
+ * auto-paging iterator through an unknown-size spliterator and with {@code autoPagingStream()},
+ * both sequential and parallel.
+ *
+ * <p>Requests are answered instantly by an in-memory client, so that the time is spent
+ * deserializing the pages and processing the charges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PagingStreamBenchmark {
+  private static final int PAGES = 10;
+  private static final int PAGE_SIZE = 100;
+  private static final long TOKENS_PER_OBJECT = 20_000;
+
+  @Param({"iterator", "stream"})
+  public String source;
+
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  private PageHttpClient httpClient;
+
+  /** Installs the in-memory client. */
+  @Setup
+  public void setUp() {
+    Stripe.apiKey = "sk_test_123";
+    this.httpClient = new PageHttpClient(BenchmarkFixtures.chargePage(PAGE_SIZE));
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(this.httpClient));
+  }
+
+  /** Restores the default response getter. */
+  @TearDown
+  public void tearDown() {
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter());
+  }
+
+  @Benchmark
+  public long sumAmounts() throws StripeException {
+    this.httpClient.pagesServed.set(0);
+    Stream<Charge> charges =
+        "stream".equals(this.source)
+            ? Charge.list(new HashMap<>()).autoPagingStream()
+            : StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(
+                    Charge.list(new HashMap<>()).autoPagingIterable().iterator(),
+                    Spliterator.ORDERED),
+                false);
+    if (this.parallel) {
+      charges = charges.parallel();
+    }
+    return charges
+        .mapToLong(
+            charge -> {
+              Blackhole.consumeCPU(TOKENS_PER_OBJECT);
+              return charge.getAmount();
+            })
+        .sum();
+  }
+
+  /** Serves the same page, the last one without {@code has_more}. */
+  private static final class PageHttpClient extends HttpClient {
+    private final String page;
+    private final String lastPage;
+    private final AtomicInteger pagesServed = new AtomicInteger();
+
+    PageHttpClient(String page) {
+      this.page = page;
+      this.lastPage = page.replace("\"has_more\":true", "\"has_more\":false");
+    }
+
+    @Override
+    public StripeResponse request(StripeRequest request) {
+      String body = (this.pagesServed.incrementAndGet() < PAGES) ? this.page : this.lastPage;
+      return new StripeResponse(200, HttpHeaders.of(Collections.emptyMap()), body);
+    }
+  }
+}
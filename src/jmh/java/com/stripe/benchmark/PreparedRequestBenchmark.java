@@ -0,0 +1,81 @@
+package com.stripe.benchmark;
+
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.ApiResource;
+import com.stripe.net.PreparedStripeRequest;
+import com.stripe.net.StripeRequest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CPU cost of building a {@code PaymentIntent.create} request where only the amount and customer
+ * change, from scratch with {@link StripeRequest} and by binding a {@link PreparedStripeRequest}.
+ * No request is sent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreparedRequestBenchmark {
+  private String url;
+  private Map<String, Object> constantParams;
+  private PreparedStripeRequest<PaymentIntent> prepared;
+  private long amount;
+
+  /** Builds the constant params and the request template. */
+  @Setup
+  public void setUp() throws StripeException {
+    Stripe.apiKey = "sk_test_123";
+    this.url = Stripe.getApiBase() + "/v1/payment_intents";
+
+    Map<String, Object> metadata = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      metadata.put("key_" + i, "value " + i);
+    }
+    this.constantParams = new HashMap<>();
+    this.constantParams.put("currency", "usd");
+    this.constantParams.put("confirm", true);
+    this.constantParams.put("payment_method_types", new String[] {"card"});
+    this.constantParams.put("description", "Monthly subscription fee");
+    this.constantParams.put("metadata", metadata);
+
+    this.prepared =
+        PreparedStripeRequest.builder(ApiResource.RequestMethod.POST, this.url, PaymentIntent.class)
+            .setParams(this.constantParams)
+            .build();
+  }
+
+  private Map<String, Object> variableParams() {
+    Map<String, Object> params = new HashMap<>();
+    params.put("amount", ++this.amount);
+    params.put("customer", "cus_123");
+    return params;
+  }
+
+  @Benchmark
+  public StripeRequest buildRequest() throws StripeException {
+    Map<String, Object> params = variableParams();
+    params.putAll(this.constantParams);
+    return new StripeRequest(ApiResource.RequestMethod.POST, this.url, params, null);
+  }
+
+  @Benchmark
+  public StripeRequest bindPreparedRequest() throws StripeException {
+    return this.prepared.bind(variableParams(), null);
+  }
+}
@@ -0,0 +1,85 @@
+package com.stripe.benchmark;
+
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Charge;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the first request made by a fresh JVM, which includes loading and initializing the
+ * library, as experienced by CLI tools and serverless functions.
+ *
+ * <p>Both the JMH benchmark and {@link #main} retrieve a charge from <a
+ * href="https://github.com/stripe/stripe-mock">stripe-mock</a>, which must be running on {@code
+ * localhost:12111} (or on the port given by the {@code STRIPE_MOCK_PORT} environment variable). The
+ * JMH benchmark forks a new JVM for every measurement. {@link #main} makes a single request and
+ * prints its duration, along with the number of classes and the metaspace loaded by then:
+ *
+ * <pre>{@code
+ * java -cp <jmh classpath> com.stripe.benchmark.StartupBenchmark
+ * }</pre>
+ *
+ * <p>Adding {@code -verbose:class} lists the classes loaded, e.g. to count those of {@code
+ * com.stripe.model} and {@code com.stripe.param}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+  @Benchmark
+  public Charge firstRetrieve() throws StripeException {
+    return retrieveCharge();
+  }
+
+  /**
+   * Prints the duration of the first request, and the classes and metaspace loaded by then.
+   *
+   * @param args unused
+   * @throws StripeException if the request fails
+   */
+  public static void main(String[] args) throws StripeException {
+    ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+    int classesBefore = classLoading.getLoadedClassCount();
+    long metaspaceBefore = metaspace();
+
+    long start = System.nanoTime();
+    Charge charge = retrieveCharge();
+    long elapsed = System.nanoTime() - start;
+
+    if (charge.getId() == null) {
+      throw new AssertionError("Unexpected charge without ID.");
+    }
+    System.out.printf("first Charge.retrieve: %,d us%n", TimeUnit.NANOSECONDS.toMicros(elapsed));
+    System.out.printf(
+        "loaded classes:        %,d%n", classLoading.getLoadedClassCount() - classesBefore);
+    System.out.printf("metaspace:             %,d bytes%n", metaspace() - metaspaceBefore);
+  }
+
+  private static Charge retrieveCharge() throws StripeException {
+    String port = System.getenv().getOrDefault("STRIPE_MOCK_PORT", "12111");
+    Stripe.apiKey = "sk_test_123";
+    Stripe.overrideApiBase("http://localhost:" + port);
+    return Charge.retrieve("ch_123");
+  }
+
+  private static long metaspace() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if ("Metaspace".equals(pool.getName())) {
+        return pool.getUsage().getUsed();
+      }
+    }
+    return 0;
+  }
+}
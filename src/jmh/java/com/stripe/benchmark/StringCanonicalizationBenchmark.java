@@ -0,0 +1,117 @@
+package com.stripe.benchmark;
+
+import com.stripe.model.BalanceTransaction;
+import com.stripe.model.BalanceTransactionCollection;
+import com.stripe.net.ApiResource;
+import com.stripe.net.StringCanonicalizer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of canonicalizing vocabulary strings with a {@link StringCanonicalizer}.
+ *
+ * <p>The JMH benchmark measures the decoding throughput of a page of balance transactions with and
+ * without canonicalization. The heap savings are measured by {@link #main}, which decodes a large
+ * generated set of balance transactions, keeps them in memory, and prints the heap they retain:
+ *
+ * <pre>{@code
+ * java -cp <jmh classpath> com.stripe.benchmark.StringCanonicalizationBenchmark 1000000
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringCanonicalizationBenchmark {
+  private static final int PAGE_SIZE = 100;
+
+  @Param({"false", "true"})
+  public boolean canonicalize;
+
+  private String pageJson;
+
+  /** Generates the page and installs the canonicalizer. */
+  @Setup
+  public void setUp() {
+    this.pageJson = BenchmarkFixtures.balanceTransactionPage(0, PAGE_SIZE);
+    ApiResource.setStringCanonicalizer(this.canonicalize ? new StringCanonicalizer() : null);
+  }
+
+  /** Removes the canonicalizer. */
+  @TearDown
+  public void tearDown() {
+    ApiResource.setStringCanonicalizer(null);
+  }
+
+  @Benchmark
+  public BalanceTransactionCollection decodePage() {
+    return ApiResource.GSON.fromJson(this.pageJson, BalanceTransactionCollection.class);
+  }
+
+  /**
+   * Prints the heap retained by a large set of balance transactions, with and without
+   * canonicalization.
+   *
+   * @param args the number of balance transactions, 200,000 by default
+   */
+  public static void main(String[] args) {
+    int rows = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+
+    long plain = retainedHeap(rows, null);
+    StringCanonicalizer canonicalizer = new StringCanonicalizer();
+    long canonicalized = retainedHeap(rows, canonicalizer);
+
+    System.out.printf("balance transactions:     %,d%n", rows);
+    System.out.printf("retained heap, plain:     %,d bytes%n", plain);
+    System.out.printf(
+        "retained heap, canonical: %,d bytes (%d strings in table)%n",
+        canonicalized, canonicalizer.size());
+    System.out.printf("saved per object:         %,d bytes%n", (plain - canonicalized) / rows);
+  }
+
+  private static long retainedHeap(int rows, StringCanonicalizer canonicalizer) {
+    ApiResource.setStringCanonicalizer(canonicalizer);
+    try {
+      long before = usedHeap();
+      List<BalanceTransaction> transactions = new ArrayList<>(rows);
+      for (int offset = 0; offset < rows; offset += PAGE_SIZE) {
+        String page =
+            BenchmarkFixtures.balanceTransactionPage(offset, Math.min(PAGE_SIZE, rows - offset));
+        transactions.addAll(
+            ApiResource.GSON.fromJson(page, BalanceTransactionCollection.class).getData());
+      }
+      long retained = usedHeap() - before;
+      if (transactions.size() != rows) {
+        throw new AssertionError("Unexpected number of balance transactions.");
+      }
+      return retained;
+    } finally {
+      ApiResource.setStringCanonicalizer(null);
+    }
+  }
+
+  private static long usedHeap() {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+}
@@ -0,0 +1,60 @@
+package com.stripe.benchmark;
+
+import com.stripe.Stripe;
+import com.stripe.model.Charge;
+import com.stripe.net.ApiResource;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Cost of the string and JSON representations of a charge with its nested objects. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToStringBenchmark {
+  @Param({"false", "true"})
+  public boolean fullToString;
+
+  private Charge charge;
+
+  /** Decodes the charge and configures {@code toString}. */
+  @Setup
+  public void setUp() {
+    this.charge = ApiResource.GSON.fromJson(BenchmarkFixtures.charge(0), Charge.class);
+    Stripe.setFullToString(this.fullToString);
+  }
+
+  /** Restores the default {@code toString}. */
+  @TearDown
+  public void tearDown() {
+    Stripe.setFullToString(false);
+  }
+
+  @Benchmark
+  public String toStringCharge() {
+    return this.charge.toString();
+  }
+
+  @Benchmark
+  public String toJson() {
+    return this.charge.toJson();
+  }
+
+  @Benchmark
+  public String toPrettyJson() {
+    return this.charge.toPrettyJson();
+  }
+}
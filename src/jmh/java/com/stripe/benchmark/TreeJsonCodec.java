@@ -0,0 +1,26 @@
+package com.stripe.benchmark;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.stripe.net.ApiResource;
+import com.stripe.net.JsonCodec;
+import com.stripe.net.JsonCodecException;
+
+/**
+ * {@link JsonCodec} that parses payloads into a JSON tree before binding the tree to the model
+ * classes, the way codecs built on tree-based JSON libraries work. Compared with {@link
+ * com.stripe.net.GsonJsonCodec} in {@link JsonCodecBenchmark}, it measures the cost of the
+ * intermediate tree.
+ */
+public class TreeJsonCodec implements JsonCodec {
+  @Override
+  public <T> T deserialize(String json, Class<T> clazz) {
+    try {
+      JsonElement tree = JsonParser.parseString(json);
+      return ApiResource.GSON.fromJson(tree, clazz);
+    } catch (JsonParseException e) {
+      throw new JsonCodecException(e.getMessage(), e);
+    }
+  }
+}
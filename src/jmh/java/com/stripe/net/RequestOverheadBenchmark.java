@@ -0,0 +1,57 @@
+package com.stripe.net;
+
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Charge;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-request overhead before anything is sent: URL building, {@link StripeRequest} construction
+ * and emission of the final headers by {@link HttpURLConnectionClient}.
+ *
+ * <p>This benchmark lives in the {@code com.stripe.net} package to reach the package-private header
+ * emission.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestOverheadBenchmark {
+  private Map<String, Object> params;
+
+  /** Configures the API key. */
+  @Setup
+  public void setUp() {
+    Stripe.apiKey = "sk_test_123";
+    this.params = Collections.singletonMap("amount", 1000);
+  }
+
+  @Benchmark
+  public HttpHeaders retrieveRequest() throws StripeException {
+    String url = ApiResource.instanceUrl(Charge.class, "ch_123");
+    StripeRequest request = new StripeRequest(ApiResource.RequestMethod.GET, url, null, null);
+    return HttpURLConnectionClient.getHeaders(request);
+  }
+
+  @Benchmark
+  public HttpHeaders updateRequest() throws StripeException {
+    String url = ApiResource.instanceUrl(Charge.class, "ch_123");
+    StripeRequest request =
+        new StripeRequest(ApiResource.RequestMethod.POST, url, this.params, null);
+    return HttpURLConnectionClient.getHeaders(request);
+  }
+}
@@ -1,5 +1,7 @@
 package com.stripe;
 
+import com.stripe.net.IdempotencyKeyGenerator;
+import com.stripe.net.ResponseRetentionPolicy;
 import java.net.PasswordAuthentication;
 import java.net.Proxy;
 import java.util.HashMap;
@@ -34,6 +36,16 @@ public abstract class Stripe {
   private static volatile Proxy connectionProxy = null;
   private static volatile PasswordAuthentication proxyCredential = null;
 
+  private static volatile IdempotencyKeyGenerator idempotencyKeyGenerator =
+      IdempotencyKeyGenerator.timeOrdered();
+
+  private static volatile boolean apiErrorStackTraces = true;
+
+  private static volatile boolean fullToString = false;
+
+  private static volatile ResponseRetentionPolicy responseRetentionPolicy =
+      ResponseRetentionPolicy.FULL;
+
   private static volatile Map<String, String> appInfo = null;
 
   /**
@@ -163,6 +175,98 @@ public abstract class Stripe {
     return proxyCredential;
   }
 
+  /**
+   * Returns the generator of the idempotency keys of POST requests made without an explicit key.
+   *
+   * @return the idempotency key generator
+   */
+  public static IdempotencyKeyGenerator getIdempotencyKeyGenerator() {
+    return idempotencyKeyGenerator;
+  }
+
+  /**
+   * Sets the generator of the idempotency keys of POST requests made without an explicit key. It
+   * can be overridden for specific requests with {@link
+   * com.stripe.net.RequestOptions.RequestOptionsBuilder#setIdempotencyKeyGenerator}.
+   *
+   * @param generator the generator, or {@code null} to restore the default {@link
+   *     IdempotencyKeyGenerator#timeOrdered()} generator
+   */
+  public static void setIdempotencyKeyGenerator(final IdempotencyKeyGenerator generator) {
+    idempotencyKeyGenerator =
+        (generator != null) ? generator : IdempotencyKeyGenerator.timeOrdered();
+  }
+
+  /**
+   * Returns whether the exceptions reporting API errors capture their stack trace.
+   *
+   * @return whether stack traces are captured
+   */
+  public static boolean getApiErrorStackTraces() {
+    return apiErrorStackTraces;
+  }
+
+  /**
+   * Sets whether the exceptions reporting API errors, e.g. {@link
+   * com.stripe.exception.CardException} for declined cards, capture their stack trace. Capturing
+   * the stack trace is most of the cost of creating an exception, which adds up when many requests
+   * fail. Exceptions created without stack trace keep all other details, including their {@link
+   * com.stripe.model.StripeError}. Exceptions that do not come from an API error response, e.g.
+   * {@link com.stripe.exception.ApiConnectionException}s or a missing API key, always capture their
+   * stack trace.
+   *
+   * <p>To avoid creating exceptions for expected errors altogether, see {@link
+   * com.stripe.net.StripeResult}.
+   *
+   * @param enabled whether stack traces are captured, {@code true} by default
+   */
+  public static void setApiErrorStackTraces(final boolean enabled) {
+    apiErrorStackTraces = enabled;
+  }
+
+  /**
+   * Returns how much of their response the objects returned by the API keep.
+   *
+   * @return the response retention policy
+   */
+  public static ResponseRetentionPolicy getResponseRetentionPolicy() {
+    return responseRetentionPolicy;
+  }
+
+  /**
+   * Sets how much of their response the objects returned by the API keep, see {@link
+   * ResponseRetentionPolicy}. It can be overridden for specific requests with {@link
+   * com.stripe.net.RequestOptions.RequestOptionsBuilder#setResponseRetentionPolicy}.
+   *
+   * @param policy the policy, or {@code null} to restore the default {@link
+   *     ResponseRetentionPolicy#FULL} policy
+   */
+  public static void setResponseRetentionPolicy(final ResponseRetentionPolicy policy) {
+    responseRetentionPolicy = (policy != null) ? policy : ResponseRetentionPolicy.FULL;
+  }
+
+  /**
+   * Returns whether the {@code toString} of model objects pretty-prints the whole object as JSON.
+   *
+   * @return whether full {@code toString} is enabled
+   */
+  public static boolean getFullToString() {
+    return fullToString;
+  }
+
+  /**
+   * Sets whether the {@code toString} of model objects pretty-prints the whole object as JSON, as
+   * in previous versions of the library. By default, {@code toString} returns a short summary of
+   * the object instead, which is much cheaper to compute for large objects; the JSON representation
+   * of an object is available with {@link com.stripe.model.StripeObject#toJson()} and {@link
+   * com.stripe.model.StripeObject#toPrettyJson()}.
+   *
+   * @param enabled whether full {@code toString} is enabled, {@code false} by default
+   */
+  public static void setFullToString(final boolean enabled) {
+    fullToString = enabled;
+  }
+
   public static void setAppInfo(String name) {
     setAppInfo(name, null, null, null);
   }
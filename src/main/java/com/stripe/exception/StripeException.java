@@ -1,6 +1,8 @@
 package com.stripe.exception;
 
+import com.stripe.Stripe;
 import com.stripe.model.StripeError;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -17,6 +19,13 @@ public abstract class StripeException extends Exception {
   private String requestId;
   private Integer statusCode;
 
+  /**
+   * Whether the fields are set. Until they are, {@link #fillInStackTrace()} leaves the stack trace
+   * to be captured by the constructor, which depends on the status code.
+   */
+  @Getter(AccessLevel.NONE)
+  private boolean constructed;
+
   protected StripeException(String message, String requestId, String code, Integer statusCode) {
     this(message, requestId, code, statusCode, null);
   }
@@ -28,6 +37,24 @@ public abstract class StripeException extends Exception {
     this.code = code;
     this.requestId = requestId;
     this.statusCode = statusCode;
+    this.constructed = true;
+    if (Stripe.getApiErrorStackTraces() || statusCode == null || statusCode < 400) {
+      super.fillInStackTrace();
+    }
+  }
+
+  /**
+   * Captures the stack trace. Exceptions built from an API error response, i.e. with an HTTP error
+   * status code, do not capture their stack trace when it is disabled with {@link
+   * Stripe#setApiErrorStackTraces}. Errors detected by the library itself, e.g. a missing API key
+   * or an invalid webhook signature, and connection errors always capture it.
+   */
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    if (!this.constructed) {
+      return this;
+    }
+    return super.fillInStackTrace();
   }
 
   /**
@@ -25,48 +25,48 @@ public class BalanceTransactionSourceTypeAdapterFactory implements TypeAdapterFa
     }
     final String discriminator = "object";
     final TypeAdapter<JsonElement> jsonElementAdapter = gson.getAdapter(JsonElement.class);
-    final TypeAdapter<com.stripe.model.BalanceTransactionSource> balanceTransactionSourceAdapter =
-        gson.getDelegateAdapter(
-            this, TypeToken.get(com.stripe.model.BalanceTransactionSource.class));
-    final TypeAdapter<com.stripe.model.ApplicationFee> applicationFeeAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.ApplicationFee.class));
-    final TypeAdapter<com.stripe.model.Charge> chargeAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.Charge.class));
-    final TypeAdapter<com.stripe.model.ConnectCollectionTransfer> connectCollectionTransferAdapter =
-        gson.getDelegateAdapter(
-            this, TypeToken.get(com.stripe.model.ConnectCollectionTransfer.class));
-    final TypeAdapter<com.stripe.model.Dispute> disputeAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.Dispute.class));
-    final TypeAdapter<com.stripe.model.FeeRefund> feeRefundAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.FeeRefund.class));
-    final TypeAdapter<com.stripe.model.issuing.Authorization> issuingAuthorizationAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.issuing.Authorization.class));
-    final TypeAdapter<com.stripe.model.issuing.Dispute> issuingDisputeAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.issuing.Dispute.class));
-    final TypeAdapter<com.stripe.model.issuing.Transaction> issuingTransactionAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.issuing.Transaction.class));
-    final TypeAdapter<com.stripe.model.Payout> payoutAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.Payout.class));
-    final TypeAdapter<com.stripe.model.PlatformTaxFee> platformTaxFeeAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.PlatformTaxFee.class));
-    final TypeAdapter<com.stripe.model.Refund> refundAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.Refund.class));
-    final TypeAdapter<com.stripe.model.ReserveTransaction> reserveTransactionAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.ReserveTransaction.class));
-    final TypeAdapter<com.stripe.model.TaxDeductedAtSource> taxDeductedAtSourceAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.TaxDeductedAtSource.class));
-    final TypeAdapter<com.stripe.model.Topup> topupAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.Topup.class));
-    final TypeAdapter<com.stripe.model.Transfer> transferAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.Transfer.class));
-    final TypeAdapter<com.stripe.model.TransferReversal> transferReversalAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.TransferReversal.class));
+    final LazyDelegateAdapter<com.stripe.model.BalanceTransactionSource>
+        balanceTransactionSourceAdapter =
+            new LazyDelegateAdapter<>(gson, this, com.stripe.model.BalanceTransactionSource.class);
+    final LazyDelegateAdapter<com.stripe.model.ApplicationFee> applicationFeeAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.ApplicationFee.class);
+    final LazyDelegateAdapter<com.stripe.model.Charge> chargeAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.Charge.class);
+    final LazyDelegateAdapter<com.stripe.model.ConnectCollectionTransfer>
+        connectCollectionTransferAdapter =
+            new LazyDelegateAdapter<>(gson, this, com.stripe.model.ConnectCollectionTransfer.class);
+    final LazyDelegateAdapter<com.stripe.model.Dispute> disputeAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.Dispute.class);
+    final LazyDelegateAdapter<com.stripe.model.FeeRefund> feeRefundAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.FeeRefund.class);
+    final LazyDelegateAdapter<com.stripe.model.issuing.Authorization> issuingAuthorizationAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.issuing.Authorization.class);
+    final LazyDelegateAdapter<com.stripe.model.issuing.Dispute> issuingDisputeAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.issuing.Dispute.class);
+    final LazyDelegateAdapter<com.stripe.model.issuing.Transaction> issuingTransactionAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.issuing.Transaction.class);
+    final LazyDelegateAdapter<com.stripe.model.Payout> payoutAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.Payout.class);
+    final LazyDelegateAdapter<com.stripe.model.PlatformTaxFee> platformTaxFeeAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.PlatformTaxFee.class);
+    final LazyDelegateAdapter<com.stripe.model.Refund> refundAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.Refund.class);
+    final LazyDelegateAdapter<com.stripe.model.ReserveTransaction> reserveTransactionAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.ReserveTransaction.class);
+    final LazyDelegateAdapter<com.stripe.model.TaxDeductedAtSource> taxDeductedAtSourceAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.TaxDeductedAtSource.class);
+    final LazyDelegateAdapter<com.stripe.model.Topup> topupAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.Topup.class);
+    final LazyDelegateAdapter<com.stripe.model.Transfer> transferAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.Transfer.class);
+    final LazyDelegateAdapter<com.stripe.model.TransferReversal> transferReversalAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.TransferReversal.class);
 
     TypeAdapter<BalanceTransactionSource> resultCustomTypeAdapter =
         new TypeAdapter<BalanceTransactionSource>() {
           @Override
           public void write(JsonWriter out, BalanceTransactionSource value) throws IOException {
-            balanceTransactionSourceAdapter.write(out, value);
+            balanceTransactionSourceAdapter.get().write(out, value);
           }
 
           @Override
@@ -75,37 +75,37 @@ public class BalanceTransactionSourceTypeAdapterFactory implements TypeAdapterFa
             BalanceTransactionSource objectResult;
             String objectType = object.getAsJsonPrimitive(discriminator).getAsString();
             if ("application_fee".equals(objectType)) {
-              objectResult = applicationFeeAdapter.fromJsonTree(object);
+              objectResult = applicationFeeAdapter.get().fromJsonTree(object);
             } else if ("charge".equals(objectType)) {
-              objectResult = chargeAdapter.fromJsonTree(object);
+              objectResult = chargeAdapter.get().fromJsonTree(object);
             } else if ("connect_collection_transfer".equals(objectType)) {
-              objectResult = connectCollectionTransferAdapter.fromJsonTree(object);
+              objectResult = connectCollectionTransferAdapter.get().fromJsonTree(object);
             } else if ("dispute".equals(objectType)) {
-              objectResult = disputeAdapter.fromJsonTree(object);
+              objectResult = disputeAdapter.get().fromJsonTree(object);
             } else if ("fee_refund".equals(objectType)) {
-              objectResult = feeRefundAdapter.fromJsonTree(object);
+              objectResult = feeRefundAdapter.get().fromJsonTree(object);
             } else if ("issuing.authorization".equals(objectType)) {
-              objectResult = issuingAuthorizationAdapter.fromJsonTree(object);
+              objectResult = issuingAuthorizationAdapter.get().fromJsonTree(object);
             } else if ("issuing.dispute".equals(objectType)) {
-              objectResult = issuingDisputeAdapter.fromJsonTree(object);
+              objectResult = issuingDisputeAdapter.get().fromJsonTree(object);
             } else if ("issuing.transaction".equals(objectType)) {
-              objectResult = issuingTransactionAdapter.fromJsonTree(object);
+              objectResult = issuingTransactionAdapter.get().fromJsonTree(object);
             } else if ("payout".equals(objectType)) {
-              objectResult = payoutAdapter.fromJsonTree(object);
+              objectResult = payoutAdapter.get().fromJsonTree(object);
             } else if ("platform_tax_fee".equals(objectType)) {
-              objectResult = platformTaxFeeAdapter.fromJsonTree(object);
+              objectResult = platformTaxFeeAdapter.get().fromJsonTree(object);
             } else if ("refund".equals(objectType)) {
-              objectResult = refundAdapter.fromJsonTree(object);
+              objectResult = refundAdapter.get().fromJsonTree(object);
             } else if ("reserve_transaction".equals(objectType)) {
-              objectResult = reserveTransactionAdapter.fromJsonTree(object);
+              objectResult = reserveTransactionAdapter.get().fromJsonTree(object);
             } else if ("tax_deducted_at_source".equals(objectType)) {
-              objectResult = taxDeductedAtSourceAdapter.fromJsonTree(object);
+              objectResult = taxDeductedAtSourceAdapter.get().fromJsonTree(object);
             } else if ("topup".equals(objectType)) {
-              objectResult = topupAdapter.fromJsonTree(object);
+              objectResult = topupAdapter.get().fromJsonTree(object);
             } else if ("transfer".equals(objectType)) {
-              objectResult = transferAdapter.fromJsonTree(object);
+              objectResult = transferAdapter.get().fromJsonTree(object);
             } else if ("transfer_reversal".equals(objectType)) {
-              objectResult = transferReversalAdapter.fromJsonTree(object);
+              objectResult = transferReversalAdapter.get().fromJsonTree(object);
             } else {
               String id = object.getAsJsonPrimitive("id").getAsString();
               objectResult = new UnknownSubType(id, objectType, object.toString());
@@ -0,0 +1,36 @@
+package com.stripe.model;
+
+import java.io.IOException;
+
+/**
+ * Persists the {@link PagingCheckpoint checkpoints} of auto-paginations, so that they can be
+ * resumed after a crash. See {@link PagingOptions.PagingOptionsBuilder#setCheckpointStore}.
+ */
+public interface CheckpointStore {
+  /**
+   * Returns the last checkpoint saved under the given key.
+   *
+   * @param key the key of the pagination
+   * @return the checkpoint, or {@code null} if none has been saved
+   * @throws IOException if the checkpoint cannot be read
+   */
+  PagingCheckpoint load(String key) throws IOException;
+
+  /**
+   * Saves a checkpoint under the given key, replacing the previous one. The previous checkpoint
+   * must remain readable if the save fails.
+   *
+   * @param key the key of the pagination
+   * @param checkpoint the checkpoint
+   * @throws IOException if the checkpoint cannot be written
+   */
+  void save(String key, PagingCheckpoint checkpoint) throws IOException;
+
+  /**
+   * Deletes the checkpoint saved under the given key, if any, e.g. once the pagination is complete.
+   *
+   * @param key the key of the pagination
+   * @throws IOException if the checkpoint cannot be deleted
+   */
+  void delete(String key) throws IOException;
+}
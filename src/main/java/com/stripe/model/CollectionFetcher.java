@@ -0,0 +1,121 @@
+package com.stripe.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Fetches all the pages of the collections embedded in a batch of objects concurrently, e.g. all
+ * the lines of the invoices of a billing run.
+ *
+ * <pre>{@code
+ * Map<String, List<InvoiceLineItem>> lines =
+ *     CollectionFetcher.fetchAll(invoices, Invoice::getLines, 8);
+ * }</pre>
+ *
+ * <p>Each collection is auto-paginated with the request options of the request that returned its
+ * parent. Collections that fit in their first page are returned without any request.
+ */
+public final class CollectionFetcher {
+  private CollectionFetcher() {}
+
+  /**
+   * Fetches all the objects of the collections of the given parents, on a temporary pool of the
+   * given number of threads.
+   *
+   * @param parents the parent objects, e.g. invoices
+   * @param collectionGetter the getter of the embedded collection, e.g. {@code Invoice::getLines}
+   * @param parallelism the maximum number of collections paginated at once
+   * @param <P> the type of the parent objects
+   * @param <T> the type of the objects of the collections
+   * @return the objects of each collection, by parent ID, in the order of the parents
+   */
+  public static <P extends HasId, T extends HasId> Map<String, List<T>> fetchAll(
+      Collection<? extends P> parents,
+      Function<? super P, ? extends StripeCollectionInterface<T>> collectionGetter,
+      int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("parallelism must be positive.");
+    }
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            parallelism,
+            runnable -> {
+              Thread thread = new Thread(runnable, "stripe-collection-fetcher");
+              thread.setDaemon(true);
+              return thread;
+            });
+    try {
+      return fetchAll(parents, collectionGetter, PagingOptions.getDefault(), executor);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Fetches all the objects of the collections of the given parents on the given executor.
+   *
+   * @param parents the parent objects, e.g. invoices
+   * @param collectionGetter the getter of the embedded collection, e.g. {@code Invoice::getLines}
+   * @param pagingOptions the options of the pagination of each collection, e.g. to prefetch pages
+   * @param executor the executor paginating the collections
+   * @param <P> the type of the parent objects
+   * @param <T> the type of the objects of the collections
+   * @return the objects of each collection, by parent ID, in the order of the parents
+   */
+  public static <P extends HasId, T extends HasId> Map<String, List<T>> fetchAll(
+      Collection<? extends P> parents,
+      Function<? super P, ? extends StripeCollectionInterface<T>> collectionGetter,
+      PagingOptions pagingOptions,
+      Executor executor) {
+    PagingOptions options = (pagingOptions != null) ? pagingOptions : PagingOptions.getDefault();
+    Map<String, CompletableFuture<List<T>>> futures = new LinkedHashMap<>();
+    for (P parent : parents) {
+      StripeCollectionInterface<T> collection = collectionGetter.apply(parent);
+      CompletableFuture<List<T>> future;
+      if (collection == null || collection.getData() == null) {
+        future = CompletableFuture.completedFuture(Collections.emptyList());
+      } else if (!Boolean.TRUE.equals(collection.getHasMore())) {
+        future = CompletableFuture.completedFuture(collection.getData());
+      } else {
+        future = CompletableFuture.supplyAsync(() -> listAll(collection, options), executor);
+      }
+      futures.put(parent.getId(), future);
+    }
+
+    Map<String, List<T>> objects = new LinkedHashMap<>();
+    for (Map.Entry<String, CompletableFuture<List<T>>> entry : futures.entrySet()) {
+      try {
+        objects.put(entry.getKey(), entry.getValue().join());
+      } catch (CompletionException e) {
+        for (CompletableFuture<List<T>> future : futures.values()) {
+          future.cancel(false);
+        }
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new RuntimeException("Unable to lazy-load stripe objects", e.getCause());
+      }
+    }
+    return objects;
+  }
+
+  private static <T extends HasId> List<T> listAll(
+      StripeCollectionInterface<T> collection, PagingOptions pagingOptions) {
+    List<T> objects = new ArrayList<>();
+    PagingIterator<T> iterator = new PagingIterator<>(collection, pagingOptions);
+    while (iterator.hasNext()) {
+      objects.add(iterator.next());
+    }
+    return objects;
+  }
+}
@@ -0,0 +1,451 @@
+package com.stripe.model;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.stripe.exception.StripeException;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.ResponseProjection;
+import com.stripe.net.StripeResponse;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A column-oriented table of a few fields of listed objects, e.g. the amount, fee, currency and
+ * creation time of balance transactions, for aggregations over many objects.
+ *
+ * <pre>{@code
+ * ColumnarFrame frame =
+ *     ColumnarFrame.builder()
+ *         .addLongColumn("amount")
+ *         .addLongColumn("fee")
+ *         .addLongColumn("created")
+ *         .addStringColumn("currency")
+ *         .addStringColumn("type")
+ *         .build();
+ * frame.appendAll(BalanceTransaction::list, params, null);
+ * Map<String, Long> feesByCurrency = frame.groupBySum("currency", "fee");
+ * }</pre>
+ *
+ * <p>Integer fields are stored in {@code long[]} columns, and string fields in dictionary-encoded
+ * columns, which store an {@code int} code per row and each distinct value once. The columns are
+ * filled by streaming over the response bodies, and only the IDs of the listed objects are
+ * deserialized, so no model object is kept per row. For an expanded object, the ID of the object is
+ * stored.
+ *
+ * <p>Frames are not thread-safe.
+ */
+public final class ColumnarFrame {
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /** The columns are read from the response bodies, so only the cursors are deserialized. */
+  private static final ResponseProjection ID_PROJECTION = ResponseProjection.of("id");
+
+  private final Map<String, Column> columns;
+  private int size;
+  private int capacity;
+
+  private ColumnarFrame(Map<String, Column> columns) {
+    this.columns = columns;
+  }
+
+  public static ColumnarFrameBuilder builder() {
+    return new ColumnarFrameBuilder();
+  }
+
+  /**
+   * Returns the number of rows.
+   *
+   * @return the number of rows
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the names of the columns, in the order they were added.
+   *
+   * @return the names of the columns
+   */
+  public List<String> getColumnNames() {
+    return Collections.unmodifiableList(new ArrayList<>(columns.keySet()));
+  }
+
+  /**
+   * Appends a row for each object of all the pages of a list, fetched like by auto-pagination.
+   *
+   * @param listMethod the list method, e.g. {@code BalanceTransaction::list}
+   * @param params the params of the first page, or {@code null}. Pages hold 100 objects unless
+   *     another {@code limit} is set.
+   * @param options the request options, or {@code null}. Their response projection and retention
+   *     policy are replaced by the ones the frame needs.
+   * @param <T> the type of the listed objects
+   * @throws StripeException if a page cannot be fetched
+   */
+  public <T extends HasId> void appendAll(
+      ListMethod<T> listMethod, Map<String, Object> params, RequestOptions options)
+      throws StripeException {
+    appendAll(listMethod, params, options, PagingOptions.getDefault());
+  }
+
+  /**
+   * Appends a row for each object of all the pages of a list, fetched like by auto-pagination with
+   * the given options, e.g. to prefetch pages. With a checkpoint store, the rows of the pages
+   * appended before a failure stay in the frame, and a call with the resume params of the
+   * checkpoint appends the rest.
+   *
+   * @param listMethod the list method, e.g. {@code BalanceTransaction::list}
+   * @param params the params of the first page, or {@code null}. Pages hold 100 objects unless
+   *     another {@code limit} is set.
+   * @param options the request options, or {@code null}. Their response projection and retention
+   *     policy are replaced by the ones the frame needs.
+   * @param pagingOptions the options of the pagination
+   * @param <T> the type of the listed objects
+   * @throws StripeException if a page cannot be fetched
+   */
+  public <T extends HasId> void appendAll(
+      ListMethod<T> listMethod,
+      Map<String, Object> params,
+      RequestOptions options,
+      PagingOptions pagingOptions)
+      throws StripeException {
+    Map<String, Object> firstParams = new HashMap<>();
+    if (params != null) {
+      firstParams.putAll(params);
+    }
+    firstParams.putIfAbsent("limit", PagingIterator.MAX_LIMIT);
+    PagingIterator<T> pages =
+        new PagingIterator<>(
+            listMethod.list(firstParams, NdjsonExporter.bodyOptions(options, ID_PROJECTION)),
+            pagingOptions);
+    StripeCollectionInterface<T> page;
+    while ((page = pages.nextCollection()) != null) {
+      StripeResponse response = page.getLastResponse();
+      if (response == null || response.body() == null) {
+        throw new IllegalStateException("The list method must return the response of the page.");
+      }
+      appendPage(response.body());
+    }
+  }
+
+  /**
+   * Appends a row for each object of a page, from the body of a list response. If the body is
+   * malformed, no row is appended.
+   *
+   * @param body the JSON body of the list response
+   * @return the number of rows appended
+   */
+  public int appendPage(String body) {
+    int sizeBefore = size;
+    try (JsonReader reader = new JsonReader(new StringReader(body))) {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if (!"data".equals(reader.nextName())) {
+          reader.skipValue();
+          continue;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+          appendRow(reader);
+        }
+        reader.endArray();
+      }
+      reader.endObject();
+    } catch (IOException | IllegalStateException | NumberFormatException e) {
+      // Drops the rows of the page read before the error.
+      size = sizeBefore;
+      throw new IllegalArgumentException("Malformed JSON list response.", e);
+    }
+    return size - sizeBefore;
+  }
+
+  private void appendRow(JsonReader reader) throws IOException {
+    if (size == capacity) {
+      capacity = Math.max(INITIAL_CAPACITY, capacity * 2);
+      for (Column column : columns.values()) {
+        column.grow(capacity);
+      }
+    }
+    for (Column column : columns.values()) {
+      column.setNull(size);
+    }
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      Column column = columns.get(reader.nextName());
+      if (column == null || reader.peek() == JsonToken.NULL) {
+        reader.skipValue();
+      } else {
+        column.read(reader, size);
+      }
+    }
+    reader.endObject();
+    size++;
+  }
+
+  /**
+   * Returns whether the value of a column is {@code null} in a row.
+   *
+   * @param columnName the name of the column
+   * @param row the index of the row
+   * @return {@code true} if the value is {@code null} or missing
+   */
+  public boolean isNull(String columnName, int row) {
+    checkRow(row);
+    return column(columnName, Column.class).isNull(row);
+  }
+
+  /**
+   * Returns the value of an integer column in a row.
+   *
+   * @param columnName the name of the column
+   * @param row the index of the row
+   * @return the value, or {@code 0} if it is {@code null}
+   */
+  public long getLong(String columnName, int row) {
+    checkRow(row);
+    return column(columnName, LongColumn.class).values[row];
+  }
+
+  /**
+   * Returns the value of a string column in a row.
+   *
+   * @param columnName the name of the column
+   * @param row the index of the row
+   * @return the value, or {@code null}
+   */
+  public String getString(String columnName, int row) {
+    checkRow(row);
+    return column(columnName, StringColumn.class).get(row);
+  }
+
+  /**
+   * Returns the sum of an integer column, {@code null} values excluded.
+   *
+   * @param columnName the name of the column
+   * @return the sum
+   */
+  public long sum(String columnName) {
+    long[] values = column(columnName, LongColumn.class).values;
+    long sum = 0;
+    for (int row = 0; row < size; row++) {
+      sum += values[row];
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the sums of an integer column for each value of a string column, e.g. the fees by
+   * currency. Rows whose key is {@code null} are grouped under the {@code null} key.
+   *
+   * @param keyColumnName the name of the string column to group by
+   * @param valueColumnName the name of the integer column to sum
+   * @return the sums by key, in the order the keys first appear
+   */
+  public Map<String, Long> groupBySum(String keyColumnName, String valueColumnName) {
+    StringColumn keys = column(keyColumnName, StringColumn.class);
+    long[] values = column(valueColumnName, LongColumn.class).values;
+
+    // Index 0 holds the sum of the null keys, and index code + 1 the sum of each key.
+    long[] sums = new long[keys.dictionary.size() + 1];
+    boolean[] present = new boolean[sums.length];
+    int[] codes = keys.codes;
+    for (int row = 0; row < size; row++) {
+      int index = codes[row] + 1;
+      sums[index] += values[row];
+      present[index] = true;
+    }
+
+    Map<String, Long> result = new LinkedHashMap<>();
+    for (int code = 0; code < keys.dictionary.size(); code++) {
+      if (present[code + 1]) {
+        result.put(keys.dictionary.get(code), sums[code + 1]);
+      }
+    }
+    if (present[0]) {
+      result.put(null, sums[0]);
+    }
+    return result;
+  }
+
+  private void checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException("Row " + row + " of a frame of " + size + " rows.");
+    }
+  }
+
+  private <C extends Column> C column(String name, Class<C> type) {
+    Column column = columns.get(name);
+    if (column == null) {
+      throw new IllegalArgumentException("No column named `" + name + "`.");
+    }
+    if (!type.isInstance(column)) {
+      throw new IllegalArgumentException(
+          String.format("Column `%s` is not a %s.", name, type.getSimpleName()));
+    }
+    return type.cast(column);
+  }
+
+  private abstract static class Column {
+    abstract void grow(int capacity);
+
+    abstract void setNull(int row);
+
+    abstract boolean isNull(int row);
+
+    /** Reads the non-null value of the row. */
+    abstract void read(JsonReader reader, int row) throws IOException;
+  }
+
+  private static final class LongColumn extends Column {
+    private long[] values = new long[0];
+    private final BitSet nulls = new BitSet();
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void setNull(int row) {
+      values[row] = 0;
+      nulls.set(row);
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return nulls.get(row);
+    }
+
+    @Override
+    void read(JsonReader reader, int row) throws IOException {
+      if (reader.peek() == JsonToken.BOOLEAN) {
+        values[row] = reader.nextBoolean() ? 1 : 0;
+      } else {
+        values[row] = reader.nextLong();
+      }
+      nulls.clear(row);
+    }
+  }
+
+  private static final class StringColumn extends Column {
+    private int[] codes = new int[0];
+    private final List<String> dictionary = new ArrayList<>();
+    private final Map<String, Integer> codesByValue = new HashMap<>();
+
+    @Override
+    void grow(int capacity) {
+      codes = Arrays.copyOf(codes, capacity);
+    }
+
+    @Override
+    void setNull(int row) {
+      codes[row] = -1;
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return codes[row] == -1;
+    }
+
+    String get(int row) {
+      int code = codes[row];
+      return (code == -1) ? null : dictionary.get(code);
+    }
+
+    @Override
+    void read(JsonReader reader, int row) throws IOException {
+      String value;
+      switch (reader.peek()) {
+        case BEGIN_OBJECT:
+          value = readId(reader);
+          break;
+        case BOOLEAN:
+          value = String.valueOf(reader.nextBoolean());
+          break;
+        case BEGIN_ARRAY:
+          reader.skipValue();
+          value = null;
+          break;
+        default:
+          value = reader.nextString();
+          break;
+      }
+      if (value == null) {
+        return;
+      }
+      Integer code = codesByValue.get(value);
+      if (code == null) {
+        code = dictionary.size();
+        dictionary.add(value);
+        codesByValue.put(value, code);
+      }
+      codes[row] = code;
+    }
+
+    /** Reads an expanded object, and returns its ID. */
+    private static String readId(JsonReader reader) throws IOException {
+      String id = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if ("id".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+          id = reader.nextString();
+        } else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+      return id;
+    }
+  }
+
+  public static final class ColumnarFrameBuilder {
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    /**
+     * Adds a column of an integer field, e.g. {@code amount} or {@code created}. Booleans are
+     * stored as {@code 1} and {@code 0}.
+     *
+     * @param name the JSON name of the field
+     * @return this builder
+     */
+    public ColumnarFrameBuilder addLongColumn(String name) {
+      return addColumn(name, new LongColumn());
+    }
+
+    /**
+     * Adds a column of a string field, e.g. {@code currency} or {@code type}, or of an expandable
+     * field, e.g. {@code source}, whose ID is stored.
+     *
+     * @param name the JSON name of the field
+     * @return this builder
+     */
+    public ColumnarFrameBuilder addStringColumn(String name) {
+      return addColumn(name, new StringColumn());
+    }
+
+    private ColumnarFrameBuilder addColumn(String name, Column column) {
+      if (name == null || name.isEmpty() || name.contains(".")) {
+        throw new IllegalArgumentException("Column names must be top-level JSON field names.");
+      }
+      if (columns.putIfAbsent(name, column) != null) {
+        throw new IllegalArgumentException("Duplicate column `" + name + "`.");
+      }
+      return this;
+    }
+
+    public ColumnarFrame build() {
+      if (columns.isEmpty()) {
+        throw new IllegalStateException("A frame must have at least one column.");
+      }
+      return new ColumnarFrame(new LinkedHashMap<>(columns));
+    }
+  }
+}
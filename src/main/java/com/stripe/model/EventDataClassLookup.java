@@ -1,117 +1,127 @@
-// File generated from our OpenAPI spec
 package com.stripe.model;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Event data class look up used in {@link EventDataDeserializer}. The key to look up is `object`
  * string of the model.
+ *
+ * <p>Classes are registered by name and only loaded when an event of their type is first
+ * deserialized, so that the lookup does not load every model class up front. The classes of product
+ * areas such as {@code issuing} are registered by their {@link ProductModule}.
  */
 final class EventDataClassLookup {
-  private static final Map<String, Class<? extends StripeObject>> classLookup = new HashMap<>();
+  private static final Map<String, String> classNames = new HashMap<>();
 
-  static {
-    classLookup.put("account", Account.class);
-    classLookup.put("account_link", AccountLink.class);
-    classLookup.put("alipay_account", AlipayAccount.class);
-    classLookup.put("apple_pay_domain", ApplePayDomain.class);
-    classLookup.put("application", Application.class);
-    classLookup.put("application_fee", ApplicationFee.class);
-    classLookup.put("balance", Balance.class);
-    classLookup.put("balance_transaction", BalanceTransaction.class);
-    classLookup.put("bank_account", BankAccount.class);
-    classLookup.put("bitcoin_receiver", BitcoinReceiver.class);
-    classLookup.put("bitcoin_transaction", BitcoinTransaction.class);
-    classLookup.put("capability", Capability.class);
-    classLookup.put("card", Card.class);
-    classLookup.put("charge", Charge.class);
-    classLookup.put("connect_collection_transfer", ConnectCollectionTransfer.class);
-    classLookup.put("country_spec", CountrySpec.class);
-    classLookup.put("coupon", Coupon.class);
-    classLookup.put("credit_note", CreditNote.class);
-    classLookup.put("credit_note_line_item", CreditNoteLineItem.class);
-    classLookup.put("customer", Customer.class);
-    classLookup.put("customer_balance_transaction", CustomerBalanceTransaction.class);
-    classLookup.put("discount", Discount.class);
-    classLookup.put("dispute", Dispute.class);
-    classLookup.put("ephemeral_key", EphemeralKey.class);
-    classLookup.put("event", Event.class);
-    classLookup.put("exchange_rate", ExchangeRate.class);
-    classLookup.put("fee_refund", FeeRefund.class);
-    classLookup.put("file", File.class);
-    classLookup.put("file_link", FileLink.class);
-    classLookup.put("invoice", Invoice.class);
-    classLookup.put("invoiceitem", InvoiceItem.class);
-    classLookup.put("issuer_fraud_record", IssuerFraudRecord.class);
-    classLookup.put("item", LineItem.class);
-    classLookup.put("line_item", InvoiceLineItem.class);
-    classLookup.put("login_link", LoginLink.class);
-    classLookup.put("mandate", Mandate.class);
-    classLookup.put("order", Order.class);
-    classLookup.put("order_item", OrderItem.class);
-    classLookup.put("order_return", OrderReturn.class);
-    classLookup.put("payment_intent", PaymentIntent.class);
-    classLookup.put("payment_method", PaymentMethod.class);
-    classLookup.put("payout", Payout.class);
-    classLookup.put("person", Person.class);
-    classLookup.put("plan", Plan.class);
-    classLookup.put("platform_tax_fee", PlatformTaxFee.class);
-    classLookup.put("price", Price.class);
-    classLookup.put("product", Product.class);
-    classLookup.put("promotion_code", PromotionCode.class);
-    classLookup.put("recipient", Recipient.class);
-    classLookup.put("refund", Refund.class);
-    classLookup.put("reserve_transaction", ReserveTransaction.class);
-    classLookup.put("review", Review.class);
-    classLookup.put("setup_attempt", SetupAttempt.class);
-    classLookup.put("setup_intent", SetupIntent.class);
-    classLookup.put("sku", Sku.class);
-    classLookup.put("source", Source.class);
-    classLookup.put("source_mandate_notification", SourceMandateNotification.class);
-    classLookup.put("source_transaction", SourceTransaction.class);
-    classLookup.put("subscription", Subscription.class);
-    classLookup.put("subscription_item", SubscriptionItem.class);
-    classLookup.put("subscription_schedule", SubscriptionSchedule.class);
-    classLookup.put("tax_deducted_at_source", TaxDeductedAtSource.class);
-    classLookup.put("tax_id", TaxId.class);
-    classLookup.put("tax_rate", TaxRate.class);
-    classLookup.put("three_d_secure", ThreeDSecure.class);
-    classLookup.put("token", Token.class);
-    classLookup.put("topup", Topup.class);
-    classLookup.put("transfer", Transfer.class);
-    classLookup.put("transfer_reversal", TransferReversal.class);
-    classLookup.put("usage_record", UsageRecord.class);
-    classLookup.put("usage_record_summary", UsageRecordSummary.class);
-    classLookup.put("webhook_endpoint", WebhookEndpoint.class);
-
-    classLookup.put(
-        "billing_portal.configuration", com.stripe.model.billingportal.Configuration.class);
-    classLookup.put("billing_portal.session", com.stripe.model.billingportal.Session.class);
-
-    classLookup.put("checkout.session", com.stripe.model.checkout.Session.class);
+  private static final Map<String, Class<? extends StripeObject>> classLookup =
+      new ConcurrentHashMap<>();
 
-    classLookup.put("issuing.authorization", com.stripe.model.issuing.Authorization.class);
-    classLookup.put("issuing.card", com.stripe.model.issuing.Card.class);
-    classLookup.put("issuing.cardholder", com.stripe.model.issuing.Cardholder.class);
-    classLookup.put("issuing.dispute", com.stripe.model.issuing.Dispute.class);
-    classLookup.put("issuing.transaction", com.stripe.model.issuing.Transaction.class);
-
-    classLookup.put("radar.early_fraud_warning", com.stripe.model.radar.EarlyFraudWarning.class);
-    classLookup.put("radar.value_list", com.stripe.model.radar.ValueList.class);
-    classLookup.put("radar.value_list_item", com.stripe.model.radar.ValueListItem.class);
+  static {
+    classNames.put("account", "com.stripe.model.Account");
+    classNames.put("account_link", "com.stripe.model.AccountLink");
+    classNames.put("alipay_account", "com.stripe.model.AlipayAccount");
+    classNames.put("apple_pay_domain", "com.stripe.model.ApplePayDomain");
+    classNames.put("application", "com.stripe.model.Application");
+    classNames.put("application_fee", "com.stripe.model.ApplicationFee");
+    classNames.put("balance", "com.stripe.model.Balance");
+    classNames.put("balance_transaction", "com.stripe.model.BalanceTransaction");
+    classNames.put("bank_account", "com.stripe.model.BankAccount");
+    classNames.put("bitcoin_receiver", "com.stripe.model.BitcoinReceiver");
+    classNames.put("bitcoin_transaction", "com.stripe.model.BitcoinTransaction");
+    classNames.put("capability", "com.stripe.model.Capability");
+    classNames.put("card", "com.stripe.model.Card");
+    classNames.put("charge", "com.stripe.model.Charge");
+    classNames.put("connect_collection_transfer", "com.stripe.model.ConnectCollectionTransfer");
+    classNames.put("country_spec", "com.stripe.model.CountrySpec");
+    classNames.put("coupon", "com.stripe.model.Coupon");
+    classNames.put("credit_note", "com.stripe.model.CreditNote");
+    classNames.put("credit_note_line_item", "com.stripe.model.CreditNoteLineItem");
+    classNames.put("customer", "com.stripe.model.Customer");
+    classNames.put("customer_balance_transaction", "com.stripe.model.CustomerBalanceTransaction");
+    classNames.put("discount", "com.stripe.model.Discount");
+    classNames.put("dispute", "com.stripe.model.Dispute");
+    classNames.put("ephemeral_key", "com.stripe.model.EphemeralKey");
+    classNames.put("event", "com.stripe.model.Event");
+    classNames.put("exchange_rate", "com.stripe.model.ExchangeRate");
+    classNames.put("fee_refund", "com.stripe.model.FeeRefund");
+    classNames.put("file", "com.stripe.model.File");
+    classNames.put("file_link", "com.stripe.model.FileLink");
+    classNames.put("invoice", "com.stripe.model.Invoice");
+    classNames.put("invoiceitem", "com.stripe.model.InvoiceItem");
+    classNames.put("issuer_fraud_record", "com.stripe.model.IssuerFraudRecord");
+    classNames.put("item", "com.stripe.model.LineItem");
+    classNames.put("line_item", "com.stripe.model.InvoiceLineItem");
+    classNames.put("login_link", "com.stripe.model.LoginLink");
+    classNames.put("mandate", "com.stripe.model.Mandate");
+    classNames.put("order", "com.stripe.model.Order");
+    classNames.put("order_item", "com.stripe.model.OrderItem");
+    classNames.put("order_return", "com.stripe.model.OrderReturn");
+    classNames.put("payment_intent", "com.stripe.model.PaymentIntent");
+    classNames.put("payment_method", "com.stripe.model.PaymentMethod");
+    classNames.put("payout", "com.stripe.model.Payout");
+    classNames.put("person", "com.stripe.model.Person");
+    classNames.put("plan", "com.stripe.model.Plan");
+    classNames.put("platform_tax_fee", "com.stripe.model.PlatformTaxFee");
+    classNames.put("price", "com.stripe.model.Price");
+    classNames.put("product", "com.stripe.model.Product");
+    classNames.put("promotion_code", "com.stripe.model.PromotionCode");
+    classNames.put("recipient", "com.stripe.model.Recipient");
+    classNames.put("refund", "com.stripe.model.Refund");
+    classNames.put("reserve_transaction", "com.stripe.model.ReserveTransaction");
+    classNames.put("review", "com.stripe.model.Review");
+    classNames.put("setup_attempt", "com.stripe.model.SetupAttempt");
+    classNames.put("setup_intent", "com.stripe.model.SetupIntent");
+    classNames.put("sku", "com.stripe.model.Sku");
+    classNames.put("source", "com.stripe.model.Source");
+    classNames.put("source_mandate_notification", "com.stripe.model.SourceMandateNotification");
+    classNames.put("source_transaction", "com.stripe.model.SourceTransaction");
+    classNames.put("subscription", "com.stripe.model.Subscription");
+    classNames.put("subscription_item", "com.stripe.model.SubscriptionItem");
+    classNames.put("subscription_schedule", "com.stripe.model.SubscriptionSchedule");
+    classNames.put("tax_deducted_at_source", "com.stripe.model.TaxDeductedAtSource");
+    classNames.put("tax_id", "com.stripe.model.TaxId");
+    classNames.put("tax_rate", "com.stripe.model.TaxRate");
+    classNames.put("three_d_secure", "com.stripe.model.ThreeDSecure");
+    classNames.put("token", "com.stripe.model.Token");
+    classNames.put("topup", "com.stripe.model.Topup");
+    classNames.put("transfer", "com.stripe.model.Transfer");
+    classNames.put("transfer_reversal", "com.stripe.model.TransferReversal");
+    classNames.put("usage_record", "com.stripe.model.UsageRecord");
+    classNames.put("usage_record_summary", "com.stripe.model.UsageRecordSummary");
+    classNames.put("webhook_endpoint", "com.stripe.model.WebhookEndpoint");
 
-    classLookup.put("reporting.report_run", com.stripe.model.reporting.ReportRun.class);
-    classLookup.put("reporting.report_type", com.stripe.model.reporting.ReportType.class);
+    for (ProductModule module :
+        ProductModule.loadAll(EventDataClassLookup.class.getClassLoader())) {
+      classNames.putAll(module.getEventDataClassNames());
+    }
+  }
 
-    classLookup.put("scheduled_query_run", com.stripe.model.sigma.ScheduledQueryRun.class);
+  public static Class<? extends StripeObject> findClass(String objectType) {
+    Class<? extends StripeObject> cl = classLookup.get(objectType);
+    if (cl == null) {
+      String className = classNames.get(objectType);
+      if (className == null) {
+        return null;
+      }
+      cl = classLookup.computeIfAbsent(objectType, type -> loadClass(className));
+    }
+    return cl;
+  }
 
-    classLookup.put("terminal.connection_token", com.stripe.model.terminal.ConnectionToken.class);
-    classLookup.put("terminal.location", com.stripe.model.terminal.Location.class);
-    classLookup.put("terminal.reader", com.stripe.model.terminal.Reader.class);
+  static Set<String> getObjectTypes() {
+    return Collections.unmodifiableSet(classNames.keySet());
   }
 
-  public static Class<? extends StripeObject> findClass(String objectType) {
-    return classLookup.get(objectType);
+  private static Class<? extends StripeObject> loadClass(String className) {
+    try {
+      return Class.forName(className, false, EventDataClassLookup.class.getClassLoader())
+          .asSubclass(StripeObject.class);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("Unable to load event data class " + className, e);
+    }
   }
 }
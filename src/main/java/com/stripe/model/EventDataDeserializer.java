@@ -6,6 +6,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.stripe.net.ApiResource;
+import com.stripe.net.JsonCodecException;
 import com.stripe.net.UntypedMapDeserializer;
 import java.lang.reflect.Type;
 import java.util.Map;
@@ -54,7 +55,13 @@ public class EventDataDeserializer implements JsonDeserializer<EventData> {
   static StripeObject deserializeStripeObject(JsonObject eventDataObjectJson) {
     String type = eventDataObjectJson.getAsJsonObject().get("object").getAsString();
     Class<? extends StripeObject> cl = EventDataClassLookup.findClass(type);
-    return ApiResource.GSON.fromJson(
-        eventDataObjectJson, cl != null ? cl : StripeRawJsonObject.class);
+    if (cl == null) {
+      cl = StripeRawJsonObject.class;
+    }
+    try {
+      return ApiResource.getJsonCodec().deserialize(eventDataObjectJson, cl);
+    } catch (JsonCodecException e) {
+      throw new JsonParseException(e.getMessage(), e);
+    }
   }
 }
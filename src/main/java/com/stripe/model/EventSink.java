@@ -0,0 +1,25 @@
+package com.stripe.model;
+
+import java.io.IOException;
+
+/**
+ * Applies the changes recorded by events to a local mirror of Stripe objects, e.g. a database table
+ * of customers. See {@link EventSyncEngine}.
+ *
+ * <p>An event may be applied more than once if the engine stops before saving its cursor, so
+ * changes should be idempotent, e.g. upserts and deletes by ID.
+ */
+@FunctionalInterface
+public interface EventSink {
+  /**
+   * Applies the change recorded by an event.
+   *
+   * @param event the event, whose {@link EventData#getPreviousAttributes() previous attributes}
+   *     tell which fields changed
+   * @param object the object of the event, i.e. its state after the change, decoded into its model
+   *     class
+   * @throws IOException if the change cannot be applied; the engine stops the poll and applies the
+   *     event again on the next one
+   */
+  void apply(Event event, StripeObject object) throws IOException;
+}
@@ -0,0 +1,560 @@
+package com.stripe.model;
+
+import com.stripe.exception.StripeException;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.StripeResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a local mirror of Stripe objects current by consuming the {@link Event#list events} of the
+ * subscribed types as a change feed, instead of listing all the objects again periodically.
+ *
+ * <pre>{@code
+ * EventSyncEngine engine =
+ *     EventSyncEngine.builder(
+ *             (event, object) -> mirror.upsert((Customer) object),
+ *             new FileCheckpointStore(Paths.get("checkpoints")),
+ *             "customers")
+ *         .setTypes(Arrays.asList("customer.created", "customer.updated", "customer.deleted"))
+ *         .setErrorListener(e -> log.warn("Event sync failed", e))
+ *         .build();
+ * engine.start();
+ * ...
+ * engine.close();
+ * }</pre>
+ *
+ * <p>Each poll lists the events that occurred after the cursor, i.e. the last event applied, with
+ * {@code ending_before} and the {@code types} filter, so that a poll without new events costs a
+ * single request. Pages are walked backward and events are applied oldest first. Only the objects
+ * of the events of the subscribed types are decoded into model classes. The cursor is saved in the
+ * checkpoint store once the events of each page have been applied, so that a restarted engine
+ * resumes where it stopped; an event that was applied before the engine stopped but after the last
+ * save is applied again.
+ *
+ * <p>Without a saved checkpoint, the engine starts at the most recent event of the subscribed
+ * types, and only mirrors the changes that occur from then on: the mirror is expected to be seeded
+ * by listing all the objects, e.g. with {@link NdjsonExporter}. Events are kept for 30 days, so an
+ * engine stopped for longer cannot resume from its cursor.
+ *
+ * <p>The interval between polls adapts to the volume of events: it is reset to the minimum after a
+ * poll that found more than a page of events, halved after a poll that found fewer, and doubled
+ * after a poll that found none or failed, between the {@link Builder#setPollInterval bounds}.
+ */
+public final class EventSyncEngine implements AutoCloseable {
+  private static final String EVENTS_URL = "/v1/events";
+
+  private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+  /** The maximum number of types of the {@code types} filter of the API. */
+  private static final int MAX_TYPES = 20;
+
+  private final EventSink sink;
+  private final CheckpointStore checkpointStore;
+  private final String checkpointKey;
+  private final List<String> types;
+  private final RequestOptions requestOptions;
+  private final Duration minPollInterval;
+  private final Duration maxPollInterval;
+  private final Consumer<Exception> errorListener;
+
+  /** The ID of the last event applied, guarded by {@code this}. */
+  private String cursor;
+
+  /** Whether {@link #cursor} has been loaded from the checkpoint store, guarded by {@code this}. */
+  private boolean cursorLoaded;
+
+  /**
+   * The time of the first poll, in seconds since the Unix epoch, if no event of the subscribed
+   * types existed then, guarded by {@code this}.
+   */
+  private Long startedAt;
+
+  private final AtomicLong polls = new AtomicLong();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong eventsApplied = new AtomicLong();
+  private volatile String lastEventId;
+  private volatile Duration lag;
+  private volatile Duration pollInterval;
+
+  private final Object threadLock = new Object();
+  private Thread thread;
+  private boolean closed;
+
+  private EventSyncEngine(Builder builder) {
+    this.sink = builder.sink;
+    this.checkpointStore = builder.checkpointStore;
+    this.checkpointKey = builder.checkpointKey;
+    this.types = Collections.unmodifiableList(new ArrayList<>(builder.types));
+    this.requestOptions = builder.requestOptions;
+    this.minPollInterval = builder.minPollInterval;
+    this.maxPollInterval = builder.maxPollInterval;
+    this.errorListener = builder.errorListener;
+    this.pollInterval = builder.minPollInterval;
+  }
+
+  /**
+   * Returns a builder of an engine.
+   *
+   * @param sink the sink the changes are applied to
+   * @param checkpointStore the store of the cursor
+   * @param checkpointKey the key of the cursor in the store
+   * @return the builder
+   */
+  public static Builder builder(
+      EventSink sink, CheckpointStore checkpointStore, String checkpointKey) {
+    return new Builder(sink, checkpointStore, checkpointKey);
+  }
+
+  /**
+   * Polls the events once, on the calling thread, and applies the new ones to the sink. The polls
+   * of the {@link #start() background thread} call this method.
+   *
+   * @return the number of events applied
+   * @throws StripeException if the events cannot be listed or decoded
+   * @throws IOException if the cursor cannot be loaded or saved, or the sink fails
+   */
+  public synchronized int poll() throws StripeException, IOException {
+    polls.incrementAndGet();
+    try {
+      AtomicInteger pages = new AtomicInteger();
+      int applied = (loadCursor() != null) ? pollAfterCursor(pages) : pollWithoutCursor(pages);
+      adaptPollInterval(applied, pages.get());
+      return applied;
+    } catch (StripeException | IOException | RuntimeException e) {
+      // The cursor may have been saved by the pagination before the failure.
+      this.cursorLoaded = false;
+      throw e;
+    }
+  }
+
+  /**
+   * Starts polling on a background daemon thread, waiting for the {@link #getPollInterval() poll
+   * interval} between polls. Failures are passed to the {@link Builder#setErrorListener error
+   * listener}, and the failed poll is retried after twice the interval, up to the maximum.
+   */
+  public void start() {
+    synchronized (threadLock) {
+      if (closed || thread != null) {
+        throw new IllegalStateException("An engine can only be started once.");
+      }
+      thread = new Thread(this::run, "stripe-event-sync");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * Stops the background thread, if started, and waits up to 30 seconds for it to end. See {@link
+   * #close(Duration)}.
+   */
+  @Override
+  public void close() {
+    close(CLOSE_TIMEOUT);
+  }
+
+  /**
+   * Stops the background thread, if started, and waits for it to end. A poll in progress is stopped
+   * before the next event, so the wait is bounded by the time the sink takes to apply an event.
+   * Once this method returns {@code true}, the sink is no longer called.
+   *
+   * @param timeout the maximum time to wait for the thread to end
+   * @return whether the thread has ended, or was not started
+   */
+  public boolean close(Duration timeout) {
+    Thread thread;
+    synchronized (threadLock) {
+      closed = true;
+      thread = this.thread;
+      if (thread != null) {
+        thread.interrupt();
+      }
+    }
+    if (thread == null || thread == Thread.currentThread()) {
+      // Closed from the sink or the error listener, which cannot wait for their own thread.
+      return thread == null;
+    }
+    try {
+      thread.join(Math.max(1, timeout.toMillis()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return !thread.isAlive();
+  }
+
+  private boolean isClosed() {
+    synchronized (threadLock) {
+      return closed;
+    }
+  }
+
+  private void run() {
+    while (!isClosed()) {
+      try {
+        poll();
+      } catch (StripeException | IOException | RuntimeException e) {
+        if (isClosed()) {
+          return;
+        }
+        adaptPollInterval(0, 0);
+        if (errorListener != null) {
+          errorListener.accept(e);
+        }
+      }
+      try {
+        Thread.sleep(pollInterval.toMillis());
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the current interval between polls.
+   *
+   * @return the interval
+   */
+  public Duration getPollInterval() {
+    return pollInterval;
+  }
+
+  /**
+   * Returns the statistics of the engine since it was built.
+   *
+   * @return the statistics
+   */
+  public Stats getStats() {
+    return new Stats(
+        polls.get(), requests.get(), eventsApplied.get(), lastEventId, lag, pollInterval);
+  }
+
+  private String loadCursor() throws IOException {
+    if (!cursorLoaded) {
+      PagingCheckpoint checkpoint = checkpointStore.load(checkpointKey);
+      if (checkpoint != null && !EVENTS_URL.equals(checkpoint.getUrl())) {
+        throw new IllegalStateException(
+            String.format(
+                "The checkpoint `%s` is a checkpoint of %s, not of %s.",
+                checkpointKey, checkpoint.getUrl(), EVENTS_URL));
+      }
+      this.cursor = (checkpoint != null) ? checkpoint.getLastId() : null;
+      this.cursorLoaded = true;
+    }
+    return cursor;
+  }
+
+  /** Applies the events that occurred after the cursor, oldest first. */
+  private int pollAfterCursor(AtomicInteger pages) throws StripeException, IOException {
+    Map<String, Object> params = listParams();
+    params.put("ending_before", cursor);
+
+    EventCollection page = list(params, pages);
+    // The pagination saves the cursor each time it needs a new page, once the events of the
+    // previous one have been applied.
+    PagingOptions options =
+        PagingOptions.builder()
+            .setCheckpointStore(checkpointStore, checkpointKey)
+            .setPageListener(stats -> countRequest(pages))
+            .build();
+    PagingIterator<Event> events = new PagingIterable<>(page, options).iterator();
+    int applied = 0;
+    while (events.hasNext()) {
+      if (isClosed()) {
+        throw new IllegalStateException("The engine was closed during the poll.");
+      }
+      apply(events.next());
+      applied++;
+    }
+
+    PagingCheckpoint checkpoint = events.getCheckpoint();
+    if (checkpoint.getLastId() != null) {
+      checkpointStore.save(checkpointKey, checkpoint);
+      this.cursor = checkpoint.getLastId();
+    }
+    return applied;
+  }
+
+  /**
+   * Sets the cursor to the most recent event on the first poll. If there was none, applies on the
+   * following polls the events that occurred since the first one.
+   */
+  private int pollWithoutCursor(AtomicInteger pages) throws StripeException, IOException {
+    Map<String, Object> params = listParams();
+    if (startedAt == null) {
+      long now = Instant.now().getEpochSecond();
+      params.put("limit", 1);
+      EventCollection page = list(params, pages);
+      if (page.getData().isEmpty()) {
+        StripeResponse response = page.getLastResponse();
+        Instant date = (response != null) ? response.date() : null;
+        this.startedAt = (date != null) ? date.getEpochSecond() : now;
+      } else {
+        saveCursor(params, page.getData().get(0).getId(), 0);
+      }
+      return 0;
+    }
+
+    params.put("created", Collections.singletonMap("gte", startedAt));
+    List<Event> events = new ArrayList<>();
+    PagingOptions options =
+        PagingOptions.builder().setPageListener(stats -> countRequest(pages)).build();
+    for (Event event : list(params, pages).autoPagingIterable(options)) {
+      events.add(event);
+    }
+    if (events.isEmpty()) {
+      return 0;
+    }
+    Collections.reverse(events);
+    for (Event event : events) {
+      apply(event);
+    }
+    saveCursor(listParams(), events.get(events.size() - 1).getId(), events.size());
+    return events.size();
+  }
+
+  private void saveCursor(Map<String, Object> params, String eventId, long objectCount)
+      throws IOException {
+    checkpointStore.save(
+        checkpointKey, new PagingCheckpoint(EVENTS_URL, params, eventId, 1, objectCount));
+    this.cursor = eventId;
+  }
+
+  private void apply(Event event) throws StripeException, IOException {
+    if (!types.contains(event.getType())) {
+      return;
+    }
+    StripeObject object = event.getDataObjectDeserializer().deserializeUnsafe();
+    sink.apply(event, object);
+
+    eventsApplied.incrementAndGet();
+    this.lastEventId = event.getId();
+    if (event.getCreated() != null) {
+      Duration delay = Duration.between(Instant.ofEpochSecond(event.getCreated()), Instant.now());
+      this.lag = delay.isNegative() ? Duration.ZERO : delay;
+    }
+  }
+
+  private Map<String, Object> listParams() {
+    Map<String, Object> params = new HashMap<>();
+    params.put("types", types);
+    params.put("limit", PagingIterator.MAX_LIMIT);
+    return params;
+  }
+
+  private EventCollection list(Map<String, Object> params, AtomicInteger pages)
+      throws StripeException {
+    EventCollection page = Event.list(params, requestOptions);
+    countRequest(pages);
+    return page;
+  }
+
+  private void countRequest(AtomicInteger pages) {
+    pages.incrementAndGet();
+    requests.incrementAndGet();
+  }
+
+  private void adaptPollInterval(int applied, int pages) {
+    Duration interval;
+    if (pages > 1) {
+      interval = minPollInterval;
+    } else if (applied > 0) {
+      interval = pollInterval.dividedBy(2);
+    } else {
+      interval = pollInterval.multipliedBy(2);
+    }
+    if (interval.compareTo(minPollInterval) < 0) {
+      interval = minPollInterval;
+    } else if (interval.compareTo(maxPollInterval) > 0) {
+      interval = maxPollInterval;
+    }
+    this.pollInterval = interval;
+  }
+
+  /** A snapshot of the statistics of an engine. */
+  public static final class Stats {
+    private final long polls;
+    private final long requests;
+    private final long eventsApplied;
+    private final String lastEventId;
+    private final Duration lag;
+    private final Duration pollInterval;
+
+    Stats(
+        long polls,
+        long requests,
+        long eventsApplied,
+        String lastEventId,
+        Duration lag,
+        Duration pollInterval) {
+      this.polls = polls;
+      this.requests = requests;
+      this.eventsApplied = eventsApplied;
+      this.lastEventId = lastEventId;
+      this.lag = lag;
+      this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Returns the number of polls, including the failed ones.
+     *
+     * @return the number of polls
+     */
+    public long getPolls() {
+      return polls;
+    }
+
+    /**
+     * Returns the number of requests made to list events.
+     *
+     * @return the number of requests
+     */
+    public long getRequests() {
+      return requests;
+    }
+
+    /**
+     * Returns the number of events applied to the sink.
+     *
+     * @return the number of events
+     */
+    public long getEventsApplied() {
+      return eventsApplied;
+    }
+
+    /**
+     * Returns the ID of the last event applied to the sink.
+     *
+     * @return the ID, or {@code null} if no event has been applied
+     */
+    public String getLastEventId() {
+      return lastEventId;
+    }
+
+    /**
+     * Returns the time between the creation of the last event applied and its application, i.e. how
+     * far behind the mirror was when it was last updated.
+     *
+     * @return the lag, or {@code null} if no event has been applied
+     */
+    public Duration getLag() {
+      return lag;
+    }
+
+    /**
+     * Returns the interval between polls.
+     *
+     * @return the interval
+     */
+    public Duration getPollInterval() {
+      return pollInterval;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "Stats{polls=%d, requests=%d, eventsApplied=%d, lastEventId=%s, lag=%s, "
+              + "pollInterval=%s}",
+          polls, requests, eventsApplied, lastEventId, lag, pollInterval);
+    }
+  }
+
+  public static final class Builder {
+    private final EventSink sink;
+    private final CheckpointStore checkpointStore;
+    private final String checkpointKey;
+    private final Set<String> types = new LinkedHashSet<>();
+    private RequestOptions requestOptions;
+    private Duration minPollInterval = Duration.ofSeconds(1);
+    private Duration maxPollInterval = Duration.ofMinutes(1);
+    private Consumer<Exception> errorListener;
+
+    private Builder(EventSink sink, CheckpointStore checkpointStore, String checkpointKey) {
+      if (sink == null || checkpointStore == null || checkpointKey == null) {
+        throw new IllegalArgumentException(
+            "sink, checkpointStore and checkpointKey must not be null.");
+      }
+      this.sink = sink;
+      this.checkpointStore = checkpointStore;
+      this.checkpointKey = checkpointKey;
+    }
+
+    /**
+     * Sets the types of the events applied to the sink, e.g. {@code customer.updated}. Events of
+     * other types are neither listed nor decoded.
+     *
+     * @param types up to 20 event types
+     * @return this builder
+     */
+    public Builder setTypes(Collection<String> types) {
+      if (types == null || types.isEmpty() || types.size() > MAX_TYPES) {
+        throw new IllegalArgumentException(
+            String.format("Between 1 and %d event types must be set.", MAX_TYPES));
+      }
+      this.types.clear();
+      this.types.addAll(types);
+      return this;
+    }
+
+    /**
+     * Sets the options of the requests.
+     *
+     * @param requestOptions the options
+     * @return this builder
+     */
+    public Builder setRequestOptions(RequestOptions requestOptions) {
+      this.requestOptions = requestOptions;
+      return this;
+    }
+
+    /**
+     * Sets the bounds of the interval between polls, which adapts to the volume of events.
+     *
+     * @param minPollInterval the minimum interval, 1 second by default
+     * @param maxPollInterval the maximum interval, 1 minute by default
+     * @return this builder
+     */
+    public Builder setPollInterval(Duration minPollInterval, Duration maxPollInterval) {
+      if (minPollInterval == null
+          || maxPollInterval == null
+          || minPollInterval.isNegative()
+          || minPollInterval.isZero()
+          || maxPollInterval.compareTo(minPollInterval) < 0) {
+        throw new IllegalArgumentException(
+            "The poll intervals must be positive, and the maximum at least the minimum.");
+      }
+      this.minPollInterval = minPollInterval;
+      this.maxPollInterval = maxPollInterval;
+      return this;
+    }
+
+    /**
+     * Sets the listener notified of the failures of the polls of the background thread.
+     *
+     * @param errorListener the listener
+     * @return this builder
+     */
+    public Builder setErrorListener(Consumer<Exception> errorListener) {
+      this.errorListener = errorListener;
+      return this;
+    }
+
+    public EventSyncEngine build() {
+      if (types.isEmpty()) {
+        throw new IllegalStateException("The event types must be set.");
+      }
+      return new EventSyncEngine(this);
+    }
+  }
+}
@@ -6,6 +6,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 
@@ -44,7 +45,26 @@ public class ExpandableFieldDeserializer implements JsonDeserializer<ExpandableF
       // We need to get the type inside the generic ExpandableField to make sure fromJson correctly
       // serializes the JsonObject:
       Type clazz = ((ParameterizedType) typeOfT).getActualTypeArguments()[0];
-      expandableField = new ExpandableField<>(id, (HasId) context.deserialize(json, clazz));
+
+      // If expanded objects are interned, reuse the instance of an identical object that was
+      // already deserialized, as long as it has the expected type
+      ExpandedObjectInterner interner = ExpandedObjectInterner.current();
+      if (interner == null) {
+        return new ExpandableField<>(id, (HasId) context.deserialize(json, clazz));
+      }
+      JsonElement objectType = fieldAsJsonObject.get("object");
+      String type =
+          (objectType != null && objectType.isJsonPrimitive())
+              ? objectType.getAsString()
+              : clazz.getTypeName();
+      HasId object = interner.get(type, id);
+      if (object == null || !TypeToken.get(clazz).getRawType().isInstance(object)) {
+        object = context.deserialize(json, clazz);
+        if (object != null) {
+          interner.put(type, id, object);
+        }
+      }
+      expandableField = new ExpandableField<>(id, object);
       return expandableField;
     }
 
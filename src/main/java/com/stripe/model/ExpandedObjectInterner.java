@@ -0,0 +1,117 @@
+package com.stripe.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A table of the expanded objects already deserialized, by type and ID, so that further occurrences
+ * of an object are not deserialized again but share the first instance.
+ *
+ * <p>Interning is enabled with {@link
+ * com.stripe.net.RequestOptions.RequestOptionsBuilder#setExpansionInterning}. While an interner is
+ * {@link #enter() entered} on a thread, {@link ExpandableFieldDeserializer} looks up the expanded
+ * objects it deserializes in it. An interner keeps at most {@link #DEFAULT_MAX_SIZE} objects, and
+ * evicts the least recently used ones beyond that, so that long paging sessions do not keep every
+ * object they have seen in memory.
+ *
+ * <p>Interners are not thread-safe: each one must only be used by one thread at a time.
+ */
+public final class ExpandedObjectInterner {
+  /** Default maximum number of interned objects. */
+  public static final int DEFAULT_MAX_SIZE = 10_000;
+
+  private static final ThreadLocal<ExpandedObjectInterner> CURRENT = new ThreadLocal<>();
+
+  private final Map<String, HasId> objects;
+
+  /** Initializes a new interner of at most {@link #DEFAULT_MAX_SIZE} objects. */
+  public ExpandedObjectInterner() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Initializes a new interner.
+   *
+   * @param maxSize maximum number of interned objects
+   */
+  public ExpandedObjectInterner(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive.");
+    }
+    this.objects =
+        new LinkedHashMap<String, HasId>(16, 0.75f, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, HasId> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  /**
+   * Returns the interner entered on the current thread.
+   *
+   * @return the interner, or {@code null} if none is entered
+   */
+  public static ExpandedObjectInterner current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Makes this interner the current interner of the current thread, until the returned scope is
+   * closed.
+   *
+   * <pre>{@code
+   * try (ExpandedObjectInterner.Scope scope = interner.enter()) {
+   *   ...
+   * }
+   * }</pre>
+   *
+   * @return the scope, which restores the previous interner when closed
+   */
+  public Scope enter() {
+    ExpandedObjectInterner previous = CURRENT.get();
+    CURRENT.set(this);
+    return new Scope(previous);
+  }
+
+  /**
+   * Returns the number of interned objects.
+   *
+   * @return the number of interned objects
+   */
+  public int size() {
+    return this.objects.size();
+  }
+
+  HasId get(String type, String id) {
+    return this.objects.get(key(type, id));
+  }
+
+  void put(String type, String id, HasId object) {
+    this.objects.put(key(type, id), object);
+  }
+
+  private static String key(String type, String id) {
+    return type + ':' + id;
+  }
+
+  /** The scope of an interner entered on the current thread. */
+  public static final class Scope implements AutoCloseable {
+    private final ExpandedObjectInterner previous;
+
+    private Scope(ExpandedObjectInterner previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public void close() {
+      if (this.previous != null) {
+        CURRENT.set(this.previous);
+      } else {
+        CURRENT.remove();
+      }
+    }
+  }
+}
@@ -28,18 +28,18 @@ public class ExternalAccountTypeAdapterFactory implements TypeAdapterFactory {
     }
     final String discriminator = "object";
     final TypeAdapter<JsonElement> jsonElementAdapter = gson.getAdapter(JsonElement.class);
-    final TypeAdapter<com.stripe.model.ExternalAccount> externalAccountAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.ExternalAccount.class));
-    final TypeAdapter<com.stripe.model.BankAccount> bankAccountAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.BankAccount.class));
-    final TypeAdapter<com.stripe.model.Card> cardAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.Card.class));
+    final LazyDelegateAdapter<com.stripe.model.ExternalAccount> externalAccountAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.ExternalAccount.class);
+    final LazyDelegateAdapter<com.stripe.model.BankAccount> bankAccountAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.BankAccount.class);
+    final LazyDelegateAdapter<com.stripe.model.Card> cardAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.Card.class);
 
     TypeAdapter<ExternalAccount> resultCustomTypeAdapter =
         new TypeAdapter<ExternalAccount>() {
           @Override
           public void write(JsonWriter out, ExternalAccount value) throws IOException {
-            externalAccountAdapter.write(out, value);
+            externalAccountAdapter.get().write(out, value);
           }
 
           @Override
@@ -48,9 +48,9 @@ public class ExternalAccountTypeAdapterFactory implements TypeAdapterFactory {
             ExternalAccount objectResult;
             String objectType = object.getAsJsonPrimitive(discriminator).getAsString();
             if ("bank_account".equals(objectType)) {
-              objectResult = bankAccountAdapter.fromJsonTree(object);
+              objectResult = bankAccountAdapter.get().fromJsonTree(object);
             } else if ("card".equals(objectType)) {
-              objectResult = cardAdapter.fromJsonTree(object);
+              objectResult = cardAdapter.get().fromJsonTree(object);
             } else {
               String id = object.getAsJsonPrimitive("id").getAsString();
               objectResult = new UnknownSubType(id, objectType, object.toString());
@@ -0,0 +1,78 @@
+package com.stripe.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+/**
+ * Stores each checkpoint as a JSON file named after its key in a local directory. Checkpoints are
+ * written to a temporary file which then replaces the previous one, so that a crash while saving
+ * leaves the previous checkpoint intact.
+ */
+public class FileCheckpointStore implements CheckpointStore {
+  private static final Pattern KEY_PATTERN = Pattern.compile("[A-Za-z0-9._-]+");
+
+  private final Path directory;
+
+  /**
+   * Creates a store in the given directory, which is created on the first save if it does not
+   * exist.
+   *
+   * @param directory the directory
+   */
+  public FileCheckpointStore(Path directory) {
+    if (directory == null) {
+      throw new IllegalArgumentException("directory must not be null.");
+    }
+    this.directory = directory;
+  }
+
+  @Override
+  public PagingCheckpoint load(String key) throws IOException {
+    try {
+      byte[] bytes = Files.readAllBytes(file(key));
+      return PagingCheckpoint.fromJson(new String(bytes, StandardCharsets.UTF_8));
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public void save(String key, PagingCheckpoint checkpoint) throws IOException {
+    Path file = file(key);
+    Files.createDirectories(directory);
+    Path temporaryFile = Files.createTempFile(directory, key, ".tmp");
+    try {
+      Files.write(temporaryFile, checkpoint.toJson().getBytes(StandardCharsets.UTF_8));
+      try {
+        Files.move(
+            temporaryFile,
+            file,
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  @Override
+  public void delete(String key) throws IOException {
+    Files.deleteIfExists(file(key));
+  }
+
+  private Path file(String key) {
+    if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+      throw new IllegalArgumentException(
+          "Checkpoint keys may only contain letters, digits, '.', '_' and '-'.");
+    }
+    return directory.resolve(key + ".json");
+  }
+}
@@ -0,0 +1,40 @@
+package com.stripe.model;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Delegate type adapter of a {@link TypeAdapterFactory}, created on first use.
+ *
+ * <p>The type adapter factories of polymorphic interfaces such as {@link PaymentSource} delegate to
+ * the adapter of the subtype named by the {@code object} discriminator. Creating those delegates up
+ * front would load and reflect on every subtype, and everything they reference, the first time any
+ * of them is decoded. Each delegate is instead created the first time its subtype is seen.
+ */
+final class LazyDelegateAdapter<T> {
+  private final Gson gson;
+  private final TypeAdapterFactory skipPast;
+  private final Class<T> type;
+  private volatile TypeAdapter<T> adapter;
+
+  LazyDelegateAdapter(Gson gson, TypeAdapterFactory skipPast, Class<T> type) {
+    this.gson = gson;
+    this.skipPast = skipPast;
+    this.type = type;
+  }
+
+  /**
+   * Returns the delegate adapter, creating it on first call. Concurrent first calls may each create
+   * an adapter, which is harmless as they are equivalent.
+   */
+  TypeAdapter<T> get() {
+    TypeAdapter<T> result = this.adapter;
+    if (result == null) {
+      result = this.gson.getDelegateAdapter(this.skipPast, TypeToken.get(this.type));
+      this.adapter = result;
+    }
+    return result;
+  }
+}
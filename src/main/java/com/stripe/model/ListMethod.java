@@ -0,0 +1,18 @@
+package com.stripe.model;
+
+import com.stripe.exception.StripeException;
+import com.stripe.net.RequestOptions;
+import java.util.Map;
+
+/**
+ * A list method of a resource, such as {@link Charge#list(Map, RequestOptions)}, through which the
+ * list helpers like {@link ParallelLister} request the first page of a list. The following pages
+ * are requested like by {@link StripeCollection#autoPagingIterable() auto-pagination}.
+ *
+ * @param <T> the type of the listed objects
+ */
+@FunctionalInterface
+public interface ListMethod<T extends HasId> {
+  StripeCollectionInterface<T> list(Map<String, Object> params, RequestOptions options)
+      throws StripeException;
+}
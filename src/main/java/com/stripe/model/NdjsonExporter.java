@@ -0,0 +1,743 @@
+package com.stripe.model;
+
+import com.stripe.exception.StripeException;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.ResponseProjection;
+import com.stripe.net.ResponseRetentionPolicy;
+import com.stripe.net.StripeResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports all the objects of a list to a set of newline-delimited JSON files, e.g. for a nightly
+ * load into a data lake.
+ *
+ * <pre>{@code
+ * NdjsonExporter.Progress progress =
+ *     NdjsonExporter.builder(Charge::list, Paths.get("export"), "charges")
+ *         .setGzip(true)
+ *         .setPartitions(4)
+ *         .setProgressListener(p -> log.info("{} charges/s", p.getObjectsPerSecond()))
+ *         .build()
+ *         .export();
+ * }</pre>
+ *
+ * <p>Each object is written as it appears in the API response, with the insignificant whitespace
+ * removed, without being deserialized and serialized again. The pages are requested with a {@link
+ * ResponseProjection} on {@code id}, so that only the cursor of the next page is deserialized, and
+ * their bodies are split into objects by the writers.
+ *
+ * <p>Pages of 100 objects, unless another {@code limit} is set, are fetched on the calling thread
+ * like by auto-pagination, prefetched if {@link Builder#setPagingOptions(PagingOptions) set}, and
+ * handed over to {@link Builder#setPartitions(int) partition writers} through a bounded buffer, so
+ * that fetching blocks whenever the writers fall behind. Each partition writes its own set of
+ * files, named {@code <prefix>-<partition>-<sequence>.ndjson}, with a {@code .gz} suffix when
+ * compressed, and starts a new file every {@link Builder#setMaxObjectsPerFile(long)
+ * maxObjectsPerFile} objects. The objects are spread across the partitions as they become free, so
+ * the files are not in the order of the API.
+ */
+public final class NdjsonExporter<T extends HasId> {
+  private static final ResponseProjection ID_PROJECTION = ResponseProjection.of("id");
+
+  private static final long POLL_MILLIS = 100;
+
+  /** Put in the buffer after the last page, once for each writer, to stop it. */
+  private static final String END = new String("END");
+
+  private final ListMethod<T> listMethod;
+  private final Path directory;
+  private final String filePrefix;
+  private final Map<String, Object> params;
+  private final RequestOptions requestOptions;
+  private final boolean gzip;
+  private final int partitions;
+  private final int bufferPages;
+  private final long maxObjectsPerFile;
+  private final Consumer<Progress> progressListener;
+  private final PagingOptions pagingOptions;
+
+  private NdjsonExporter(Builder<T> builder) {
+    this.listMethod = builder.listMethod;
+    this.directory = builder.directory;
+    this.filePrefix = builder.filePrefix;
+    this.params = builder.params;
+    this.requestOptions = builder.requestOptions;
+    this.gzip = builder.gzip;
+    this.partitions = builder.partitions;
+    this.bufferPages = builder.bufferPages;
+    this.maxObjectsPerFile = builder.maxObjectsPerFile;
+    this.progressListener = builder.progressListener;
+    this.pagingOptions = builder.pagingOptions;
+  }
+
+  /**
+   * Returns a builder of an exporter.
+   *
+   * @param listMethod the list method, e.g. {@code Charge::list}
+   * @param directory the directory of the files, created if it does not exist
+   * @param filePrefix the prefix of the names of the files
+   * @param <T> the type of the listed objects
+   * @return the builder
+   */
+  public static <T extends HasId> Builder<T> builder(
+      ListMethod<T> listMethod, Path directory, String filePrefix) {
+    return new Builder<>(listMethod, directory, filePrefix);
+  }
+
+  /**
+   * Exports all the objects of the list. The files of a previous export with the same prefix in the
+   * same directory, i.e. the files named {@code <prefix>-<partition>-<sequence>.ndjson[.gz]}, are
+   * deleted first, so that the directory only holds the files of this export. Other files are left
+   * untouched.
+   *
+   * @return the final progress of the export, including the files written
+   * @throws StripeException if a page cannot be fetched
+   * @throws IOException if a file cannot be written, or a previous file cannot be deleted
+   */
+  public Progress export() throws StripeException, IOException {
+    Files.createDirectories(directory);
+    deletePreviousFiles();
+    Export export = new Export();
+    export.start();
+    boolean fetched = false;
+    try {
+      export.fetchPages();
+      fetched = true;
+    } finally {
+      if (!fetched) {
+        // Stop the writers without waiting for them to write the buffered pages.
+        export.failed(null);
+      }
+      export.finish();
+    }
+    return export.progress();
+  }
+
+  /** Deletes the files of a previous export with the same prefix, but not directories. */
+  private void deletePreviousFiles() throws IOException {
+    Pattern fileName = Pattern.compile(Pattern.quote(filePrefix) + "-\\d+-\\d+\\.ndjson(\\.gz)?");
+    List<Path> previousFiles = new ArrayList<>();
+    try (DirectoryStream<Path> files =
+        Files.newDirectoryStream(
+            directory,
+            file ->
+                fileName.matcher(file.getFileName().toString()).matches()
+                    && Files.isRegularFile(file))) {
+      for (Path file : files) {
+        previousFiles.add(file);
+      }
+    }
+    for (Path file : previousFiles) {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /** A run of the export, which writes the fetched pages with the partition writers. */
+  private final class Export {
+    private final BlockingQueue<String> pages = new ArrayBlockingQueue<>(bufferPages);
+    private final List<Thread> writers = new ArrayList<>();
+    private final long startNanos = System.nanoTime();
+    private final List<Path> files = new ArrayList<>();
+    private long pageCount;
+    private long objectCount;
+    private long byteCount;
+    private volatile Throwable failure;
+    private volatile boolean aborted;
+
+    void start() {
+      for (int i = 0; i < partitions; i++) {
+        PartitionWriter writer = new PartitionWriter(this, i);
+        Thread thread = new Thread(writer::run, "stripe-ndjson-writer-" + i);
+        thread.setDaemon(true);
+        thread.start();
+        writers.add(thread);
+      }
+    }
+
+    void fetchPages() throws StripeException, IOException {
+      Map<String, Object> firstParams = new HashMap<>();
+      if (params != null) {
+        firstParams.putAll(params);
+      }
+      firstParams.putIfAbsent("limit", PagingIterator.MAX_LIMIT);
+      PagingIterator<T> pages =
+          new PagingIterator<>(
+              listMethod.list(firstParams, bodyOptions(requestOptions, ID_PROJECTION)),
+              pagingOptions);
+      StripeCollectionInterface<T> page;
+      while ((page = pages.nextCollection()) != null) {
+        StripeResponse response = page.getLastResponse();
+        if (response == null || response.body() == null) {
+          throw new IllegalStateException("The list method must return the response of the page.");
+        }
+        if (!put(response.body())) {
+          // A writer failed, which finish() reports.
+          return;
+        }
+      }
+    }
+
+    /** Stops the writers once they have written the buffered pages, and rethrows their failure. */
+    void finish() throws IOException {
+      for (int i = 0; i < writers.size(); i++) {
+        if (!put(END)) {
+          // The writers stop on their own.
+          break;
+        }
+      }
+      for (Thread writer : writers) {
+        try {
+          writer.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while writing the export", e);
+        }
+      }
+      if (failure instanceof IOException) {
+        throw (IOException) failure;
+      } else if (failure instanceof RuntimeException) {
+        throw (RuntimeException) failure;
+      } else if (failure != null) {
+        throw new IOException("Unable to write the export", failure);
+      }
+    }
+
+    /**
+     * Waits for room in the buffer for the given page.
+     *
+     * @return {@code false} if the export has failed, in which case the page is dropped
+     */
+    private boolean put(String page) throws IOException {
+      try {
+        while (!pages.offer(page, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+          if (aborted) {
+            // The writers may have stopped, so the page would never be taken.
+            return false;
+          }
+        }
+        return true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while writing the export", e);
+      }
+    }
+
+    /**
+     * Returns the next page to write, waiting for it if needed.
+     *
+     * @return the page, or {@code null} once all pages have been taken or the export has failed
+     */
+    String take() throws InterruptedException {
+      while (!aborted) {
+        String page = pages.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (page == END) {
+          return null;
+        } else if (page != null) {
+          return page;
+        }
+      }
+      return null;
+    }
+
+    synchronized void fileStarted(Path file) {
+      files.add(file);
+    }
+
+    void pageWritten(long objects, long bytes) {
+      Progress progress;
+      synchronized (this) {
+        pageCount++;
+        objectCount += objects;
+        byteCount += bytes;
+        if (progressListener == null) {
+          return;
+        }
+        progress = progress();
+      }
+      progressListener.accept(progress);
+    }
+
+    /**
+     * Records the failure of a writer, or of the fetcher if {@code null}, and drops the buffered
+     * pages so that the remaining writers stop as soon as possible.
+     */
+    void failed(Throwable e) {
+      if (failure == null && e != null) {
+        failure = e;
+      }
+      aborted = true;
+      pages.clear();
+    }
+
+    synchronized Progress progress() {
+      List<Path> sortedFiles = new ArrayList<>(files);
+      Collections.sort(sortedFiles);
+      return new Progress(
+          pageCount,
+          objectCount,
+          byteCount,
+          sortedFiles,
+          Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+  }
+
+  /** Writes the pages it takes from the buffer to the rolling files of its partition. */
+  private final class PartitionWriter {
+    private final Export export;
+    private final int partition;
+    private OutputStream out;
+    private int sequence;
+    private long objectsInFile;
+
+    PartitionWriter(Export export, int partition) {
+      this.export = export;
+      this.partition = partition;
+    }
+
+    void run() {
+      try {
+        String page;
+        while ((page = export.take()) != null) {
+          writePage(page);
+        }
+      } catch (Throwable e) {
+        export.failed(e);
+      } finally {
+        try {
+          if (out != null) {
+            out.close();
+          }
+        } catch (IOException e) {
+          export.failed(e);
+        }
+      }
+    }
+
+    private void writePage(String page) throws IOException {
+      List<String> objects = dataElements(page);
+      long bytes = 0;
+      for (String object : objects) {
+        if (out == null || objectsInFile >= maxObjectsPerFile) {
+          nextFile();
+        }
+        byte[] line = object.getBytes(StandardCharsets.UTF_8);
+        out.write(line);
+        out.write('\n');
+        objectsInFile++;
+        bytes += line.length + 1;
+      }
+      export.pageWritten(objects.size(), bytes);
+    }
+
+    private void nextFile() throws IOException {
+      if (out != null) {
+        out.close();
+        out = null;
+      }
+      Path file =
+          directory.resolve(
+              String.format(
+                  "%s-%d-%05d.ndjson%s", filePrefix, partition, sequence++, gzip ? ".gz" : ""));
+      OutputStream stream = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+      out = gzip ? new GZIPOutputStream(stream, 64 * 1024) : stream;
+      objectsInFile = 0;
+      export.fileStarted(file);
+    }
+  }
+
+  /**
+   * Returns the options of requests whose response bodies are read directly: the given options,
+   * with the given projection and the whole response kept.
+   */
+  static RequestOptions bodyOptions(RequestOptions options, ResponseProjection projection) {
+    RequestOptions.RequestOptionsBuilder builder = RequestOptions.builder();
+    if (options != null) {
+      builder
+          .setApiKey(options.getApiKey())
+          .setClientId(options.getClientId())
+          .setStripeAccount(options.getStripeAccount())
+          .setStripeVersionOverride(options.getStripeVersionOverride())
+          .setConnectTimeout(options.getConnectTimeout())
+          .setReadTimeout(options.getReadTimeout())
+          .setMaxNetworkRetries(options.getMaxNetworkRetries())
+          .setConnectionProxy(options.getConnectionProxy())
+          .setProxyCredential(options.getProxyCredential());
+    }
+    return builder
+        .setResponseProjection(projection)
+        .setResponseRetentionPolicy(ResponseRetentionPolicy.FULL)
+        .build();
+  }
+
+  /**
+   * Returns the elements of the top-level {@code data} array of a list response, each one as its
+   * JSON text without insignificant whitespace.
+   */
+  static List<String> dataElements(String body) {
+    List<String> elements = new ArrayList<>();
+    int i = skipWhitespace(body, 0);
+    expect(body, i, '{');
+    i = skipWhitespace(body, i + 1);
+    while (i < body.length() && body.charAt(i) != '}') {
+      int keyEnd = copyValue(body, i, null);
+      String key = body.substring(i + 1, keyEnd - 1);
+      i = skipWhitespace(body, keyEnd);
+      expect(body, i, ':');
+      i = skipWhitespace(body, i + 1);
+      if ("data".equals(key)) {
+        expect(body, i, '[');
+        i = skipWhitespace(body, i + 1);
+        while (body.charAt(i) != ']') {
+          StringBuilder element = new StringBuilder();
+          i = skipWhitespace(body, copyValue(body, i, element));
+          elements.add(element.toString());
+          if (body.charAt(i) == ',') {
+            i = skipWhitespace(body, i + 1);
+          }
+        }
+        i++;
+      } else {
+        i = copyValue(body, i, null);
+      }
+      i = skipWhitespace(body, i);
+      if (i < body.length() && body.charAt(i) == ',') {
+        i = skipWhitespace(body, i + 1);
+      }
+    }
+    return elements;
+  }
+
+  /**
+   * Scans the JSON value starting at the given index, and appends it without insignificant
+   * whitespace to the given builder, if any.
+   *
+   * @return the index following the value
+   */
+  private static int copyValue(String json, int start, StringBuilder out) {
+    int depth = 0;
+    boolean inString = false;
+    for (int i = start; i < json.length(); i++) {
+      char c = json.charAt(i);
+      if (inString) {
+        if (c == '\\') {
+          if (out != null) {
+            out.append(c).append(json.charAt(i + 1));
+          }
+          i++;
+          continue;
+        } else if (c == '"') {
+          inString = false;
+          if (depth == 0) {
+            append(out, c);
+            return i + 1;
+          }
+        }
+        append(out, c);
+        continue;
+      }
+
+      switch (c) {
+        case '"':
+          inString = true;
+          break;
+        case '{':
+        case '[':
+          depth++;
+          break;
+        case '}':
+        case ']':
+          if (depth == 0) {
+            // The end of the enclosing container, after a number or literal
+            return i;
+          }
+          depth--;
+          if (depth == 0) {
+            append(out, c);
+            return i + 1;
+          }
+          break;
+        case ',':
+        case ' ':
+        case '\t':
+        case '\n':
+        case '\r':
+          if (depth == 0) {
+            return i;
+          } else if (c != ',') {
+            continue;
+          }
+          break;
+        default:
+          break;
+      }
+      append(out, c);
+    }
+    if (inString || depth > 0) {
+      throw new IllegalArgumentException("Truncated JSON list response.");
+    }
+    return json.length();
+  }
+
+  private static void append(StringBuilder out, char c) {
+    if (out != null) {
+      out.append(c);
+    }
+  }
+
+  private static int skipWhitespace(String json, int start) {
+    int i = start;
+    while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private static void expect(String json, int index, char c) {
+    if (index >= json.length() || json.charAt(index) != c) {
+      throw new IllegalArgumentException(
+          String.format("Malformed JSON list response: expected '%s' at index %d.", c, index));
+    }
+  }
+
+  /** A snapshot of the progress of an export. */
+  public static final class Progress {
+    private final long pages;
+    private final long objects;
+    private final long bytes;
+    private final List<Path> files;
+    private final Duration elapsed;
+
+    Progress(long pages, long objects, long bytes, List<Path> files, Duration elapsed) {
+      this.pages = pages;
+      this.objects = objects;
+      this.bytes = bytes;
+      this.files = Collections.unmodifiableList(files);
+      this.elapsed = elapsed;
+    }
+
+    /**
+     * Returns the number of pages written.
+     *
+     * @return the number of pages
+     */
+    public long getPages() {
+      return pages;
+    }
+
+    /**
+     * Returns the number of objects written.
+     *
+     * @return the number of objects
+     */
+    public long getObjects() {
+      return objects;
+    }
+
+    /**
+     * Returns the number of bytes written, before compression.
+     *
+     * @return the number of bytes
+     */
+    public long getBytes() {
+      return bytes;
+    }
+
+    /**
+     * Returns the files started so far, sorted by name.
+     *
+     * @return the files
+     */
+    public List<Path> getFiles() {
+      return files;
+    }
+
+    /**
+     * Returns the time elapsed since the start of the export.
+     *
+     * @return the elapsed time
+     */
+    public Duration getElapsed() {
+      return elapsed;
+    }
+
+    /**
+     * Returns the average throughput of the export so far.
+     *
+     * @return the number of objects written per second
+     */
+    public double getObjectsPerSecond() {
+      long nanos = elapsed.toNanos();
+      return (nanos > 0) ? objects * 1e9 / nanos : 0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%d objects (%d pages, %d bytes) in %d files, %.1f objects/s",
+          objects, pages, bytes, files.size(), getObjectsPerSecond());
+    }
+  }
+
+  /**
+   * Builder of a {@link NdjsonExporter}.
+   *
+   * @param <T> the type of the listed objects
+   */
+  public static final class Builder<T extends HasId> {
+    private final ListMethod<T> listMethod;
+    private final Path directory;
+    private final String filePrefix;
+    private Map<String, Object> params;
+    private RequestOptions requestOptions;
+    private boolean gzip;
+    private int partitions = 1;
+    private int bufferPages = 16;
+    private long maxObjectsPerFile = 1_000_000;
+    private Consumer<Progress> progressListener;
+    private PagingOptions pagingOptions = PagingOptions.getDefault();
+
+    private Builder(ListMethod<T> listMethod, Path directory, String filePrefix) {
+      if (listMethod == null || directory == null || filePrefix == null) {
+        throw new IllegalArgumentException(
+            "listMethod, directory and filePrefix must not be null.");
+      }
+      this.listMethod = listMethod;
+      this.directory = directory;
+      this.filePrefix = filePrefix;
+    }
+
+    /**
+     * Sets the params of the first page, e.g. {@code limit} or {@code created} filters.
+     *
+     * @param params the params
+     * @return this builder
+     */
+    public Builder<T> setParams(Map<String, Object> params) {
+      if (params != null && params.containsKey("ending_before")) {
+        throw new IllegalArgumentException("Exports cannot page backward with ending_before.");
+      }
+      this.params = params;
+      return this;
+    }
+
+    /**
+     * Sets the options of the requests. Their response projection and retention policy are replaced
+     * by the ones the export needs.
+     *
+     * @param requestOptions the options
+     * @return this builder
+     */
+    public Builder<T> setRequestOptions(RequestOptions requestOptions) {
+      this.requestOptions = requestOptions;
+      return this;
+    }
+
+    /**
+     * Sets whether the files are compressed with gzip.
+     *
+     * @param gzip {@code true} to compress the files, {@code false} (the default) otherwise
+     * @return this builder
+     */
+    public Builder<T> setGzip(boolean gzip) {
+      this.gzip = gzip;
+      return this;
+    }
+
+    /**
+     * Sets the number of partitions written concurrently, each by its own thread to its own files.
+     * More partitions pay off when compressing, which costs more than fetching the pages.
+     *
+     * @param partitions the number of partitions, {@code 1} by default
+     * @return this builder
+     */
+    public Builder<T> setPartitions(int partitions) {
+      if (partitions <= 0) {
+        throw new IllegalArgumentException("partitions must be positive.");
+      }
+      this.partitions = partitions;
+      return this;
+    }
+
+    /**
+     * Sets the number of pages fetched but not yet written beyond which fetching waits for the
+     * writers.
+     *
+     * @param bufferPages the size of the buffer, {@code 16} by default
+     * @return this builder
+     */
+    public Builder<T> setBufferPages(int bufferPages) {
+      if (bufferPages <= 0) {
+        throw new IllegalArgumentException("bufferPages must be positive.");
+      }
+      this.bufferPages = bufferPages;
+      return this;
+    }
+
+    /**
+     * Sets the number of objects after which a partition starts a new file.
+     *
+     * @param maxObjectsPerFile the maximum number of objects per file, {@code 1000000} by default
+     * @return this builder
+     */
+    public Builder<T> setMaxObjectsPerFile(long maxObjectsPerFile) {
+      if (maxObjectsPerFile <= 0) {
+        throw new IllegalArgumentException("maxObjectsPerFile must be positive.");
+      }
+      this.maxObjectsPerFile = maxObjectsPerFile;
+      return this;
+    }
+
+    /**
+     * Sets the listener notified of the progress of the export each time a page has been written,
+     * on the thread of the partition that wrote it.
+     *
+     * @param progressListener the listener
+     * @return this builder
+     */
+    public Builder<T> setProgressListener(Consumer<Progress> progressListener) {
+      this.progressListener = progressListener;
+      return this;
+    }
+
+    /**
+     * Sets the options of the pagination, e.g. to prefetch pages while the previous ones are being
+     * handed over to the writers. Checkpoints are not supported, since an export always starts
+     * over.
+     *
+     * @param pagingOptions the options, {@link PagingOptions#getDefault()} by default
+     * @return this builder
+     */
+    public Builder<T> setPagingOptions(PagingOptions pagingOptions) {
+      if (pagingOptions == null) {
+        throw new IllegalArgumentException("pagingOptions must not be null.");
+      }
+      if (pagingOptions.getCheckpointStore() != null) {
+        throw new IllegalArgumentException(
+            "Exports start over on every run and cannot resume from a checkpoint.");
+      }
+      this.pagingOptions = pagingOptions;
+      return this;
+    }
+
+    public NdjsonExporter<T> build() {
+      return new NdjsonExporter<>(this);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.stripe.model;
+
+import java.time.Duration;
+
+/**
+ * Measurements of a page fetched by an auto-pagination, passed to the {@link
+ * PagingOptions#getPageListener() page listener} of the pagination.
+ *
+ * <pre>{@code
+ * PagingOptions options =
+ *     PagingOptions.builder()
+ *         .setMaxPageBytes(1024 * 1024)
+ *         .setPageListener(
+ *             stats -> log.info("page {}: {} objects in {}", stats.getPageNumber(),
+ *                 stats.getObjectCount(), stats.getDuration()))
+ *         .build();
+ * }</pre>
+ */
+public final class PageStats {
+  private final String url;
+  private final long pageNumber;
+  private final Integer limit;
+  private final int objectCount;
+  private final long responseBytes;
+  private final Duration duration;
+
+  PageStats(
+      String url,
+      long pageNumber,
+      Integer limit,
+      int objectCount,
+      long responseBytes,
+      Duration duration) {
+    this.url = url;
+    this.pageNumber = pageNumber;
+    this.limit = limit;
+    this.objectCount = objectCount;
+    this.responseBytes = responseBytes;
+    this.duration = duration;
+  }
+
+  /**
+   * Returns the URL of the list, e.g. {@code /v1/events}.
+   *
+   * @return the URL
+   */
+  public String getUrl() {
+    return url;
+  }
+
+  /**
+   * Returns the number of the page in the pagination. The first page, which is requested by the
+   * {@code list} call rather than by the pagination, is number {@code 1}, so the first page
+   * measured is number {@code 2}.
+   *
+   * @return the number of the page
+   */
+  public long getPageNumber() {
+    return pageNumber;
+  }
+
+  /**
+   * Returns the {@code limit} the page was requested with.
+   *
+   * @return the limit, or {@code null} if it is not an integer
+   */
+  public Integer getLimit() {
+    return limit;
+  }
+
+  /**
+   * Returns the number of objects in the page.
+   *
+   * @return the number of objects
+   */
+  public int getObjectCount() {
+    return objectCount;
+  }
+
+  /**
+   * Returns the size of the response body, in characters, or else its {@code Content-Length}.
+   *
+   * @return the size of the response, or {@code -1} if the response was not retained
+   */
+  public long getResponseBytes() {
+    return responseBytes;
+  }
+
+  /**
+   * Returns the time taken to request and deserialize the page.
+   *
+   * @return the duration
+   */
+  public Duration getDuration() {
+    return duration;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "PageStats{url=%s, pageNumber=%d, limit=%s, objectCount=%d, responseBytes=%d, duration=%s}",
+        url, pageNumber, limit, objectCount, responseBytes, duration);
+  }
+}
@@ -0,0 +1,140 @@
+package com.stripe.model;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.stripe.net.ApiResource;
+import com.stripe.net.UntypedMapDeserializer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The position of an auto-pagination: the list it iterates, and the ID of the last object it
+ * returned, which is the cursor of the following page. A pagination that was interrupted can be
+ * resumed from its last checkpoint by listing the {@link #getResumeParams() resume params}.
+ *
+ * <pre>{@code
+ * CheckpointStore store = new FileCheckpointStore(Paths.get("checkpoints"));
+ * PagingCheckpoint checkpoint = store.load("events");
+ * Map<String, Object> params = (checkpoint != null) ? checkpoint.getResumeParams() : initialParams;
+ * PagingOptions options = PagingOptions.builder().setCheckpointStore(store, "events").build();
+ * for (Event event : Event.list(params).autoPagingIterable(options)) {
+ *   ...
+ * }
+ * store.delete("events");
+ * }</pre>
+ */
+public final class PagingCheckpoint {
+  private final String url;
+  private final Map<String, Object> params;
+  private final String lastId;
+  private final long pageCount;
+  private final long objectCount;
+
+  PagingCheckpoint(
+      String url, Map<String, Object> params, String lastId, long pageCount, long objectCount) {
+    this.url = url;
+    this.params =
+        (params != null)
+            ? Collections.unmodifiableMap(new HashMap<>(params))
+            : Collections.emptyMap();
+    this.lastId = lastId;
+    this.pageCount = pageCount;
+    this.objectCount = objectCount;
+  }
+
+  /**
+   * Returns the URL of the list, e.g. {@code /v1/events}.
+   *
+   * @return the URL
+   */
+  public String getUrl() {
+    return url;
+  }
+
+  /**
+   * Returns the params of the first page of the pagination.
+   *
+   * @return the params
+   */
+  public Map<String, Object> getParams() {
+    return params;
+  }
+
+  /**
+   * Returns the ID of the last object returned by the pagination.
+   *
+   * @return the ID, or {@code null} if no object had been returned
+   */
+  public String getLastId() {
+    return lastId;
+  }
+
+  /**
+   * Returns the number of pages requested by the pagination, including the pages requested before
+   * it was resumed.
+   *
+   * @return the number of pages
+   */
+  public long getPageCount() {
+    return pageCount;
+  }
+
+  /**
+   * Returns the number of objects returned by the pagination, including the objects returned before
+   * it was resumed.
+   *
+   * @return the number of objects
+   */
+  public long getObjectCount() {
+    return objectCount;
+  }
+
+  /**
+   * Returns the params that list the objects following the last one returned.
+   *
+   * @return the params of the first page, with {@code starting_after} set to the last object, or
+   *     {@code ending_before} if the pagination walks pages backward
+   */
+  public Map<String, Object> getResumeParams() {
+    Map<String, Object> resumeParams = new HashMap<>(params);
+    if (lastId != null) {
+      resumeParams.put(PagingIterator.cursorParam(PagingIterator.isBackward(params)), lastId);
+    }
+    return resumeParams;
+  }
+
+  /**
+   * Serializes the checkpoint, e.g. to persist it in a {@link CheckpointStore}.
+   *
+   * @return the JSON representation of the checkpoint
+   */
+  public String toJson() {
+    JsonObject json = new JsonObject();
+    json.addProperty("url", url);
+    json.add("params", ApiResource.GSON.toJsonTree(params));
+    json.addProperty("last_id", lastId);
+    json.addProperty("page_count", pageCount);
+    json.addProperty("object_count", objectCount);
+    return ApiResource.GSON.toJson(json);
+  }
+
+  /**
+   * Deserializes a checkpoint serialized by {@link #toJson()}. Numbers in the params are restored
+   * with their original representation, so that the resumed requests are identical.
+   *
+   * @param json the JSON representation of the checkpoint
+   * @return the checkpoint
+   */
+  public static PagingCheckpoint fromJson(String json) {
+    JsonObject object = JsonParser.parseString(json).getAsJsonObject();
+    JsonElement lastId = object.get("last_id");
+    return new PagingCheckpoint(
+        object.get("url").getAsString(),
+        new UntypedMapDeserializer().deserialize(object.getAsJsonObject("params")),
+        (lastId == null || lastId.isJsonNull()) ? null : lastId.getAsString(),
+        object.get("page_count").getAsLong(),
+        object.get("object_count").getAsLong());
+  }
+}
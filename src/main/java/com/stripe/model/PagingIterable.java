@@ -1,6 +1,6 @@
 package com.stripe.model;
 
-import java.util.Iterator;
+import java.util.Spliterator;
 
 /**
  * Provides an <code>{@code Iterable<T>}</code> target that automatically iterates across all API
@@ -9,12 +9,24 @@ import java.util.Iterator;
 public class PagingIterable<T extends HasId> implements Iterable<T> {
   private StripeCollectionInterface<T> page;
 
+  private final PagingOptions options;
+
   PagingIterable(final StripeCollectionInterface<T> page) {
+    this(page, PagingOptions.getDefault());
+  }
+
+  PagingIterable(final StripeCollectionInterface<T> page, final PagingOptions options) {
     this.page = page;
+    this.options = (options != null) ? options : PagingOptions.getDefault();
+  }
+
+  @Override
+  public PagingIterator<T> iterator() {
+    return new PagingIterator<>(page, options);
   }
 
   @Override
-  public Iterator<T> iterator() {
-    return new PagingIterator<>(page);
+  public Spliterator<T> spliterator() {
+    return new PagingSpliterator<>(page, options);
   }
 }
@@ -1,14 +1,45 @@
 package com.stripe.model;
 
 import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
 import com.stripe.net.ApiResource;
 import com.stripe.net.RequestOptions;
+import com.stripe.net.StripeResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
+/**
+ * Iterates over the objects of a collection across API pages.
+ *
+ * <p>Pages are walked forward with {@code starting_after}, in the order of the API, newest first.
+ * If the params of the first page set {@code ending_before} but not {@code starting_after}, pages
+ * are instead walked backward with {@code ending_before} toward the newest object, and the objects
+ * are returned oldest first, e.g. to list the events that occurred after a known one.
+ *
+ * <p>The following pages are requested with the {@code limit} of the first page, or else with the
+ * maximum {@code limit} of {@code 100}, to make as few requests as possible.
+ */
 public class PagingIterator<T extends HasId> extends ApiResource implements Iterator<T> {
+  /** The maximum page size of list endpoints. */
+  static final int MAX_LIMIT = 100;
+
+  private final String path;
   private final String url;
 
   @SuppressWarnings("rawtypes")
@@ -19,13 +50,108 @@ public class PagingIterator<T extends HasId> extends ApiResource implements Iter
 
   private String lastId;
 
+  /** Whether pages are walked backward with {@code ending_before}. */
+  private final boolean backward;
+
+  /** The params of the first page, from which the pagination can be resumed. */
+  private final Map<String, Object> initialParams;
+
+  private long pageCount;
+  private long objectCount;
+
+  private final CheckpointStore checkpointStore;
+  private final String checkpointKey;
+
+  private final long maxPageBytes;
+  private final Consumer<PageStats> pageListener;
+
+  /** The number of the last page requested. Pages are requested one after the other. */
+  private final AtomicLong requestedPages;
+
+  private final int prefetchPages;
+  private final Executor prefetchExecutor;
+
+  /**
+   * The pages fetched ahead, in order. Each one is requested once the previous one, or the current
+   * one for the first, has been received. A page that resolves to {@code null} ends the collection.
+   */
+  private final Deque<CompletableFuture<StripeCollectionInterface<T>>> prefetchedPages =
+      new ArrayDeque<>();
+
   PagingIterator(final StripeCollectionInterface<T> stripeCollection) {
-    this.url = Stripe.getApiBase() + stripeCollection.getUrl();
+    this(stripeCollection, PagingOptions.getDefault());
+  }
+
+  PagingIterator(final StripeCollectionInterface<T> stripeCollection, PagingOptions options) {
+    this.path = stripeCollection.getUrl();
+    this.url = Stripe.getApiBase() + path;
 
     this.collectionType = stripeCollection.getClass();
 
+    this.backward = isBackward(stripeCollection.getRequestParams());
+
     this.currentCollection = stripeCollection;
-    this.currentDataIterator = stripeCollection.getData().iterator();
+    this.currentDataIterator = dataIterator(stripeCollection);
+
+    this.prefetchPages = options.getPrefetchPages();
+    if (this.prefetchPages > 0 && options.getPrefetchExecutor() == null) {
+      this.prefetchExecutor = PrefetchExecutorHolder.EXECUTOR;
+    } else {
+      this.prefetchExecutor = options.getPrefetchExecutor();
+    }
+
+    this.initialParams = stripeCollection.getRequestParams();
+    this.pageCount = 1;
+    this.checkpointStore = options.getCheckpointStore();
+    this.checkpointKey = options.getCheckpointKey();
+    if (checkpointStore != null) {
+      resumeCounts();
+    }
+    this.maxPageBytes = options.getMaxPageBytes();
+    this.pageListener = options.getPageListener();
+    this.requestedPages = new AtomicLong(pageCount);
+    prefetch();
+  }
+
+  /**
+   * Returns the current position of the pagination, from which it can be resumed.
+   *
+   * @return the checkpoint
+   */
+  public PagingCheckpoint getCheckpoint() {
+    return new PagingCheckpoint(path, initialParams, lastId, pageCount, objectCount);
+  }
+
+  /**
+   * Carries on the counts of the stored checkpoint if this pagination starts where it stopped, i.e.
+   * from its resume params.
+   */
+  private void resumeCounts() {
+    PagingCheckpoint checkpoint;
+    try {
+      checkpoint = checkpointStore.load(checkpointKey);
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to load the paging checkpoint", e);
+    }
+    Object cursor = (initialParams != null) ? initialParams.get(cursorParam(backward)) : null;
+    if (checkpoint != null
+        && path.equals(checkpoint.getUrl())
+        && cursor != null
+        && cursor.equals(checkpoint.getLastId())) {
+      this.pageCount = checkpoint.getPageCount() + 1;
+      this.objectCount = checkpoint.getObjectCount();
+    }
+  }
+
+  private void saveCheckpoint() {
+    if (checkpointStore == null) {
+      return;
+    }
+    try {
+      checkpointStore.save(checkpointKey, getCheckpoint());
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to save the paging checkpoint", e);
+    }
   }
 
   @Override
@@ -38,33 +164,100 @@ public class PagingIterator<T extends HasId> extends ApiResource implements Iter
     // if we've run out of data on the current page, try to fetch another
     // one
     if (!currentDataIterator.hasNext() && currentCollection.getHasMore()) {
-      try {
-        Map<String, Object> params = new HashMap<>();
+      fetchNextPage();
+    }
 
-        // copy all the parameters from the initial request
-        Map<String, Object> initialParams = currentCollection.getRequestParams();
-        if (initialParams != null) {
-          params.putAll(initialParams);
-        }
+    if (currentDataIterator.hasNext()) {
+      final T next = currentDataIterator.next();
+      this.lastId = next.getId();
+      this.objectCount++;
+      return next;
+    }
 
-        // then put our new page start in
-        params.put("starting_after", lastId);
+    throw new NoSuchElementException();
+  }
 
-        this.currentCollection = list(params, currentCollection.getRequestOptions());
+  /**
+   * Replaces the current page, whose objects have all been returned, with the following one. The
+   * current page is kept if the prefetched pages ended first.
+   */
+  private void fetchNextPage() {
+    saveCheckpoint();
+    if (prefetchPages > 0) {
+      StripeCollectionInterface<T> page = takePrefetchedPage();
+      if (page != null) {
+        this.pageCount++;
+        this.currentCollection = page;
+        this.currentDataIterator = dataIterator(page);
+        prefetch();
+      }
+    } else {
+      try {
+        this.currentCollection = fetchPage(currentCollection, lastId);
 
-        this.currentDataIterator = currentCollection.getData().iterator();
+        this.currentDataIterator = dataIterator(currentCollection);
+        this.pageCount++;
       } catch (final Exception e) {
         throw new RuntimeException("Unable to lazy-load stripe objects", e);
       }
     }
+  }
 
-    if (currentDataIterator.hasNext()) {
-      final T next = currentDataIterator.next();
-      this.lastId = next.getId();
-      return next;
+  /**
+   * Returns the page of the objects that have not been returned yet, fetching the following page
+   * first if they all have, and counts all the objects of the page as returned. This lets the list
+   * helpers that read whole pages, e.g. their response bodies, share the pagination.
+   *
+   * <p>The params of the following page are copied from the {@link
+   * StripeCollectionInterface#getRequestParams() request params} of the returned page, which can be
+   * replaced before the next call as long as no page is prefetched.
+   *
+   * @return the page, or {@code null} once all pages have been consumed
+   * @throws StripeException if the following page cannot be fetched
+   */
+  StripeCollectionInterface<T> nextCollection() throws StripeException {
+    if (!currentDataIterator.hasNext()) {
+      StripeCollectionInterface<T> previous = currentCollection;
+      if (!Boolean.TRUE.equals(previous.getHasMore())) {
+        return null;
+      }
+      try {
+        fetchNextPage();
+      } catch (RuntimeException e) {
+        if (e.getCause() instanceof StripeException) {
+          throw (StripeException) e.getCause();
+        }
+        throw e;
+      }
+      if (currentCollection == previous) {
+        return null;
+      }
+    }
+    while (currentDataIterator.hasNext()) {
+      this.lastId = currentDataIterator.next().getId();
+      this.objectCount++;
     }
+    return currentCollection;
+  }
 
-    throw new NoSuchElementException();
+  /**
+   * Returns the objects of the current page that have not been returned yet, fetching the next page
+   * first if they all have.
+   *
+   * @return the objects, empty once all pages have been consumed
+   */
+  List<T> nextPage() {
+    if (!hasNext()) {
+      return Collections.emptyList();
+    }
+    List<T> objects = new ArrayList<>();
+    objects.add(next());
+    while (currentDataIterator.hasNext()) {
+      objects.add(currentDataIterator.next());
+      this.objectCount++;
+    }
+    this.lastId = objects.get(objects.size() - 1).getId();
+    return objects;
   }
 
   @Override
@@ -72,9 +265,218 @@ public class PagingIterator<T extends HasId> extends ApiResource implements Iter
     throw new UnsupportedOperationException();
   }
 
+  /** Requests pages ahead until {@link #prefetchPages} pages are buffered or in flight. */
+  private void prefetch() {
+    while (prefetchedPages.size() < prefetchPages) {
+      CompletableFuture<StripeCollectionInterface<T>> previous = prefetchedPages.peekLast();
+      if (previous == null) {
+        if (!currentCollection.getHasMore()) {
+          return;
+        }
+        previous = CompletableFuture.completedFuture(currentCollection);
+      }
+      prefetchedPages.add(previous.thenApplyAsync(this::fetchPageAfter, prefetchExecutor));
+    }
+  }
+
+  private StripeCollectionInterface<T> takePrefetchedPage() {
+    CompletableFuture<StripeCollectionInterface<T>> page = prefetchedPages.poll();
+    if (page == null) {
+      return null;
+    }
+    try {
+      return page.join();
+    } catch (CompletionException e) {
+      // Pages after a failed one can never be fetched.
+      prefetchedPages.clear();
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException("Unable to lazy-load stripe objects", e.getCause());
+    }
+  }
+
+  /**
+   * Fetches the page following the given one, on a prefetch thread.
+   *
+   * @return the page, or {@code null} if the given page is the last one
+   */
+  private StripeCollectionInterface<T> fetchPageAfter(StripeCollectionInterface<T> page) {
+    if (page == null || !page.getHasMore()) {
+      return null;
+    }
+    List<T> data = page.getData();
+    if (data == null || data.isEmpty()) {
+      return null;
+    }
+
+    // The last object returned from the page is the oldest one forward, and the newest one backward
+    T last = backward ? data.get(0) : data.get(data.size() - 1);
+
+    try {
+      return fetchPage(page, last.getId());
+    } catch (final Exception e) {
+      throw new RuntimeException("Unable to lazy-load stripe objects", e);
+    }
+  }
+
+  /** Fetches the page following the given one, starting after the given cursor. */
+  private StripeCollectionInterface<T> fetchPage(
+      StripeCollectionInterface<T> previous, String cursor) throws Exception {
+    Map<String, Object> params = new HashMap<>();
+
+    // copy all the parameters from the initial request
+    Map<String, Object> previousParams = previous.getRequestParams();
+    if (previousParams != null) {
+      params.putAll(previousParams);
+    }
+
+    // then put our new page start and size in
+    params.put(cursorParam(backward), cursor);
+    Object limit = nextLimit(previous);
+    params.put("limit", limit);
+
+    long start = System.nanoTime();
+    StripeCollectionInterface<T> page =
+        list(params, previous.getRequestOptions(), interner(previous));
+    long pageNumber = requestedPages.incrementAndGet();
+    if (pageListener != null) {
+      List<T> data = page.getData();
+      pageListener.accept(
+          new PageStats(
+              path,
+              pageNumber,
+              parseLimit(limit),
+              (data != null) ? data.size() : 0,
+              responseBytes(page),
+              Duration.ofNanos(System.nanoTime() - start)));
+    }
+    return page;
+  }
+
+  /**
+   * Returns the {@code limit} of the page following the given one: the limit of the first page, or
+   * else the maximum, lowered to fit {@link #maxPageBytes} if set.
+   */
+  private Object nextLimit(StripeCollectionInterface<T> previous) {
+    Object requested = (initialParams != null) ? initialParams.get("limit") : null;
+    if (requested == null) {
+      return adaptLimit(MAX_LIMIT, previous);
+    }
+    Integer limit = parseLimit(requested);
+    if (limit == null) {
+      return requested;
+    }
+    int adapted = adaptLimit(limit, previous);
+    return (adapted == limit) ? requested : adapted;
+  }
+
+  /**
+   * Lowers the given limit to the number of objects expected to fit in {@link #maxPageBytes}, given
+   * the size of the objects of the previous page.
+   */
+  private int adaptLimit(int limit, StripeCollectionInterface<T> previous) {
+    long bytes = responseBytes(previous);
+    List<T> data = previous.getData();
+    if (maxPageBytes == 0 || bytes <= 0 || data == null || data.isEmpty()) {
+      return limit;
+    }
+    long fitting = (long) ((double) maxPageBytes * data.size() / bytes);
+    return (int) Math.max(1, Math.min(limit, fitting));
+  }
+
+  /** Returns the value of a {@code limit} param as an integer, or {@code null} if it is not one. */
+  static Integer parseLimit(Object limit) {
+    if (limit instanceof Number) {
+      return ((Number) limit).intValue();
+    }
+    try {
+      return Integer.valueOf(limit.toString());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the size of the response of the given page: the length of its body, or else its {@code
+   * Content-Length}, or {@code -1} if the response was not retained.
+   */
+  static long responseBytes(StripeObjectInterface page) {
+    StripeResponse response = page.getLastResponse();
+    if (response == null) {
+      return -1;
+    }
+    if (response.body() != null && !response.body().isEmpty()) {
+      return response.body().length();
+    }
+    try {
+      return response.headers().firstValue("Content-Length").map(Long::parseLong).orElse(-1L);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Returns whether the given params of the first page walk pages backward, i.e. set {@code
+   * ending_before} but not {@code starting_after}.
+   */
+  static boolean isBackward(Map<String, Object> params) {
+    return params != null
+        && params.get("ending_before") != null
+        && params.get("starting_after") == null;
+  }
+
+  /** Returns the param of the cursor of the next page. */
+  static String cursorParam(boolean backward) {
+    return backward ? "ending_before" : "starting_after";
+  }
+
+  /** Returns an iterator over the objects of the given page, in the order they are returned. */
+  private Iterator<T> dataIterator(StripeCollectionInterface<T> page) {
+    List<T> data = page.getData();
+    if (!backward) {
+      return data.iterator();
+    }
+    List<T> reversed = new ArrayList<>(data);
+    Collections.reverse(reversed);
+    return reversed.iterator();
+  }
+
+  /**
+   * Returns the interner of the paging session, if the expanded objects of the given page are
+   * interned across pages.
+   */
+  private static ExpandedObjectInterner interner(StripeCollectionInterface<?> page) {
+    return (page instanceof StripeCollection)
+        ? ((StripeCollection<?>) page).getExpandedObjectInterner()
+        : null;
+  }
+
   @SuppressWarnings("unchecked")
   private StripeCollectionInterface<T> list(
-      final Map<String, Object> params, final RequestOptions options) throws Exception {
-    return ApiResource.requestCollection(url, params, collectionType, options);
+      final Map<String, Object> params,
+      final RequestOptions options,
+      final ExpandedObjectInterner interner)
+      throws Exception {
+    if (interner == null) {
+      return ApiResource.requestCollection(url, params, collectionType, options);
+    }
+    ExpandedObjectInterner.Scope scope = interner.enter();
+    try {
+      return ApiResource.requestCollection(url, params, collectionType, options);
+    } finally {
+      scope.close();
+    }
+  }
+
+  /** Shared pool of daemon threads fetching pages ahead, created on first use. */
+  private static final class PrefetchExecutorHolder {
+    static final ExecutorService EXECUTOR =
+        Executors.newCachedThreadPool(
+            runnable -> {
+              Thread thread = new Thread(runnable, "stripe-paging-prefetch");
+              thread.setDaemon(true);
+              return thread;
+            });
   }
 }
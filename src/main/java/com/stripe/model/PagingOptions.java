@@ -0,0 +1,256 @@
+package com.stripe.model;
+
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Options of the auto-pagination of a collection, see {@link
+ * StripeCollection#autoPagingIterable(PagingOptions)}.
+ *
+ * <pre>{@code
+ * PagingOptions options = PagingOptions.builder().setPrefetchPages(2).build();
+ * for (Charge charge : Charge.list(params).autoPagingIterable(options)) {
+ *   ...
+ * }
+ * }</pre>
+ */
+public class PagingOptions {
+  private static final PagingOptions DEFAULT = new PagingOptions(0, null, null, null, 0, null);
+
+  private final int prefetchPages;
+  private final Executor prefetchExecutor;
+  private final CheckpointStore checkpointStore;
+  private final String checkpointKey;
+  private final long maxPageBytes;
+  private final Consumer<PageStats> pageListener;
+
+  private PagingOptions(
+      int prefetchPages,
+      Executor prefetchExecutor,
+      CheckpointStore checkpointStore,
+      String checkpointKey,
+      long maxPageBytes,
+      Consumer<PageStats> pageListener) {
+    this.prefetchPages = prefetchPages;
+    this.prefetchExecutor = prefetchExecutor;
+    this.checkpointStore = checkpointStore;
+    this.checkpointKey = checkpointKey;
+    this.maxPageBytes = maxPageBytes;
+    this.pageListener = pageListener;
+  }
+
+  /**
+   * Returns the default options, which fetch each page when the previous one has been consumed.
+   *
+   * @return the default options
+   */
+  public static PagingOptions getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns the number of pages fetched ahead of the page being consumed.
+   *
+   * @return the look-ahead depth, {@code 0} if pages are not prefetched
+   */
+  public int getPrefetchPages() {
+    return prefetchPages;
+  }
+
+  /**
+   * Returns the executor that fetches pages ahead.
+   *
+   * @return the executor, or {@code null} to use a shared pool of daemon threads
+   */
+  public Executor getPrefetchExecutor() {
+    return prefetchExecutor;
+  }
+
+  /**
+   * Returns the store in which the checkpoints of the pagination are saved.
+   *
+   * @return the store, or {@code null} if checkpoints are not saved
+   */
+  public CheckpointStore getCheckpointStore() {
+    return checkpointStore;
+  }
+
+  /**
+   * Returns the key under which the checkpoints of the pagination are saved.
+   *
+   * @return the key, or {@code null} if checkpoints are not saved
+   */
+  public String getCheckpointKey() {
+    return checkpointKey;
+  }
+
+  /**
+   * Returns the size of response the page size is adapted to.
+   *
+   * @return the size in bytes, {@code 0} if the page size is not adapted
+   */
+  public long getMaxPageBytes() {
+    return maxPageBytes;
+  }
+
+  /**
+   * Returns the listener called with the measurements of each page fetched by the pagination.
+   *
+   * @return the listener, or {@code null}
+   */
+  public Consumer<PageStats> getPageListener() {
+    return pageListener;
+  }
+
+  public static PagingOptionsBuilder builder() {
+    return new PagingOptionsBuilder();
+  }
+
+  public static final class PagingOptionsBuilder {
+    private int prefetchPages;
+    private Executor prefetchExecutor;
+    private CheckpointStore checkpointStore;
+    private String checkpointKey;
+    private long maxPageBytes;
+    private Consumer<PageStats> pageListener;
+
+    public int getPrefetchPages() {
+      return prefetchPages;
+    }
+
+    /**
+     * Sets the number of pages fetched ahead of the page being consumed. As soon as a page is
+     * received, the request for the following one is issued in the background, until this many
+     * pages are buffered. Pages are still requested one after the other, since each request starts
+     * after the last ID of the previous page, so a depth of {@code 1} is enough to overlap the
+     * requests with the processing of the objects; a larger depth absorbs variations of latency at
+     * the cost of keeping more pages in memory.
+     *
+     * @param prefetchPages the look-ahead depth, {@code 0} (the default) to disable prefetching
+     * @return this builder
+     */
+    public PagingOptionsBuilder setPrefetchPages(int prefetchPages) {
+      if (prefetchPages < 0) {
+        throw new IllegalArgumentException("prefetchPages must not be negative.");
+      }
+      this.prefetchPages = prefetchPages;
+      return this;
+    }
+
+    public Executor getPrefetchExecutor() {
+      return prefetchExecutor;
+    }
+
+    /**
+     * Sets the executor that fetches pages ahead. By default, pages are fetched by a shared pool of
+     * daemon threads.
+     *
+     * @param prefetchExecutor the executor
+     * @return this builder
+     */
+    public PagingOptionsBuilder setPrefetchExecutor(Executor prefetchExecutor) {
+      this.prefetchExecutor = prefetchExecutor;
+      return this;
+    }
+
+    public PagingOptionsBuilder clearPrefetchExecutor() {
+      this.prefetchExecutor = null;
+      return this;
+    }
+
+    public CheckpointStore getCheckpointStore() {
+      return checkpointStore;
+    }
+
+    public String getCheckpointKey() {
+      return checkpointKey;
+    }
+
+    /**
+     * Sets the store in which a {@link PagingCheckpoint checkpoint} of the pagination is saved
+     * under the given key each time a new page is needed, i.e. once the objects of the previous
+     * page have been returned and the caller has asked for the following one. A pagination that
+     * starts from the resume params of the checkpoint saved under the same key carries on its page
+     * and object counts.
+     *
+     * <p>With a parallel stream, a checkpoint only guarantees that the objects of the previous
+     * pages have been handed out, not that they have been processed.
+     *
+     * @param checkpointStore the store
+     * @param checkpointKey the key of the pagination in the store
+     * @return this builder
+     */
+    public PagingOptionsBuilder setCheckpointStore(
+        CheckpointStore checkpointStore, String checkpointKey) {
+      if (checkpointStore == null || checkpointKey == null) {
+        throw new IllegalArgumentException("checkpointStore and checkpointKey must not be null.");
+      }
+      this.checkpointStore = checkpointStore;
+      this.checkpointKey = checkpointKey;
+      return this;
+    }
+
+    public PagingOptionsBuilder clearCheckpointStore() {
+      this.checkpointStore = null;
+      this.checkpointKey = null;
+      return this;
+    }
+
+    public long getMaxPageBytes() {
+      return maxPageBytes;
+    }
+
+    /**
+     * Sets the size of response the page size is adapted to. The {@code limit} of each page is
+     * lowered, from the {@code limit} of the first page or the maximum of {@code 100}, to the
+     * number of objects expected to fit in this many bytes, given the size of the objects of the
+     * previous page. This caps the memory and latency of each page of objects with heavy
+     * expansions, at the cost of more requests.
+     *
+     * <p>The size of a page is only known if its response is retained, i.e. with a {@link
+     * com.stripe.net.ResponseRetentionPolicy#FULL} policy or a {@code Content-Length} header.
+     *
+     * @param maxPageBytes the size in bytes, {@code 0} (the default) to always request full pages
+     * @return this builder
+     */
+    public PagingOptionsBuilder setMaxPageBytes(long maxPageBytes) {
+      if (maxPageBytes < 0) {
+        throw new IllegalArgumentException("maxPageBytes must not be negative.");
+      }
+      this.maxPageBytes = maxPageBytes;
+      return this;
+    }
+
+    public Consumer<PageStats> getPageListener() {
+      return pageListener;
+    }
+
+    /**
+     * Sets a listener called with the measurements of each page fetched by the pagination, once it
+     * has been received and deserialized. With prefetching, the listener is called on the thread
+     * that fetched the page.
+     *
+     * @param pageListener the listener
+     * @return this builder
+     */
+    public PagingOptionsBuilder setPageListener(Consumer<PageStats> pageListener) {
+      this.pageListener = pageListener;
+      return this;
+    }
+
+    public PagingOptionsBuilder clearPageListener() {
+      this.pageListener = null;
+      return this;
+    }
+
+    public PagingOptions build() {
+      return new PagingOptions(
+          prefetchPages,
+          prefetchExecutor,
+          checkpointStore,
+          checkpointKey,
+          maxPageBytes,
+          pageListener);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.stripe.model;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over all the objects of a collection across API pages, which splits off one
+ * page at a time.
+ *
+ * <p>Pages are still fetched one after the other, in order, by whichever thread holds this
+ * spliterator. Each page that is split off is a sized chunk which can in turn be split further, so
+ * that a parallel stream processes the objects of the pages already received on several cores while
+ * the following pages are being fetched.
+ */
+class PagingSpliterator<T extends HasId> implements Spliterator<T> {
+  private final PagingIterator<T> pages;
+
+  /** The remaining objects of the page being traversed, or {@code null} before the first one. */
+  private Spliterator<T> currentPage;
+
+  PagingSpliterator(final StripeCollectionInterface<T> page, final PagingOptions options) {
+    this.pages = new PagingIterator<>(page, options);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    while (currentPage == null || !currentPage.tryAdvance(action)) {
+      if (!pages.hasNext()) {
+        return false;
+      }
+      currentPage = pages.nextPage().spliterator();
+    }
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super T> action) {
+    if (currentPage != null) {
+      currentPage.forEachRemaining(action);
+    }
+    while (pages.hasNext()) {
+      pages.nextPage().forEach(action);
+    }
+    currentPage = null;
+  }
+
+  /**
+   * Splits off the remaining objects of the current page, or the next page if the current one has
+   * been traversed.
+   */
+  @Override
+  public Spliterator<T> trySplit() {
+    if (currentPage != null && currentPage.estimateSize() > 0) {
+      Spliterator<T> prefix = currentPage;
+      currentPage = null;
+      return prefix;
+    }
+    if (!pages.hasNext()) {
+      return null;
+    }
+    List<T> page = pages.nextPage();
+    currentPage = null;
+    return page.spliterator();
+  }
+
+  /** Returns an unknown size while there are pages left to fetch. */
+  @Override
+  public long estimateSize() {
+    if (pages.hasNext()) {
+      return Long.MAX_VALUE;
+    }
+    return (currentPage != null) ? currentPage.estimateSize() : 0;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+}
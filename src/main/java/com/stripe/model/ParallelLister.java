@@ -0,0 +1,500 @@
+package com.stripe.model;
+
+import com.stripe.exception.StripeException;
+import com.stripe.net.RequestOptions;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Lists the objects created in a time range by listing disjoint windows of the range in parallel.
+ *
+ * <p>List endpoints are paginated with cursors, so {@link StripeCollection#autoPagingIterable()}
+ * fetches one page after the other. This lister instead splits a {@code created[gte]} to {@code
+ * created[lt]} range into windows and lists several of them at once, each window being paginated on
+ * its own like by auto-pagination, 100 objects per page unless another {@code limit} is set. The
+ * windows adapt to the density of the objects: whenever a worker is idle, the window of another
+ * worker is split at the creation time of the last object it received, and the older half is handed
+ * over to the idle worker.
+ *
+ * <pre>{@code
+ * ParallelLister<Charge> lister =
+ *     ParallelLister.builder(Charge::list, Charge::getCreated)
+ *         .setCreatedRange(start.getEpochSecond(), end.getEpochSecond())
+ *         .setParallelism(8)
+ *         .build();
+ * for (Charge charge : lister) {
+ *   ...
+ * }
+ * }</pre>
+ *
+ * <p>Any list method whose params support the {@code created} filter can be used. By default, the
+ * objects are returned in no particular order, as soon as they are received; with {@link
+ * Builder#setOrdered(boolean)}, they are returned in the order of the API, newest first, at the
+ * cost of buffering the windows that are ahead of the one being consumed. In both cases the number
+ * of objects buffered is bounded by {@link Builder#setBufferSize(int)}, per window when ordered.
+ *
+ * <p>An iteration that is not run to completion should be {@link ListingIterator#close() closed} to
+ * stop its workers.
+ */
+public final class ParallelLister<T extends HasId> implements Iterable<T> {
+  /** Windows are not split if they span fewer seconds, as they would not be disjoint. */
+  private static final long MIN_SPLIT_SECONDS = 2;
+
+  private static final long POLL_MILLIS = 100;
+
+  private static final Object WINDOW_END = new Object();
+
+  private static final Object LISTING_END = new Object();
+
+  private final ListMethod<T> listMethod;
+  private final Function<? super T, Long> createdGetter;
+  private final long createdGte;
+  private final long createdLt;
+  private final Map<String, Object> params;
+  private final RequestOptions requestOptions;
+  private final int parallelism;
+  private final boolean ordered;
+  private final int bufferSize;
+  private final Executor executor;
+
+  private ParallelLister(Builder<T> builder) {
+    this.listMethod = builder.listMethod;
+    this.createdGetter = builder.createdGetter;
+    this.createdGte = builder.createdGte;
+    this.createdLt = builder.createdLt;
+    this.params = builder.params;
+    this.requestOptions = builder.requestOptions;
+    this.parallelism = builder.parallelism;
+    this.ordered = builder.ordered;
+    this.bufferSize = builder.bufferSize;
+    this.executor = builder.executor;
+  }
+
+  /**
+   * Returns a builder of a lister.
+   *
+   * @param listMethod the list method, e.g. {@code Charge::list}
+   * @param createdGetter the getter of the creation time of the listed objects, e.g. {@code
+   *     Charge::getCreated}
+   * @param <T> the type of the listed objects
+   * @return the builder
+   */
+  public static <T extends HasId> Builder<T> builder(
+      ListMethod<T> listMethod, Function<? super T, Long> createdGetter) {
+    return new Builder<>(listMethod, createdGetter);
+  }
+
+  /**
+   * Starts listing the objects of the range.
+   *
+   * @return an iterator over the objects, which must be closed if it is not run to completion
+   */
+  @Override
+  public ListingIterator iterator() {
+    ListingIterator iterator = new ListingIterator();
+    iterator.start();
+    return iterator;
+  }
+
+  /** A window of the range, listed by a single worker at a time. */
+  private final class Window {
+    /** Lower bound of the window, raised when the window is split. Guarded by the listing. */
+    long gte;
+
+    final long lt;
+
+    /** Queue of the objects of the window when ordered. */
+    final BlockingQueue<Object> queue;
+
+    /** The following, older, window when ordered. Guarded by the listing. */
+    Window next;
+
+    Window(long gte, long lt, BlockingQueue<Object> queue) {
+      this.gte = gte;
+      this.lt = lt;
+      this.queue = queue;
+    }
+  }
+
+  /** An iteration over the objects of the range, which runs the workers listing the windows. */
+  public final class ListingIterator implements Iterator<T>, AutoCloseable {
+    private final Deque<Window> pendingWindows = new ArrayDeque<>();
+    private final BlockingQueue<Object> sharedQueue;
+    private int activeWindows;
+    private int idleWorkers;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    /** The window being consumed when ordered. */
+    private Window currentWindow;
+
+    private Object nextObject;
+    private boolean done;
+
+    private ListingIterator() {
+      this.sharedQueue = ordered ? null : new ArrayBlockingQueue<>(bufferSize);
+
+      long span = createdLt - createdGte;
+      int count = (int) Math.max(1, Math.min(parallelism, span / MIN_SPLIT_SECONDS));
+      Window previous = null;
+      for (int i = 0; i < count; i++) {
+        // Windows are created newest first, which is the order of the API.
+        long lt = createdLt - span * i / count;
+        long gte = createdLt - span * (i + 1) / count;
+        Window window = new Window(gte, lt, ordered ? new ArrayBlockingQueue<>(bufferSize) : null);
+        if (previous == null) {
+          this.currentWindow = window;
+        } else {
+          previous.next = window;
+        }
+        previous = window;
+        this.pendingWindows.add(window);
+      }
+    }
+
+    private void start() {
+      for (int i = 0; i < parallelism; i++) {
+        Runnable worker = this::work;
+        if (executor != null) {
+          executor.execute(worker);
+        } else {
+          Thread thread = new Thread(worker, "stripe-parallel-lister");
+          thread.setDaemon(true);
+          thread.start();
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (nextObject == null && !done) {
+        nextObject = take();
+        done = (nextObject == null);
+      }
+      return !done;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      T object = (T) nextObject;
+      nextObject = null;
+      return object;
+    }
+
+    /**
+     * Stops the workers. The iterator still returns the objects that were already buffered, then
+     * ends; the objects that are being listed are discarded.
+     */
+    @Override
+    public void close() {
+      closed = true;
+      synchronized (this) {
+        notifyAll();
+      }
+    }
+
+    /**
+     * Returns the next object, or {@code null} once all windows have been listed or once the
+     * iterator is closed and its buffer is drained.
+     */
+    private Object take() {
+      try {
+        while (true) {
+          BlockingQueue<Object> queue = ordered ? currentWindow.queue : sharedQueue;
+          Object object = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+          if (failure != null) {
+            close();
+            throw new RuntimeException("Unable to lazy-load stripe objects", failure);
+          }
+          if (object == LISTING_END) {
+            return null;
+          } else if (object == WINDOW_END) {
+            synchronized (this) {
+              currentWindow = currentWindow.next;
+            }
+            if (currentWindow == null) {
+              return null;
+            }
+          } else if (object != null) {
+            return object;
+          } else if (closed) {
+            return null;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        close();
+        throw new RuntimeException("Interrupted while listing stripe objects", e);
+      }
+    }
+
+    private void work() {
+      try {
+        Window window;
+        while ((window = nextWindow()) != null) {
+          listWindow(window);
+          windowDone();
+        }
+      } catch (CancellationException e) {
+        // The iteration was closed.
+      } catch (Throwable e) {
+        if (failure == null) {
+          failure = e;
+        }
+        close();
+      }
+    }
+
+    /** Waits for a window to list, or returns {@code null} once all windows are listed. */
+    private synchronized Window nextWindow() throws InterruptedException {
+      idleWorkers++;
+      try {
+        while (pendingWindows.isEmpty() && activeWindows > 0 && !closed) {
+          wait(POLL_MILLIS);
+        }
+      } finally {
+        idleWorkers--;
+      }
+      if (closed || pendingWindows.isEmpty()) {
+        return null;
+      }
+      activeWindows++;
+      return pendingWindows.poll();
+    }
+
+    private void windowDone() throws InterruptedException {
+      boolean last;
+      synchronized (this) {
+        activeWindows--;
+        last = (activeWindows == 0 && pendingWindows.isEmpty());
+        notifyAll();
+      }
+      if (last && !ordered) {
+        put(sharedQueue, LISTING_END);
+      }
+    }
+
+    /**
+     * Lists the objects of a window with auto-pagination. Whenever the window is split, the
+     * following pages are requested with its raised lower bound.
+     */
+    private void listWindow(Window window) throws StripeException, InterruptedException {
+      BlockingQueue<Object> queue = ordered ? window.queue : sharedQueue;
+      PagingIterator<T> pages =
+          new PagingIterator<>(listMethod.list(windowParams(window), requestOptions));
+      StripeCollectionInterface<T> page;
+      while (!closed && (page = pages.nextCollection()) != null) {
+        List<T> data = page.getData();
+        for (T object : data) {
+          put(queue, object);
+        }
+        if (data.isEmpty() || !Boolean.TRUE.equals(page.getHasMore())) {
+          break;
+        }
+
+        Long lastCreated = createdGetter.apply(data.get(data.size() - 1));
+        if (lastCreated != null && split(window, lastCreated)) {
+          page.setRequestParams(windowParams(window));
+        }
+      }
+      if (ordered) {
+        put(queue, WINDOW_END);
+      }
+    }
+
+    /**
+     * Returns the params listing the objects of a window, with the maximum {@code limit} unless
+     * another one is set.
+     */
+    private Map<String, Object> windowParams(Window window) {
+      Map<String, Object> created = new HashMap<>();
+      synchronized (this) {
+        created.put("gte", window.gte);
+      }
+      created.put("lt", window.lt);
+
+      Map<String, Object> windowParams = new HashMap<>();
+      if (params != null) {
+        windowParams.putAll(params);
+      }
+      windowParams.putIfAbsent("limit", PagingIterator.MAX_LIMIT);
+      windowParams.put("created", created);
+      return windowParams;
+    }
+
+    /**
+     * Hands over the part of the window older than the remaining objects to an idle worker, if any.
+     * The window keeps listing after its last object from the middle of its remaining span, and the
+     * new window lists the older half.
+     *
+     * @return whether the window was split
+     */
+    private synchronized boolean split(Window window, long lastCreated) {
+      if (idleWorkers == 0 || !pendingWindows.isEmpty()) {
+        return false;
+      }
+      long remaining = lastCreated - window.gte;
+      if (remaining < MIN_SPLIT_SECONDS) {
+        return false;
+      }
+      long middle = window.gte + remaining / 2;
+      Window older =
+          new Window(window.gte, middle, ordered ? new ArrayBlockingQueue<>(bufferSize) : null);
+      window.gte = middle;
+      older.next = window.next;
+      window.next = older;
+      pendingWindows.add(older);
+      notifyAll();
+      return true;
+    }
+
+    private void put(BlockingQueue<Object> queue, Object object) throws InterruptedException {
+      while (!queue.offer(object, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+        if (closed) {
+          throw new CancellationException();
+        }
+      }
+    }
+  }
+
+  /**
+   * Builder of a {@link ParallelLister}.
+   *
+   * @param <T> the type of the listed objects
+   */
+  public static final class Builder<T extends HasId> {
+    private final ListMethod<T> listMethod;
+    private final Function<? super T, Long> createdGetter;
+    private long createdGte;
+    private long createdLt = -1;
+    private Map<String, Object> params;
+    private RequestOptions requestOptions;
+    private int parallelism = 4;
+    private boolean ordered;
+    private int bufferSize = 1000;
+    private Executor executor;
+
+    private Builder(ListMethod<T> listMethod, Function<? super T, Long> createdGetter) {
+      if (listMethod == null || createdGetter == null) {
+        throw new IllegalArgumentException("listMethod and createdGetter must not be null.");
+      }
+      this.listMethod = listMethod;
+      this.createdGetter = createdGetter;
+    }
+
+    /**
+     * Sets the range of creation times of the listed objects. Required.
+     *
+     * @param gte the start of the range, inclusive, in seconds since the epoch
+     * @param lt the end of the range, exclusive, in seconds since the epoch
+     * @return this builder
+     */
+    public Builder<T> setCreatedRange(long gte, long lt) {
+      if (gte < 0 || lt <= gte) {
+        throw new IllegalArgumentException("The created range must be non-empty.");
+      }
+      this.createdGte = gte;
+      this.createdLt = lt;
+      return this;
+    }
+
+    /**
+     * Sets the params of the list requests, e.g. {@code limit}, except {@code created}, {@code
+     * starting_after} and {@code ending_before} which are set by the lister.
+     *
+     * @param params the params
+     * @return this builder
+     */
+    public Builder<T> setParams(Map<String, Object> params) {
+      if (params != null
+          && (params.containsKey("created")
+              || params.containsKey("starting_after")
+              || params.containsKey("ending_before"))) {
+        throw new IllegalArgumentException(
+            "The created, starting_after and ending_before params are set by the lister.");
+      }
+      this.params = params;
+      return this;
+    }
+
+    public Builder<T> setRequestOptions(RequestOptions requestOptions) {
+      this.requestOptions = requestOptions;
+      return this;
+    }
+
+    /**
+     * Sets the number of windows listed at once. Defaults to 4.
+     *
+     * @param parallelism the number of workers
+     * @return this builder
+     */
+    public Builder<T> setParallelism(int parallelism) {
+      if (parallelism <= 0) {
+        throw new IllegalArgumentException("parallelism must be positive.");
+      }
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * Sets whether the objects are returned in the order of the API, newest first. Defaults to
+     * {@code false}, in which case they are returned as soon as they are received.
+     *
+     * @param ordered whether the objects are ordered
+     * @return this builder
+     */
+    public Builder<T> setOrdered(boolean ordered) {
+      this.ordered = ordered;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of objects buffered, per window when ordered. Workers wait when the
+     * buffer is full. Defaults to 1000.
+     *
+     * @param bufferSize the maximum number of buffered objects
+     * @return this builder
+     */
+    public Builder<T> setBufferSize(int bufferSize) {
+      if (bufferSize <= 0) {
+        throw new IllegalArgumentException("bufferSize must be positive.");
+      }
+      this.bufferSize = bufferSize;
+      return this;
+    }
+
+    /**
+     * Sets the executor running the workers. By default, each iteration starts its own daemon
+     * threads. The executor must be able to run as many workers at once as the parallelism.
+     *
+     * @param executor the executor
+     * @return this builder
+     */
+    public Builder<T> setExecutor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    public ParallelLister<T> build() {
+      if (createdLt < 0) {
+        throw new IllegalStateException("The created range must be set.");
+      }
+      return new ParallelLister<>(this);
+    }
+  }
+}
@@ -25,26 +25,26 @@ public class PaymentSourceTypeAdapterFactory implements TypeAdapterFactory {
     }
     final String discriminator = "object";
     final TypeAdapter<JsonElement> jsonElementAdapter = gson.getAdapter(JsonElement.class);
-    final TypeAdapter<com.stripe.model.PaymentSource> paymentSourceAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.PaymentSource.class));
-    final TypeAdapter<com.stripe.model.Account> accountAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.Account.class));
-    final TypeAdapter<com.stripe.model.AlipayAccount> alipayAccountAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.AlipayAccount.class));
-    final TypeAdapter<com.stripe.model.BankAccount> bankAccountAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.BankAccount.class));
-    final TypeAdapter<com.stripe.model.BitcoinReceiver> bitcoinReceiverAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.BitcoinReceiver.class));
-    final TypeAdapter<com.stripe.model.Card> cardAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.Card.class));
-    final TypeAdapter<com.stripe.model.Source> sourceAdapter =
-        gson.getDelegateAdapter(this, TypeToken.get(com.stripe.model.Source.class));
+    final LazyDelegateAdapter<com.stripe.model.PaymentSource> paymentSourceAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.PaymentSource.class);
+    final LazyDelegateAdapter<com.stripe.model.Account> accountAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.Account.class);
+    final LazyDelegateAdapter<com.stripe.model.AlipayAccount> alipayAccountAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.AlipayAccount.class);
+    final LazyDelegateAdapter<com.stripe.model.BankAccount> bankAccountAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.BankAccount.class);
+    final LazyDelegateAdapter<com.stripe.model.BitcoinReceiver> bitcoinReceiverAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.BitcoinReceiver.class);
+    final LazyDelegateAdapter<com.stripe.model.Card> cardAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.Card.class);
+    final LazyDelegateAdapter<com.stripe.model.Source> sourceAdapter =
+        new LazyDelegateAdapter<>(gson, this, com.stripe.model.Source.class);
 
     TypeAdapter<PaymentSource> resultCustomTypeAdapter =
         new TypeAdapter<PaymentSource>() {
           @Override
           public void write(JsonWriter out, PaymentSource value) throws IOException {
-            paymentSourceAdapter.write(out, value);
+            paymentSourceAdapter.get().write(out, value);
           }
 
           @Override
@@ -53,17 +53,17 @@ public class PaymentSourceTypeAdapterFactory implements TypeAdapterFactory {
             PaymentSource objectResult;
             String objectType = object.getAsJsonPrimitive(discriminator).getAsString();
             if ("account".equals(objectType)) {
-              objectResult = accountAdapter.fromJsonTree(object);
+              objectResult = accountAdapter.get().fromJsonTree(object);
             } else if ("alipay_account".equals(objectType)) {
-              objectResult = alipayAccountAdapter.fromJsonTree(object);
+              objectResult = alipayAccountAdapter.get().fromJsonTree(object);
             } else if ("bank_account".equals(objectType)) {
-              objectResult = bankAccountAdapter.fromJsonTree(object);
+              objectResult = bankAccountAdapter.get().fromJsonTree(object);
             } else if ("bitcoin_receiver".equals(objectType)) {
-              objectResult = bitcoinReceiverAdapter.fromJsonTree(object);
+              objectResult = bitcoinReceiverAdapter.get().fromJsonTree(object);
             } else if ("card".equals(objectType)) {
-              objectResult = cardAdapter.fromJsonTree(object);
+              objectResult = cardAdapter.get().fromJsonTree(object);
             } else if ("source".equals(objectType)) {
-              objectResult = sourceAdapter.fromJsonTree(object);
+              objectResult = sourceAdapter.get().fromJsonTree(object);
             } else {
               String id = object.getAsJsonPrimitive("id").getAsString();
               objectResult = new UnknownSubType(id, objectType, object.toString());
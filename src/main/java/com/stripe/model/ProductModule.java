@@ -0,0 +1,88 @@
+package com.stripe.model;
+
+import com.google.gson.TypeAdapterFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registers the models of a product area, such as {@code issuing} or {@code terminal}, with the
+ * library.
+ *
+ * <p>Modules are discovered with {@link java.util.ServiceLoader}: each implementation is listed in
+ * a {@code META-INF/services/com.stripe.model.ProductModule} resource next to its classes. This
+ * lets the models of a product area live in their own artifact, and be left off the classpath of
+ * services that do not use them.
+ *
+ * <p>A shaded or fat jar must merge the {@code META-INF/services} resources of the artifacts it
+ * bundles, e.g. with the {@code ServicesResourceTransformer} of the Maven Shade plugin or {@code
+ * mergeServiceFiles()} of the Gradle Shadow plugin. When the service configuration of this library
+ * is lost anyway, the modules of the product areas bundled with it are still loaded by class name,
+ * if they are on the classpath.
+ */
+public interface ProductModule {
+  /**
+   * Returns the classes of the objects of this product area that can be the data of an event, by
+   * the value of their {@code object} field. Classes are given by name so that they are only loaded
+   * when an event about them is first deserialized.
+   *
+   * @return the fully qualified class names, by {@code object} value
+   */
+  default Map<String, String> getEventDataClassNames() {
+    return Collections.emptyMap();
+  }
+
+  /**
+   * Returns the type adapter factories needed to deserialize the models of this product area, such
+   * as those of polymorphic fields.
+   *
+   * @return the type adapter factories
+   */
+  default List<TypeAdapterFactory> getTypeAdapterFactories() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Returns the modules found by {@link ServiceLoader}, followed by the modules of the product
+   * areas bundled with the library that are on the classpath but were not found by it.
+   *
+   * @param classLoader the class loader used to find modules
+   * @return the modules, each listed once
+   */
+  static List<ProductModule> loadAll(ClassLoader classLoader) {
+    Map<String, ProductModule> modules = new LinkedHashMap<>();
+    for (ProductModule module : ServiceLoader.load(ProductModule.class, classLoader)) {
+      modules.putIfAbsent(module.getClass().getName(), module);
+    }
+    for (String className :
+        Arrays.asList(
+            "com.stripe.model.billingportal.BillingPortalModule",
+            "com.stripe.model.checkout.CheckoutModule",
+            "com.stripe.model.issuing.IssuingModule",
+            "com.stripe.model.radar.RadarModule",
+            "com.stripe.model.reporting.ReportingModule",
+            "com.stripe.model.sigma.SigmaModule",
+            "com.stripe.model.terminal.TerminalModule")) {
+      if (modules.containsKey(className)) {
+        continue;
+      }
+      try {
+        modules.put(
+            className,
+            Class.forName(className, true, classLoader)
+                .asSubclass(ProductModule.class)
+                .getDeclaredConstructor()
+                .newInstance());
+      } catch (ClassNotFoundException e) {
+        // The product area was left off the classpath.
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Unable to create product module " + className, e);
+      }
+    }
+    return new ArrayList<>(modules.values());
+  }
+}
@@ -3,6 +3,8 @@ package com.stripe.model;
 import com.stripe.net.RequestOptions;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -31,6 +33,18 @@ import lombok.Setter;
  *   System.out.println("Current invoice = " + invoice.toString());
  * }
  * }</pre>
+ *
+ * <p>If the initial list request sets {@code ending_before}, the helper instead walks toward the
+ * newest object and returns the objects oldest first, e.g. to poll for the events that occurred
+ * after the last one processed:
+ *
+ * <pre>{@code
+ * params.put("ending_before", lastEventId);
+ * for (Event event : Event.list(params).autoPagingIterable()) {
+ *   process(event);
+ *   lastEventId = event.getId();
+ * }
+ * }</pre>
  */
 @Getter
 @Setter
@@ -48,13 +62,23 @@ public abstract class StripeCollection<T extends HasId> extends StripeObject
   @Getter(onMethod_ = {@Override})
   String url;
 
+  /**
+   * The options of the request that returned the collection, also set on the collections embedded
+   * in other objects. Transient so that API keys are never serialized.
+   */
   @Getter(onMethod_ = {@Override})
   @Setter(onMethod = @__({@Override}))
-  private RequestOptions requestOptions;
+  private transient RequestOptions requestOptions;
 
   @Getter(onMethod_ = {@Override})
   @Setter(onMethod = @__({@Override}))
-  private Map<String, Object> requestParams;
+  private transient Map<String, Object> requestParams;
+
+  /**
+   * The interner shared by the pages of the collection when its expanded objects are interned
+   * across a {@link com.stripe.net.ExpansionInterning#PAGING_SESSION paging session}.
+   */
+  @EqualsAndHashCode.Exclude private transient ExpandedObjectInterner expandedObjectInterner;
 
   public Iterable<T> autoPagingIterable() {
     return new PagingIterable<>(this);
@@ -78,4 +102,66 @@ public abstract class StripeCollection<T extends HasId> extends StripeObject
     this.setRequestParams(params);
     return new PagingIterable<>(this);
   }
+
+  /**
+   * Constructs an iterable that can be used to iterate across all objects across all pages, with
+   * the given paging options, e.g. to fetch pages ahead of the one being consumed.
+   *
+   * @param pagingOptions paging options
+   */
+  public Iterable<T> autoPagingIterable(PagingOptions pagingOptions) {
+    return new PagingIterable<>(this, pagingOptions);
+  }
+
+  /**
+   * Constructs an iterable that can be used to iterate across all objects across all pages, with
+   * the given paging options.
+   *
+   * @param params request parameters (will override the parameters from the initial list request)
+   * @param options request options (will override the options from the initial list request)
+   * @param pagingOptions paging options
+   */
+  public Iterable<T> autoPagingIterable(
+      Map<String, Object> params, RequestOptions options, PagingOptions pagingOptions) {
+    this.setRequestOptions(options);
+    this.setRequestParams(params);
+    return new PagingIterable<>(this, pagingOptions);
+  }
+
+  /**
+   * Constructs a stream of all objects across all pages. As page boundaries are encountered, the
+   * next page will be fetched automatically.
+   *
+   * <p>The stream is sequential. A {@link Stream#parallel() parallel} stream still fetches the
+   * pages one after the other, but processes the objects of the pages already received on several
+   * threads, which pays off when the processing of each object is expensive.
+   */
+  public Stream<T> autoPagingStream() {
+    return autoPagingStream(PagingOptions.getDefault());
+  }
+
+  /**
+   * Constructs a stream of all objects across all pages.
+   *
+   * @param params request parameters (will override the parameters from the initial list request)
+   * @param options request options (will override the options from the initial list request)
+   */
+  public Stream<T> autoPagingStream(Map<String, Object> params, RequestOptions options) {
+    this.setRequestOptions(options);
+    this.setRequestParams(params);
+    return autoPagingStream();
+  }
+
+  /**
+   * Constructs a stream of all objects across all pages, with the given paging options, e.g. to
+   * fetch pages ahead of the one being processed.
+   *
+   * @param pagingOptions paging options
+   */
+  public Stream<T> autoPagingStream(PagingOptions pagingOptions) {
+    return StreamSupport.stream(
+        new PagingSpliterator<>(
+            this, (pagingOptions != null) ? pagingOptions : PagingOptions.getDefault()),
+        false);
+  }
 }
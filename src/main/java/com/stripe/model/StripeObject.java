@@ -3,32 +3,96 @@ package com.stripe.model;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
+import com.stripe.Stripe;
 import com.stripe.net.ApiResource;
 import com.stripe.net.StripeResponse;
+import java.io.StringWriter;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
 
 public abstract class StripeObject implements StripeObjectInterface {
-  public static final Gson PRETTY_PRINT_GSON =
-      new GsonBuilder()
-          .setPrettyPrinting()
-          .serializeNulls()
-          .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
-          .registerTypeAdapter(ExpandableField.class, new ExpandableFieldSerializer())
-          .create();
+  public static final Gson PRETTY_PRINT_GSON = createGsonBuilder().setPrettyPrinting().create();
+
+  private static final Gson COMPACT_GSON = createGsonBuilder().create();
+
+  /** JSON names of the fields included in the summary {@link #toString()}, besides the ID. */
+  private static final String[] SUMMARY_FIELD_NAMES = {
+    "object", "type", "status", "amount", "currency", "customer"
+  };
+
+  /** Maximum length of the values included in the summary {@link #toString()}. */
+  private static final int SUMMARY_MAX_VALUE_LENGTH = 64;
+
+  /** The fields included in the summary {@link #toString()} of each class. */
+  private static final ClassValue<SummaryField[]> SUMMARY_FIELDS =
+      new ClassValue<SummaryField[]>() {
+        @Override
+        protected SummaryField[] computeValue(Class<?> clazz) {
+          List<SummaryField> fields = new ArrayList<>();
+          for (String name : SUMMARY_FIELD_NAMES) {
+            MethodHandle getter = findGetter(clazz, toFieldName(name));
+            if (getter != null) {
+              fields.add(new SummaryField(name, getter));
+            }
+          }
+          return fields.toArray(new SummaryField[0]);
+        }
+      };
+
+  /** The getter of the {@code id} field of each class that does not implement {@link HasId}. */
+  private static final ClassValue<MethodHandle> ID_GETTERS =
+      new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> clazz) {
+          return findGetter(clazz, "id");
+        }
+      };
 
   private transient StripeResponse lastResponse;
 
   private transient JsonObject rawJsonObject;
 
+  /**
+   * Returns a short summary of the object: its class, ID and a few key fields such as its status,
+   * amount and currency. The summary has a bounded length, and is cheap enough to be logged.
+   *
+   * <p>When {@link Stripe#setFullToString(boolean) full toString} is enabled, the whole object is
+   * pretty-printed as JSON after its class and ID instead, as in previous versions of the library.
+   *
+   * @return a string representation of the object
+   */
   @Override
   public String toString() {
-    return String.format(
-        "<%s@%s id=%s> JSON: %s",
-        this.getClass().getName(),
-        System.identityHashCode(this),
-        this.getIdString(),
-        PRETTY_PRINT_GSON.toJson(this));
+    if (Stripe.getFullToString()) {
+      return String.format(
+          "<%s@%s id=%s> JSON: %s",
+          this.getClass().getName(),
+          System.identityHashCode(this),
+          this.getIdString(),
+          PRETTY_PRINT_GSON.toJson(this));
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append('<')
+        .append(this.getClass().getName())
+        .append('@')
+        .append(System.identityHashCode(this))
+        .append(" id=")
+        .append(this.getIdString());
+    for (SummaryField field : SUMMARY_FIELDS.get(this.getClass())) {
+      Object value = summaryValue(field.getter);
+      if (value != null) {
+        sb.append(' ').append(field.name).append('=').append(value);
+      }
+    }
+    return sb.append('>').toString();
   }
 
   @Override
@@ -62,23 +126,133 @@ public abstract class StripeObject implements StripeObjectInterface {
     return this.rawJsonObject;
   }
 
+  /**
+   * Returns the compact JSON representation of the object.
+   *
+   * @return the JSON representation
+   */
   public String toJson() {
+    StringWriter writer = new StringWriter();
+    writeJson(writer);
+    return writer.toString();
+  }
+
+  /**
+   * Returns the pretty-printed JSON representation of the object.
+   *
+   * @return the pretty-printed JSON representation
+   */
+  public String toPrettyJson() {
     return PRETTY_PRINT_GSON.toJson(this);
   }
 
+  /**
+   * Writes the compact JSON representation of the object, without building it in memory first.
+   *
+   * @param out the writer to write to
+   * @throws JsonIOException if writing fails
+   */
+  public void writeJson(Appendable out) {
+    COMPACT_GSON.toJson(this, this.getClass(), out);
+  }
+
   private Object getIdString() {
-    try {
-      Field idField = this.getClass().getDeclaredField("id");
-      return idField.get(this);
-    } catch (SecurityException e) {
-      return "";
-    } catch (NoSuchFieldException e) {
-      return "";
-    } catch (IllegalArgumentException e) {
-      return "";
-    } catch (IllegalAccessException e) {
+    if (this instanceof HasId) {
+      return ((HasId) this).getId();
+    }
+    MethodHandle idGetter = ID_GETTERS.get(this.getClass());
+    if (idGetter == null) {
       return "";
     }
+    return get(idGetter);
+  }
+
+  /** Reads a field of this object with its getter, see {@link #findGetter(Class, String)}. */
+  private Object get(MethodHandle getter) {
+    try {
+      return (Object) getter.invokeExact(this);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      // Field getters do not throw checked exceptions
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Object summaryValue(MethodHandle getter) {
+    Object value = get(getter);
+    if (value instanceof ExpandableField) {
+      value = ((ExpandableField<?>) value).getId();
+    }
+    if (value instanceof String) {
+      String str = (String) value;
+      return (str.length() > SUMMARY_MAX_VALUE_LENGTH)
+          ? str.substring(0, SUMMARY_MAX_VALUE_LENGTH) + "..."
+          : str;
+    }
+    if (value instanceof Number || value instanceof Boolean || value instanceof Enum) {
+      return value;
+    }
+    return null;
+  }
+
+  private static GsonBuilder createGsonBuilder() {
+    return new GsonBuilder()
+        .serializeNulls()
+        .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+        .registerTypeAdapter(ExpandableField.class, new ExpandableFieldSerializer());
+  }
+
+  private static String toFieldName(String jsonName) {
+    StringBuilder sb = new StringBuilder(jsonName.length());
+    boolean upper = false;
+    for (int i = 0; i < jsonName.length(); i++) {
+      char c = jsonName.charAt(i);
+      if (c == '_') {
+        upper = true;
+      } else {
+        sb.append(upper ? Character.toUpperCase(c) : c);
+        upper = false;
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Finds an instance field declared by a class or its superclasses, and returns a method handle of
+   * type {@code (StripeObject)Object} that reads it. The field is looked up once per class, so that
+   * reading it does not go through reflection.
+   */
+  private static MethodHandle findGetter(Class<?> clazz, String name) {
+    for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+      try {
+        Field field = c.getDeclaredField(name);
+        if (Modifier.isStatic(field.getModifiers())) {
+          return null;
+        }
+        field.setAccessible(true);
+        return MethodHandles.lookup()
+            .unreflectGetter(field)
+            .asType(MethodType.methodType(Object.class, StripeObject.class));
+      } catch (NoSuchFieldException e) {
+        // Look in the superclass
+      } catch (IllegalAccessException | RuntimeException e) {
+        // The field cannot be made accessible
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /** A field included in the summary {@link #toString()}, with its JSON name. */
+  private static final class SummaryField {
+    final String name;
+    final MethodHandle getter;
+
+    SummaryField(String name, MethodHandle getter) {
+      this.name = name;
+      this.getter = getter;
+    }
   }
 
   protected static boolean equals(Object a, Object b) {
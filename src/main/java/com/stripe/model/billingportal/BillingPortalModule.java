@@ -0,0 +1,16 @@
+package com.stripe.model.billingportal;
+
+import com.stripe.model.ProductModule;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Registers the models of the {@code billingportal} product area. */
+public final class BillingPortalModule implements ProductModule {
+  @Override
+  public Map<String, String> getEventDataClassNames() {
+    Map<String, String> classNames = new HashMap<>();
+    classNames.put("billing_portal.configuration", "com.stripe.model.billingportal.Configuration");
+    classNames.put("billing_portal.session", "com.stripe.model.billingportal.Session");
+    return classNames;
+  }
+}
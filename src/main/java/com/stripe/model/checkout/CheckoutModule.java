@@ -0,0 +1,15 @@
+package com.stripe.model.checkout;
+
+import com.stripe.model.ProductModule;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Registers the models of the {@code checkout} product area. */
+public final class CheckoutModule implements ProductModule {
+  @Override
+  public Map<String, String> getEventDataClassNames() {
+    Map<String, String> classNames = new HashMap<>();
+    classNames.put("checkout.session", "com.stripe.model.checkout.Session");
+    return classNames;
+  }
+}
@@ -0,0 +1,19 @@
+package com.stripe.model.issuing;
+
+import com.stripe.model.ProductModule;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Registers the models of the {@code issuing} product area. */
+public final class IssuingModule implements ProductModule {
+  @Override
+  public Map<String, String> getEventDataClassNames() {
+    Map<String, String> classNames = new HashMap<>();
+    classNames.put("issuing.authorization", "com.stripe.model.issuing.Authorization");
+    classNames.put("issuing.card", "com.stripe.model.issuing.Card");
+    classNames.put("issuing.cardholder", "com.stripe.model.issuing.Cardholder");
+    classNames.put("issuing.dispute", "com.stripe.model.issuing.Dispute");
+    classNames.put("issuing.transaction", "com.stripe.model.issuing.Transaction");
+    return classNames;
+  }
+}
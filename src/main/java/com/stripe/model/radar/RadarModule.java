@@ -0,0 +1,17 @@
+package com.stripe.model.radar;
+
+import com.stripe.model.ProductModule;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Registers the models of the {@code radar} product area. */
+public final class RadarModule implements ProductModule {
+  @Override
+  public Map<String, String> getEventDataClassNames() {
+    Map<String, String> classNames = new HashMap<>();
+    classNames.put("radar.early_fraud_warning", "com.stripe.model.radar.EarlyFraudWarning");
+    classNames.put("radar.value_list", "com.stripe.model.radar.ValueList");
+    classNames.put("radar.value_list_item", "com.stripe.model.radar.ValueListItem");
+    return classNames;
+  }
+}
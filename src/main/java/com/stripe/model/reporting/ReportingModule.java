@@ -0,0 +1,16 @@
+package com.stripe.model.reporting;
+
+import com.stripe.model.ProductModule;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Registers the models of the {@code reporting} product area. */
+public final class ReportingModule implements ProductModule {
+  @Override
+  public Map<String, String> getEventDataClassNames() {
+    Map<String, String> classNames = new HashMap<>();
+    classNames.put("reporting.report_run", "com.stripe.model.reporting.ReportRun");
+    classNames.put("reporting.report_type", "com.stripe.model.reporting.ReportType");
+    return classNames;
+  }
+}
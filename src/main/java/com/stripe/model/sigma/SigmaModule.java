@@ -0,0 +1,15 @@
+package com.stripe.model.sigma;
+
+import com.stripe.model.ProductModule;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Registers the models of the {@code sigma} product area. */
+public final class SigmaModule implements ProductModule {
+  @Override
+  public Map<String, String> getEventDataClassNames() {
+    Map<String, String> classNames = new HashMap<>();
+    classNames.put("scheduled_query_run", "com.stripe.model.sigma.ScheduledQueryRun");
+    return classNames;
+  }
+}
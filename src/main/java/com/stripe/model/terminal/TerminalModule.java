@@ -0,0 +1,17 @@
+package com.stripe.model.terminal;
+
+import com.stripe.model.ProductModule;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Registers the models of the {@code terminal} product area. */
+public final class TerminalModule implements ProductModule {
+  @Override
+  public Map<String, String> getEventDataClassNames() {
+    Map<String, String> classNames = new HashMap<>();
+    classNames.put("terminal.connection_token", "com.stripe.model.terminal.ConnectionToken");
+    classNames.put("terminal.location", "com.stripe.model.terminal.Location");
+    classNames.put("terminal.reader", "com.stripe.model.terminal.Reader");
+    return classNames;
+  }
+}
@@ -18,7 +18,7 @@ public abstract class ApiRequestParams {
   public static final String EXTRA_PARAMS_KEY = "_stripe_java_extra_param_key";
 
   /** Converter mapping typed API request parameters into an untyped map. */
-  private static final ApiRequestParamsConverter PARAMS_CONVERTER = new ApiRequestParamsConverter();
+  static final ApiRequestParamsConverter PARAMS_CONVERTER = new ApiRequestParamsConverter();
 
   /**
    * Interface implemented by all enum parameter to get the actual string value that Stripe API
@@ -13,7 +13,9 @@ import com.google.gson.stream.JsonWriter;
 import com.stripe.Stripe;
 import com.stripe.param.common.EmptyParam;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Converter to map an api request object to an untyped map. It is not called a *Serializer because
@@ -178,4 +180,39 @@ class ApiRequestParamsConverter {
     JsonObject jsonParams = GSON.toJsonTree(apiRequestParams).getAsJsonObject();
     return FLATTENING_EXTRA_PARAMS_DESERIALIZER.deserialize(jsonParams);
   }
+
+  /**
+   * Form-encodes the given request params in one pass, writing them through a {@link
+   * FormEncodingJsonWriter} instead of converting them to a JSON tree and then to an untyped map.
+   * The encoded pairs are the same as the ones of {@code
+   * FormEncoder.flattenParams(convert(params))}, including the two peculiarities described in
+   * {@link #convert(ApiRequestParams)}, but in field declaration order.
+   */
+  void encode(ApiRequestParams apiRequestParams, FormEncodingBuffer buffer) {
+    GSON.toJson(apiRequestParams, apiRequestParams.getClass(), new FormEncodingJsonWriter(buffer));
+  }
+
+  /**
+   * Returns the top-level keys of the given request params, i.e. the keys of {@link
+   * #convert(ApiRequestParams)}, without building the JSON tree and untyped map.
+   */
+  Set<String> keys(ApiRequestParams apiRequestParams) {
+    Set<String> keys = new HashSet<>();
+    GSON.toJson(apiRequestParams, apiRequestParams.getClass(), new ParamKeysJsonWriter(keys));
+    return keys;
+  }
+
+  /**
+   * Form-encodes the given request params. See {@link #encode(ApiRequestParams,
+   * FormEncodingBuffer)}.
+   */
+  String encode(ApiRequestParams apiRequestParams) {
+    FormEncodingBuffer buffer = FormEncodingBuffer.acquire();
+    try {
+      encode(apiRequestParams, buffer);
+      return buffer.toString();
+    } finally {
+      buffer.release();
+    }
+  }
 }
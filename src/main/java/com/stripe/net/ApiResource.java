@@ -22,8 +22,6 @@ import com.stripe.model.StripeObjectInterface;
 import com.stripe.model.StripeRawJsonObject;
 import com.stripe.model.StripeRawJsonObjectDeserializer;
 import com.stripe.util.StringUtils;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
@@ -36,14 +34,58 @@ public abstract class ApiResource extends StripeObject {
 
   public static final Gson GSON = createGson();
 
+  private static volatile JsonCodec jsonCodec = new GsonJsonCodec(GSON);
+
+  private static volatile StringCanonicalizer stringCanonicalizer;
+
   public static void setStripeResponseGetter(StripeResponseGetter srg) {
     ApiResource.stripeResponseGetter = srg;
   }
 
+  /**
+   * Returns the codec used to decode API responses, webhook payloads and event data objects.
+   *
+   * @return the JSON codec
+   */
+  public static JsonCodec getJsonCodec() {
+    return ApiResource.jsonCodec;
+  }
+
+  /**
+   * Sets the codec used to decode API responses, webhook payloads and event data objects. Passing
+   * {@code null} restores the default {@link GsonJsonCodec}.
+   *
+   * @param codec the JSON codec
+   */
+  public static void setJsonCodec(JsonCodec codec) {
+    ApiResource.jsonCodec = (codec != null) ? codec : new GsonJsonCodec(GSON);
+  }
+
+  /**
+   * Returns the canonicalizer applied to the strings deserialized by {@link #GSON}.
+   *
+   * @return the string canonicalizer, or {@code null} if strings are not canonicalized
+   */
+  public static StringCanonicalizer getStringCanonicalizer() {
+    return ApiResource.stringCanonicalizer;
+  }
+
+  /**
+   * Sets the canonicalizer applied to the strings deserialized by {@link #GSON}, so that the
+   * vocabulary strings of the objects returned by the API share their instances. Strings are not
+   * canonicalized by default.
+   *
+   * @param canonicalizer the string canonicalizer, or {@code null} to stop canonicalizing strings
+   */
+  public static void setStringCanonicalizer(StringCanonicalizer canonicalizer) {
+    ApiResource.stringCanonicalizer = canonicalizer;
+  }
+
   private static Gson createGson() {
     GsonBuilder builder =
         new GsonBuilder()
             .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+            .registerTypeAdapter(String.class, new CanonicalizingStringTypeAdapter())
             .registerTypeAdapter(EphemeralKey.class, new EphemeralKeyDeserializer())
             .registerTypeAdapter(EventData.class, new EventDataDeserializer())
             .registerTypeAdapter(EventRequest.class, new EventRequestDeserializer())
@@ -53,9 +95,19 @@ public abstract class ApiResource extends StripeObject {
     for (TypeAdapterFactory factory : ApiResourceTypeAdapterFactoryProvider.getAll()) {
       builder.registerTypeAdapterFactory(factory);
     }
+    builder.registerTypeAdapterFactory(new CollectionRequestOptionsTypeAdapterFactory());
     return builder.create();
   }
 
+  /** URL path of the single resource of each class, e.g. {@code /v1/charge}. */
+  private static final ClassValue<String> SINGLE_CLASS_PATHS =
+      new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> clazz) {
+          return "/v1/" + className(clazz);
+        }
+      };
+
   private static String className(Class<?> clazz) {
     // Convert CamelCase to snake_case
     String className = StringUtils.toSnakeCase(clazz.getSimpleName());
@@ -85,7 +137,7 @@ public abstract class ApiResource extends StripeObject {
   }
 
   protected static String singleClassUrl(Class<?> clazz, String apiBase) {
-    return String.format("%s/v1/%s", apiBase, className(clazz));
+    return apiBase + SINGLE_CLASS_PATHS.get(clazz);
   }
 
   protected static String classUrl(Class<?> clazz) {
@@ -93,7 +145,7 @@ public abstract class ApiResource extends StripeObject {
   }
 
   protected static String classUrl(Class<?> clazz, String apiBase) {
-    return String.format("%ss", singleClassUrl(clazz, apiBase));
+    return singleClassUrl(clazz, apiBase) + "s";
   }
 
   protected static String instanceUrl(Class<?> clazz, String id) throws InvalidRequestException {
@@ -102,7 +154,7 @@ public abstract class ApiResource extends StripeObject {
 
   protected static String instanceUrl(Class<?> clazz, String id, String apiBase)
       throws InvalidRequestException {
-    return String.format("%s/%s", classUrl(clazz, apiBase), urlEncode(id));
+    return classUrl(clazz, apiBase) + "/" + urlEncode(id);
   }
 
   protected static String subresourceUrl(Class<?> clazz, String id, Class<?> subClazz)
@@ -112,7 +164,7 @@ public abstract class ApiResource extends StripeObject {
 
   private static String subresourceUrl(Class<?> clazz, String id, Class<?> subClazz, String apiBase)
       throws InvalidRequestException {
-    return String.format("%s/%s/%ss", classUrl(clazz, apiBase), urlEncode(id), className(subClazz));
+    return classUrl(clazz, apiBase) + "/" + urlEncode(id) + "/" + className(subClazz) + "s";
   }
 
   public enum RequestMethod {
@@ -129,16 +181,8 @@ public abstract class ApiResource extends StripeObject {
       return null;
     }
 
-    try {
-      // Don't use strict form encoding by changing the square bracket control
-      // characters back to their literals. This is fine by the server, and
-      // makes these parameter strings easier to read.
-      return URLEncoder.encode(str, CHARSET.name()).replaceAll("%5B", "[").replaceAll("%5D", "]");
-    } catch (UnsupportedEncodingException e) {
-      // This can literally never happen, and lets us avoid having to catch
-      // UnsupportedEncodingException in callers.
-      throw new AssertionError("UTF-8 is unknown");
-    }
+    // Same encoding as form parameters, which leaves square brackets as-is
+    return FormEncodingBuffer.urlEncode(str);
   }
 
   /** URL-encode a string ID in url path formatting. */
@@ -166,7 +210,7 @@ public abstract class ApiResource extends StripeObject {
       RequestOptions options)
       throws StripeException {
     checkNullTypedParams(url, params);
-    return request(method, url, params.toMap(), clazz, options);
+    return request(method, url, TypedParamsMap.of(params), clazz, options);
   }
 
   public static <T extends StripeObjectInterface> T request(
@@ -179,11 +223,54 @@ public abstract class ApiResource extends StripeObject {
     return ApiResource.stripeResponseGetter.request(method, url, params, clazz, options);
   }
 
+  static <T extends StripeObjectInterface> T request(StripeRequest request, Class<T> clazz)
+      throws StripeException {
+    return ApiResource.stripeResponseGetter.request(request, clazz);
+  }
+
+  /**
+   * Similar to #request, but API errors are reported as failed results instead of being thrown. See
+   * {@link StripeResult} for details.
+   *
+   * @throws StripeException if the request fails without an API error, e.g. on network errors
+   */
+  public static <T extends StripeObjectInterface> StripeResult<T> requestResult(
+      ApiResource.RequestMethod method,
+      String url,
+      ApiRequestParams params,
+      Class<T> clazz,
+      RequestOptions options)
+      throws StripeException {
+    checkNullTypedParams(url, params);
+    return requestResult(method, url, TypedParamsMap.of(params), clazz, options);
+  }
+
+  /**
+   * Similar to #request, but API errors are reported as failed results instead of being thrown. See
+   * {@link StripeResult} for details.
+   *
+   * @throws StripeException if the request fails without an API error, e.g. on network errors
+   */
+  public static <T extends StripeObjectInterface> StripeResult<T> requestResult(
+      ApiResource.RequestMethod method,
+      String url,
+      Map<String, Object> params,
+      Class<T> clazz,
+      RequestOptions options)
+      throws StripeException {
+    return ApiResource.stripeResponseGetter.requestResult(method, url, params, clazz, options);
+  }
+
+  static <T extends StripeObjectInterface> StripeResult<T> requestResult(
+      StripeRequest request, Class<T> clazz) throws StripeException {
+    return ApiResource.stripeResponseGetter.requestResult(request, clazz);
+  }
+
   public static <T extends StripeCollectionInterface<?>> T requestCollection(
       String url, ApiRequestParams params, Class<T> clazz, RequestOptions options)
       throws StripeException {
     checkNullTypedParams(url, params);
-    return requestCollection(url, params.toMap(), clazz, options);
+    return requestCollection(url, TypedParamsMap.of(params), clazz, options);
   }
 
   /**
@@ -1,15 +1,16 @@
-// File generated from our OpenAPI spec
 package com.stripe.net;
 
 import com.google.gson.TypeAdapterFactory;
 import com.stripe.model.BalanceTransactionSourceTypeAdapterFactory;
 import com.stripe.model.ExternalAccountTypeAdapterFactory;
 import com.stripe.model.PaymentSourceTypeAdapterFactory;
+import com.stripe.model.ProductModule;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Provider for all {@link TypeAdapterFactory} required for deserializing subtypes of an interface.
+ * Provider for all {@link TypeAdapterFactory} required for deserializing subtypes of an interface,
+ * including those of the {@link ProductModule} on the classpath.
  */
 final class ApiResourceTypeAdapterFactoryProvider {
   private static final List<TypeAdapterFactory> factories = new ArrayList<>();
@@ -18,6 +19,11 @@ final class ApiResourceTypeAdapterFactoryProvider {
     factories.add(new BalanceTransactionSourceTypeAdapterFactory());
     factories.add(new ExternalAccountTypeAdapterFactory());
     factories.add(new PaymentSourceTypeAdapterFactory());
+
+    for (ProductModule module :
+        ProductModule.loadAll(ApiResourceTypeAdapterFactoryProvider.class.getClassLoader())) {
+      factories.addAll(module.getTypeAdapterFactories());
+    }
   }
 
   public static List<TypeAdapterFactory> getAll() {
@@ -0,0 +1,18 @@
+package com.stripe.net;
+
+/**
+ * The generator returned by {@link IdempotencyKeyGenerator#fromBusinessKey}, which always returns
+ * the same key.
+ */
+final class BusinessKeyIdempotencyKeyGenerator implements IdempotencyKeyGenerator {
+  private final String key;
+
+  BusinessKeyIdempotencyKeyGenerator(String businessKey) {
+    this.key = IdempotencyKeyGenerator.deriveKey(businessKey);
+  }
+
+  @Override
+  public String generateKey() {
+    return this.key;
+  }
+}
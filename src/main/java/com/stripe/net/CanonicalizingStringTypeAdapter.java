@@ -0,0 +1,35 @@
+package com.stripe.net;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * String type adapter of {@link ApiResource#GSON}. It reads strings like Gson's default adapter,
+ * and canonicalizes them with the {@link ApiResource#getStringCanonicalizer() installed
+ * canonicalizer}, if any.
+ */
+final class CanonicalizingStringTypeAdapter extends TypeAdapter<String> {
+  @Override
+  public String read(JsonReader in) throws IOException {
+    JsonToken token = in.peek();
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    if (token == JsonToken.BOOLEAN) {
+      return Boolean.toString(in.nextBoolean());
+    }
+
+    String value = in.nextString();
+    StringCanonicalizer canonicalizer = ApiResource.getStringCanonicalizer();
+    return (canonicalizer != null) ? canonicalizer.canonicalize(value) : value;
+  }
+
+  @Override
+  public void write(JsonWriter out, String value) throws IOException {
+    out.value(value);
+  }
+}
@@ -0,0 +1,101 @@
+package com.stripe.net;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.stripe.model.StripeCollectionInterface;
+import java.io.IOException;
+
+/**
+ * Sets the request options of the response being deserialized on the collections it contains, so
+ * that collections embedded in objects, such as {@code Invoice.lines} or {@code Customer.sources},
+ * are auto-paginated with the options of the request that returned them rather than the global
+ * settings.
+ *
+ * <p>The options that only apply to the request that returned them are not inherited: the response
+ * projection, whose paths are relative to the parent object, and the idempotency key and its
+ * generator, which would otherwise be sent with every page request.
+ */
+final class CollectionRequestOptionsTypeAdapterFactory implements TypeAdapterFactory {
+  /** The options of the response being deserialized on the current thread. */
+  private static final ThreadLocal<RequestOptions> CURRENT = new ThreadLocal<>();
+
+  /**
+   * Makes the given options the options of the collections deserialized on the current thread,
+   * until {@link #exit(RequestOptions)} is called with the returned value.
+   *
+   * @param options the options of the response being deserialized
+   * @return the previous options, to be restored
+   */
+  static RequestOptions enter(RequestOptions options) {
+    RequestOptions previous = CURRENT.get();
+    CURRENT.set(forEmbeddedCollections(options));
+    return previous;
+  }
+
+  /**
+   * Returns the options of the collections embedded in a response, i.e. the options of the request
+   * without its response projection, idempotency key and idempotency key generator.
+   *
+   * @param options the options of the request
+   * @return the options of the embedded collections
+   */
+  static RequestOptions forEmbeddedCollections(RequestOptions options) {
+    if (options == null
+        || (options.getResponseProjection() == null
+            && options.getIdempotencyKey() == null
+            && options.getIdempotencyKeyGenerator() == null)) {
+      return options;
+    }
+    return options
+        .toBuilder()
+        .clearResponseProjection()
+        .clearIdempotencyKey()
+        .clearIdempotencyKeyGenerator()
+        .build();
+  }
+
+  /**
+   * Restores the options returned by {@link #enter(RequestOptions)}.
+   *
+   * @param previous the previous options
+   */
+  static void exit(RequestOptions previous) {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+
+  @Override
+  public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    if (!StripeCollectionInterface.class.isAssignableFrom(type.getRawType())) {
+      return null;
+    }
+
+    final TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+    return new TypeAdapter<T>() {
+      @Override
+      public void write(JsonWriter out, T value) throws IOException {
+        delegate.write(out, value);
+      }
+
+      @Override
+      public T read(JsonReader in) throws IOException {
+        T value = delegate.read(in);
+        RequestOptions options = CURRENT.get();
+        if (value != null && options != null) {
+          StripeCollectionInterface<?> collection = (StripeCollectionInterface<?>) value;
+          if (collection.getRequestOptions() == null) {
+            collection.setRequestOptions(options);
+          }
+        }
+        return value;
+      }
+    };
+  }
+}
@@ -0,0 +1,29 @@
+package com.stripe.net;
+
+import com.stripe.model.ExpandedObjectInterner;
+
+/**
+ * Whether the expanded objects of API responses that have the same type and ID are deserialized
+ * into a single shared instance, see {@link ExpandedObjectInterner}.
+ *
+ * <p>For example, when listing charges with {@code expand[]=data.customer}, the same customer
+ * typically appears many times in a page. With interning, all the charges of the customer reference
+ * the same {@link com.stripe.model.Customer} instance, which is only deserialized once.
+ *
+ * <p>Interned objects are shared: modifying one of them, e.g. with a setter, modifies it for every
+ * object that references it. When an object appears several times, the first occurrence is
+ * deserialized and the following ones are assumed to be identical.
+ */
+public enum ExpansionInterning {
+  /** Every expanded object is deserialized into its own instance. This is the default. */
+  NONE,
+
+  /** Expanded objects are interned within each response. */
+  RESPONSE,
+
+  /**
+   * Expanded objects are interned within each response, and across the pages fetched by the
+   * auto-pagination of a list.
+   */
+  PAGING_SESSION
+}
@@ -3,18 +3,28 @@ package com.stripe.net;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public final class FormEncoder {
+  /** Form-encoded value of each enum constant, by ordinal. */
+  private static final ClassValue<String[]> ENUM_VALUES =
+      new ClassValue<String[]>() {
+        @Override
+        protected String[] computeValue(Class<?> type) {
+          Object[] constants = type.getEnumConstants();
+          String[] values = new String[constants.length];
+          for (int i = 0; i < constants.length; i++) {
+            values[i] = ApiResource.GSON.toJson(constants[i]).replaceAll("\"", "");
+          }
+          return values;
+        }
+      };
+
   public static HttpContent createHttpContent(Map<String, Object> params) throws IOException {
     // If params is null, we create an empty HttpContent because we still want to send the
     // Content-Type header.
@@ -22,20 +32,16 @@ public final class FormEncoder {
       return HttpContent.buildFormURLEncodedContent(new ArrayList<KeyValuePair<String, String>>());
     }
 
-    Collection<KeyValuePair<String, Object>> flatParams = flattenParams(params);
-
-    // If all parameters have been encoded as strings, then the content can be represented
-    // with application/x-www-form-url-encoded encoding. Otherwise, use
-    // multipart/form-data encoding.
-    if (flatParams.stream().allMatch(kvp -> kvp.getValue() instanceof String)) {
-      Collection<KeyValuePair<String, String>> flatParamsString =
-          flatParams.stream()
-              .filter(kvp -> kvp.getValue() instanceof String)
-              .map(kvp -> new KeyValuePair<String, String>(kvp.getKey(), (String) kvp.getValue()))
-              .collect(Collectors.toList());
-      return HttpContent.buildFormURLEncodedContent(flatParamsString);
-    } else {
-      return HttpContent.buildMultipartFormDataContent(flatParams);
+    FormEncodingBuffer buffer = FormEncodingBuffer.acquire();
+    try {
+      if (!encodeParams(params, buffer)) {
+        // If there is at least one file or stream, the content cannot be represented with
+        // application/x-www-form-url-encoded encoding. Use multipart/form-data encoding instead.
+        return HttpContent.buildMultipartFormDataContent(flattenParams(params));
+      }
+      return HttpContent.buildEncodedFormContent(buffer.toByteArray());
+    } finally {
+      buffer.release();
     }
   }
 
@@ -50,12 +56,15 @@ public final class FormEncoder {
       return "";
     }
 
-    Collection<KeyValuePair<String, String>> flatParams =
-        flattenParams(params).stream()
-            .filter(kvp -> kvp.getValue() instanceof String)
-            .map(kvp -> new KeyValuePair<String, String>(kvp.getKey(), (String) kvp.getValue()))
-            .collect(Collectors.toList());
-    return createQueryString(flatParams);
+    FormEncodingBuffer buffer = FormEncodingBuffer.acquire();
+    try {
+      if (!(params instanceof TypedParamsMap && ((TypedParamsMap) params).formEncode(buffer))) {
+        encodeValue(params, buffer, true);
+      }
+      return buffer.toString();
+    } finally {
+      buffer.release();
+    }
   }
 
   /**
@@ -70,11 +79,17 @@ public final class FormEncoder {
       return "";
     }
 
-    return String.join(
-        "&",
-        nameValueCollection.stream()
-            .map(kvp -> String.format("%s=%s", urlEncode(kvp.getKey()), urlEncode(kvp.getValue())))
-            .collect(Collectors.toList()));
+    FormEncodingBuffer buffer = FormEncodingBuffer.acquire();
+    try {
+      for (KeyValuePair<String, String> kvp : nameValueCollection) {
+        buffer.appendKey(String.valueOf(kvp.getKey()));
+        buffer.writeValue(String.valueOf(kvp.getValue()));
+        buffer.truncateKey(0);
+      }
+      return buffer.toString();
+    } finally {
+      buffer.release();
+    }
   }
 
   /**
@@ -108,153 +123,244 @@ public final class FormEncoder {
    * @return The flattened list of parameters.
    */
   public static List<KeyValuePair<String, Object>> flattenParams(Map<String, Object> params) {
-    return flattenParamsValue(params, null);
+    List<KeyValuePair<String, Object>> flatParams = new ArrayList<KeyValuePair<String, Object>>();
+    flattenParamsValue(params, null, flatParams);
+    return flatParams;
   }
 
   /**
-   * URL-encodes a string.
+   * Writes the parameters of a map to a buffer, after any parameters the buffer already holds.
    *
-   * @param value The string to URL-encode.
-   * @return The URL-encoded string.
+   * @param params The map of parameters.
+   * @param buffer The buffer.
+   * @return false if the parameters contain a {@link File} or {@link InputStream} value, in which
+   *     case they must be encoded with {@code multipart/form-data} MIME type instead.
    */
-  private static String urlEncode(String value) {
+  static boolean encodeParams(Map<String, Object> params, FormEncodingBuffer buffer) {
+    if (params instanceof TypedParamsMap && ((TypedParamsMap) params).formEncode(buffer)) {
+      return true;
+    }
+    return encodeValue(params, buffer, false);
+  }
+
+  /**
+   * Writes the parameters for a given value to a buffer, following the same rules as {@link
+   * #flattenParams(Map)}.
+   *
+   * @param value The value for which to write the parameters.
+   * @param buffer The buffer, whose current key is the key of the value.
+   * @param skipStreams Whether {@link File} and {@link InputStream} values are skipped, or stop the
+   *     encoding.
+   * @return false if a {@link File} or {@link InputStream} value stopped the encoding.
+   */
+  private static boolean encodeValue(Object value, FormEncodingBuffer buffer, boolean skipStreams) {
     if (value == null) {
-      return null;
+      buffer.writeValue("");
+
+    } else if (value instanceof Map<?, ?>) {
+      int keyLength = buffer.keyLength();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        buffer.appendKey(entry.getKey().toString());
+        boolean encoded = encodeValue(entry.getValue(), buffer, skipStreams);
+        buffer.truncateKey(keyLength);
+        if (!encoded) {
+          return false;
+        }
+      }
+
+    } else if (value instanceof String) {
+      buffer.writeValue((String) value);
+
+    } else if (value instanceof File || value instanceof InputStream) {
+      if (!skipStreams) {
+        return false;
+      }
+      buffer.skipValue();
+
+    } else if (value instanceof Collection<?>) {
+      return encodeElements((Collection<?>) value, buffer, skipStreams);
+
+    } else if (value.getClass().isArray()) {
+      if (!isPrimitiveArray(value)) {
+        return encodeElements(Arrays.asList((Object[]) value), buffer, skipStreams);
+      }
+      encodePrimitiveArray(value, buffer);
+
+    } else if (value.getClass().isEnum()) {
+      buffer.writeValue(enumValue(value));
+
+    } else {
+      buffer.writeValue(value.toString());
     }
 
-    try {
-      // Don't use strict form encoding by changing the square bracket control
-      // characters back to their literals. This is fine by the server, and
-      // makes these parameter strings easier to read.
-      return URLEncoder.encode(value, StandardCharsets.UTF_8.name())
-          .replaceAll("%5B", "[")
-          .replaceAll("%5D", "]");
-    } catch (UnsupportedEncodingException e) {
-      // This can literally never happen, and lets us avoid having to catch
-      // UnsupportedEncodingException in callers.
-      throw new AssertionError("UTF-8 is unknown");
+    return true;
+  }
+
+  /**
+   * Writes the parameters for the elements of a collection or array to a buffer, indexed under the
+   * buffer's current key.
+   *
+   * @see #flattenParamsCollection(Iterable, String, List)
+   */
+  private static boolean encodeElements(
+      Iterable<?> elements, FormEncodingBuffer buffer, boolean skipStreams) {
+    int keyLength = buffer.keyLength();
+    int pairCount = buffer.pairCount();
+
+    int index = 0;
+    for (Object element : elements) {
+      buffer.appendIndex(index++);
+      boolean encoded = encodeValue(element, buffer, skipStreams);
+      buffer.truncateKey(keyLength);
+      if (!encoded) {
+        return false;
+      }
+    }
+
+    if (buffer.pairCount() == pairCount) {
+      buffer.writeValue("");
+    }
+    return true;
+  }
+
+  private static void encodePrimitiveArray(Object array, FormEncodingBuffer buffer) {
+    int keyLength = buffer.keyLength();
+    int length = Array.getLength(array);
+    for (int index = 0; index < length; index++) {
+      buffer.appendIndex(index);
+      buffer.writeValue(primitiveArrayElement(array, index));
+      buffer.truncateKey(keyLength);
+    }
+
+    if (length == 0) {
+      buffer.writeValue("");
     }
   }
 
   /**
-   * Returns a list of parameters for a given value. The value can be basically anything, as long as
-   * it can be encoded in some way.
+   * Adds the parameters for a given value to a list. The value can be basically anything, as long
+   * as it can be encoded in some way.
    *
    * @param value The value for which to create the list of parameters.
    * @param keyPrefix The key under which new keys should be nested, if any.
-   * @return The list of parameters.
+   * @param flatParams The list of parameters to add to.
    */
-  private static List<KeyValuePair<String, Object>> flattenParamsValue(
-      Object value, String keyPrefix) {
-    List<KeyValuePair<String, Object>> flatParams = null;
-
+  private static void flattenParamsValue(
+      Object value, String keyPrefix, List<KeyValuePair<String, Object>> flatParams) {
     // I wish Java had pattern matching :(
 
     if (value == null) {
-      flatParams = singleParam(keyPrefix, "");
+      addParam(keyPrefix, "", flatParams);
 
     } else if (value instanceof Map<?, ?>) {
-      flatParams = flattenParamsMap((Map<?, ?>) value, keyPrefix);
+      flattenParamsMap((Map<?, ?>) value, keyPrefix, flatParams);
 
     } else if (value instanceof String) {
-      flatParams = singleParam(keyPrefix, value);
+      addParam(keyPrefix, value, flatParams);
 
     } else if (value instanceof File) {
-      flatParams = singleParam(keyPrefix, value);
+      addParam(keyPrefix, value, flatParams);
 
     } else if (value instanceof InputStream) {
-      flatParams = singleParam(keyPrefix, value);
+      addParam(keyPrefix, value, flatParams);
 
     } else if (value instanceof Collection<?>) {
-      flatParams = flattenParamsCollection((Collection<?>) value, keyPrefix);
+      flattenParamsCollection((Collection<?>) value, keyPrefix, flatParams);
 
     } else if (value.getClass().isArray()) {
-      Object[] array = getArrayForObject(value);
-      Collection<?> collection = Arrays.stream(array).collect(Collectors.toList());
-      flatParams = flattenParamsCollection(collection, keyPrefix);
+      flattenParamsArray(value, keyPrefix, flatParams);
 
     } else if (value.getClass().isEnum()) {
-      flatParams = singleParam(keyPrefix, ApiResource.GSON.toJson(value).replaceAll("\"", ""));
+      addParam(keyPrefix, enumValue(value), flatParams);
 
     } else {
-      flatParams = singleParam(keyPrefix, value.toString());
+      addParam(keyPrefix, value.toString(), flatParams);
     }
-
-    return flatParams;
   }
 
   /**
-   * Returns a list of parameters for a given map. If a key prefix is provided, the keys for the new
-   * parameters will be nested under the key prefix. E.g. if the key prefix `foo` is passed and the
-   * map contains a key `bar`, then a parameter with key `foo[bar]` will be returned.
+   * Adds the parameters for a given map to a list. If a key prefix is provided, the keys for the
+   * new parameters will be nested under the key prefix. E.g. if the key prefix `foo` is passed and
+   * the map contains a key `bar`, then a parameter with key `foo[bar]` will be added.
    *
    * @param map The map for which to create the list of parameters.
    * @param keyPrefix The key under which new keys should be nested, if any.
-   * @return The list of parameters.
+   * @param flatParams The list of parameters to add to.
    */
-  private static List<KeyValuePair<String, Object>> flattenParamsMap(
-      Map<?, ?> map, String keyPrefix) {
-    List<KeyValuePair<String, Object>> flatParams = new ArrayList<KeyValuePair<String, Object>>();
-    if (map == null) {
-      return flatParams;
-    }
-
+  private static void flattenParamsMap(
+      Map<?, ?> map, String keyPrefix, List<KeyValuePair<String, Object>> flatParams) {
     for (Map.Entry<?, ?> entry : map.entrySet()) {
       String key = entry.getKey().toString();
       Object value = entry.getValue();
 
       String newPrefix = newPrefix(key, keyPrefix);
 
-      flatParams.addAll(flattenParamsValue(value, newPrefix));
+      flattenParamsValue(value, newPrefix, flatParams);
     }
-
-    return flatParams;
   }
 
   /**
-   * Returns a list of parameters for a given collection of objects. The parameter keys will be
+   * Adds the parameters for a given collection of objects to a list. The parameter keys will be
    * indexed under the `keyPrefix` parameter. E.g. if the `keyPrefix` is `foo`, then the key for the
    * first element's will be `foo[0]`, etc.
    *
    * @param collection The collection for which to create the list of parameters.
    * @param keyPrefix The key under which new keys should be nested.
-   * @return The list of parameters.
+   * @param flatParams The list of parameters to add to.
    */
-  private static List<KeyValuePair<String, Object>> flattenParamsCollection(
-      Collection<?> collection, String keyPrefix) {
-    List<KeyValuePair<String, Object>> flatParams = new ArrayList<KeyValuePair<String, Object>>();
-    if (collection == null) {
-      return flatParams;
-    }
+  private static void flattenParamsCollection(
+      Iterable<?> collection, String keyPrefix, List<KeyValuePair<String, Object>> flatParams) {
+    int size = flatParams.size();
 
     int index = 0;
     for (Object value : collection) {
-      String newPrefix = String.format("%s[%d]", keyPrefix, index);
-      flatParams.addAll(flattenParamsValue(value, newPrefix));
+      String newPrefix = keyPrefix + "[" + index + "]";
+      flattenParamsValue(value, newPrefix, flatParams);
       index += 1;
     }
 
     /* Because application/x-www-form-urlencoded cannot represent an empty list, convention
      * is to take the list parameter and just set it to an empty string. (E.g. A regular
      * list might look like `a[0]=1&b[1]=2`. Emptying it would look like `a=`.) */
-    if (flatParams.isEmpty()) {
-      flatParams.add(new KeyValuePair<String, Object>(keyPrefix, ""));
+    if (flatParams.size() == size) {
+      addParam(keyPrefix, "", flatParams);
     }
+  }
 
-    return flatParams;
+  /**
+   * Adds the parameters for a given array to a list, like {@link #flattenParamsCollection}.
+   * Elements of primitive arrays are converted to strings without being boxed.
+   *
+   * @param array The array for which to create the list of parameters.
+   * @param keyPrefix The key under which new keys should be nested.
+   * @param flatParams The list of parameters to add to.
+   */
+  private static void flattenParamsArray(
+      Object array, String keyPrefix, List<KeyValuePair<String, Object>> flatParams) {
+    if (!isPrimitiveArray(array)) {
+      flattenParamsCollection(Arrays.asList((Object[]) array), keyPrefix, flatParams);
+      return;
+    }
+
+    int length = Array.getLength(array);
+    for (int index = 0; index < length; index++) {
+      addParam(keyPrefix + "[" + index + "]", primitiveArrayElement(array, index), flatParams);
+    }
+    if (length == 0) {
+      addParam(keyPrefix, "", flatParams);
+    }
   }
 
   /**
-   * Creates a list containing a single parameter.
+   * Adds a single parameter to a list.
    *
    * @param key The parameter's key.
    * @param value The parameter's value.
-   * @return A list containg the single parameter.
+   * @param flatParams The list of parameters to add to.
    */
-  private static List<KeyValuePair<String, Object>> singleParam(String key, Object value) {
-    List<KeyValuePair<String, Object>> flatParams = new ArrayList<KeyValuePair<String, Object>>();
+  private static void addParam(
+      String key, Object value, List<KeyValuePair<String, Object>> flatParams) {
     flatParams.add(new KeyValuePair<String, Object>(key, value));
-    return flatParams;
   }
 
   /**
@@ -278,40 +384,51 @@ public final class FormEncoder {
 
     int i = key.indexOf("[");
     if (i == -1) {
-      return String.format("%s[%s]", keyPrefix, key);
+      return keyPrefix + "[" + key + "]";
     } else {
-      return String.format("%s[%s][%s]", keyPrefix, key.substring(0, i), key.substring(i));
+      return keyPrefix + "[" + key.substring(0, i) + "][" + key.substring(i) + "]";
     }
   }
 
   /**
-   * Accepts an object (that must be an array) and returns an `Object[]`. If the array already holds
-   * reference types, it is simply cast to `Object[]`. If the array holds primitive types, a new
-   * array is created with elements copied and boxed to the appropriate wrapper class. E.g. an
-   * `int[]` array will be returned as an `Integer[]` array.
+   * Returns the form-encoded value of an enum constant: its serialized name, or its name.
    *
-   * @param array The original array, as an Object.
-   * @return The Object[] array.
+   * @param value The enum constant.
+   * @return The value.
    */
-  private static Object[] getArrayForObject(Object array) {
-    if (!array.getClass().isArray()) {
-      throw new IllegalArgumentException("parameter is not an array");
-    }
-
-    // If element type is not a primitive, simply cast the object and return
-    if (!array.getClass().getComponentType().isPrimitive()) {
-      return (Object[]) array;
-    }
+  private static String enumValue(Object value) {
+    return ENUM_VALUES.get(value.getClass())[((Enum<?>) value).ordinal()];
+  }
 
-    // Otherwise, initialize a new array of Object and copy elements one by one. Primitive
-    // elements will be autoboxed.
-    int length = Array.getLength(array);
-    Object[] newArray = new Object[length];
+  private static boolean isPrimitiveArray(Object array) {
+    return array.getClass().getComponentType().isPrimitive();
+  }
 
-    for (int index = 0; index < length; index++) {
-      newArray[index] = Array.get(array, index);
+  /**
+   * Returns the string representation of an element of a primitive array, without boxing it.
+   *
+   * @param array The primitive array, as an Object.
+   * @param index The index of the element.
+   * @return The string representation of the element.
+   */
+  private static String primitiveArrayElement(Object array, int index) {
+    if (array instanceof int[]) {
+      return String.valueOf(((int[]) array)[index]);
+    } else if (array instanceof long[]) {
+      return String.valueOf(((long[]) array)[index]);
+    } else if (array instanceof double[]) {
+      return String.valueOf(((double[]) array)[index]);
+    } else if (array instanceof float[]) {
+      return String.valueOf(((float[]) array)[index]);
+    } else if (array instanceof boolean[]) {
+      return String.valueOf(((boolean[]) array)[index]);
+    } else if (array instanceof char[]) {
+      return String.valueOf(((char[]) array)[index]);
+    } else if (array instanceof short[]) {
+      return String.valueOf(((short[]) array)[index]);
+    } else if (array instanceof byte[]) {
+      return String.valueOf(((byte[]) array)[index]);
     }
-
-    return newArray;
+    throw new IllegalArgumentException("parameter is not a primitive array");
   }
 }
@@ -0,0 +1,289 @@
+package com.stripe.net;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Buffer into which parameters are written in {@code application/x-www-form-urlencoded} format.
+ *
+ * <p>Keys and values are percent-encoded straight into a byte array, with the same output as {@link
+ * java.net.URLEncoder} in UTF-8 except that square brackets are left as-is. The key of the current
+ * parameter is kept encoded in a separate buffer: nested keys are appended to it and truncated back
+ * when done, so that the prefix shared by sibling parameters (e.g. {@code metadata[...]}) is only
+ * encoded once.
+ *
+ * <p>Buffers are reused by the thread that acquires them; callers must {@link #release()} them once
+ * the encoded content has been copied out.
+ */
+final class FormEncodingBuffer {
+  private static final int INITIAL_CAPACITY = 256;
+
+  /** Buffers that grew larger than this are not retained for reuse. */
+  private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+  private static final ThreadLocal<FormEncodingBuffer> CACHED_BUFFER =
+      ThreadLocal.withInitial(FormEncodingBuffer::new);
+
+  private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+  /** ASCII characters that are not percent-encoded. */
+  private static final boolean[] UNRESERVED = new boolean[128];
+
+  static {
+    for (char c = 'a'; c <= 'z'; c++) {
+      UNRESERVED[c] = true;
+    }
+    for (char c = 'A'; c <= 'Z'; c++) {
+      UNRESERVED[c] = true;
+    }
+    for (char c = '0'; c <= '9'; c++) {
+      UNRESERVED[c] = true;
+    }
+    UNRESERVED['-'] = true;
+    UNRESERVED['_'] = true;
+    UNRESERVED['.'] = true;
+    UNRESERVED['*'] = true;
+    // Don't use strict form encoding for square brackets. This is fine by the server, and makes
+    // parameter strings easier to read.
+    UNRESERVED['['] = true;
+    UNRESERVED[']'] = true;
+  }
+
+  private final Bytes content = new Bytes();
+
+  private final Bytes key = new Bytes();
+
+  private int pairCount;
+
+  private boolean inUse;
+
+  /**
+   * Returns an empty buffer, reusing the calling thread's buffer when it is not already in use.
+   *
+   * @return the buffer
+   */
+  static FormEncodingBuffer acquire() {
+    FormEncodingBuffer buffer = CACHED_BUFFER.get();
+    if (buffer.inUse) {
+      return new FormEncodingBuffer();
+    }
+    buffer.inUse = true;
+    return buffer;
+  }
+
+  /** Clears this buffer so that it can be reused. */
+  void release() {
+    this.content.clear();
+    this.key.clear();
+    this.pairCount = 0;
+    this.inUse = false;
+  }
+
+  /**
+   * Percent-encodes a string.
+   *
+   * @param value the string to encode
+   * @return the encoded string
+   */
+  static String urlEncode(String value) {
+    Bytes bytes = new Bytes();
+    bytes.appendEncoded(value, 0, value.length());
+    return bytes.toString();
+  }
+
+  /** Returns the length of the current key, to {@link #truncateKey(int)} back to it later. */
+  int keyLength() {
+    return this.key.length;
+  }
+
+  /**
+   * Truncates the current key.
+   *
+   * @param length the length of the key, as returned by {@link #keyLength()}
+   */
+  void truncateKey(int length) {
+    this.key.length = length;
+  }
+
+  /**
+   * Nests the given key under the current key: if the current key is {@code foo} and the given key
+   * is {@code bar}, the current key becomes {@code foo[bar]}. If the given key already contains
+   * nested values, only its non-nested part is nested, e.g. {@code bar[baz]} gives {@code
+   * foo[bar][[baz]]}. If there is no current key, the given key becomes the current key.
+   *
+   * @param name the key to nest
+   */
+  void appendKey(String name) {
+    if (this.key.length == 0) {
+      this.key.appendEncoded(name, 0, name.length());
+      return;
+    }
+
+    int i = name.indexOf('[');
+    this.key.append('[');
+    if (i == -1) {
+      this.key.appendEncoded(name, 0, name.length());
+    } else {
+      this.key.appendEncoded(name, 0, i);
+      this.key.append(']');
+      this.key.append('[');
+      this.key.appendEncoded(name, i, name.length());
+    }
+    this.key.append(']');
+  }
+
+  /**
+   * Nests a list index under the current key, e.g. {@code foo} becomes {@code foo[0]}.
+   *
+   * @param index the index
+   */
+  void appendIndex(int index) {
+    this.key.append('[');
+    this.key.appendDigits(index);
+    this.key.append(']');
+  }
+
+  /**
+   * Writes a parameter with the current key and the given value.
+   *
+   * @param value the value
+   */
+  void writeValue(String value) {
+    if (this.content.length > 0) {
+      this.content.append('&');
+    }
+    this.content.append(this.key);
+    this.content.append('=');
+    this.content.appendEncoded(value, 0, value.length());
+    this.pairCount++;
+  }
+
+  /**
+   * Writes already encoded parameters.
+   *
+   * @param encoded the {@code application/x-www-form-urlencoded} parameters
+   */
+  void writeEncoded(byte[] encoded) {
+    if (encoded.length == 0) {
+      return;
+    }
+    if (this.content.length > 0) {
+      this.content.append('&');
+    }
+    this.content.append(encoded, encoded.length);
+  }
+
+  /** Counts a parameter with the current key that is not representable in this format. */
+  void skipValue() {
+    this.pairCount++;
+  }
+
+  /** Returns the number of parameters written or skipped so far. */
+  int pairCount() {
+    return this.pairCount;
+  }
+
+  /** Returns a copy of the encoded content. */
+  byte[] toByteArray() {
+    return Arrays.copyOf(this.content.array, this.content.length);
+  }
+
+  /** Returns the encoded content as a string. */
+  @Override
+  public String toString() {
+    return this.content.toString();
+  }
+
+  /** A growable byte array. */
+  private static final class Bytes {
+    byte[] array = new byte[INITIAL_CAPACITY];
+
+    int length;
+
+    void clear() {
+      this.length = 0;
+      if (this.array.length > MAX_RETAINED_CAPACITY) {
+        this.array = new byte[INITIAL_CAPACITY];
+      }
+    }
+
+    private void ensureCapacity(int additional) {
+      if (this.length + additional > this.array.length) {
+        this.array =
+            Arrays.copyOf(this.array, Math.max(this.array.length * 2, this.length + additional));
+      }
+    }
+
+    void append(char c) {
+      ensureCapacity(1);
+      this.array[this.length++] = (byte) c;
+    }
+
+    void append(Bytes other) {
+      append(other.array, other.length);
+    }
+
+    void append(byte[] bytes, int length) {
+      ensureCapacity(length);
+      System.arraycopy(bytes, 0, this.array, this.length, length);
+      this.length += length;
+    }
+
+    void appendDigits(int value) {
+      if (value >= 10) {
+        appendDigits(value / 10);
+      }
+      append((char) ('0' + value % 10));
+    }
+
+    /**
+     * Appends the percent-encoded characters of {@code value} between {@code start} and {@code
+     * end}.
+     */
+    void appendEncoded(String value, int start, int end) {
+      ensureCapacity(end - start);
+      for (int i = start; i < end; i++) {
+        char c = value.charAt(i);
+        if (c < 0x80) {
+          if (UNRESERVED[c]) {
+            append(c);
+          } else if (c == ' ') {
+            append('+');
+          } else {
+            appendEscaped(c);
+          }
+        } else if (c < 0x800) {
+          appendEscaped(0xC0 | (c >> 6));
+          appendEscaped(0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)
+            && i + 1 < end
+            && Character.isLowSurrogate(value.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, value.charAt(++i));
+          appendEscaped(0xF0 | (codePoint >> 18));
+          appendEscaped(0x80 | ((codePoint >> 12) & 0x3F));
+          appendEscaped(0x80 | ((codePoint >> 6) & 0x3F));
+          appendEscaped(0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+          // Unpaired surrogates are replaced, like String#getBytes does
+          appendEscaped('?');
+        } else {
+          appendEscaped(0xE0 | (c >> 12));
+          appendEscaped(0x80 | ((c >> 6) & 0x3F));
+          appendEscaped(0x80 | (c & 0x3F));
+        }
+      }
+    }
+
+    private void appendEscaped(int b) {
+      ensureCapacity(3);
+      this.array[this.length++] = '%';
+      this.array[this.length++] = HEX_DIGITS[(b >> 4) & 0xF];
+      this.array[this.length++] = HEX_DIGITS[b & 0xF];
+    }
+
+    @Override
+    public String toString() {
+      return new String(this.array, 0, this.length, StandardCharsets.US_ASCII);
+    }
+  }
+}
@@ -0,0 +1,246 @@
+package com.stripe.net;
+
+import com.google.gson.stream.JsonWriter;
+import com.stripe.Stripe;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A {@link JsonWriter} that form-encodes what is written to it into a {@link FormEncodingBuffer}
+ * instead of producing JSON. It is driven by the type adapters of {@link ApiRequestParamsConverter}
+ * so that typed request params can be encoded in a single pass, without building the intermediate
+ * JSON tree and untyped map.
+ *
+ * <p>The produced pairs are the same as the ones {@link FormEncoder#flattenParams(java.util.Map)}
+ * returns for {@link ApiRequestParamsConverter#convert(ApiRequestParams)}, in field declaration
+ * order instead of map iteration order:
+ *
+ * <ul>
+ *   <li>objects are nested with {@code parent[key]}, arrays with {@code parent[index]}
+ *   <li>empty arrays are encoded as an empty string value ({@code key=})
+ *   <li>nulls are skipped, unless written while null serialization is enabled (for empty enums and
+ *       null map values), in which case they are encoded as an empty string value
+ *   <li>the contents of {@link ApiRequestParams#EXTRA_PARAMS_KEY} objects are flattened into their
+ *       parent object
+ * </ul>
+ */
+final class FormEncodingJsonWriter extends JsonWriter {
+  static final Writer UNUSED_WRITER =
+      new Writer() {
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+      };
+
+  private final FormEncodingBuffer buffer;
+
+  private final Deque<Scope> scopes = new ArrayDeque<>();
+
+  private String deferredName;
+
+  FormEncodingJsonWriter(FormEncodingBuffer buffer) {
+    super(UNUSED_WRITER);
+    this.buffer = buffer;
+  }
+
+  @Override
+  public JsonWriter beginObject() {
+    Scope parent = this.scopes.peek();
+    if (parent == null) {
+      this.scopes.push(Scope.object(this.buffer.keyLength(), new HashSet<>()));
+    } else if (!parent.array && ApiRequestParams.EXTRA_PARAMS_KEY.equals(this.deferredName)) {
+      // Extra params share the key and the nested keys of the object that declares them
+      this.deferredName = null;
+      this.scopes.push(Scope.object(this.buffer.keyLength(), parent.keys));
+    } else {
+      appendNextKey();
+      this.scopes.push(Scope.object(this.buffer.keyLength(), new HashSet<>()));
+    }
+    return this;
+  }
+
+  @Override
+  public JsonWriter endObject() {
+    this.scopes.pop();
+    truncateKey();
+    return this;
+  }
+
+  @Override
+  public JsonWriter beginArray() {
+    checkNotExtraParams("[...]");
+    appendNextKey();
+    this.scopes.push(Scope.array(this.buffer.keyLength(), this.buffer.pairCount()));
+    return this;
+  }
+
+  @Override
+  public JsonWriter endArray() {
+    Scope scope = this.scopes.pop();
+    // Because application/x-www-form-urlencoded cannot represent an empty list, convention is to
+    // set the list parameter to an empty string.
+    if (this.buffer.pairCount() == scope.firstPair) {
+      this.buffer.writeValue("");
+    }
+    truncateKey();
+    return this;
+  }
+
+  @Override
+  public JsonWriter name(String name) {
+    if (name == null) {
+      throw new NullPointerException("name == null");
+    }
+    this.deferredName = name;
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(String value) {
+    if (value == null) {
+      return nullValue();
+    }
+    checkNotExtraParams(value);
+    appendNextKey();
+    this.buffer.writeValue(value);
+    truncateKey();
+    return this;
+  }
+
+  @Override
+  public JsonWriter jsonValue(String value) {
+    return value(value);
+  }
+
+  @Override
+  public JsonWriter nullValue() {
+    Scope scope = this.scopes.peek();
+    if (scope != null && !scope.array && !getSerializeNulls()) {
+      this.deferredName = null;
+      return this;
+    }
+    appendNextKey();
+    this.buffer.writeValue("");
+    truncateKey();
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(boolean value) {
+    return value(String.valueOf(value));
+  }
+
+  @Override
+  public JsonWriter value(Boolean value) {
+    return (value == null) ? nullValue() : value(value.toString());
+  }
+
+  @Override
+  public JsonWriter value(double value) {
+    return value(String.valueOf(value));
+  }
+
+  @Override
+  public JsonWriter value(long value) {
+    return value(String.valueOf(value));
+  }
+
+  @Override
+  public JsonWriter value(Number value) {
+    return (value == null) ? nullValue() : value(value.toString());
+  }
+
+  @Override
+  public void flush() {}
+
+  @Override
+  public void close() {}
+
+  /**
+   * Nests the key of the next value of the current scope in the buffer's key, checking for
+   * duplicate keys in objects.
+   */
+  private void appendNextKey() {
+    Scope scope = this.scopes.peek();
+    if (scope == null) {
+      throw new IllegalStateException("Request params must be encoded from a JSON object.");
+    }
+    if (scope.array) {
+      this.buffer.appendIndex(scope.index++);
+      return;
+    }
+
+    String name = this.deferredName;
+    this.deferredName = null;
+    if (!scope.keys.add(name)) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Found multiple param values for the same param key. This can happen because you "
+                  + "passed additional parameters via `putExtraParam` that conflict with the "
+                  + "existing params. Found param key `%s`. If you wish to pass additional params "
+                  + "for nested parameters, you should add extra params at the nested params "
+                  + "themselves, not from the top-level param.",
+              name));
+    }
+    this.buffer.appendKey(name);
+  }
+
+  /** Truncates the buffer's key back to the key of the current scope. */
+  private void truncateKey() {
+    Scope scope = this.scopes.peek();
+    this.buffer.truncateKey((scope != null) ? scope.keyLength : 0);
+  }
+
+  private void checkNotExtraParams(String value) {
+    if (ApiRequestParams.EXTRA_PARAMS_KEY.equals(this.deferredName)) {
+      throw new IllegalStateException(
+          String.format(
+              "Unexpected schema for extra params. JSON object is expected at key `%s`, but found"
+                  + " `%s`. This is likely a problem with this current library version `%s`. "
+                  + "Please contact support@stripe.com for assistance.",
+              ApiRequestParams.EXTRA_PARAMS_KEY, value, Stripe.VERSION));
+    }
+  }
+
+  /** An object or array being written. */
+  private static final class Scope {
+    final boolean array;
+
+    /** Length of the buffer's key under which values of this scope are nested. */
+    final int keyLength;
+
+    /** Keys already written in this object, to detect conflicting extra params. */
+    final Set<String> keys;
+
+    /** Number of pairs written before this array, to detect empty arrays. */
+    final int firstPair;
+
+    /** Index of the next element of this array. */
+    int index;
+
+    private Scope(boolean array, int keyLength, Set<String> keys, int firstPair) {
+      this.array = array;
+      this.keyLength = keyLength;
+      this.keys = keys;
+      this.firstPair = firstPair;
+    }
+
+    static Scope object(int keyLength, Set<String> keys) {
+      return new Scope(false, keyLength, keys, 0);
+    }
+
+    static Scope array(int keyLength, int firstPair) {
+      return new Scope(true, keyLength, null, firstPair);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.stripe.net;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+
+/** {@link JsonCodec} backed by a {@link Gson} instance. This is the default codec. */
+public class GsonJsonCodec implements JsonCodec {
+  private final Gson gson;
+
+  /**
+   * Initializes a new instance of the {@link GsonJsonCodec} class using {@link ApiResource#GSON}.
+   */
+  public GsonJsonCodec() {
+    this(ApiResource.GSON);
+  }
+
+  /**
+   * Initializes a new instance of the {@link GsonJsonCodec} class.
+   *
+   * @param gson the Gson instance to use. It must be configured like {@link ApiResource#GSON}
+   *     (field naming policy, type adapters) to deserialize model classes correctly.
+   */
+  public GsonJsonCodec(Gson gson) {
+    this.gson = requireNonNull(gson);
+  }
+
+  @Override
+  public <T> T deserialize(String json, Class<T> clazz) {
+    try {
+      return this.gson.fromJson(json, clazz);
+    } catch (JsonParseException e) {
+      throw new JsonCodecException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public <T> T deserialize(JsonElement json, Class<T> clazz) {
+    try {
+      return this.gson.fromJson(json, clazz);
+    } catch (JsonParseException e) {
+      throw new JsonCodecException(e.getMessage(), e);
+    }
+  }
+}
@@ -7,8 +7,12 @@ import com.stripe.util.Stopwatch;
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -20,6 +24,9 @@ public abstract class HttpClient {
   /** Minimum sleep time between tries to send HTTP requests after network failure. */
   public static final Duration minNetworkRetriesDelay = Duration.ofMillis(500);
 
+  /** User agent headers, cached until the app info changes. */
+  private static volatile UserAgentHeaders userAgentHeaders;
+
   private final RequestTelemetry requestTelemetry = new RequestTelemetry();
 
   /** A value indicating whether the client should sleep between automatic request retries. */
@@ -151,6 +158,29 @@ public abstract class HttpClient {
     return ApiResource.GSON.toJson(propertyMap);
   }
 
+  /**
+   * Returns the {@code User-Agent} and {@code X-Stripe-Client-User-Agent} headers. They are only
+   * built again when the app info changes.
+   *
+   * @return the (unmodifiable) header map
+   */
+  static Map<String, List<String>> getUserAgentHeaders() {
+    Map<String, String> appInfo = Stripe.getAppInfo();
+    UserAgentHeaders cached = userAgentHeaders;
+    if (cached == null || !Objects.equals(cached.appInfo, appInfo)) {
+      Map<String, List<String>> headerMap = new HashMap<>();
+      headerMap.put("User-Agent", Arrays.asList(buildUserAgentString()));
+      headerMap.put(
+          "X-Stripe-Client-User-Agent", Arrays.asList(buildXStripeClientUserAgentString()));
+      cached =
+          new UserAgentHeaders(
+              (appInfo != null) ? new HashMap<>(appInfo) : null,
+              Collections.unmodifiableMap(headerMap));
+      userAgentHeaders = cached;
+    }
+    return cached.headers;
+  }
+
   private static String formatAppInfo(Map<String, String> info) {
     String str = info.get("name");
 
@@ -238,4 +268,16 @@ public abstract class HttpClient {
 
     return delay;
   }
+
+  private static final class UserAgentHeaders {
+    /** Copy of the app info the headers were built with. */
+    final Map<String, String> appInfo;
+
+    final Map<String, List<String>> headers;
+
+    UserAgentHeaders(Map<String, String> appInfo, Map<String, List<String>> headers) {
+      this.appInfo = appInfo;
+      this.headers = headers;
+    }
+  }
 }
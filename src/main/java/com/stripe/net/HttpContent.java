@@ -48,6 +48,18 @@ public class HttpContent {
         String.format("application/x-www-form-urlencoded;charset=%s", ApiResource.CHARSET));
   }
 
+  /**
+   * Builds a new HttpContent for already encoded {@code application/x-www-form-urlencoded} content.
+   *
+   * @param encodedContent the encoded content
+   * @return the HttpContent instance
+   */
+  static HttpContent buildEncodedFormContent(byte[] encodedContent) {
+    return new HttpContent(
+        encodedContent,
+        String.format("application/x-www-form-urlencoded;charset=%s", ApiResource.CHARSET));
+  }
+
   /** The request's content, as a string. */
   public String stringContent() {
     return new String(this.byteArrayContent, ApiResource.CHARSET);
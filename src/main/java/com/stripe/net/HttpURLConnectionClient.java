@@ -9,8 +9,6 @@ import java.io.OutputStream;
 import java.net.Authenticator;
 import java.net.HttpURLConnection;
 import java.net.PasswordAuthentication;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.Cleanup;
@@ -62,13 +60,7 @@ public class HttpURLConnectionClient extends HttpClient {
   }
 
   static HttpHeaders getHeaders(StripeRequest request) {
-    Map<String, List<String>> userAgentHeadersMap = new HashMap<>();
-
-    userAgentHeadersMap.put("User-Agent", Arrays.asList(buildUserAgentString()));
-    userAgentHeadersMap.put(
-        "X-Stripe-Client-User-Agent", Arrays.asList(buildXStripeClientUserAgentString()));
-
-    return request.headers().withAdditionalHeaders(userAgentHeadersMap);
+    return request.headers().withAdditionalHeaders(getUserAgentHeaders());
   }
 
   private static HttpURLConnection createStripeConnection(StripeRequest request)
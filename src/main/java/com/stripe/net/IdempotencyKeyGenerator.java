@@ -0,0 +1,92 @@
+package com.stripe.net;
+
+import com.stripe.Stripe;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Generates the {@code Idempotency-Key} header of POST requests that are not given an explicit
+ * idempotency key.
+ *
+ * <p>The generator is taken from {@link RequestOptions#getIdempotencyKeyGenerator()}, or from
+ * {@link Stripe#getIdempotencyKeyGenerator()} if the request options do not set one. It is called
+ * concurrently from every thread sending requests, so implementations must be thread-safe and
+ * should not block.
+ *
+ * <p>Requests can be made safely retryable across process restarts by deriving their idempotency
+ * key from a stable business identifier:
+ *
+ * <pre>{@code
+ * RequestOptions options =
+ *     RequestOptions.builder()
+ *         .setIdempotencyKeyGenerator(IdempotencyKeyGenerator.fromBusinessKey("order_6735"))
+ *         .build();
+ * }</pre>
+ */
+@FunctionalInterface
+public interface IdempotencyKeyGenerator {
+  /**
+   * Returns a new idempotency key.
+   *
+   * @return the idempotency key, at most 255 characters long
+   */
+  String generateKey();
+
+  /**
+   * Returns the default generator, which generates time-ordered keys in the format of <a
+   * href="https://www.rfc-editor.org/rfc/rfc9562">version 7 UUIDs</a>: a 48-bit millisecond
+   * timestamp followed by 74 pseudo-random bits.
+   *
+   * <p>The pseudo-random bits come from a per-thread {@link java.util.SplittableRandom} seeded once
+   * with 64 bits from {@link java.security.SecureRandom}, so generating keys does not contend on a
+   * shared lock the way {@link UUID#randomUUID()} does. The keys of a thread are therefore only as
+   * unpredictable as its 64-bit seed, and not cryptographically random like the keys of {@link
+   * #random()}: they are unique enough to tell requests apart, but must not be relied on as
+   * secrets.
+   *
+   * @return the default generator
+   */
+  static IdempotencyKeyGenerator timeOrdered() {
+    return TimeOrderedIdempotencyKeyGenerator.INSTANCE;
+  }
+
+  /**
+   * Returns a generator of random keys made with {@link UUID#randomUUID()}, which was the behavior
+   * of previous versions of the library.
+   *
+   * @return the generator
+   */
+  static IdempotencyKeyGenerator random() {
+    return () -> UUID.randomUUID().toString();
+  }
+
+  /**
+   * Returns a generator that always returns the key derived from the given business key by {@link
+   * #deriveKey(String)}. It is meant to be set on the request options of a single logical
+   * operation, so that all attempts to perform it, including from other processes, share the same
+   * key. It cannot be used by a {@link PreparedStripeRequest}, whose requests are all different
+   * operations.
+   *
+   * @param businessKey a stable identifier of the operation, e.g. an order ID
+   * @return the generator
+   */
+  static IdempotencyKeyGenerator fromBusinessKey(String businessKey) {
+    return new BusinessKeyIdempotencyKeyGenerator(businessKey);
+  }
+
+  /**
+   * Derives an idempotency key from a business key, as the name-based UUID of its UTF-8 bytes. The
+   * same business key always yields the same idempotency key. The derivation is not secret, so the
+   * business key of an idempotency key can be found by trying likely business keys; business keys
+   * should not be sensitive.
+   *
+   * @param businessKey a stable identifier of the operation, e.g. an order ID
+   * @return the idempotency key
+   */
+  static String deriveKey(String businessKey) {
+    if (businessKey == null || businessKey.isEmpty()) {
+      throw new IllegalArgumentException("Business keys must be non-empty strings.");
+    }
+    return UUID.nameUUIDFromBytes(businessKey.getBytes(StandardCharsets.UTF_8)).toString();
+  }
+}
@@ -0,0 +1,58 @@
+package com.stripe.net;
+
+import com.google.gson.JsonElement;
+
+/**
+ * Codec used to decode the JSON payloads returned by Stripe's API.
+ *
+ * <p>The codec is used to deserialize API responses and errors in {@link LiveStripeResponseGetter},
+ * webhook payloads in {@link Webhook#constructEvent(String, String, String)} and event data objects
+ * in {@link com.stripe.model.EventDataObjectDeserializer}. The default codec is {@link
+ * GsonJsonCodec}, backed by {@link ApiResource#GSON}; a different codec can be installed with
+ * {@link ApiResource#setJsonCodec(JsonCodec)}.
+ *
+ * <p>Implementations must produce model objects equivalent to the ones produced by the default
+ * codec (including {@link com.stripe.model.ExpandableField} values and polymorphic types such as
+ * {@link com.stripe.model.PaymentSource}), and must be safe to use from multiple threads.
+ *
+ * <p>The following features are implemented by type adapters of {@link ApiResource#GSON}, and only
+ * apply with a {@link GsonJsonCodec} backed by it:
+ *
+ * <ul>
+ *   <li>string canonicalization, see {@link ApiResource#setStringCanonicalizer};
+ *   <li>interning of expanded objects, see {@link
+ *       RequestOptions.RequestOptionsBuilder#setExpansionInterning};
+ *   <li>paginating embedded collections, e.g. the lines of an invoice, with the request options of
+ *       the request that returned them.
+ * </ul>
+ *
+ * <p>Payloads that have already been parsed, e.g. projected responses or the data objects of
+ * events, are passed as JSON trees to {@link #deserialize(JsonElement, Class)}, which codecs can
+ * override to skip serializing them back to strings.
+ */
+public interface JsonCodec {
+  /**
+   * Deserializes the given JSON payload into an instance of the given class.
+   *
+   * @param json the JSON payload
+   * @param clazz the class of the object to deserialize
+   * @return the deserialized object
+   * @throws JsonCodecException if the payload is not valid JSON or cannot be deserialized into the
+   *     given class
+   */
+  <T> T deserialize(String json, Class<T> clazz);
+
+  /**
+   * Deserializes the given JSON tree into an instance of the given class. The default
+   * implementation serializes the tree back to a string and passes it to {@link
+   * #deserialize(String, Class)}.
+   *
+   * @param json the JSON tree
+   * @param clazz the class of the object to deserialize
+   * @return the deserialized object
+   * @throws JsonCodecException if the tree cannot be deserialized into the given class
+   */
+  default <T> T deserialize(JsonElement json, Class<T> clazz) {
+    return deserialize(json.toString(), clazz);
+  }
+}
@@ -0,0 +1,19 @@
+package com.stripe.net;
+
+/**
+ * Thrown by a {@link JsonCodec} when a payload is not valid JSON or cannot be deserialized into the
+ * requested class.
+ */
+public class JsonCodecException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructs a new exception.
+   *
+   * @param message the detail message
+   * @param cause the exception thrown by the underlying JSON library, if any
+   */
+  public JsonCodecException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
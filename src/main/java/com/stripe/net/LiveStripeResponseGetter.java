@@ -1,6 +1,5 @@
 package com.stripe.net;
 
-import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 import com.stripe.exception.ApiException;
 import com.stripe.exception.AuthenticationException;
@@ -16,7 +15,11 @@ import com.stripe.exception.oauth.InvalidScopeException;
 import com.stripe.exception.oauth.OAuthException;
 import com.stripe.exception.oauth.UnsupportedGrantTypeException;
 import com.stripe.exception.oauth.UnsupportedResponseTypeException;
+import com.stripe.model.ExpandedObjectInterner;
+import com.stripe.model.StripeCollection;
+import com.stripe.model.StripeCollectionInterface;
 import com.stripe.model.StripeError;
+import com.stripe.model.StripeErrorResponse;
 import com.stripe.model.StripeObject;
 import com.stripe.model.StripeObjectInterface;
 import com.stripe.model.oauth.OAuthError;
@@ -50,27 +53,44 @@ public class LiveStripeResponseGetter implements StripeResponseGetter {
       Class<T> clazz,
       RequestOptions options)
       throws StripeException {
-    StripeRequest request = new StripeRequest(method, url, params, options);
+    return request(new StripeRequest(method, url, params, options), clazz);
+  }
+
+  @Override
+  public <T extends StripeObjectInterface> T request(StripeRequest request, Class<T> clazz)
+      throws StripeException {
     StripeResponse response = httpClient.requestWithRetries(request);
 
     int responseCode = response.code();
-    String responseBody = response.body();
-    String requestId = response.requestId();
-
     if (responseCode < 200 || responseCode >= 300) {
-      handleApiError(response);
+      throw buildApiException(parseApiError(response));
     }
 
-    T resource = null;
-    try {
-      resource = ApiResource.GSON.fromJson(responseBody, clazz);
-    } catch (JsonSyntaxException e) {
-      raiseMalformedJsonError(responseBody, responseCode, requestId, e);
-    }
+    return deserializeResponse(request, response, clazz);
+  }
+
+  @Override
+  public <T extends StripeObjectInterface> StripeResult<T> requestResult(
+      ApiResource.RequestMethod method,
+      String url,
+      Map<String, Object> params,
+      Class<T> clazz,
+      RequestOptions options)
+      throws StripeException {
+    return requestResult(new StripeRequest(method, url, params, options), clazz);
+  }
+
+  @Override
+  public <T extends StripeObjectInterface> StripeResult<T> requestResult(
+      StripeRequest request, Class<T> clazz) throws StripeException {
+    StripeResponse response = httpClient.requestWithRetries(request);
 
-    resource.setLastResponse(response);
+    int responseCode = response.code();
+    if (responseCode < 200 || responseCode >= 300) {
+      return StripeResult.failure(parseApiError(response));
+    }
 
-    return resource;
+    return StripeResult.success(deserializeResponse(request, response, clazz));
   }
 
   @Override
@@ -94,19 +114,79 @@ public class LiveStripeResponseGetter implements StripeResponseGetter {
 
     T resource = null;
     try {
-      resource = ApiResource.GSON.fromJson(responseBody, clazz);
-    } catch (JsonSyntaxException e) {
+      resource = ApiResource.getJsonCodec().deserialize(responseBody, clazz);
+    } catch (JsonCodecException e) {
       raiseMalformedJsonError(responseBody, responseCode, requestId, e);
     }
 
     if (resource instanceof StripeObject) {
       StripeObject obj = (StripeObject) resource;
-      obj.setLastResponse(response);
+      obj.setLastResponse(ResponseRetentionPolicy.of(options).retain(response));
+    }
+
+    return resource;
+  }
+
+  private static <T extends StripeObjectInterface> T deserializeResponse(
+      StripeRequest request, StripeResponse response, Class<T> clazz) throws ApiException {
+    ExpansionInterning interning = request.options().getExpansionInterning();
+    ExpandedObjectInterner interner = null;
+    if (interning != null && interning != ExpansionInterning.NONE) {
+      // Reuse the interner of the paging session, if any
+      interner = ExpandedObjectInterner.current();
+      if (interner == null) {
+        interner = new ExpandedObjectInterner();
+      }
+    }
+
+    T resource = null;
+    // Embedded collections are paginated with the options of the request
+    RequestOptions previousOptions =
+        CollectionRequestOptionsTypeAdapterFactory.enter(request.options());
+    try {
+      resource = deserialize(response.body(), clazz, request.options(), interner);
+    } catch (JsonCodecException | JsonSyntaxException e) {
+      raiseMalformedJsonError(response.body(), response.code(), response.requestId(), e);
+    } finally {
+      CollectionRequestOptionsTypeAdapterFactory.exit(previousOptions);
+    }
+
+    if (interning == ExpansionInterning.PAGING_SESSION && resource instanceof StripeCollection) {
+      ((StripeCollection<?>) resource).setExpandedObjectInterner(interner);
     }
 
+    resource.setLastResponse(ResponseRetentionPolicy.of(request.options()).retain(response));
+
     return resource;
   }
 
+  private static <T extends StripeObjectInterface> T deserialize(
+      String responseBody,
+      Class<T> clazz,
+      RequestOptions options,
+      ExpandedObjectInterner interner) {
+    if (interner == null || interner == ExpandedObjectInterner.current()) {
+      return deserialize(responseBody, clazz, options.getResponseProjection());
+    }
+    ExpandedObjectInterner.Scope scope = interner.enter();
+    try {
+      return deserialize(responseBody, clazz, options.getResponseProjection());
+    } finally {
+      scope.close();
+    }
+  }
+
+  private static <T extends StripeObjectInterface> T deserialize(
+      String responseBody, Class<T> clazz, ResponseProjection projection) {
+    JsonCodec codec = ApiResource.getJsonCodec();
+    if (projection == null) {
+      return codec.deserialize(responseBody, clazz);
+    }
+
+    boolean collection = StripeCollectionInterface.class.isAssignableFrom(clazz);
+    return codec.deserialize(projection.project(responseBody, collection), clazz);
+  }
+
   private static HttpClient buildDefaultHttpClient() {
     return new HttpURLConnectionClient();
   }
@@ -124,15 +204,23 @@ public class LiveStripeResponseGetter implements StripeResponseGetter {
         e);
   }
 
-  private static void handleApiError(StripeResponse response) throws StripeException {
+  /**
+   * Parses the error of a failed API request.
+   *
+   * @param response the response of the failed request
+   * @return the error, with the response as its last response
+   * @throws ApiException if the response does not contain an error object
+   */
+  static StripeError parseApiError(StripeResponse response) throws ApiException {
     StripeError error = null;
-    StripeException exception = null;
 
     try {
-      JsonObject jsonObject =
-          ApiResource.GSON.fromJson(response.body(), JsonObject.class).getAsJsonObject("error");
-      error = ApiResource.GSON.fromJson(jsonObject, StripeError.class);
-    } catch (JsonSyntaxException e) {
+      StripeErrorResponse errorResponse =
+          ApiResource.getJsonCodec().deserialize(response.body(), StripeErrorResponse.class);
+      if (errorResponse != null) {
+        error = errorResponse.getError();
+      }
+    } catch (JsonCodecException e) {
       raiseMalformedJsonError(response.body(), response.code(), response.requestId(), e);
     }
     if (error == null) {
@@ -141,6 +229,19 @@ public class LiveStripeResponseGetter implements StripeResponseGetter {
 
     error.setLastResponse(response);
 
+    return error;
+  }
+
+  /**
+   * Builds the exception reporting an error parsed by {@link #parseApiError}.
+   *
+   * @param error the error
+   * @return the exception, whose type depends on the HTTP status code and error type
+   */
+  static StripeException buildApiException(StripeError error) {
+    StripeResponse response = error.getLastResponse();
+    StripeException exception = null;
+
     switch (response.code()) {
       case 400:
       case 404:
@@ -200,7 +301,7 @@ public class LiveStripeResponseGetter implements StripeResponseGetter {
 
     exception.setStripeError(error);
 
-    throw exception;
+    return exception;
   }
 
   private static void handleOAuthError(StripeResponse response) throws StripeException {
@@ -208,8 +309,8 @@ public class LiveStripeResponseGetter implements StripeResponseGetter {
     StripeException exception = null;
 
     try {
-      error = ApiResource.GSON.fromJson(response.body(), OAuthError.class);
-    } catch (JsonSyntaxException e) {
+      error = ApiResource.getJsonCodec().deserialize(response.body(), OAuthError.class);
+    } catch (JsonCodecException e) {
       raiseMalformedJsonError(response.body(), response.code(), response.requestId(), e);
     }
     if (error == null) {
@@ -0,0 +1,133 @@
+package com.stripe.net;
+
+import com.google.gson.stream.JsonWriter;
+import java.util.Set;
+
+/**
+ * A {@link JsonWriter} that collects the top-level keys of what is written to it and discards the
+ * values. It is driven by the type adapters of {@link ApiRequestParamsConverter} to find the keys
+ * of typed request params without converting them to an untyped map.
+ *
+ * <p>The collected keys are the ones of {@link
+ * ApiRequestParamsConverter#convert(ApiRequestParams)}: null values are skipped unless written
+ * while null serialization is enabled, and the keys of the top-level {@link
+ * ApiRequestParams#EXTRA_PARAMS_KEY} object are collected as top-level keys.
+ */
+final class ParamKeysJsonWriter extends JsonWriter {
+  private final Set<String> keys;
+
+  /** Depth of the object or array being written, {@code 1} for the top-level object. */
+  private int depth;
+
+  /** Whether the top-level extra params object is being written. */
+  private boolean extraParams;
+
+  private String deferredName;
+
+  ParamKeysJsonWriter(Set<String> keys) {
+    super(FormEncodingJsonWriter.UNUSED_WRITER);
+    this.keys = keys;
+  }
+
+  @Override
+  public JsonWriter beginObject() {
+    if (this.depth == 1 && ApiRequestParams.EXTRA_PARAMS_KEY.equals(this.deferredName)) {
+      this.deferredName = null;
+      this.extraParams = true;
+    } else {
+      addKey();
+    }
+    this.depth++;
+    return this;
+  }
+
+  @Override
+  public JsonWriter endObject() {
+    this.depth--;
+    if (this.depth == 1) {
+      this.extraParams = false;
+    }
+    return this;
+  }
+
+  @Override
+  public JsonWriter beginArray() {
+    addKey();
+    this.depth++;
+    return this;
+  }
+
+  @Override
+  public JsonWriter endArray() {
+    this.depth--;
+    return this;
+  }
+
+  @Override
+  public JsonWriter name(String name) {
+    if (name == null) {
+      throw new NullPointerException("name == null");
+    }
+    this.deferredName = name;
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(String value) {
+    return (value == null) ? nullValue() : addKey();
+  }
+
+  @Override
+  public JsonWriter jsonValue(String value) {
+    return value(value);
+  }
+
+  @Override
+  public JsonWriter nullValue() {
+    if (!getSerializeNulls()) {
+      this.deferredName = null;
+      return this;
+    }
+    return addKey();
+  }
+
+  @Override
+  public JsonWriter value(boolean value) {
+    return addKey();
+  }
+
+  @Override
+  public JsonWriter value(Boolean value) {
+    return (value == null) ? nullValue() : addKey();
+  }
+
+  @Override
+  public JsonWriter value(double value) {
+    return addKey();
+  }
+
+  @Override
+  public JsonWriter value(long value) {
+    return addKey();
+  }
+
+  @Override
+  public JsonWriter value(Number value) {
+    return (value == null) ? nullValue() : addKey();
+  }
+
+  @Override
+  public void flush() {}
+
+  @Override
+  public void close() {}
+
+  /** Collects the name of the value being written, if it is a top-level key. */
+  private JsonWriter addKey() {
+    if (this.depth == 1 || (this.depth == 2 && this.extraParams)) {
+      this.keys.add(this.deferredName);
+    }
+    this.deferredName = null;
+    return this;
+  }
+}
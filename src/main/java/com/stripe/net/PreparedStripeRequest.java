@@ -0,0 +1,363 @@
+package com.stripe.net;
+
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.StripeObjectInterface;
+import java.io.IOException;
+import java.net.URL;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A request template for sending many requests that only differ by a few parameters, e.g. usage
+ * records where only the quantity and timestamp change.
+ *
+ * <p>Everything that does not depend on the variable parameters is done once when the template is
+ * built: the API key is validated, the request headers are built, and the constant parameters are
+ * form-encoded. Binding the variable parameters then only encodes those and appends them to the
+ * constant ones.
+ *
+ * <pre>{@code
+ * PreparedStripeRequest<UsageRecord> createUsageRecord =
+ *     PreparedStripeRequest.builder(
+ *             ApiResource.RequestMethod.POST,
+ *             Stripe.getApiBase() + "/v1/subscription_items/si_123/usage_records",
+ *             UsageRecord.class)
+ *         .setParams(Collections.singletonMap("action", "increment"))
+ *         .build();
+ *
+ * Map<String, Object> params = new HashMap<>();
+ * params.put("quantity", 10);
+ * params.put("timestamp", Instant.now().getEpochSecond());
+ * UsageRecord usageRecord = createUsageRecord.request(params);
+ * }</pre>
+ *
+ * <p>The request options, including the global configuration they default to (API key, API
+ * version...), are captured when the template is built. Templates are immutable and can be shared
+ * between threads.
+ *
+ * @param <T> the type of the response object
+ */
+public final class PreparedStripeRequest<T extends StripeObjectInterface> {
+  private final ApiResource.RequestMethod method;
+
+  private final String url;
+
+  private final Class<T> clazz;
+
+  private final RequestOptions options;
+
+  /** The constant parameters. */
+  private final Map<String, Object> params;
+
+  /** The constant parameters, form-encoded. */
+  private final byte[] encodedParams;
+
+  /** The URL of the requests, with the constant parameters in its query string if not POST. */
+  private final URL requestUrl;
+
+  /** The headers of every request, except {@code Idempotency-Key}. */
+  private final HttpHeaders headers;
+
+  private PreparedStripeRequest(
+      ApiResource.RequestMethod method,
+      String url,
+      Class<T> clazz,
+      Map<String, Object> params,
+      RequestOptions options)
+      throws StripeException {
+    this.method = method;
+    this.url = url;
+    this.clazz = clazz;
+    this.options = (options != null) ? options : RequestOptions.getDefault();
+    this.params =
+        (params != null)
+            ? Collections.unmodifiableMap(new HashMap<>(params))
+            : Collections.emptyMap();
+
+    if (this.options.getIdempotencyKey() != null) {
+      throw new IllegalArgumentException(
+          "Request options of a prepared request cannot have an idempotency key, as it would be "
+              + "reused by every request. Pass idempotency keys when binding requests instead.");
+    }
+    IdempotencyKeyGenerator generator = this.options.getIdempotencyKeyGenerator();
+    if (generator == null) {
+      generator = Stripe.getIdempotencyKeyGenerator();
+    }
+    if (generator instanceof BusinessKeyIdempotencyKeyGenerator) {
+      throw new IllegalArgumentException(
+          "Prepared requests cannot use a business key idempotency key generator, as its key "
+              + "would be reused by every request. Pass idempotency keys when binding requests "
+              + "instead.");
+    }
+
+    FormEncodingBuffer buffer = FormEncodingBuffer.acquire();
+    try {
+      if (!FormEncoder.encodeParams(this.params, buffer)) {
+        throw new IllegalArgumentException("Prepared requests cannot have file parameters.");
+      }
+      this.encodedParams = buffer.toByteArray();
+    } finally {
+      buffer.release();
+    }
+
+    try {
+      this.requestUrl =
+          new URL(
+              (method == ApiResource.RequestMethod.POST)
+                  ? url
+                  : appendQueryString(url, new String(this.encodedParams, ApiResource.CHARSET)));
+    } catch (IOException e) {
+      throw StripeRequest.buildConnectionException(e);
+    }
+    this.headers = StripeRequest.getHeaderBlock(this.options);
+  }
+
+  /**
+   * Returns a builder for a request template.
+   *
+   * @param method the HTTP method
+   * @param url the URL of the requests
+   * @param clazz the class of the response object
+   * @return the builder
+   */
+  public static <T extends StripeObjectInterface> Builder<T> builder(
+      ApiResource.RequestMethod method, String url, Class<T> clazz) {
+    return new Builder<>(method, url, clazz);
+  }
+
+  /**
+   * Binds the variable parameters and sends the request.
+   *
+   * @param params the variable parameters, which must not repeat any constant parameter
+   * @return the response object
+   * @throws StripeException if the request fails
+   */
+  public T request(Map<String, Object> params) throws StripeException {
+    return request(bind(params, null));
+  }
+
+  /**
+   * Binds the variable parameters and sends the request.
+   *
+   * @param params the variable parameters, which must not repeat any constant parameter
+   * @return the response object
+   * @throws StripeException if the request fails
+   */
+  public T request(ApiRequestParams params) throws StripeException {
+    return request(bind(params, null));
+  }
+
+  /**
+   * Sends a request bound from this template.
+   *
+   * @param request the bound request
+   * @return the response object
+   * @throws StripeException if the request fails
+   */
+  public T request(StripeRequest request) throws StripeException {
+    return ApiResource.request(request, this.clazz);
+  }
+
+  /**
+   * Binds the variable parameters and sends the request, reporting API errors as failed results
+   * instead of throwing them. See {@link StripeResult} for details.
+   *
+   * @param params the variable parameters, which must not repeat any constant parameter
+   * @return the result of the request
+   * @throws StripeException if the request fails without an API error, e.g. on network errors
+   */
+  public StripeResult<T> requestResult(Map<String, Object> params) throws StripeException {
+    return ApiResource.requestResult(bind(params, null), this.clazz);
+  }
+
+  /**
+   * Binds the variable parameters and sends the request, reporting API errors as failed results
+   * instead of throwing them. See {@link StripeResult} for details.
+   *
+   * @param params the variable parameters, which must not repeat any constant parameter
+   * @return the result of the request
+   * @throws StripeException if the request fails without an API error, e.g. on network errors
+   */
+  public StripeResult<T> requestResult(ApiRequestParams params) throws StripeException {
+    return ApiResource.requestResult(bind(params, null), this.clazz);
+  }
+
+  /**
+   * Binds the variable parameters, without sending the request.
+   *
+   * @param params the variable parameters, which must not repeat any constant parameter
+   * @param idempotencyKey the idempotency key of the request, or null to generate one for POST
+   *     requests
+   * @return the request
+   * @throws StripeException if the request cannot be built
+   */
+  public StripeRequest bind(Map<String, Object> params, String idempotencyKey)
+      throws StripeException {
+    checkConstantParams(params);
+    return bindParams(params, idempotencyKey);
+  }
+
+  /**
+   * Binds the variable parameters, without sending the request.
+   *
+   * @param params the variable parameters, which must not repeat any constant parameter
+   * @param idempotencyKey the idempotency key of the request, or null to generate one for POST
+   *     requests
+   * @return the request
+   * @throws StripeException if the request cannot be built
+   */
+  public StripeRequest bind(ApiRequestParams params, String idempotencyKey) throws StripeException {
+    ApiResource.checkNullTypedParams(this.url, params);
+    Map<String, Object> paramsMap = TypedParamsMap.of(params);
+    checkConstantParams(paramsMap);
+    return bindParams(paramsMap, idempotencyKey);
+  }
+
+  private void checkConstantParams(Map<String, Object> params) {
+    if (params == null || this.params.isEmpty()) {
+      return;
+    }
+    // Typed params are checked without being converted to a map, since they are encoded directly
+    Set<String> keys =
+        (params instanceof TypedParamsMap) ? ((TypedParamsMap) params).keys() : params.keySet();
+    for (String key : keys) {
+      if (this.params.containsKey(key)) {
+        throw new IllegalArgumentException(
+            String.format("Param `%s` is already a constant param of this prepared request.", key));
+      }
+    }
+  }
+
+  private StripeRequest bindParams(Map<String, Object> params, String idempotencyKey)
+      throws StripeException {
+    // Typed params are assumed to be non-empty, rather than converted to a map to find out
+    boolean hasParams = (params != null) && (params instanceof TypedParamsMap || !params.isEmpty());
+    try {
+      URL url = this.requestUrl;
+      HttpContent content = null;
+      if (this.method == ApiResource.RequestMethod.POST) {
+        content =
+            hasParams
+                ? buildContent(params)
+                : HttpContent.buildEncodedFormContent(this.encodedParams.clone());
+        if (idempotencyKey == null) {
+          idempotencyKey = StripeRequest.generateIdempotencyKey(this.options);
+        }
+      } else if (hasParams) {
+        url =
+            new URL(
+                appendQueryString(
+                    this.requestUrl.toString(), FormEncoder.createQueryString(params)));
+      }
+
+      HttpHeaders headers =
+          (idempotencyKey != null)
+              ? this.headers.withAdditionalHeader("Idempotency-Key", idempotencyKey)
+              : this.headers;
+      return new StripeRequest(
+          this.method,
+          url,
+          this.url,
+          content,
+          headers,
+          hasParams ? new MergedParams(this.params, params) : this.params,
+          this.options);
+    } catch (IOException e) {
+      throw StripeRequest.buildConnectionException(e);
+    }
+  }
+
+  private HttpContent buildContent(Map<String, Object> params) throws IOException {
+    FormEncodingBuffer buffer = FormEncodingBuffer.acquire();
+    try {
+      buffer.writeEncoded(this.encodedParams);
+      if (!FormEncoder.encodeParams(params, buffer)) {
+        return FormEncoder.createHttpContent(new MergedParams(this.params, params));
+      }
+      return HttpContent.buildEncodedFormContent(buffer.toByteArray());
+    } finally {
+      buffer.release();
+    }
+  }
+
+  private static String appendQueryString(String url, String queryString) {
+    if (queryString.isEmpty()) {
+      return url;
+    }
+    return url + (url.indexOf('?') == -1 ? '?' : '&') + queryString;
+  }
+
+  /** Builder for {@link PreparedStripeRequest}. */
+  public static final class Builder<T extends StripeObjectInterface> {
+    private final ApiResource.RequestMethod method;
+    private final String url;
+    private final Class<T> clazz;
+    private Map<String, Object> params;
+    private RequestOptions options;
+
+    private Builder(ApiResource.RequestMethod method, String url, Class<T> clazz) {
+      this.method = method;
+      this.url = url;
+      this.clazz = clazz;
+    }
+
+    /** Sets the parameters that are the same for every request. */
+    public Builder<T> setParams(Map<String, Object> params) {
+      this.params = params;
+      return this;
+    }
+
+    /** Sets the parameters that are the same for every request. */
+    public Builder<T> setParams(ApiRequestParams params) {
+      ApiResource.checkNullTypedParams(this.url, params);
+      this.params = params.toMap();
+      return this;
+    }
+
+    /**
+     * Sets the request options, which must not have an idempotency key or a {@link
+     * IdempotencyKeyGenerator#fromBusinessKey business key} generator.
+     */
+    public Builder<T> setOptions(RequestOptions options) {
+      this.options = options;
+      return this;
+    }
+
+    /**
+     * Builds the request template.
+     *
+     * @return the request template
+     * @throws StripeException if the API key is missing or invalid
+     */
+    public PreparedStripeRequest<T> build() throws StripeException {
+      return new PreparedStripeRequest<>(
+          this.method, this.url, this.clazz, this.params, this.options);
+    }
+  }
+
+  /** Unmodifiable view of the constant and variable parameters of a bound request. */
+  private static final class MergedParams extends AbstractMap<String, Object> {
+    private final Map<String, Object> constantParams;
+    private final Map<String, Object> variableParams;
+    private Map<String, Object> merged;
+
+    MergedParams(Map<String, Object> constantParams, Map<String, Object> variableParams) {
+      this.constantParams = constantParams;
+      this.variableParams = variableParams;
+    }
+
+    @Override
+    public synchronized Set<Entry<String, Object>> entrySet() {
+      if (this.merged == null) {
+        Map<String, Object> merged = new HashMap<>(this.constantParams);
+        merged.putAll(this.variableParams);
+        this.merged = Collections.unmodifiableMap(merged);
+      }
+      return this.merged.entrySet();
+    }
+  }
+}
@@ -27,6 +27,14 @@ public class RequestOptions {
   private final Proxy connectionProxy;
   private final PasswordAuthentication proxyCredential;
 
+  private final ResponseProjection responseProjection;
+
+  private final IdempotencyKeyGenerator idempotencyKeyGenerator;
+
+  private final ResponseRetentionPolicy responseRetentionPolicy;
+
+  private final ExpansionInterning expansionInterning;
+
   public static RequestOptions getDefault() {
     return new RequestOptions(
         Stripe.apiKey,
@@ -38,7 +46,11 @@ public class RequestOptions {
         Stripe.getReadTimeout(),
         Stripe.getMaxNetworkRetries(),
         Stripe.getConnectionProxy(),
-        Stripe.getProxyCredential());
+        Stripe.getProxyCredential(),
+        null,
+        null,
+        null,
+        null);
   }
 
   private RequestOptions(
@@ -51,7 +63,11 @@ public class RequestOptions {
       int readTimeout,
       int maxNetworkRetries,
       Proxy connectionProxy,
-      PasswordAuthentication proxyCredential) {
+      PasswordAuthentication proxyCredential,
+      ResponseProjection responseProjection,
+      IdempotencyKeyGenerator idempotencyKeyGenerator,
+      ResponseRetentionPolicy responseRetentionPolicy,
+      ExpansionInterning expansionInterning) {
     this.apiKey = apiKey;
     this.clientId = clientId;
     this.idempotencyKey = idempotencyKey;
@@ -62,6 +78,10 @@ public class RequestOptions {
     this.maxNetworkRetries = maxNetworkRetries;
     this.connectionProxy = connectionProxy;
     this.proxyCredential = proxyCredential;
+    this.responseProjection = responseProjection;
+    this.idempotencyKeyGenerator = idempotencyKeyGenerator;
+    this.responseRetentionPolicy = responseRetentionPolicy;
+    this.expansionInterning = expansionInterning;
   }
 
   public String getApiKey() {
@@ -108,6 +128,40 @@ public class RequestOptions {
     return proxyCredential;
   }
 
+  public ResponseProjection getResponseProjection() {
+    return responseProjection;
+  }
+
+  /**
+   * Returns the generator of the idempotency key of POST requests made with these options and
+   * without an explicit idempotency key.
+   *
+   * @return the generator, or {@code null} to use {@link Stripe#getIdempotencyKeyGenerator()}
+   */
+  public IdempotencyKeyGenerator getIdempotencyKeyGenerator() {
+    return idempotencyKeyGenerator;
+  }
+
+  /**
+   * Returns how much of their response the objects returned by requests made with these options
+   * keep.
+   *
+   * @return the policy, or {@code null} to use {@link Stripe#getResponseRetentionPolicy()}
+   */
+  public ResponseRetentionPolicy getResponseRetentionPolicy() {
+    return responseRetentionPolicy;
+  }
+
+  /**
+   * Returns whether the expanded objects of the responses of requests made with these options are
+   * interned.
+   *
+   * @return the interning mode, or {@code null} if expanded objects are not interned
+   */
+  public ExpansionInterning getExpansionInterning() {
+    return expansionInterning;
+  }
+
   public static RequestOptionsBuilder builder() {
     return new RequestOptionsBuilder();
   }
@@ -132,6 +186,10 @@ public class RequestOptions {
     private int maxNetworkRetries;
     private Proxy connectionProxy;
     private PasswordAuthentication proxyCredential;
+    private ResponseProjection responseProjection;
+    private IdempotencyKeyGenerator idempotencyKeyGenerator;
+    private ResponseRetentionPolicy responseRetentionPolicy;
+    private ExpansionInterning expansionInterning;
 
     /**
      * Constructs a request options builder with the global parameters (API key and client ID) as
@@ -245,6 +303,87 @@ public class RequestOptions {
       return this;
     }
 
+    public ResponseProjection getResponseProjection() {
+      return responseProjection;
+    }
+
+    /**
+     * Sets the projection applied to the responses of requests made with these options. Only the
+     * projected fields are deserialized; see {@link ResponseProjection} for details.
+     *
+     * @param responseProjection the projection, or {@code null} to deserialize the full responses
+     */
+    public RequestOptionsBuilder setResponseProjection(ResponseProjection responseProjection) {
+      this.responseProjection = responseProjection;
+      return this;
+    }
+
+    public RequestOptionsBuilder clearResponseProjection() {
+      return setResponseProjection(null);
+    }
+
+    public IdempotencyKeyGenerator getIdempotencyKeyGenerator() {
+      return idempotencyKeyGenerator;
+    }
+
+    /**
+     * Sets the generator of the idempotency key of POST requests made without an explicit
+     * idempotency key. An idempotency key set with {@link #setIdempotencyKey} takes precedence.
+     *
+     * @param idempotencyKeyGenerator the generator, or {@code null} to use {@link
+     *     Stripe#getIdempotencyKeyGenerator()}
+     */
+    public RequestOptionsBuilder setIdempotencyKeyGenerator(
+        IdempotencyKeyGenerator idempotencyKeyGenerator) {
+      this.idempotencyKeyGenerator = idempotencyKeyGenerator;
+      return this;
+    }
+
+    public RequestOptionsBuilder clearIdempotencyKeyGenerator() {
+      return setIdempotencyKeyGenerator(null);
+    }
+
+    public ResponseRetentionPolicy getResponseRetentionPolicy() {
+      return responseRetentionPolicy;
+    }
+
+    /**
+     * Sets how much of their response the objects returned by requests made with these options
+     * keep, see {@link ResponseRetentionPolicy}.
+     *
+     * @param responseRetentionPolicy the policy, or {@code null} to use {@link
+     *     Stripe#getResponseRetentionPolicy()}
+     */
+    public RequestOptionsBuilder setResponseRetentionPolicy(
+        ResponseRetentionPolicy responseRetentionPolicy) {
+      this.responseRetentionPolicy = responseRetentionPolicy;
+      return this;
+    }
+
+    public RequestOptionsBuilder clearResponseRetentionPolicy() {
+      return setResponseRetentionPolicy(null);
+    }
+
+    public ExpansionInterning getExpansionInterning() {
+      return expansionInterning;
+    }
+
+    /**
+     * Sets whether the expanded objects of the responses of requests made with these options are
+     * interned, so that the occurrences of an object with the same type and ID share a single
+     * instance; see {@link ExpansionInterning} for details.
+     *
+     * @param expansionInterning the interning mode, or {@code null} to not intern expanded objects
+     */
+    public RequestOptionsBuilder setExpansionInterning(ExpansionInterning expansionInterning) {
+      this.expansionInterning = expansionInterning;
+      return this;
+    }
+
+    public RequestOptionsBuilder clearExpansionInterning() {
+      return setExpansionInterning(null);
+    }
+
     public RequestOptionsBuilder clearIdempotencyKey() {
       this.idempotencyKey = null;
       return this;
@@ -304,7 +443,11 @@ public class RequestOptions {
           readTimeout,
           maxNetworkRetries,
           connectionProxy,
-          proxyCredential);
+          proxyCredential,
+          responseProjection,
+          idempotencyKeyGenerator,
+          responseRetentionPolicy,
+          expansionInterning);
     }
   }
 
@@ -0,0 +1,287 @@
+package com.stripe.net;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.stripe.model.ExpandableField;
+import com.stripe.model.StripeObjectInterface;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.EqualsAndHashCode;
+
+/**
+ * A projection of API responses onto a subset of their fields.
+ *
+ * <p>When a projection is set on the {@link RequestOptions} of a request, the response body is
+ * scanned with a streaming reader and only the projected fields are kept; all other subtrees are
+ * skipped without being materialized. Model objects deserialized from a projected response have
+ * {@code null} values for every field that is not part of the projection.
+ *
+ * <p>Paths are dot-separated JSON field names, relative to the returned object. For list responses,
+ * paths are relative to each element of the list's {@code data}, and the list envelope ({@code
+ * has_more}, {@code url}...) is always kept so that auto-pagination keeps working. The {@code id}
+ * and {@code object} fields are always kept at every level, as they are required to deserialize
+ * expandable fields and polymorphic types.
+ *
+ * <pre>{@code
+ * RequestOptions options =
+ *     RequestOptions.builder()
+ *         .setResponseProjection(ResponseProjection.of("amount", "fee", "net", "currency"))
+ *         .build();
+ * for (BalanceTransaction txn : BalanceTransaction.list(params, options).autoPagingIterable()) {
+ *   ...
+ * }
+ * }</pre>
+ */
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public final class ResponseProjection {
+  /** Fields kept at every level, because deserialization depends on them. */
+  private static final Set<String> ALWAYS_RETAINED =
+      Collections.unmodifiableSet(new HashSet<>(Arrays.asList("id", "object")));
+
+  @EqualsAndHashCode.Include private final Set<String> paths;
+
+  private final Node root;
+
+  private ResponseProjection(Collection<String> paths) {
+    Set<String> sortedPaths = new TreeSet<>();
+    Node root = new Node();
+    for (String path : paths) {
+      if (path == null || path.isEmpty()) {
+        throw new IllegalArgumentException("Projection paths must be non-empty strings.");
+      }
+      sortedPaths.add(path);
+
+      Node node = root;
+      for (String part : path.split("\\.", -1)) {
+        if (part.isEmpty()) {
+          throw new IllegalArgumentException(
+              String.format("Invalid projection path `%s`: empty field name.", path));
+        }
+        node = node.children.computeIfAbsent(part, k -> new Node());
+      }
+      node.whole = true;
+    }
+
+    this.paths = Collections.unmodifiableSet(sortedPaths);
+    this.root = root;
+  }
+
+  /**
+   * Returns a projection keeping the given paths.
+   *
+   * @param paths dot-separated JSON field paths, e.g. {@code "amount"} or {@code "customer.email"}
+   * @return the projection
+   */
+  public static ResponseProjection of(String... paths) {
+    return of(Arrays.asList(paths));
+  }
+
+  /**
+   * Returns a projection keeping the given paths.
+   *
+   * @param paths dot-separated JSON field paths, e.g. {@code "amount"} or {@code "customer.email"}
+   * @return the projection
+   */
+  public static ResponseProjection of(Collection<String> paths) {
+    if (paths == null || paths.isEmpty()) {
+      throw new IllegalArgumentException("A projection must contain at least one path.");
+    }
+    return new ResponseProjection(paths);
+  }
+
+  /**
+   * Returns a projection keeping the fields declared by a "view" class. The JSON name of each field
+   * is taken from its {@link SerializedName} annotation if present, or derived from the Java field
+   * name using the same naming policy as the model classes ({@code netAmount} becomes {@code
+   * net_amount}). Fields whose type is itself a view class (or a collection of view classes) are
+   * projected recursively; fields whose type is a JDK type, an enum or a Stripe model class are
+   * kept whole.
+   *
+   * @param viewClass the view class
+   * @return the projection
+   */
+  public static ResponseProjection fromView(Class<?> viewClass) {
+    Set<String> paths = new TreeSet<>();
+    Set<Class<?>> visiting = new HashSet<>();
+    visiting.add(viewClass);
+    collectViewPaths(viewClass, null, paths, visiting);
+    if (paths.isEmpty()) {
+      throw new IllegalArgumentException(
+          String.format("View class %s does not declare any field.", viewClass.getName()));
+    }
+    return new ResponseProjection(paths);
+  }
+
+  /**
+   * Returns the projected paths.
+   *
+   * @return the (sorted, unmodifiable) set of projected paths
+   */
+  public Set<String> getPaths() {
+    return paths;
+  }
+
+  /**
+   * Projects the given JSON payload.
+   *
+   * @param json the JSON payload
+   * @param collection whether the payload is a list object, in which case the projection is applied
+   *     to the elements of its {@code data} array
+   * @return the projected JSON tree
+   * @throws JsonSyntaxException if the payload is not valid JSON
+   */
+  JsonElement project(String json, boolean collection) {
+    try (JsonReader reader = new JsonReader(new StringReader(json))) {
+      if (collection && reader.peek() == JsonToken.BEGIN_OBJECT) {
+        return projectCollection(reader);
+      }
+      return projectValue(reader, this.root);
+    } catch (IOException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ResponseProjection" + this.paths;
+  }
+
+  private JsonElement projectCollection(JsonReader reader) throws IOException {
+    JsonObject out = new JsonObject();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if ("data".equals(name)) {
+        out.add(name, projectValue(reader, this.root));
+      } else {
+        out.add(name, JsonParser.parseReader(reader));
+      }
+    }
+    reader.endObject();
+    return out;
+  }
+
+  private static JsonElement projectValue(JsonReader reader, Node node) throws IOException {
+    if (node.whole) {
+      return JsonParser.parseReader(reader);
+    }
+
+    switch (reader.peek()) {
+      case BEGIN_OBJECT:
+        JsonObject object = new JsonObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+          String name = reader.nextName();
+          Node child = node.children.get(name);
+          if (child != null) {
+            object.add(name, projectValue(reader, child));
+          } else if (ALWAYS_RETAINED.contains(name)) {
+            object.add(name, JsonParser.parseReader(reader));
+          } else {
+            reader.skipValue();
+          }
+        }
+        reader.endObject();
+        return object;
+      case BEGIN_ARRAY:
+        // Projections apply to each element of an array, e.g. `refunds.data.amount`
+        JsonArray array = new JsonArray();
+        reader.beginArray();
+        while (reader.hasNext()) {
+          array.add(projectValue(reader, node));
+        }
+        reader.endArray();
+        return array;
+      default:
+        return JsonParser.parseReader(reader);
+    }
+  }
+
+  private static void collectViewPaths(
+      Class<?> clazz, String prefix, Set<String> paths, Set<Class<?>> visiting) {
+    for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers)
+            || Modifier.isTransient(modifiers)
+            || field.isSynthetic()) {
+          continue;
+        }
+
+        String path = (prefix == null) ? jsonName(field) : prefix + "." + jsonName(field);
+        Class<?> nested = nestedViewClass(field);
+        if (nested != null && visiting.add(nested)) {
+          int count = paths.size();
+          collectViewPaths(nested, path, paths, visiting);
+          visiting.remove(nested);
+          if (paths.size() > count) {
+            continue;
+          }
+        }
+        paths.add(path);
+      }
+    }
+  }
+
+  private static String jsonName(Field field) {
+    SerializedName serializedName = field.getAnnotation(SerializedName.class);
+    if (serializedName != null) {
+      return serializedName.value();
+    }
+    return FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES.translateName(field);
+  }
+
+  private static Class<?> nestedViewClass(Field field) {
+    Class<?> type = field.getType();
+    if (type.isArray()) {
+      type = type.getComponentType();
+    } else if (Collection.class.isAssignableFrom(type)) {
+      Type genericType = field.getGenericType();
+      if (!(genericType instanceof ParameterizedType)) {
+        return null;
+      }
+      Type elementType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+      if (!(elementType instanceof Class<?>)) {
+        return null;
+      }
+      type = (Class<?>) elementType;
+    }
+
+    if (type.isPrimitive()
+        || type.isEnum()
+        || type.getName().startsWith("java.")
+        || StripeObjectInterface.class.isAssignableFrom(type)
+        || ExpandableField.class.isAssignableFrom(type)) {
+      return null;
+    }
+    return type;
+  }
+
+  /** A node of the projection tree. */
+  private static final class Node {
+    /** Child nodes, by JSON field name. */
+    final Map<String, Node> children = new HashMap<>();
+
+    /** Whether the whole subtree at this node is kept. */
+    boolean whole;
+  }
+}
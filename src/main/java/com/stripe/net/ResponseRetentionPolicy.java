@@ -0,0 +1,64 @@
+package com.stripe.net;
+
+import com.stripe.Stripe;
+import com.stripe.model.StripeObject;
+
+/**
+ * How much of the HTTP response is kept by the objects returned by the API, as their {@link
+ * StripeObject#getLastResponse() last response}.
+ *
+ * <p>By default, every returned object keeps the whole response, including its body. Applications
+ * that keep many objects around, e.g. caches of prices or products, can set a lighter policy with
+ * {@link Stripe#setResponseRetentionPolicy} or {@link
+ * RequestOptions.RequestOptionsBuilder#setResponseRetentionPolicy}. {@link
+ * StripeResponse#estimateRetainedBytes()} estimates the heap kept alive by a response.
+ *
+ * <p>{@link StripeObject#getRawJsonObject()} is computed from the body of the last response, so it
+ * returns {@code null} unless the policy is {@link #FULL} or the raw JSON object was already
+ * computed. The responses of failed requests, attached to their {@link
+ * com.stripe.model.StripeError}, are always kept whole.
+ */
+public enum ResponseRetentionPolicy {
+  /** Keep the whole response. */
+  FULL,
+
+  /**
+   * Keep the status code and headers of the response, which include the request ID and idempotency
+   * key, but not its body.
+   */
+  HEADERS_ONLY,
+
+  /** Do not keep the response: {@link StripeObject#getLastResponse()} returns {@code null}. */
+  NONE;
+
+  /**
+   * Returns the policy applied to requests made with the given options.
+   *
+   * @param options the request options, or {@code null}
+   * @return the policy of the options if set, or else the global policy
+   */
+  static ResponseRetentionPolicy of(RequestOptions options) {
+    ResponseRetentionPolicy policy =
+        (options != null) ? options.getResponseRetentionPolicy() : null;
+    return (policy != null) ? policy : Stripe.getResponseRetentionPolicy();
+  }
+
+  /**
+   * Returns what the objects returned by a request keep of its response under this policy.
+   *
+   * @param response the response
+   * @return the response to set as last response, possibly {@code null}
+   */
+  StripeResponse retain(StripeResponse response) {
+    switch (this) {
+      case HEADERS_ONLY:
+        StripeResponse headersOnly = new StripeResponse(response.code(), response.headers(), "");
+        headersOnly.numRetries(response.numRetries());
+        return headersOnly;
+      case NONE:
+        return null;
+      default:
+        return response;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.stripe.net;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A bounded table of canonical instances of the short "vocabulary" strings found in API responses,
+ * such as currencies ({@code usd}), statuses ({@code available}), object types ({@code charge}) or
+ * card brands ({@code visa}).
+ *
+ * <p>By default, every string in a response is deserialized as a new instance, so an application
+ * that keeps many objects in memory holds as many copies of each vocabulary string. When a
+ * canonicalizer is installed with {@link ApiResource#setStringCanonicalizer}, the deserialized
+ * vocabulary strings are replaced by the instance already in its table, and only one copy of each
+ * is kept.
+ *
+ * <p>Only strings that look like vocabulary are canonicalized: strings of at most 32 characters
+ * made of lowercase ASCII letters and {@code _}, {@code -} or {@code .} separators, and codes of up
+ * to three uppercase ASCII letters ({@code US}). IDs, amounts, names and free-form text are left
+ * as-is, so that they do not fill the table. Once the table holds {@code maxSize} strings, new
+ * strings are no longer added, and strings already in the table keep being canonicalized.
+ */
+public final class StringCanonicalizer {
+  /** Default maximum number of strings in the table. */
+  public static final int DEFAULT_MAX_SIZE = 4096;
+
+  /** Maximum length of the canonicalized strings. */
+  private static final int MAX_LENGTH = 32;
+
+  /** Maximum length of the canonicalized uppercase codes. */
+  private static final int MAX_CODE_LENGTH = 3;
+
+  private final ConcurrentMap<String, String> table = new ConcurrentHashMap<>();
+
+  private final int maxSize;
+
+  /** Initializes a new canonicalizer with a table of at most {@link #DEFAULT_MAX_SIZE} strings. */
+  public StringCanonicalizer() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Initializes a new canonicalizer.
+   *
+   * @param maxSize maximum number of strings in the table
+   */
+  public StringCanonicalizer(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive.");
+    }
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Returns the canonical instance of a string.
+   *
+   * @param value the string
+   * @return an equal string, which is the same instance for every call with an equal vocabulary
+   *     string while there is room in the table
+   */
+  public String canonicalize(String value) {
+    if (value == null || !isVocabulary(value)) {
+      return value;
+    }
+
+    String canonical = this.table.get(value);
+    if (canonical != null) {
+      return canonical;
+    }
+    if (this.table.size() >= this.maxSize) {
+      return value;
+    }
+    canonical = this.table.putIfAbsent(value, value);
+    return (canonical != null) ? canonical : value;
+  }
+
+  /**
+   * Returns the number of strings in the table.
+   *
+   * @return the number of strings in the table
+   */
+  public int size() {
+    return this.table.size();
+  }
+
+  static boolean isVocabulary(String value) {
+    int length = value.length();
+    if (length == 0 || length > MAX_LENGTH) {
+      return false;
+    }
+
+    char first = value.charAt(0);
+    if (first >= 'A' && first <= 'Z') {
+      if (length > MAX_CODE_LENGTH) {
+        return false;
+      }
+      for (int i = 1; i < length; i++) {
+        char c = value.charAt(i);
+        if (c < 'A' || c > 'Z') {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if ((c < 'a' || c > 'z') && c != '_' && c != '-' && c != '.') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
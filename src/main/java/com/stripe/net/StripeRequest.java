@@ -12,7 +12,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Value;
@@ -23,6 +24,12 @@ import lombok.experimental.Accessors;
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 @Accessors(fluent = true)
 public class StripeRequest {
+  /** Maximum number of cached header blocks, the cache is cleared when it is reached. */
+  private static final int MAX_HEADER_BLOCKS = 256;
+
+  private static final ConcurrentMap<HeaderBlockKey, HttpHeaders> HEADER_BLOCKS =
+      new ConcurrentHashMap<>();
+
   /** The HTTP method for the request (GET, POST or DELETE). */
   ApiResource.RequestMethod method;
 
@@ -32,6 +39,9 @@ public class StripeRequest {
    */
   URL url;
 
+  /** The URL the request was built from, without the request parameters. */
+  String baseUrl;
+
   /**
    * The body of the request. For POST requests, this will be either a {@code
    * application/x-www-form-urlencoded} or a {@code multipart/form-data} payload. For non-POST
@@ -71,17 +81,11 @@ public class StripeRequest {
       this.options = (options != null) ? options : RequestOptions.getDefault();
       this.method = method;
       this.url = buildURL(method, url, params);
+      this.baseUrl = url;
       this.content = buildContent(method, params);
       this.headers = buildHeaders(method, this.options);
     } catch (IOException e) {
-      throw new ApiConnectionException(
-          String.format(
-              "IOException during API request to Stripe (%s): %s "
-                  + "Please check your internet connection and try again. If this problem persists,"
-                  + "you should check Stripe's service status at https://twitter.com/stripestatus,"
-                  + " or let us know at support@stripe.com.",
-              Stripe.getApiBase(), e.getMessage()),
-          e);
+      throw buildConnectionException(e);
     }
   }
 
@@ -96,36 +100,44 @@ public class StripeRequest {
     return new StripeRequest(
         this.method,
         this.url,
+        this.baseUrl,
         this.content,
         this.headers.withAdditionalHeader(name, value),
         this.params,
         this.options);
   }
 
+  static ApiConnectionException buildConnectionException(IOException e) {
+    return new ApiConnectionException(
+        String.format(
+            "IOException during API request to Stripe (%s): %s "
+                + "Please check your internet connection and try again. If this problem persists,"
+                + "you should check Stripe's service status at https://twitter.com/stripestatus,"
+                + " or let us know at support@stripe.com.",
+            Stripe.getApiBase(), e.getMessage()),
+        e);
+  }
+
   private static URL buildURL(
       ApiResource.RequestMethod method, String spec, Map<String, Object> params)
       throws IOException {
-    StringBuilder sb = new StringBuilder();
-
-    sb.append(spec);
-
-    URL specUrl = new URL(spec);
-    String specQueryString = specUrl.getQuery();
-
-    if ((method != ApiResource.RequestMethod.POST) && (params != null)) {
-      String queryString = FormEncoder.createQueryString(params);
+    if ((method == ApiResource.RequestMethod.POST) || (params == null)) {
+      return new URL(spec);
+    }
 
-      if (queryString != null && !queryString.isEmpty()) {
-        if (specQueryString != null && !specQueryString.isEmpty()) {
-          sb.append("&");
-        } else {
-          sb.append("?");
-        }
-        sb.append(queryString);
-      }
+    String queryString = FormEncoder.createQueryString(params);
+    if (queryString.isEmpty()) {
+      return new URL(spec);
     }
 
-    return new URL(sb.toString());
+    // Append to the query string of the spec if it has a non-empty one, without parsing it twice
+    int queryStart = spec.indexOf('?');
+    int fragmentStart = spec.indexOf('#');
+    boolean hasQueryString =
+        (queryStart != -1)
+            && (queryStart < spec.length() - 1)
+            && (fragmentStart == -1 || queryStart < fragmentStart - 1);
+    return new URL(spec + (hasQueryString ? "&" : "?") + queryString);
   }
 
   private static HttpContent buildContent(
@@ -139,6 +151,72 @@ public class StripeRequest {
 
   private static HttpHeaders buildHeaders(ApiResource.RequestMethod method, RequestOptions options)
       throws AuthenticationException {
+    HttpHeaders headers = getHeaderBlock(options);
+
+    // Idempotency-Key
+    if (options.getIdempotencyKey() != null) {
+      return headers.withAdditionalHeader("Idempotency-Key", options.getIdempotencyKey());
+    } else if (method == ApiResource.RequestMethod.POST) {
+      return headers.withAdditionalHeader("Idempotency-Key", generateIdempotencyKey(options));
+    }
+
+    return headers;
+  }
+
+  /**
+   * Generates an idempotency key with the generator of the request options, or the global one if
+   * the options do not set a generator.
+   */
+  static String generateIdempotencyKey(RequestOptions options) {
+    IdempotencyKeyGenerator generator = options.getIdempotencyKeyGenerator();
+    if (generator == null) {
+      generator = Stripe.getIdempotencyKeyGenerator();
+    }
+    String key = generator.generateKey();
+    if (key == null || key.isEmpty()) {
+      throw new IllegalStateException(
+          String.format(
+              "Idempotency key generator %s returned an empty key.", generator.getClass()));
+    }
+    return key;
+  }
+
+  /**
+   * Returns the headers that only depend on the request options, i.e. all headers except {@code
+   * Idempotency-Key}. They are built once for each distinct combination of API key, API version and
+   * account.
+   *
+   * @param options the request options
+   * @return the headers
+   * @throws AuthenticationException if the API key is missing or invalid
+   */
+  static HttpHeaders getHeaderBlock(RequestOptions options) throws AuthenticationException {
+    HeaderBlockKey key =
+        new HeaderBlockKey(
+            options.getApiKey(),
+            options.getStripeVersion(),
+            options.getStripeVersionOverride(),
+            options.getStripeAccount());
+    HttpHeaders headers = HEADER_BLOCKS.get(key);
+    if (headers == null) {
+      headers = HttpHeaders.of(buildHeaderMap(options));
+      if (HEADER_BLOCKS.size() >= MAX_HEADER_BLOCKS) {
+        HEADER_BLOCKS.clear();
+      }
+      HEADER_BLOCKS.put(key, headers);
+    }
+    return headers;
+  }
+
+  /**
+   * Builds the headers that only depend on the request options.
+   *
+   * @param options the request options
+   * @return the (mutable) header map
+   * @throws AuthenticationException if the API key is missing or invalid
+   */
+  private static Map<String, List<String>> buildHeaderMap(RequestOptions options)
+      throws AuthenticationException {
     Map<String, List<String>> headerMap = new HashMap<String, List<String>>();
 
     // Accept
@@ -194,13 +272,15 @@ public class StripeRequest {
       headerMap.put("Stripe-Account", Arrays.asList(options.getStripeAccount()));
     }
 
-    // Idempotency-Key
-    if (options.getIdempotencyKey() != null) {
-      headerMap.put("Idempotency-Key", Arrays.asList(options.getIdempotencyKey()));
-    } else if (method == ApiResource.RequestMethod.POST) {
-      headerMap.put("Idempotency-Key", Arrays.asList(UUID.randomUUID().toString()));
-    }
+    return headerMap;
+  }
 
-    return HttpHeaders.of(headerMap);
+  /** The request options that headers depend on. */
+  @Value
+  private static class HeaderBlockKey {
+    String apiKey;
+    String stripeVersion;
+    String stripeVersionOverride;
+    String stripeAccount;
   }
 }
@@ -5,6 +5,8 @@ import static java.util.Objects.requireNonNull;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -17,6 +19,19 @@ import lombok.experimental.NonFinal;
 @Value
 @Accessors(fluent = true)
 public class StripeResponse {
+  /** Whether strings of Latin-1 characters are stored with one byte per character (Java 9+). */
+  private static final boolean COMPACT_STRINGS =
+      !System.getProperty("java.specification.version", "").startsWith("1.");
+
+  /** Approximate shallow size of a {@code String} and its backing array. */
+  private static final int STRING_OVERHEAD = 40;
+
+  /** Approximate shallow size of a header map entry and its list of values. */
+  private static final int HEADER_OVERHEAD = 80;
+
+  /** Approximate shallow size of this class, its headers and their map. */
+  private static final int RESPONSE_OVERHEAD = 120;
+
   /** The HTTP status code of the response. */
   int code;
 
@@ -79,4 +94,35 @@ public class StripeResponse {
   public String requestId() {
     return this.headers.firstValue("Request-Id").orElse(null);
   }
+
+  /**
+   * Estimates the number of bytes of heap retained by this response, i.e. by the objects it was
+   * returned with. The estimate covers the body and headers, and assumes a 64-bit JVM with
+   * compressed references. See {@link ResponseRetentionPolicy} to retain less of the responses.
+   *
+   * @return the estimated retained size, in bytes
+   */
+  public long estimateRetainedBytes() {
+    long size = RESPONSE_OVERHEAD + estimateStringBytes(this.body);
+    for (Map.Entry<String, List<String>> header : this.headers.map().entrySet()) {
+      size += HEADER_OVERHEAD + estimateStringBytes(header.getKey());
+      for (String value : header.getValue()) {
+        size += 4 + estimateStringBytes(value);
+      }
+    }
+    return size;
+  }
+
+  private static long estimateStringBytes(String str) {
+    int length = str.length();
+    if (!COMPACT_STRINGS) {
+      return STRING_OVERHEAD + 2L * length;
+    }
+    for (int i = 0; i < length; i++) {
+      if (str.charAt(i) > 0xFF) {
+        return STRING_OVERHEAD + 2L * length;
+      }
+    }
+    return STRING_OVERHEAD + length;
+  }
 }
@@ -3,6 +3,7 @@ package com.stripe.net;
 import com.stripe.exception.StripeException;
 import com.stripe.model.StripeObjectInterface;
 import java.util.Map;
+import java.util.Optional;
 
 public interface StripeResponseGetter {
   <T extends StripeObjectInterface> T request(
@@ -20,4 +21,83 @@ public interface StripeResponseGetter {
       Class<T> clazz,
       RequestOptions options)
       throws StripeException;
+
+  /**
+   * Sends a request, and reports API errors as failed results instead of throwing them. The default
+   * implementation catches the exceptions thrown by {@link #request(ApiResource.RequestMethod,
+   * String, Map, Class, RequestOptions)}; implementations should override it to avoid creating the
+   * exceptions.
+   *
+   * @param method the HTTP method
+   * @param url the URL of the request
+   * @param params the parameters of the request
+   * @param clazz the class of the response object
+   * @param options the request options
+   * @return the result of the request
+   * @throws StripeException if the request fails without an API error, e.g. on network errors
+   */
+  default <T extends StripeObjectInterface> StripeResult<T> requestResult(
+      ApiResource.RequestMethod method,
+      String url,
+      Map<String, Object> params,
+      Class<T> clazz,
+      RequestOptions options)
+      throws StripeException {
+    try {
+      return StripeResult.success(request(method, url, params, clazz, options));
+    } catch (StripeException e) {
+      if (e.getStripeError() == null) {
+        throw e;
+      }
+      return StripeResult.failure(e);
+    }
+  }
+
+  /**
+   * Sends an already built request, e.g. one bound from a {@link PreparedStripeRequest}.
+   *
+   * <p>The default implementation sends the request again from its method, base URL, parameters and
+   * options with {@link #request(ApiResource.RequestMethod, String, Map, Class, RequestOptions)},
+   * keeping its {@code Idempotency-Key}; implementations should override it to reuse the built URL,
+   * body and headers.
+   *
+   * @param request the request
+   * @param clazz the class of the response object
+   * @return the response object
+   * @throws StripeException if the request fails
+   */
+  default <T extends StripeObjectInterface> T request(StripeRequest request, Class<T> clazz)
+      throws StripeException {
+    RequestOptions options = request.options();
+    if (options.getIdempotencyKey() == null) {
+      Optional<String> idempotencyKey = request.headers().firstValue("Idempotency-Key");
+      if (idempotencyKey.isPresent()) {
+        options = options.toBuilder().setIdempotencyKey(idempotencyKey.get()).build();
+      }
+    }
+    return request(request.method(), request.baseUrl(), request.params(), clazz, options);
+  }
+
+  /**
+   * Sends an already built request, and reports API errors as failed results instead of throwing
+   * them. The default implementation catches the exceptions thrown by {@link
+   * #request(StripeRequest, Class)}; implementations should override it to avoid creating the
+   * exceptions.
+   *
+   * @param request the request
+   * @param clazz the class of the response object
+   * @return the result of the request
+   * @throws StripeException if the request fails without an API error, e.g. on network errors
+   */
+  default <T extends StripeObjectInterface> StripeResult<T> requestResult(
+      StripeRequest request, Class<T> clazz) throws StripeException {
+    try {
+      return StripeResult.success(request(request, clazz));
+    } catch (StripeException e) {
+      if (e.getStripeError() == null) {
+        throw e;
+      }
+      return StripeResult.failure(e);
+    }
+  }
 }
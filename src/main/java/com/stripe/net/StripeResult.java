@@ -0,0 +1,122 @@
+package com.stripe.net;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.StripeError;
+import com.stripe.model.StripeObjectInterface;
+
+/**
+ * The result of an API request that either returned an object or failed with an API error, e.g. a
+ * declined card.
+ *
+ * <p>Requests made with {@link ApiResource#requestResult} report API errors as failed results
+ * instead of throwing exceptions, so that expected errors can be handled without the cost of
+ * creating and throwing an exception for each of them:
+ *
+ * <pre>{@code
+ * StripeResult<PaymentIntent> result =
+ *     ApiResource.requestResult(
+ *         ApiResource.RequestMethod.POST,
+ *         Stripe.getApiBase() + "/v1/payment_intents",
+ *         params,
+ *         PaymentIntent.class,
+ *         null);
+ * if (result.isSuccess()) {
+ *   fulfill(result.getValue());
+ * } else if ("card_error".equals(result.getError().getType())) {
+ *   notifyDecline(result.getError().getDeclineCode());
+ * } else {
+ *   throw result.getException();
+ * }
+ * }</pre>
+ *
+ * @param <T> the type of the response object
+ */
+public final class StripeResult<T extends StripeObjectInterface> {
+  private final T value;
+
+  private final StripeError error;
+
+  private StripeException exception;
+
+  private StripeResult(T value, StripeError error, StripeException exception) {
+    this.value = value;
+    this.error = error;
+    this.exception = exception;
+  }
+
+  static <T extends StripeObjectInterface> StripeResult<T> success(T value) {
+    return new StripeResult<>(value, null, null);
+  }
+
+  static <T extends StripeObjectInterface> StripeResult<T> failure(StripeError error) {
+    return new StripeResult<>(null, error, null);
+  }
+
+  static <T extends StripeObjectInterface> StripeResult<T> failure(StripeException exception) {
+    return new StripeResult<>(null, exception.getStripeError(), exception);
+  }
+
+  /**
+   * Returns whether the request succeeded.
+   *
+   * @return {@code true} if the request returned an object, {@code false} if it failed with an API
+   *     error
+   */
+  public boolean isSuccess() {
+    return this.error == null;
+  }
+
+  /**
+   * Returns the object returned by the request.
+   *
+   * @return the object, or {@code null} if the request failed
+   */
+  public T getValue() {
+    return this.value;
+  }
+
+  /**
+   * Returns the error the request failed with. Its {@link StripeError#getLastResponse() last
+   * response} is the response of the request, including its status code and request ID.
+   *
+   * @return the error, or {@code null} if the request succeeded
+   */
+  public StripeError getError() {
+    return this.error;
+  }
+
+  /**
+   * Returns the exception that the request would have thrown if it had not been made with {@link
+   * ApiResource#requestResult}. The exception is only created when this method is first called.
+   *
+   * @return the exception, or {@code null} if the request succeeded
+   */
+  public synchronized StripeException getException() {
+    if (this.exception == null && this.error != null) {
+      this.exception = LiveStripeResponseGetter.buildApiException(this.error);
+    }
+    return this.exception;
+  }
+
+  /**
+   * Returns the object returned by the request, or throws the exception reporting its error.
+   *
+   * @return the object
+   * @throws StripeException if the request failed
+   */
+  public T getValueOrThrow() throws StripeException {
+    if (!isSuccess()) {
+      throw getException();
+    }
+    return this.value;
+  }
+
+  @Override
+  public String toString() {
+    if (isSuccess()) {
+      return "StripeResult[success]";
+    }
+    return String.format(
+        "StripeResult[failure, type=%s, code=%s]", this.error.getType(), this.error.getCode());
+  }
+}
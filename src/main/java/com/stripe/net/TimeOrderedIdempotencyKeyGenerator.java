@@ -0,0 +1,36 @@
+package com.stripe.net;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/** The default {@link IdempotencyKeyGenerator}, see {@link IdempotencyKeyGenerator#timeOrdered}. */
+final class TimeOrderedIdempotencyKeyGenerator implements IdempotencyKeyGenerator {
+  static final TimeOrderedIdempotencyKeyGenerator INSTANCE =
+      new TimeOrderedIdempotencyKeyGenerator();
+
+  private static final SecureRandom SEEDER = new SecureRandom();
+
+  /**
+   * Per-thread generators. {@link SplittableRandom} is not thread-safe, but each instance is only
+   * used by its thread, and only seeding one touches the shared {@link SecureRandom}.
+   */
+  private static final ThreadLocal<SplittableRandom> RANDOMS =
+      ThreadLocal.withInitial(() -> new SplittableRandom(SEEDER.nextLong()));
+
+  private TimeOrderedIdempotencyKeyGenerator() {}
+
+  @Override
+  public String generateKey() {
+    return nextUuid(System.currentTimeMillis()).toString();
+  }
+
+  static UUID nextUuid(long timestamp) {
+    SplittableRandom random = RANDOMS.get();
+    // 48 bits of timestamp, 4 bits of version (7), 12 pseudo-random bits
+    long mostSigBits = (timestamp << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+    // 2 bits of variant (IETF), 62 pseudo-random bits
+    long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    return new UUID(mostSigBits, leastSigBits);
+  }
+}
@@ -0,0 +1,116 @@
+package com.stripe.net;
+
+import java.lang.reflect.Method;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Untyped params map view of typed {@link ApiRequestParams}. The map is only materialized with
+ * {@link ApiRequestParams#toMap()} when it is actually read or modified; until then, {@link
+ * FormEncoder} recognizes this map and encodes the typed params directly instead, skipping the
+ * intermediate JSON tree and untyped map entirely. Once materialized, the map is encoded like any
+ * other map, so that its modifications are sent.
+ */
+final class TypedParamsMap extends AbstractMap<String, Object> {
+  /** Whether the params class can be encoded directly, i.e. does not override {@code toMap()}. */
+  private static final ClassValue<Boolean> DIRECTLY_ENCODABLE =
+      new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+          try {
+            Method toMap = type.getMethod("toMap");
+            return toMap.getDeclaringClass() == ApiRequestParams.class;
+          } catch (NoSuchMethodException e) {
+            return false;
+          }
+        }
+      };
+
+  private final ApiRequestParams params;
+
+  private Map<String, Object> map;
+
+  private TypedParamsMap(ApiRequestParams params) {
+    this.params = params;
+  }
+
+  /**
+   * Returns an untyped params map for the given typed params. Params classes that customize their
+   * conversion by overriding {@link ApiRequestParams#toMap()} are converted eagerly.
+   *
+   * @param params the typed params
+   * @return the untyped params map
+   */
+  static Map<String, Object> of(ApiRequestParams params) {
+    if (!DIRECTLY_ENCODABLE.get(params.getClass())) {
+      return params.toMap();
+    }
+    return new TypedParamsMap(params);
+  }
+
+  /**
+   * Form-encodes the typed params in one pass, unless the map was materialized. See {@link
+   * ApiRequestParamsConverter#encode(ApiRequestParams, FormEncodingBuffer)}.
+   *
+   * @param buffer the buffer to write to
+   * @return false if the map was materialized, in which case nothing was written and the map must
+   *     be encoded instead
+   */
+  synchronized boolean formEncode(FormEncodingBuffer buffer) {
+    if (this.map != null) {
+      return false;
+    }
+    ApiRequestParams.PARAMS_CONVERTER.encode(this.params, buffer);
+    return true;
+  }
+
+  /**
+   * Returns the keys of the map, without materializing it.
+   *
+   * @return the keys
+   */
+  synchronized Set<String> keys() {
+    if (this.map != null) {
+      return this.map.keySet();
+    }
+    return ApiRequestParams.PARAMS_CONVERTER.keys(this.params);
+  }
+
+  private synchronized Map<String, Object> map() {
+    if (this.map == null) {
+      this.map = this.params.toMap();
+    }
+    return this.map;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return map().entrySet();
+  }
+
+  @Override
+  public int size() {
+    return map().size();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return map().containsKey(key);
+  }
+
+  @Override
+  public Object get(Object key) {
+    return map().get(key);
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    return map().put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    return map().remove(key);
+  }
+}
@@ -1,5 +1,6 @@
 package com.stripe.net;
 
+import com.google.gson.JsonSyntaxException;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.model.Event;
 import com.stripe.util.StringUtils;
@@ -46,7 +47,12 @@ public final class Webhook {
   public static Event constructEvent(
       String payload, String sigHeader, String secret, long tolerance)
       throws SignatureVerificationException {
-    Event event = ApiResource.GSON.fromJson(payload, Event.class);
+    Event event;
+    try {
+      event = ApiResource.getJsonCodec().deserialize(payload, Event.class);
+    } catch (JsonCodecException e) {
+      throw new JsonSyntaxException(e.getMessage(), e);
+    }
     Signature.verifyHeader(payload, sigHeader, secret, tolerance);
     return event;
   }
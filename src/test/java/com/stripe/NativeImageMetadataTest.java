@@ -0,0 +1,147 @@
+package com.stripe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.stripe.model.Charge;
+import com.stripe.model.Event;
+import com.stripe.model.EventDataObjectDeserializer;
+import com.stripe.model.StripeObject;
+import com.stripe.net.Webhook;
+import com.stripe.param.ChargeCreateParams;
+import com.stripe.param.CustomerCreateParams;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the native-image metadata and AppCDS class list bundled in the JAR, which are generated by
+ * {@code gradle/native-image.gradle}.
+ */
+public class NativeImageMetadataTest {
+  private static final String NATIVE_IMAGE_DIR = "META-INF/native-image/com.stripe/stripe-java/";
+
+  private static String readResource(String name) throws IOException {
+    InputStream stream = NativeImageMetadataTest.class.getClassLoader().getResourceAsStream(name);
+    assertNotNull(stream, name);
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      return reader.lines().collect(Collectors.joining("\n"));
+    }
+  }
+
+  private static Set<String> reflectiveClasses() throws IOException {
+    JsonArray config =
+        JsonParser.parseString(readResource(NATIVE_IMAGE_DIR + "reflect-config.json"))
+            .getAsJsonArray();
+    Set<String> names = new HashSet<>();
+    for (JsonElement entry : config) {
+      assertTrue(entry.getAsJsonObject().get("allDeclaredFields").getAsBoolean());
+      names.add(entry.getAsJsonObject().get("name").getAsString());
+    }
+    return names;
+  }
+
+  /**
+   * Returns the library classes Gson reflects on to serialize or deserialize the given root
+   * classes: the classes themselves, their superclasses, and the types of their fields.
+   */
+  private static Set<Class<?>> reflectedClasses(List<Class<?>> roots) {
+    Set<Class<?>> seen = new HashSet<>();
+    Deque<Type> pending = new ArrayDeque<>(roots);
+    while (!pending.isEmpty()) {
+      Type type = pending.pop();
+      if (type instanceof ParameterizedType) {
+        pending.add(((ParameterizedType) type).getRawType());
+        pending.addAll(Arrays.asList(((ParameterizedType) type).getActualTypeArguments()));
+      } else if (type instanceof GenericArrayType) {
+        pending.add(((GenericArrayType) type).getGenericComponentType());
+      } else if (type instanceof Class) {
+        Class<?> clazz = (Class<?>) type;
+        if (clazz.isArray()) {
+          pending.add(clazz.getComponentType());
+        } else if (clazz.getName().startsWith("com.stripe.") && seen.add(clazz)) {
+          if (clazz.getGenericSuperclass() != null) {
+            pending.add(clazz.getGenericSuperclass());
+          }
+          for (Field field : clazz.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())
+                && !Modifier.isTransient(field.getModifiers())) {
+              pending.add(field.getGenericType());
+            }
+          }
+        }
+      }
+    }
+    return seen;
+  }
+
+  @Test
+  public void testReflectConfigCoversReflectedClasses() throws IOException {
+    Set<String> registered = reflectiveClasses();
+
+    Set<Class<?>> reflected =
+        reflectedClasses(
+            Arrays.asList(
+                Charge.class,
+                Event.class,
+                EventDataObjectDeserializer.class,
+                ChargeCreateParams.class,
+                CustomerCreateParams.class));
+
+    assertTrue(reflected.size() > 100);
+    for (Class<?> clazz : reflected) {
+      if (!clazz.isInterface() && clazz.getName().matches("com\\.stripe\\.(model|param)\\..*")) {
+        assertTrue(registered.contains(clazz.getName()), clazz.getName());
+      }
+    }
+  }
+
+  @Test
+  public void testReflectConfigExcludesNonReflectedClasses() throws IOException {
+    Set<String> registered = reflectiveClasses();
+
+    assertTrue(registered.contains(StripeObject.class.getName()));
+    assertFalse(registered.contains(Webhook.class.getName()));
+    assertFalse(registered.contains(Stripe.class.getName()));
+  }
+
+  @Test
+  public void testNativeImageProperties() throws IOException {
+    String properties = readResource(NATIVE_IMAGE_DIR + "native-image.properties");
+
+    assertTrue(properties.startsWith("Args = "), properties);
+    assertTrue(properties.contains("--enable-https"), properties);
+  }
+
+  @Test
+  public void testClassList() throws IOException {
+    List<String> classList =
+        Arrays.asList(readResource("META-INF/stripe-java/classlist").split("\n"));
+
+    assertTrue(classList.contains("com/stripe/Stripe"));
+    assertTrue(classList.contains("com/stripe/model/Charge"));
+    assertTrue(classList.contains("com/stripe/net/Webhook"));
+    assertEquals(classList.size(), new HashSet<>(classList).size());
+  }
+}
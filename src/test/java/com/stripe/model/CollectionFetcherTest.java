@@ -0,0 +1,191 @@
+package com.stripe.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.stripe.BaseStripeTest;
+import com.stripe.exception.StripeException;
+import com.stripe.net.ApiResource;
+import com.stripe.net.HttpClient;
+import com.stripe.net.HttpHeaders;
+import com.stripe.net.HttpURLConnectionClient;
+import com.stripe.net.LiveStripeResponseGetter;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.ResponseProjection;
+import com.stripe.net.StripeRequest;
+import com.stripe.net.StripeResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class CollectionFetcherTest extends BaseStripeTest {
+  private static final RequestOptions OPTIONS =
+      RequestOptions.builder().setApiKey("sk_test_parent").setStripeAccount("acct_123").build();
+
+  private HttpClient httpClient;
+
+  private final List<StripeRequest> requests = Collections.synchronizedList(new ArrayList<>());
+
+  /**
+   * Serves invoices whose first page of lines holds a single line, and the following pages of
+   * lines, one line per page up to the number of lines encoded in the invoice ID.
+   */
+  @BeforeEach
+  public void setUpHttpClient() throws StripeException {
+    this.httpClient = Mockito.spy(new HttpURLConnectionClient());
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(this.httpClient));
+
+    Mockito.doAnswer(
+            invocation -> {
+              StripeRequest request = invocation.getArgument(0);
+              requests.add(request);
+              String path = request.url().getPath();
+              String[] segments = path.split("/");
+              String invoiceId = segments[3];
+              if (segments.length == 4) {
+                return response(invoiceJson(invoiceId));
+              }
+              String startingAfter = request.params().get("starting_after").toString();
+              int index =
+                  Integer.parseInt(startingAfter.substring(startingAfter.lastIndexOf('_') + 1));
+              return response(linesJson(invoiceId, index + 1));
+            })
+        .when(this.httpClient)
+        .requestWithRetries(Mockito.<StripeRequest>any());
+  }
+
+  private static int lineCount(String invoiceId) {
+    return Integer.parseInt(invoiceId.substring(invoiceId.lastIndexOf('_') + 1));
+  }
+
+  private static String invoiceJson(String invoiceId) {
+    return String.format(
+        "{\"id\":\"%s\",\"object\":\"invoice\",\"lines\":%s}", invoiceId, linesJson(invoiceId, 0));
+  }
+
+  private static String linesJson(String invoiceId, int index) {
+    return String.format(
+        "{\"object\":\"list\",\"url\":\"/v1/invoices/%s/lines\",\"has_more\":%s,"
+            + "\"data\":[{\"id\":\"il_%s_%d\",\"object\":\"line_item\"}]}",
+        invoiceId, index + 1 < lineCount(invoiceId), invoiceId, index);
+  }
+
+  private static StripeResponse response(String body) {
+    return new StripeResponse(200, HttpHeaders.of(Collections.emptyMap()), body);
+  }
+
+  private static List<String> ids(List<InvoiceLineItem> lines) {
+    return lines.stream().map(InvoiceLineItem::getId).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testEmbeddedCollectionInheritsRequestOptions() throws StripeException {
+    Invoice invoice = Invoice.retrieve("in_3", OPTIONS);
+
+    assertEquals(OPTIONS, invoice.getLines().getRequestOptions());
+
+    List<String> ids = new ArrayList<>();
+    for (InvoiceLineItem line : invoice.getLines().autoPagingIterable()) {
+      ids.add(line.getId());
+    }
+
+    assertEquals(Arrays.asList("il_in_3_0", "il_in_3_1", "il_in_3_2"), ids);
+    assertEquals(3, requests.size());
+    for (StripeRequest request : requests) {
+      assertEquals("sk_test_parent", request.options().getApiKey());
+      assertEquals("acct_123", request.options().getStripeAccount());
+    }
+  }
+
+  @Test
+  public void testEmbeddedCollectionDoesNotInheritProjection() throws StripeException {
+    RequestOptions options =
+        OPTIONS.toBuilder().setResponseProjection(ResponseProjection.of("amount_due", "lines")).build();
+    Invoice invoice = Invoice.retrieve("in_3", options);
+
+    assertNull(invoice.getLines().getRequestOptions().getResponseProjection());
+
+    List<String> ids = new ArrayList<>();
+    for (InvoiceLineItem line : invoice.getLines().autoPagingIterable()) {
+      ids.add(line.getId());
+    }
+
+    // The lines of the following pages are not projected with the paths of the invoice.
+    assertEquals(Arrays.asList("il_in_3_0", "il_in_3_1", "il_in_3_2"), ids);
+    assertNull(requests.get(1).options().getResponseProjection());
+  }
+
+  @Test
+  public void testEmbeddedCollectionDoesNotInheritIdempotencyKey() throws StripeException {
+    RequestOptions options =
+        OPTIONS
+            .toBuilder()
+            .setIdempotencyKey("key_123")
+            .setIdempotencyKeyGenerator(() -> "generated_key")
+            .build();
+    Invoice invoice = Invoice.retrieve("in_3", options);
+
+    for (InvoiceLineItem line : invoice.getLines().autoPagingIterable()) {
+      assertNotNull(line.getId());
+    }
+
+    assertEquals(3, requests.size());
+    assertEquals("key_123", requests.get(0).headers().firstValue("Idempotency-Key").get());
+    for (StripeRequest request : requests.subList(1, 3)) {
+      assertFalse(request.headers().firstValue("Idempotency-Key").isPresent());
+      assertNull(request.options().getIdempotencyKeyGenerator());
+      assertEquals("acct_123", request.options().getStripeAccount());
+    }
+  }
+
+  @Test
+  public void testEmbeddedCollectionOptionsAreNotSerialized() throws StripeException {
+    Invoice invoice = Invoice.retrieve("in_1", OPTIONS);
+
+    assertFalse(invoice.toJson().contains("sk_test_parent"));
+  }
+
+  @Test
+  public void testFetchAll() throws StripeException {
+    List<Invoice> invoices = new ArrayList<>();
+    for (String id : Arrays.asList("in_1", "in_4", "in_2")) {
+      invoices.add(Invoice.retrieve(id, OPTIONS));
+    }
+    requests.clear();
+
+    Map<String, List<InvoiceLineItem>> lines =
+        CollectionFetcher.fetchAll(invoices, Invoice::getLines, 2);
+
+    assertEquals(Arrays.asList("in_1", "in_4", "in_2"), new ArrayList<>(lines.keySet()));
+    assertEquals(Arrays.asList("il_in_1_0"), ids(lines.get("in_1")));
+    assertEquals(
+        Arrays.asList("il_in_4_0", "il_in_4_1", "il_in_4_2", "il_in_4_3"), ids(lines.get("in_4")));
+    assertEquals(Arrays.asList("il_in_2_0", "il_in_2_1"), ids(lines.get("in_2")));
+    // The single-page collection is returned without any request.
+    assertEquals(4, requests.size());
+  }
+
+  @Test
+  public void testFetchAllFailure() throws StripeException {
+    List<Invoice> invoices = Arrays.asList(Invoice.retrieve("in_2", OPTIONS));
+    Mockito.doReturn(new StripeResponse(500, HttpHeaders.of(Collections.emptyMap()), "{}"))
+        .when(this.httpClient)
+        .requestWithRetries(Mockito.<StripeRequest>any());
+
+    RuntimeException exception =
+        assertThrows(
+            RuntimeException.class,
+            () -> CollectionFetcher.fetchAll(invoices, Invoice::getLines, 2));
+    assertTrue(exception.getCause() instanceof StripeException);
+  }
+}
@@ -0,0 +1,192 @@
+package com.stripe.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.stripe.BaseStripeTest;
+import com.stripe.Stripe;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import com.stripe.net.ApiResource;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.ResponseRetentionPolicy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+public class ColumnarFrameTest extends BaseStripeTest {
+  private static final List<String> CURRENCIES = Arrays.asList("usd", "eur", "gbp");
+
+  private static String transactionJson(int index) {
+    return String.format(
+        "{\"id\":\"txn_%d\",\"object\":\"balance_transaction\",\"amount\":%d,\"fee\":%d,"
+            + "\"created\":%d,\"currency\":\"%s\",\"source\":{\"id\":\"ch_%d\",\"amount\":1},"
+            + "\"metadata\":{\"currency\":\"ignored\"},\"type\":\"charge\"}",
+        index, index * 100, index, 1600000000L + index, CURRENCIES.get(index % 3), index);
+  }
+
+  private static String pageJson(List<String> data, boolean hasMore) {
+    return FakeListEndpoint.pageJson(data, hasMore);
+  }
+
+  private static ColumnarFrame frame() {
+    return ColumnarFrame.builder()
+        .addLongColumn("amount")
+        .addLongColumn("fee")
+        .addLongColumn("created")
+        .addStringColumn("currency")
+        .addStringColumn("type")
+        .addStringColumn("source")
+        .build();
+  }
+
+  @Test
+  public void testAppendPage() {
+    ColumnarFrame frame = frame();
+
+    assertEquals(
+        2, frame.appendPage(pageJson(Arrays.asList(transactionJson(1), transactionJson(2)), true)));
+
+    assertEquals(2, frame.size());
+    assertEquals(
+        Arrays.asList("amount", "fee", "created", "currency", "type", "source"),
+        frame.getColumnNames());
+    assertEquals(100, frame.getLong("amount", 0));
+    assertEquals(2, frame.getLong("fee", 1));
+    assertEquals(1600000001L, frame.getLong("created", 0));
+    assertEquals("eur", frame.getString("currency", 0));
+    assertEquals("gbp", frame.getString("currency", 1));
+    assertEquals("charge", frame.getString("type", 1));
+    assertEquals("ch_2", frame.getString("source", 1));
+    assertFalse(frame.isNull("amount", 0));
+  }
+
+  @Test
+  public void testNullsAndMissingFields() {
+    ColumnarFrame frame = frame();
+
+    frame.appendPage(
+        "{\"data\":[{\"amount\":null,\"currency\":null,\"source\":\"ch_1\"},{\"fee\":7}]}");
+
+    assertEquals(2, frame.size());
+    assertTrue(frame.isNull("amount", 0));
+    assertEquals(0, frame.getLong("amount", 0));
+    assertNull(frame.getString("currency", 0));
+    assertEquals("ch_1", frame.getString("source", 0));
+    assertTrue(frame.isNull("amount", 1));
+    assertFalse(frame.isNull("fee", 1));
+    assertTrue(frame.isNull("source", 1));
+    assertEquals(7, frame.sum("fee"));
+  }
+
+  @Test
+  public void testGroupBySum() {
+    ColumnarFrame frame = frame();
+    List<String> data = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      data.add(transactionJson(i));
+    }
+    frame.appendPage(pageJson(data, false));
+    frame.appendPage("{\"data\":[{\"fee\":5}]}");
+
+    Map<String, Long> expected = new LinkedHashMap<>();
+    for (int i = 0; i < 3000; i++) {
+      expected.merge(CURRENCIES.get(i % 3), (long) i, Long::sum);
+    }
+    expected.put(null, 5L);
+
+    assertEquals(3001, frame.size());
+    assertEquals(expected, frame.groupBySum("currency", "fee"));
+    assertEquals(Arrays.asList("usd", "eur", "gbp", null), new ArrayList<>(expected.keySet()));
+    assertEquals(2999L * 3000 / 2 + 5, frame.sum("fee"));
+  }
+
+  @Test
+  public void testAppendAll() throws StripeException {
+    List<String> transactions = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      transactions.add(transactionJson(i));
+    }
+    FakeListEndpoint endpoint = new FakeListEndpoint(transactions).install();
+    ColumnarFrame frame = frame();
+
+    Map<String, Object> params = new HashMap<>();
+    params.put("limit", 10);
+    frame.appendAll(endpoint, params, RequestOptions.builder().setApiKey("sk_test_frame").build());
+
+    assertEquals(25, frame.size());
+    assertEquals(24 * 25 / 2 * 100, frame.sum("amount"));
+    assertEquals(3, endpoint.getRequestOptions().size());
+    RequestOptions options = endpoint.getRequestOptions().get(0);
+    assertEquals("sk_test_frame", options.getApiKey());
+    assertEquals(ResponseRetentionPolicy.FULL, options.getResponseRetentionPolicy());
+    assertEquals(Collections.singleton("id"), options.getResponseProjection().getPaths());
+    assertFalse(params.containsKey("starting_after"));
+  }
+
+  @Test
+  public void testAppendAllResumesFromCheckpoint(@TempDir Path directory)
+      throws StripeException, IOException {
+    List<String> transactions = new ArrayList<>();
+    for (int i = 0; i < 250; i++) {
+      transactions.add(transactionJson(i));
+    }
+    FakeListEndpoint endpoint = new FakeListEndpoint(transactions).install();
+    // The third page fails once.
+    Mockito.doThrow(new ApiConnectionException("Connection reset"))
+        .when(networkSpy)
+        .request(
+            Mockito.eq(ApiResource.RequestMethod.GET),
+            Mockito.eq(Stripe.getApiBase() + FakeListEndpoint.PATH),
+            Mockito.<Map<String, Object>>argThat(
+                params -> params != null && "txn_199".equals(params.get("starting_after"))),
+            Mockito.<Class<FakeListEndpoint.FakeObjectCollection>>any(),
+            Mockito.<RequestOptions>any());
+    CheckpointStore store = new FileCheckpointStore(directory);
+    PagingOptions pagingOptions =
+        PagingOptions.builder().setCheckpointStore(store, "transactions").build();
+    ColumnarFrame frame = frame();
+
+    assertThrows(
+        ApiConnectionException.class, () -> frame.appendAll(endpoint, null, null, pagingOptions));
+    assertEquals(200, frame.size());
+
+    endpoint.install();
+    frame.appendAll(endpoint, store.load("transactions").getResumeParams(), null, pagingOptions);
+
+    assertEquals(250, frame.size());
+    assertEquals(249 * 250 / 2 * 100, frame.sum("amount"));
+    for (Map<String, Object> params : endpoint.getRequestParams()) {
+      assertEquals("100", params.get("limit").toString());
+    }
+  }
+
+  @Test
+  public void testRejectsInvalidColumns() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ColumnarFrame.builder().addLongColumn("amount").addStringColumn("amount"));
+    assertThrows(
+        IllegalArgumentException.class, () -> ColumnarFrame.builder().addLongColumn("source.id"));
+    assertThrows(IllegalStateException.class, () -> ColumnarFrame.builder().build());
+
+    ColumnarFrame frame = frame();
+    frame.appendPage("{\"data\":[{\"amount\":1}]}");
+    assertThrows(IllegalArgumentException.class, () -> frame.getLong("currency", 0));
+    assertThrows(IllegalArgumentException.class, () -> frame.sum("missing"));
+    assertThrows(IndexOutOfBoundsException.class, () -> frame.getLong("amount", 1));
+    assertThrows(IllegalArgumentException.class, () -> frame.appendPage("{\"data\":[1]}"));
+  }
+}
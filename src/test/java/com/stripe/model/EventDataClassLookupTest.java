@@ -0,0 +1,112 @@
+package com.stripe.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.stripe.BaseStripeTest;
+import com.stripe.model.issuing.Authorization;
+import com.stripe.net.ApiResource;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class EventDataClassLookupTest extends BaseStripeTest {
+  @Test
+  public void testFindClass() {
+    assertEquals(Charge.class, EventDataClassLookup.findClass("charge"));
+    assertEquals(Authorization.class, EventDataClassLookup.findClass("issuing.authorization"));
+    assertSame(EventDataClassLookup.findClass("charge"), EventDataClassLookup.findClass("charge"));
+    assertNull(EventDataClassLookup.findClass("unknown_object"));
+  }
+
+  @Test
+  public void testFindClassOfProductModules() {
+    assertEquals(
+        com.stripe.model.terminal.Reader.class, EventDataClassLookup.findClass("terminal.reader"));
+    assertEquals(
+        com.stripe.model.sigma.ScheduledQueryRun.class,
+        EventDataClassLookup.findClass("scheduled_query_run"));
+    assertEquals(
+        com.stripe.model.billingportal.Session.class,
+        EventDataClassLookup.findClass("billing_portal.session"));
+  }
+
+  /**
+   * A class loader of the library's classes that cannot see the service configuration of {@link
+   * ProductModule}, e.g. that of a shaded jar built without merging it, nor the given classes.
+   */
+  private static ClassLoader withoutServiceConfiguration(String... hiddenClassNames) {
+    ClassLoader parent = ProductModule.class.getClassLoader();
+    List<String> hidden = Arrays.asList(hiddenClassNames);
+    return new ClassLoader(null) {
+      @Override
+      protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (hidden.contains(name)) {
+          throw new ClassNotFoundException(name);
+        }
+        return parent.loadClass(name);
+      }
+
+      @Override
+      public Enumeration<URL> getResources(String name) {
+        return Collections.emptyEnumeration();
+      }
+    };
+  }
+
+  @Test
+  public void testLoadModules() {
+    List<ProductModule> modules = ProductModule.loadAll(ProductModule.class.getClassLoader());
+
+    assertEquals(7, modules.size());
+    assertTrue(modules.get(2) instanceof com.stripe.model.issuing.IssuingModule);
+  }
+
+  @Test
+  public void testBundledModulesWithoutServiceConfiguration() {
+    List<ProductModule> modules = ProductModule.loadAll(withoutServiceConfiguration());
+
+    assertEquals(7, modules.size());
+    assertTrue(modules.get(2) instanceof com.stripe.model.issuing.IssuingModule);
+  }
+
+  @Test
+  public void testModulesLeftOffClasspath() {
+    List<ProductModule> modules =
+        ProductModule.loadAll(
+            withoutServiceConfiguration(
+                "com.stripe.model.issuing.IssuingModule",
+                "com.stripe.model.terminal.TerminalModule"));
+
+    assertEquals(5, modules.size());
+    for (ProductModule module : modules) {
+      assertFalse(module instanceof com.stripe.model.issuing.IssuingModule);
+      assertFalse(module instanceof com.stripe.model.terminal.TerminalModule);
+    }
+  }
+
+  @Test
+  public void testAllRegisteredClassesResolve() throws ReflectiveOperationException {
+    Set<String> objectTypes = EventDataClassLookup.getObjectTypes();
+    assertTrue(objectTypes.contains("terminal.reader"), "Object types of product modules");
+
+    for (String objectType : objectTypes) {
+      // Class names are registered as strings, so renamed classes only fail when resolved
+      Class<? extends StripeObject> clazz = EventDataClassLookup.findClass(objectType);
+      assertNotNull(clazz, objectType);
+
+      // The class is the model of the registered object type
+      StripeObject object =
+          ApiResource.GSON.fromJson(String.format("{\"object\": \"%s\"}", objectType), clazz);
+      assertEquals(objectType, clazz.getMethod("getObject").invoke(object), clazz.getName());
+    }
+  }
+}
@@ -0,0 +1,362 @@
+package com.stripe.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.stripe.BaseStripeTest;
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.net.ApiResource;
+import com.stripe.net.RequestOptions;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+public class EventSyncEngineTest extends BaseStripeTest {
+  private static final List<String> TYPES = Arrays.asList("customer.created", "customer.updated");
+
+  @TempDir Path directory;
+
+  private FakeEvents events;
+  private FileCheckpointStore store;
+  private List<String> applied;
+
+  /**
+   * An in-memory events endpoint, which filters events on {@code types} and {@code created[gte]},
+   * and paginates them newest first with {@code starting_after} and {@code ending_before}.
+   */
+  private static class FakeEvents {
+    /** The events, oldest first. */
+    private final List<Event> events = new ArrayList<>();
+
+    private final List<Map<String, Object>> requests = new CopyOnWriteArrayList<>();
+
+    synchronized void add(String type, long created) {
+      int index = events.size();
+      String json =
+          String.format(
+              "{\"id\":\"evt_%04d\",\"object\":\"event\",\"api_version\":\"%s\",\"created\":%d,"
+                  + "\"type\":\"%s\",\"data\":{\"object\":{\"id\":\"cus_%d\","
+                  + "\"object\":\"customer\",\"email\":\"c%d@example.com\"}},"
+                  + "\"livemode\":false,\"pending_webhooks\":0}",
+              index, Stripe.API_VERSION, created, type, index, index);
+      events.add(ApiResource.GSON.fromJson(json, Event.class));
+    }
+
+    void add(String type) {
+      add(type, Instant.now().getEpochSecond());
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized EventCollection list(Map<String, Object> params) {
+      requests.add(params);
+      List<String> types = (List<String>) params.get("types");
+      Map<String, Object> created = (Map<String, Object>) params.get("created");
+      int limit = ((Number) params.get("limit")).intValue();
+
+      List<Event> newestFirst = new ArrayList<>();
+      for (Event event : events) {
+        if ((types == null || types.contains(event.getType()))
+            && (created == null
+                || event.getCreated() >= ((Number) created.get("gte")).longValue())) {
+          newestFirst.add(0, event);
+        }
+      }
+
+      int from = 0;
+      int to = newestFirst.size();
+      if (params.get("ending_before") != null) {
+        to = indexOf(newestFirst, (String) params.get("ending_before"));
+        from = Math.max(0, to - limit);
+      } else {
+        if (params.get("starting_after") != null) {
+          from = indexOf(newestFirst, (String) params.get("starting_after")) + 1;
+        }
+        to = Math.min(to, from + limit);
+      }
+      boolean hasMore = (params.get("ending_before") != null) ? from > 0 : to < newestFirst.size();
+
+      EventCollection page = new EventCollection();
+      page.setData(new ArrayList<>(newestFirst.subList(from, to)));
+      page.setHasMore(hasMore);
+      page.setUrl("/v1/events");
+      return page;
+    }
+
+    private static int indexOf(List<Event> events, String id) {
+      for (int i = 0; i < events.size(); i++) {
+        if (events.get(i).getId().equals(id)) {
+          return i;
+        }
+      }
+      throw new IllegalArgumentException("No such event: " + id);
+    }
+  }
+
+  /** Routes the requests to the fake events endpoint. */
+  @BeforeEach
+  public void setUpFakeEvents() throws StripeException {
+    this.events = new FakeEvents();
+    this.store = new FileCheckpointStore(directory);
+    this.applied = new CopyOnWriteArrayList<>();
+
+    Mockito.doAnswer(invocation -> events.list(invocation.getArgument(2)))
+        .when(networkSpy)
+        .request(
+            Mockito.any(ApiResource.RequestMethod.class),
+            Mockito.anyString(),
+            Mockito.<Map<String, Object>>any(),
+            Mockito.<Class<EventCollection>>any(),
+            Mockito.<RequestOptions>any());
+  }
+
+  private EventSyncEngine.Builder builder() {
+    return EventSyncEngine.builder(
+            (event, object) -> {
+              assertTrue(object instanceof Customer);
+              applied.add(event.getId());
+            },
+            store,
+            "customers")
+        .setTypes(TYPES);
+  }
+
+  private static List<String> ids(int from, int to) {
+    List<String> ids = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      ids.add(String.format("evt_%04d", i));
+    }
+    return ids;
+  }
+
+  @Test
+  public void testAppliesNewEventsOldestFirst() throws StripeException, IOException {
+    events.add("customer.created");
+    events.add("customer.updated");
+    EventSyncEngine engine = builder().build();
+
+    // The first poll starts at the most recent event.
+    assertEquals(0, engine.poll());
+    assertEquals("evt_0001", store.load("customers").getLastId());
+
+    events.add("customer.deleted");
+    for (int i = 0; i < 250; i++) {
+      events.add("customer.updated");
+    }
+
+    assertEquals(250, engine.poll());
+    assertEquals(ids(3, 253), applied);
+    assertEquals("evt_0252", store.load("customers").getLastId());
+
+    // The events after the cursor are listed in three pages of at most 100 events.
+    Map<String, Object> params = events.requests.get(1);
+    assertEquals("evt_0001", params.get("ending_before"));
+    assertEquals(TYPES, params.get("types"));
+    assertEquals(100, params.get("limit"));
+
+    EventSyncEngine.Stats stats = engine.getStats();
+    assertEquals(2, stats.getPolls());
+    assertEquals(4, stats.getRequests());
+    assertEquals(250, stats.getEventsApplied());
+    assertEquals("evt_0252", stats.getLastEventId());
+    assertNotNull(stats.getLag());
+
+    // A poll without new events costs a single request.
+    assertEquals(0, engine.poll());
+    assertEquals(5, engine.getStats().getRequests());
+  }
+
+  @Test
+  public void testResumesFromCheckpoint() throws StripeException, IOException {
+    events.add("customer.created");
+    builder().build().poll();
+    events.add("customer.updated");
+    events.add("customer.updated");
+
+    EventSyncEngine engine = builder().build();
+
+    assertEquals(2, engine.poll());
+    assertEquals(ids(1, 3), applied);
+  }
+
+  @Test
+  public void testStartsWithoutEvents() throws StripeException, IOException {
+    EventSyncEngine engine = builder().build();
+
+    assertEquals(0, engine.poll());
+    assertNull(store.load("customers"));
+
+    // All the events created since the first poll are new.
+    events.add("customer.updated", Instant.now().getEpochSecond() - 3600);
+    events.add("customer.created");
+    events.add("customer.updated");
+
+    assertEquals(2, engine.poll());
+    assertEquals(ids(1, 3), applied);
+    assertEquals("evt_0002", store.load("customers").getLastId());
+    assertTrue(events.requests.get(1).containsKey("created"));
+
+    events.add("customer.updated");
+    assertEquals(1, engine.poll());
+    assertEquals("evt_0002", events.requests.get(2).get("ending_before"));
+  }
+
+  @Test
+  public void testReappliesEventsAfterSinkFailure() throws StripeException, IOException {
+    events.add("customer.created");
+    List<String> failed = new ArrayList<>();
+    EventSyncEngine engine =
+        EventSyncEngine.builder(
+                (event, object) -> {
+                  if (event.getId().equals("evt_0002") && failed.isEmpty()) {
+                    failed.add(event.getId());
+                    throw new IOException("Mirror unavailable");
+                  }
+                  applied.add(event.getId());
+                },
+                store,
+                "customers")
+            .setTypes(TYPES)
+            .build();
+    engine.poll();
+    events.add("customer.updated");
+    events.add("customer.updated");
+    events.add("customer.updated");
+
+    assertThrows(IOException.class, engine::poll);
+    assertEquals(ids(1, 2), applied);
+
+    assertEquals(3, engine.poll());
+    assertEquals(Arrays.asList("evt_0001", "evt_0001", "evt_0002", "evt_0003"), applied);
+  }
+
+  @Test
+  public void testPollIntervalAdapts() throws StripeException, IOException {
+    events.add("customer.created");
+    EventSyncEngine engine =
+        builder().setPollInterval(Duration.ofSeconds(1), Duration.ofSeconds(4)).build();
+
+    engine.poll();
+    assertEquals(Duration.ofSeconds(2), engine.getPollInterval());
+    engine.poll();
+    assertEquals(Duration.ofSeconds(4), engine.getPollInterval());
+    engine.poll();
+    assertEquals(Duration.ofSeconds(4), engine.getPollInterval());
+
+    events.add("customer.updated");
+    engine.poll();
+    assertEquals(Duration.ofSeconds(2), engine.getPollInterval());
+
+    engine.poll();
+    for (int i = 0; i < 150; i++) {
+      events.add("customer.updated");
+    }
+    engine.poll();
+    assertEquals(Duration.ofSeconds(1), engine.getPollInterval());
+  }
+
+  @Test
+  public void testBackgroundPolling() throws StripeException, IOException, InterruptedException {
+    events.add("customer.created");
+    CountDownLatch latch = new CountDownLatch(3);
+    List<Exception> errors = new CopyOnWriteArrayList<>();
+    EventSyncEngine engine =
+        EventSyncEngine.builder(
+                (event, object) -> {
+                  applied.add(event.getId());
+                  latch.countDown();
+                },
+                store,
+                "customers")
+            .setTypes(TYPES)
+            .setPollInterval(Duration.ofMillis(5), Duration.ofMillis(20))
+            .setErrorListener(errors::add)
+            .build();
+
+    try {
+      // The first poll sets the cursor, so that the events added next are new.
+      engine.poll();
+      engine.start();
+      events.add("customer.updated");
+      events.add("customer.updated");
+      events.add("customer.updated");
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } finally {
+      assertTrue(engine.close(Duration.ofSeconds(10)));
+    }
+
+    assertEquals(ids(1, 4), applied);
+    assertEquals(Collections.emptyList(), errors);
+    assertThrows(IllegalStateException.class, engine::start);
+  }
+
+  @Test
+  public void testBackoffAfterFailures() throws StripeException, IOException, InterruptedException {
+    events.add("customer.created");
+    CountDownLatch latch = new CountDownLatch(3);
+    List<Duration> intervals = new CopyOnWriteArrayList<>();
+    AtomicReference<EventSyncEngine> engineRef = new AtomicReference<>();
+    EventSyncEngine engine =
+        EventSyncEngine.builder(
+                (event, object) -> {
+                  throw new IOException("Mirror unavailable");
+                },
+                store,
+                "customers")
+            .setTypes(TYPES)
+            .setPollInterval(Duration.ofMillis(5), Duration.ofMillis(40))
+            .setErrorListener(
+                e -> {
+                  intervals.add(engineRef.get().getPollInterval());
+                  latch.countDown();
+                })
+            .build();
+
+    engineRef.set(engine);
+
+    try {
+      // The first poll finds no new event, which doubles the interval to 10 ms.
+      engine.poll();
+      events.add("customer.updated");
+      engine.start();
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } finally {
+      assertTrue(engine.close(Duration.ofSeconds(10)));
+    }
+
+    // The interval doubles after each failure, up to the maximum.
+    assertEquals(
+        Arrays.asList(Duration.ofMillis(20), Duration.ofMillis(40), Duration.ofMillis(40)),
+        intervals.subList(0, 3));
+  }
+
+  @Test
+  public void testRejectsInvalidTypes() {
+    assertThrows(
+        IllegalArgumentException.class, () -> builder().setTypes(Collections.<String>emptyList()));
+    List<String> tooMany =
+        ids(0, 21).stream().map(id -> "customer." + id).collect(Collectors.toList());
+    assertThrows(IllegalArgumentException.class, () -> builder().setTypes(tooMany));
+    assertThrows(
+        IllegalStateException.class,
+        () -> EventSyncEngine.builder((event, object) -> {}, store, "customers").build());
+  }
+}
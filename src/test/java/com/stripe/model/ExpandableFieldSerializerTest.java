@@ -30,7 +30,8 @@ public class ExpandableFieldSerializerTest extends BaseStripeTest {
     object.nested = new ExpandableField<>("id_not_expanded", null);
 
     final String expected = "{\n  \"nested\": \"id_not_expanded\"\n}";
-    assertEquals(expected, object.toJson());
+    assertEquals(expected, object.toPrettyJson());
+    assertEquals("{\"nested\":\"id_not_expanded\"}", object.toJson());
   }
 
   @Test
@@ -43,7 +44,8 @@ public class ExpandableFieldSerializerTest extends BaseStripeTest {
 
     final String expected =
         "{\n  \"nested\": {\n    \"id\": \"id_expanded\",\n    \"bar\": 42\n  }\n}";
-    assertEquals(expected, object.toJson());
+    assertEquals(expected, object.toPrettyJson());
+    assertEquals("{\"nested\":{\"id\":\"id_expanded\",\"bar\":42}}", object.toJson());
   }
 
   @Test
@@ -52,6 +54,7 @@ public class ExpandableFieldSerializerTest extends BaseStripeTest {
     object.nested = new ExpandableField<>(null, null);
 
     final String expected = "{\n  \"nested\": null\n}";
-    assertEquals(expected, object.toJson());
+    assertEquals(expected, object.toPrettyJson());
+    assertEquals("{\"nested\":null}", object.toJson());
   }
 }
@@ -0,0 +1,129 @@
+package com.stripe.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.stripe.BaseStripeTest;
+import com.stripe.exception.StripeException;
+import com.stripe.net.ApiResource;
+import com.stripe.net.ExpansionInterning;
+import com.stripe.net.HttpClient;
+import com.stripe.net.HttpHeaders;
+import com.stripe.net.HttpURLConnectionClient;
+import com.stripe.net.LiveStripeResponseGetter;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.StripeRequest;
+import com.stripe.net.StripeResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class ExpandedObjectInternerTest extends BaseStripeTest {
+  private HttpClient httpClient;
+
+  @BeforeEach
+  public void setUpHttpClient() {
+    this.httpClient = Mockito.spy(new HttpURLConnectionClient());
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(this.httpClient));
+  }
+
+  private static String chargeJson(String id, String customerId) {
+    return String.format(
+        "{\"id\":\"%s\",\"object\":\"charge\",\"amount\":100,\"customer\":{\"id\":\"%s\","
+            + "\"object\":\"customer\",\"email\":\"jenny@example.com\"}}",
+        id, customerId);
+  }
+
+  private static StripeResponse page(boolean hasMore, String... charges) {
+    String body =
+        String.format(
+            "{\"object\":\"list\",\"url\":\"/v1/charges\",\"has_more\":%s,\"data\":[%s]}",
+            hasMore, String.join(",", charges));
+    return new StripeResponse(200, HttpHeaders.of(Collections.emptyMap()), body);
+  }
+
+  private static ChargeCollection listCharges(ExpansionInterning interning) throws StripeException {
+    RequestOptions options = RequestOptions.builder().setExpansionInterning(interning).build();
+    return Charge.list((Map<String, Object>) null, options);
+  }
+
+  @Test
+  public void testNoInterning() throws StripeException {
+    Mockito.doReturn(page(false, chargeJson("ch_1", "cus_1"), chargeJson("ch_2", "cus_1")))
+        .when(this.httpClient)
+        .requestWithRetries(Mockito.<StripeRequest>any());
+
+    List<Charge> charges = listCharges(null).getData();
+
+    assertNotSame(charges.get(0).getCustomerObject(), charges.get(1).getCustomerObject());
+  }
+
+  @Test
+  public void testResponseInterning() throws StripeException {
+    Mockito.doReturn(
+            page(
+                false,
+                chargeJson("ch_1", "cus_1"),
+                chargeJson("ch_2", "cus_2"),
+                chargeJson("ch_3", "cus_1")))
+        .when(this.httpClient)
+        .requestWithRetries(Mockito.<StripeRequest>any());
+
+    List<Charge> charges = listCharges(ExpansionInterning.RESPONSE).getData();
+
+    Customer customer = charges.get(0).getCustomerObject();
+    assertEquals("cus_1", customer.getId());
+    assertEquals("jenny@example.com", customer.getEmail());
+    assertSame(customer, charges.get(2).getCustomerObject());
+    assertNotSame(customer, charges.get(1).getCustomerObject());
+    assertEquals("cus_1", charges.get(2).getCustomer());
+    assertNull(ExpandedObjectInterner.current());
+  }
+
+  @Test
+  public void testPagingSessionInterning() throws StripeException {
+    Mockito.doReturn(page(true, chargeJson("ch_1", "cus_1")))
+        .doReturn(page(false, chargeJson("ch_2", "cus_1")))
+        .doReturn(page(true, chargeJson("ch_1", "cus_1")))
+        .doReturn(page(false, chargeJson("ch_2", "cus_1")))
+        .when(this.httpClient)
+        .requestWithRetries(Mockito.<StripeRequest>any());
+
+    List<Charge> session = new ArrayList<>();
+    for (Charge charge : listCharges(ExpansionInterning.PAGING_SESSION).autoPagingIterable()) {
+      session.add(charge);
+    }
+    List<Charge> responses = new ArrayList<>();
+    for (Charge charge : listCharges(ExpansionInterning.RESPONSE).autoPagingIterable()) {
+      responses.add(charge);
+    }
+
+    assertEquals(2, session.size());
+    assertNotNull(session.get(0).getCustomerObject());
+    assertSame(session.get(0).getCustomerObject(), session.get(1).getCustomerObject());
+    assertEquals(2, responses.size());
+    assertNotSame(responses.get(0).getCustomerObject(), responses.get(1).getCustomerObject());
+    assertNull(ExpandedObjectInterner.current());
+  }
+
+  @Test
+  public void testMaxSize() {
+    ExpandedObjectInterner interner = new ExpandedObjectInterner(2);
+    Customer first = new Customer();
+    interner.put("customer", "cus_1", first);
+    interner.put("customer", "cus_2", new Customer());
+    interner.get("customer", "cus_1");
+    interner.put("customer", "cus_3", new Customer());
+
+    assertEquals(2, interner.size());
+    assertSame(first, interner.get("customer", "cus_1"));
+    assertNull(interner.get("customer", "cus_2"));
+  }
+}
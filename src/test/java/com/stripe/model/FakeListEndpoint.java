@@ -0,0 +1,175 @@
+package com.stripe.model;
+
+import com.google.gson.JsonParser;
+import com.stripe.BaseStripeTest;
+import com.stripe.Stripe;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import com.stripe.net.ApiResource;
+import com.stripe.net.HttpHeaders;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.StripeResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.Getter;
+import org.mockito.Mockito;
+
+/**
+ * An in-memory list endpoint for the tests of the list helpers, such as {@link ParallelLister}.
+ *
+ * <p>The endpoint lists the given objects in the given order, i.e. newest first, filtered on {@code
+ * created[gte]} and {@code created[lt]}, and paginated with {@code starting_after} and {@code
+ * limit}, which defaults to 10 as in the API. Its pages are pretty-printed like API responses, and
+ * kept as the last response of the returned collections. Once {@link #install() installed}, the
+ * requests of the response getter of {@link BaseStripeTest} are routed to it, so that both the list
+ * method and auto-pagination reach it.
+ */
+final class FakeListEndpoint implements ListMethod<FakeListEndpoint.FakeObject> {
+  static final String PATH = "/v1/fake_objects";
+
+  @Getter
+  static class FakeObject extends StripeObject implements HasId {
+    String id;
+    Long created;
+  }
+
+  static class FakeObjectCollection extends StripeCollection<FakeObject> {}
+
+  private final List<String> objects;
+
+  /** The objects, deserialized to read their IDs and creation times. */
+  private final List<FakeObject> parsedObjects = new ArrayList<>();
+
+  private final List<Map<String, Object>> requestParams = new CopyOnWriteArrayList<>();
+
+  private final List<RequestOptions> requestOptions = new CopyOnWriteArrayList<>();
+
+  private long latencyMillis;
+
+  /**
+   * Creates an endpoint over the given objects.
+   *
+   * @param objects the JSON texts of the objects, newest first, each with an {@code id} and
+   *     optionally a {@code created} field
+   */
+  FakeListEndpoint(List<String> objects) {
+    this.objects = new ArrayList<>(objects);
+    for (String object : objects) {
+      this.parsedObjects.add(ApiResource.GSON.fromJson(object, FakeObject.class));
+    }
+  }
+
+  /**
+   * Delays every response, so that concurrent requests interleave.
+   *
+   * @param latencyMillis the delay, in milliseconds
+   * @return this endpoint
+   */
+  FakeListEndpoint setLatencyMillis(long latencyMillis) {
+    this.latencyMillis = latencyMillis;
+    return this;
+  }
+
+  /**
+   * Routes the list requests of the response getter of the current test to this endpoint.
+   *
+   * @return this endpoint
+   */
+  FakeListEndpoint install() throws StripeException {
+    Mockito.doAnswer(invocation -> respond(invocation.getArgument(2), invocation.getArgument(4)))
+        .when(BaseStripeTest.networkSpy)
+        .request(
+            Mockito.eq(ApiResource.RequestMethod.GET),
+            Mockito.eq(Stripe.getApiBase() + PATH),
+            Mockito.<Map<String, Object>>any(),
+            Mockito.<Class<FakeObjectCollection>>any(),
+            Mockito.<RequestOptions>any());
+    return this;
+  }
+
+  @Override
+  public FakeObjectCollection list(Map<String, Object> params, RequestOptions options)
+      throws StripeException {
+    return ApiResource.requestCollection(
+        Stripe.getApiBase() + PATH, params, FakeObjectCollection.class, options);
+  }
+
+  /** Returns the params of the requests received, in order. */
+  List<Map<String, Object>> getRequestParams() {
+    return requestParams;
+  }
+
+  /** Returns the options of the requests received, in order. */
+  List<RequestOptions> getRequestOptions() {
+    return requestOptions;
+  }
+
+  @SuppressWarnings("unchecked")
+  private FakeObjectCollection respond(Map<String, Object> params, RequestOptions options)
+      throws ApiConnectionException {
+    params = (params != null) ? new HashMap<>(params) : Collections.emptyMap();
+    this.requestParams.add(params);
+    this.requestOptions.add(options);
+    if (latencyMillis > 0) {
+      try {
+        Thread.sleep(latencyMillis);
+      } catch (InterruptedException e) {
+        throw new ApiConnectionException("Interrupted", e);
+      }
+    }
+
+    Map<String, Object> created = (Map<String, Object>) params.get("created");
+    Object limitParam = params.get("limit");
+    int limit = (limitParam != null) ? Integer.parseInt(limitParam.toString()) : 10;
+    Object startingAfter = params.get("starting_after");
+
+    List<String> data = new ArrayList<>();
+    boolean started = (startingAfter == null);
+    boolean hasMore = false;
+    for (int i = 0; i < objects.size(); i++) {
+      FakeObject object = parsedObjects.get(i);
+      if (!started) {
+        started = object.getId().equals(startingAfter);
+        continue;
+      }
+      if (created != null
+          && (object.getCreated() == null
+              || object.getCreated() < ((Number) created.get("gte")).longValue()
+              || object.getCreated() >= ((Number) created.get("lt")).longValue())) {
+        continue;
+      }
+      if (data.size() == limit) {
+        hasMore = true;
+        break;
+      }
+      data.add(objects.get(i));
+    }
+
+    String body = pageJson(data, hasMore);
+    FakeObjectCollection page = ApiResource.GSON.fromJson(body, FakeObjectCollection.class);
+    page.setLastResponse(new StripeResponse(200, HttpHeaders.of(Collections.emptyMap()), body));
+    return page;
+  }
+
+  /** Pretty-prints a JSON text the way the API does, with newlines and two-space indents. */
+  static String pretty(String json) {
+    return ApiResource.GSON
+        .newBuilder()
+        .setPrettyPrinting()
+        .serializeNulls()
+        .create()
+        .toJson(JsonParser.parseString(json));
+  }
+
+  /** Returns the pretty-printed body of a page of this endpoint. */
+  static String pageJson(List<String> data, boolean hasMore) {
+    return pretty(
+        String.format(
+            "{\"object\":\"list\",\"data\":[%s],\"has_more\":%s,\"url\":\"%s\"}",
+            String.join(",", data), hasMore, PATH));
+  }
+}
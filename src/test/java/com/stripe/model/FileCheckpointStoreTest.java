@@ -0,0 +1,90 @@
+package com.stripe.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileCheckpointStoreTest {
+  @TempDir Path directory;
+
+  private static PagingCheckpoint checkpoint(String startingAfter, long pageCount) {
+    Map<String, Object> created = new HashMap<>();
+    created.put("gte", 1600000000L);
+    Map<String, Object> params = new HashMap<>();
+    params.put("created", created);
+    params.put("limit", 100);
+    params.put("type", "invoice.paid");
+    return new PagingCheckpoint("/v1/events", params, startingAfter, pageCount, pageCount * 100);
+  }
+
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    FileCheckpointStore store = new FileCheckpointStore(directory.resolve("checkpoints"));
+
+    store.save("events", checkpoint("evt_1", 3));
+    store.save("events", checkpoint("evt_2", 4));
+    PagingCheckpoint checkpoint = store.load("events");
+
+    assertEquals("/v1/events", checkpoint.getUrl());
+    assertEquals("evt_2", checkpoint.getLastId());
+    assertEquals(4, checkpoint.getPageCount());
+    assertEquals(400, checkpoint.getObjectCount());
+    // Numbers keep their representation, so that the resumed requests are encoded identically.
+    Map<?, ?> created = (Map<?, ?>) checkpoint.getResumeParams().get("created");
+    assertEquals("1600000000", created.get("gte").toString());
+    assertEquals("100", checkpoint.getResumeParams().get("limit").toString());
+    assertEquals("invoice.paid", checkpoint.getResumeParams().get("type"));
+    assertEquals("evt_2", checkpoint.getResumeParams().get("starting_after"));
+
+    // Only the checkpoint itself is left in the directory.
+    try (Stream<Path> files = Files.list(directory.resolve("checkpoints"))) {
+      assertEquals(1, files.count());
+    }
+  }
+
+  @Test
+  public void testLoadWithoutCheckpoint() throws IOException {
+    FileCheckpointStore store = new FileCheckpointStore(directory);
+
+    assertNull(store.load("events"));
+  }
+
+  @Test
+  public void testDelete() throws IOException {
+    FileCheckpointStore store = new FileCheckpointStore(directory);
+
+    store.save("events", checkpoint(null, 0));
+    store.delete("events");
+    store.delete("events");
+
+    assertNull(store.load("events"));
+  }
+
+  @Test
+  public void testCheckpointWithoutObjects() throws IOException {
+    FileCheckpointStore store = new FileCheckpointStore(directory);
+
+    store.save("events", checkpoint(null, 1));
+    PagingCheckpoint checkpoint = store.load("events");
+
+    assertNull(checkpoint.getLastId());
+    assertFalse(checkpoint.getResumeParams().containsKey("starting_after"));
+  }
+
+  @Test
+  public void testInvalidKey() {
+    FileCheckpointStore store = new FileCheckpointStore(directory);
+
+    assertThrows(IllegalArgumentException.class, () -> store.load("../events"));
+  }
+}
@@ -0,0 +1,246 @@
+package com.stripe.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.stripe.BaseStripeTest;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.ResponseRetentionPolicy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NdjsonExporterTest extends BaseStripeTest {
+  @TempDir Path directory;
+
+  private static String objectJson(int index) {
+    return String.format(
+        "{\"id\":\"obj_%d\",\"object\":\"exported_object\",\"amount\":%d,"
+            + "\"description\":\"a \\\"quoted\\\" {brace}, [bracket] and  spaces\","
+            + "\"metadata\":{\"tags\":[\"a\",\"b\"]},\"paid\":true,\"refunded\":null}",
+        index, index * 100);
+  }
+
+  /** Returns an endpoint over objects obj_0 to obj_{count - 1}. */
+  private static FakeListEndpoint endpoint(int count) throws StripeException {
+    List<String> objects = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      objects.add(objectJson(i));
+    }
+    return new FakeListEndpoint(objects).install();
+  }
+
+  private static List<String> readLines(Path file) throws IOException {
+    InputStream in = Files.newInputStream(file);
+    if (file.toString().endsWith(".gz")) {
+      in = new GZIPInputStream(in);
+    }
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      return reader.lines().collect(Collectors.toList());
+    }
+  }
+
+  private static List<String> readAll(NdjsonExporter.Progress progress) throws IOException {
+    List<String> lines = new ArrayList<>();
+    for (Path file : progress.getFiles()) {
+      lines.addAll(readLines(file));
+    }
+    return lines;
+  }
+
+  @Test
+  public void testDataElements() {
+    String body =
+        FakeListEndpoint.pretty("{\"object\":\"list\",\"data\":[" + objectJson(1) + ",1,\"x\"]}");
+
+    assertEquals(Arrays.asList(objectJson(1), "1", "\"x\""), NdjsonExporter.dataElements(body));
+    assertEquals(
+        Collections.emptyList(),
+        NdjsonExporter.dataElements("{ \"has_more\" : false , \"data\" : [ ] }"));
+  }
+
+  @Test
+  public void testExport() throws StripeException, IOException {
+    FakeListEndpoint endpoint = endpoint(25);
+
+    NdjsonExporter.Progress progress =
+        NdjsonExporter.builder(endpoint, directory.resolve("export"), "objects")
+            .setParams(Collections.singletonMap("limit", 10))
+            .setRequestOptions(RequestOptions.builder().setApiKey("sk_test_export").build())
+            .build()
+            .export();
+
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      expected.add(objectJson(i));
+    }
+    assertEquals(expected, readAll(progress));
+    assertEquals(
+        Collections.singletonList(directory.resolve("export").resolve("objects-0-00000.ndjson")),
+        progress.getFiles());
+    assertEquals(3, progress.getPages());
+    assertEquals(25, progress.getObjects());
+    assertEquals(expected.stream().mapToLong(line -> line.length() + 1).sum(), progress.getBytes());
+
+    // Only the IDs are deserialized, and the whole response is kept to be written.
+    assertEquals(3, endpoint.getRequestOptions().size());
+    for (RequestOptions options : endpoint.getRequestOptions()) {
+      assertEquals("sk_test_export", options.getApiKey());
+      assertEquals(ResponseRetentionPolicy.FULL, options.getResponseRetentionPolicy());
+      assertEquals(
+          Collections.singletonList("id"),
+          new ArrayList<>(options.getResponseProjection().getPaths()));
+    }
+  }
+
+  @Test
+  public void testDeletesPreviousExport() throws StripeException, IOException {
+    Files.write(directory.resolve("objects-3-00007.ndjson.gz"), new byte[] {1});
+    Files.write(directory.resolve("objects-0-00001.ndjson"), new byte[] {1});
+    Files.write(directory.resolve("objects-notes.txt"), new byte[] {1});
+    Files.write(directory.resolve("other-0-00000.ndjson"), new byte[] {1});
+
+    NdjsonExporter.Progress progress =
+        NdjsonExporter.builder(endpoint(5), directory, "objects").build().export();
+
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(
+          new HashSet<>(
+              Arrays.asList(
+                  directory.resolve("objects-0-00000.ndjson"),
+                  directory.resolve("objects-notes.txt"),
+                  directory.resolve("other-0-00000.ndjson"))),
+          files.collect(Collectors.toSet()));
+    }
+    assertEquals(5, readAll(progress).size());
+  }
+
+  @Test
+  public void testRollingGzipPartitions() throws StripeException, IOException {
+    List<NdjsonExporter.Progress> reports = new CopyOnWriteArrayList<>();
+
+    NdjsonExporter.Progress progress =
+        NdjsonExporter.builder(endpoint(95), directory, "objects")
+            .setParams(Collections.singletonMap("limit", 10))
+            .setGzip(true)
+            .setPartitions(3)
+            .setBufferPages(2)
+            .setMaxObjectsPerFile(15)
+            .setProgressListener(reports::add)
+            .build()
+            .export();
+
+    List<String> lines = readAll(progress);
+    assertEquals(95, lines.size());
+    Set<String> expected = new HashSet<>();
+    for (int i = 0; i < 95; i++) {
+      expected.add(objectJson(i));
+    }
+    assertEquals(expected, new HashSet<>(lines));
+
+    for (Path file : progress.getFiles()) {
+      assertTrue(file.getFileName().toString().matches("objects-[0-2]-\\d{5}\\.ndjson\\.gz"));
+      assertTrue(readLines(file).size() <= 15);
+    }
+    assertEquals(10, reports.size());
+    assertEquals(95, progress.getObjects());
+  }
+
+  @Test
+  public void testDefaultLimitAndPrefetch() throws StripeException, IOException {
+    FakeListEndpoint endpoint = endpoint(250);
+    List<PageStats> pageStats = new CopyOnWriteArrayList<>();
+
+    NdjsonExporter.Progress progress =
+        NdjsonExporter.builder(endpoint, directory, "objects")
+            .setPagingOptions(
+                PagingOptions.builder().setPrefetchPages(2).setPageListener(pageStats::add).build())
+            .build()
+            .export();
+
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 250; i++) {
+      expected.add(objectJson(i));
+    }
+    assertEquals(expected, readAll(progress));
+    assertEquals(3, progress.getPages());
+    assertEquals(3, endpoint.getRequestParams().size());
+    for (Map<String, Object> params : endpoint.getRequestParams()) {
+      assertEquals("100", params.get("limit").toString());
+    }
+    // The pages following the first one are fetched by the pagination.
+    assertEquals(
+        Arrays.asList(2L, 3L),
+        pageStats.stream().map(PageStats::getPageNumber).sorted().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testRejectsCheckpoints() {
+    PagingOptions options =
+        PagingOptions.builder()
+            .setCheckpointStore(new FileCheckpointStore(directory), "export")
+            .build();
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> NdjsonExporter.builder(endpoint(1), directory, "objects").setPagingOptions(options));
+  }
+
+  @Test
+  public void testFetchFailure() {
+    ListMethod<FakeListEndpoint.FakeObject> listMethod =
+        (params, options) -> {
+          throw new ApiConnectionException("Connection reset");
+        };
+
+    ApiConnectionException exception =
+        assertThrows(
+            ApiConnectionException.class,
+            () -> NdjsonExporter.builder(listMethod, directory, "objects").build().export());
+    assertEquals("Connection reset", exception.getMessage());
+  }
+
+  @Test
+  public void testWriteFailure() throws IOException, StripeException {
+    // The file of the first partition cannot be created, since a directory has its name.
+    Files.createDirectories(directory.resolve("objects-0-00000.ndjson"));
+
+    assertThrows(
+        IOException.class,
+        () ->
+            NdjsonExporter.builder(endpoint(1000), directory, "objects")
+                .setBufferPages(1)
+                .build()
+                .export());
+  }
+
+  @Test
+  public void testRejectsEndingBefore() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            NdjsonExporter.builder(endpoint(1), directory, "objects")
+                .setParams(Collections.singletonMap("ending_before", "obj_1")));
+  }
+}
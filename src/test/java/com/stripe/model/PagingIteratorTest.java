@@ -1,18 +1,30 @@
 package com.stripe.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import com.stripe.BaseStripeTest;
+import com.stripe.exception.ApiConnectionException;
 import com.stripe.exception.StripeException;
 import com.stripe.net.ApiResource;
+import com.stripe.net.HttpHeaders;
 import com.stripe.net.RequestOptions;
 import com.stripe.net.RequestOptions.RequestOptionsBuilder;
+import com.stripe.net.StripeResponse;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -84,10 +96,13 @@ public class PagingIteratorTest extends BaseStripeTest {
     final Map<String, Object> page1Params = new HashMap<>();
     page1Params.put("foo", "bar");
     page1Params.put("starting_after", "pm_124");
+    // the following pages are requested with the maximum page size
+    page1Params.put("limit", 100);
 
     final Map<String, Object> page2Params = new HashMap<>();
     page2Params.put("foo", "bar");
     page2Params.put("starting_after", "pm_126");
+    page2Params.put("limit", 100);
 
     final PageableModelCollection collection = PageableModel.list(page0Params, null);
 
@@ -123,10 +138,12 @@ public class PagingIteratorTest extends BaseStripeTest {
     final Map<String, Object> page1Params = new HashMap<>();
     page1Params.put("foo", "baz");
     page1Params.put("starting_after", "pm_124");
+    page1Params.put("limit", 100);
 
     final Map<String, Object> page2Params = new HashMap<>();
     page2Params.put("foo", "baz");
     page2Params.put("starting_after", "pm_126");
+    page2Params.put("limit", 100);
 
     final RequestOptions options = new RequestOptionsBuilder().setApiKey("sk_paging_key").build();
     final PageableModelCollection collection = PageableModel.list(page0Params, options);
@@ -148,4 +165,350 @@ public class PagingIteratorTest extends BaseStripeTest {
     verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page2Params, options);
     verifyNoMoreInteractions(networkSpy);
   }
+
+  @Test
+  public void testAutoPaginationWithPrefetch() throws StripeException {
+    final Map<String, Object> page0Params = new HashMap<>();
+    page0Params.put("foo", "bar");
+
+    final Map<String, Object> page1Params = new HashMap<>();
+    page1Params.put("foo", "bar");
+    page1Params.put("starting_after", "pm_124");
+    page1Params.put("limit", 100);
+
+    final Map<String, Object> page2Params = new HashMap<>();
+    page2Params.put("foo", "bar");
+    page2Params.put("starting_after", "pm_126");
+    page2Params.put("limit", 100);
+
+    final PageableModelCollection collection = PageableModel.list(page0Params, null);
+
+    final List<PageableModel> models = new ArrayList<>();
+    for (PageableModel model :
+        collection.autoPagingIterable(PagingOptions.builder().setPrefetchPages(2).build())) {
+      models.add(model);
+    }
+
+    assertEquals(5, models.size());
+    assertEquals("pm_123", models.get(0).getId());
+    assertEquals("pm_124", models.get(1).getId());
+    assertEquals("pm_125", models.get(2).getId());
+    assertEquals("pm_126", models.get(3).getId());
+    assertEquals("pm_127", models.get(4).getId());
+
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page0Params);
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page1Params);
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page2Params);
+    verifyNoMoreInteractions(networkSpy);
+  }
+
+  @Test
+  public void testBackwardAutoPagination() throws StripeException {
+    final Map<String, Object> page0Params = new HashMap<>();
+    page0Params.put("foo", "bar");
+    page0Params.put("ending_before", "pm_122");
+
+    final Map<String, Object> page1Params = new HashMap<>();
+    page1Params.put("foo", "bar");
+    page1Params.put("ending_before", "pm_123");
+    page1Params.put("limit", 100);
+
+    final Map<String, Object> page2Params = new HashMap<>();
+    page2Params.put("foo", "bar");
+    page2Params.put("ending_before", "pm_125");
+    page2Params.put("limit", 100);
+
+    final PageableModelCollection collection = PageableModel.list(page0Params, null);
+
+    // Each page is returned oldest first, and the next page is the one before its newest object.
+    final PagingIterator<PageableModel> iterator =
+        ((PagingIterable<PageableModel>)
+                collection.autoPagingIterable(PagingOptions.builder().setPrefetchPages(1).build()))
+            .iterator();
+    final List<String> ids = new ArrayList<>();
+    while (iterator.hasNext()) {
+      ids.add(iterator.next().getId());
+    }
+
+    assertEquals(Arrays.asList("pm_124", "pm_123", "pm_126", "pm_125", "pm_127"), ids);
+
+    final Map<String, Object> resumeParams = iterator.getCheckpoint().getResumeParams();
+    assertEquals("pm_127", resumeParams.get("ending_before"));
+    assertFalse(resumeParams.containsKey("starting_after"));
+
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page0Params);
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page1Params);
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page2Params);
+    verifyNoMoreInteractions(networkSpy);
+  }
+
+  @Test
+  public void testPrefetchBeforeConsumption() throws StripeException {
+    final Map<String, Object> page1Params = new HashMap<>();
+    page1Params.put("starting_after", "pm_124");
+    page1Params.put("limit", 100);
+
+    final PageableModelCollection collection = PageableModel.list(new HashMap<>(), null);
+    final Iterator<PageableModel> iterator =
+        collection
+            .autoPagingIterable(
+                PagingOptions.builder()
+                    .setPrefetchPages(1)
+                    .setPrefetchExecutor(Runnable::run)
+                    .build())
+            .iterator();
+
+    // The second page is requested as soon as the first one is known, and the third one only
+    // once the second one has been taken, since the look-ahead depth is 1.
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page1Params);
+    assertEquals("pm_123", iterator.next().getId());
+    assertEquals("pm_124", iterator.next().getId());
+    verifyRequestCount(2);
+    assertEquals("pm_125", iterator.next().getId());
+    verifyRequestCount(3);
+  }
+
+  private void verifyRequestCount(int count) throws StripeException {
+    Mockito.verify(networkSpy, Mockito.times(count))
+        .request(
+            Mockito.any(ApiResource.RequestMethod.class),
+            Mockito.anyString(),
+            Mockito.<Map<String, Object>>any(),
+            Mockito.<Class<PageableModelCollection>>any(),
+            Mockito.<RequestOptions>any());
+  }
+
+  @Test
+  public void testPrefetchFailure() throws StripeException {
+    final PageableModelCollection collection = PageableModel.list(new HashMap<>(), null);
+    Mockito.doThrow(new ApiConnectionException("Connection reset"))
+        .when(networkSpy)
+        .request(
+            Mockito.any(ApiResource.RequestMethod.class),
+            Mockito.anyString(),
+            Mockito.<Map<String, Object>>any(),
+            Mockito.<Class<PageableModelCollection>>any(),
+            Mockito.<RequestOptions>any());
+
+    final Iterator<PageableModel> iterator =
+        collection
+            .autoPagingIterable(PagingOptions.builder().setPrefetchPages(2).build())
+            .iterator();
+    iterator.next();
+    iterator.next();
+
+    RuntimeException exception = assertThrows(RuntimeException.class, iterator::next);
+    assertEquals("Unable to lazy-load stripe objects", exception.getMessage());
+    assertTrue(exception.getCause() instanceof ApiConnectionException);
+  }
+
+  @Test
+  public void testAutoPagingStream() throws StripeException {
+    final Map<String, Object> page0Params = new HashMap<>();
+    page0Params.put("foo", "bar");
+
+    final Map<String, Object> page1Params = new HashMap<>();
+    page1Params.put("foo", "bar");
+    page1Params.put("starting_after", "pm_124");
+    page1Params.put("limit", 100);
+
+    final Map<String, Object> page2Params = new HashMap<>();
+    page2Params.put("foo", "bar");
+    page2Params.put("starting_after", "pm_126");
+    page2Params.put("limit", 100);
+
+    final PageableModelCollection collection = PageableModel.list(page0Params, null);
+
+    final List<String> ids =
+        collection.autoPagingStream().map(PageableModel::getId).collect(Collectors.toList());
+
+    assertEquals(Arrays.asList("pm_123", "pm_124", "pm_125", "pm_126", "pm_127"), ids);
+
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page0Params);
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page1Params);
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page2Params);
+    verifyNoMoreInteractions(networkSpy);
+  }
+
+  @Test
+  public void testParallelAutoPagingStream() throws StripeException {
+    final PageableModelCollection collection = PageableModel.list(new HashMap<>(), null);
+
+    final List<String> ids =
+        collection
+            .autoPagingStream()
+            .parallel()
+            .map(PageableModel::getId)
+            .collect(Collectors.toList());
+
+    assertEquals(Arrays.asList("pm_123", "pm_124", "pm_125", "pm_126", "pm_127"), ids);
+    verifyRequestCount(3);
+  }
+
+  @Test
+  public void testPagingSpliteratorSplitsPages() throws StripeException {
+    final PageableModelCollection collection = PageableModel.list(new HashMap<>(), null);
+    final Spliterator<PageableModel> spliterator = collection.autoPagingIterable().spliterator();
+
+    // Each split is a sized page, fetched only when it is split off.
+    final Spliterator<PageableModel> page0 = spliterator.trySplit();
+    assertEquals(2, page0.getExactSizeIfKnown());
+    verifyRequestCount(1);
+    final Spliterator<PageableModel> page1 = spliterator.trySplit();
+    assertEquals(2, page1.getExactSizeIfKnown());
+    verifyRequestCount(2);
+    assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+
+    final List<String> ids = new ArrayList<>();
+    spliterator.forEachRemaining(model -> ids.add(model.getId()));
+    assertEquals(Arrays.asList("pm_127"), ids);
+    assertEquals(0, spliterator.estimateSize());
+    assertNull(spliterator.trySplit());
+  }
+
+  /** Keeps checkpoints in memory, serialized as they would be in a file. */
+  private static class MemoryCheckpointStore implements CheckpointStore {
+    private final Map<String, String> checkpoints = new HashMap<>();
+
+    @Override
+    public PagingCheckpoint load(String key) {
+      String json = checkpoints.get(key);
+      return (json != null) ? PagingCheckpoint.fromJson(json) : null;
+    }
+
+    @Override
+    public void save(String key, PagingCheckpoint checkpoint) {
+      checkpoints.put(key, checkpoint.toJson());
+    }
+
+    @Override
+    public void delete(String key) {
+      checkpoints.remove(key);
+    }
+  }
+
+  @Test
+  public void testCheckpointAndResume() throws StripeException, IOException {
+    final Map<String, Object> page0Params = new HashMap<>();
+    page0Params.put("foo", "bar");
+    page0Params.put("limit", 2L);
+
+    final MemoryCheckpointStore store = new MemoryCheckpointStore();
+    final PagingOptions options =
+        PagingOptions.builder().setCheckpointStore(store, "pageable_models").build();
+
+    final PageableModelCollection collection = PageableModel.list(page0Params, null);
+    final Iterator<PageableModel> iterator = collection.autoPagingIterable(options).iterator();
+    assertEquals("pm_123", iterator.next().getId());
+    assertEquals("pm_124", iterator.next().getId());
+    assertNull(store.load("pageable_models"));
+
+    // The checkpoint is saved when the second page is needed, before it is requested.
+    assertEquals("pm_125", iterator.next().getId());
+    PagingCheckpoint checkpoint = store.load("pageable_models");
+    assertEquals("/v1/pageable_models", checkpoint.getUrl());
+    assertEquals("pm_124", checkpoint.getLastId());
+    assertEquals(1, checkpoint.getPageCount());
+    assertEquals(2, checkpoint.getObjectCount());
+
+    // The iteration stops there, and is resumed from the checkpoint, which carries on its counts.
+    final Map<String, Object> resumeParams = checkpoint.getResumeParams();
+    assertEquals("pm_124", resumeParams.get("starting_after"));
+    assertEquals("2", resumeParams.get("limit").toString());
+
+    final PageableModelCollection resumed = PageableModel.list(resumeParams, null);
+    final PagingIterator<PageableModel> resumedIterator =
+        ((PagingIterable<PageableModel>) resumed.autoPagingIterable(options)).iterator();
+    assertEquals("pm_127", resumedIterator.next().getId());
+    assertFalse(resumedIterator.hasNext());
+
+    checkpoint = resumedIterator.getCheckpoint();
+    assertEquals("pm_127", checkpoint.getLastId());
+    assertEquals(2, checkpoint.getPageCount());
+    assertEquals(3, checkpoint.getObjectCount());
+    assertEquals("bar", checkpoint.getResumeParams().get("foo"));
+
+    final Map<String, Object> resumedPageParams = new HashMap<>();
+    resumedPageParams.put("foo", "bar");
+    resumedPageParams.put("limit", 2L);
+    resumedPageParams.put("starting_after", "pm_124");
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", resumedPageParams);
+  }
+
+  @Test
+  public void testAdaptivePageSize() throws IOException, StripeException {
+    final List<String> pages = new ArrayList<>();
+    pages.add(getResourceAsString("/model_fixtures/pageable_model_page_0.json"));
+    pages.add(getResourceAsString("/model_fixtures/pageable_model_page_1.json"));
+    pages.add(getResourceAsString("/model_fixtures/pageable_model_page_2.json"));
+    final Iterator<String> bodies = pages.iterator();
+    Mockito.doAnswer(
+            invocation -> {
+              String body = bodies.next();
+              PageableModelCollection page =
+                  ApiResource.GSON.fromJson(body, PageableModelCollection.class);
+              page.setLastResponse(
+                  new StripeResponse(200, HttpHeaders.of(Collections.emptyMap()), body));
+              return page;
+            })
+        .when(networkSpy)
+        .request(
+            Mockito.any(ApiResource.RequestMethod.class),
+            Mockito.anyString(),
+            Mockito.<Map<String, Object>>any(),
+            Mockito.<Class<PageableModelCollection>>any(),
+            Mockito.<RequestOptions>any());
+
+    // The first page holds two objects in its body, so about ten fit in five times its size.
+    final List<PageStats> stats = new ArrayList<>();
+    final PagingOptions options =
+        PagingOptions.builder()
+            .setMaxPageBytes(5 * pages.get(0).length())
+            .setPageListener(stats::add)
+            .build();
+
+    final PageableModelCollection collection = PageableModel.list(new HashMap<>(), null);
+    final List<String> ids =
+        collection.autoPagingStream(options).map(PageableModel::getId).collect(Collectors.toList());
+
+    assertEquals(Arrays.asList("pm_123", "pm_124", "pm_125", "pm_126", "pm_127"), ids);
+
+    final Map<String, Object> page1Params = new HashMap<>();
+    page1Params.put("starting_after", "pm_124");
+    page1Params.put("limit", 10);
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page1Params);
+
+    assertEquals(2, stats.size());
+    assertEquals("/v1/pageable_models", stats.get(0).getUrl());
+    assertEquals(2, stats.get(0).getPageNumber());
+    assertEquals(10, stats.get(0).getLimit());
+    assertEquals(2, stats.get(0).getObjectCount());
+    assertEquals(pages.get(1).length(), stats.get(0).getResponseBytes());
+    assertFalse(stats.get(0).getDuration().isNegative());
+    assertEquals(3, stats.get(1).getPageNumber());
+    assertEquals(1, stats.get(1).getObjectCount());
+  }
+
+  @Test
+  public void testAdaptivePageSizeKeepsRequestedLimit() throws StripeException {
+    final Map<String, Object> page0Params = new HashMap<>();
+    page0Params.put("limit", 2L);
+
+    final List<PageStats> stats = new ArrayList<>();
+    final PagingOptions options =
+        PagingOptions.builder().setMaxPageBytes(1).setPageListener(stats::add).build();
+
+    final PageableModelCollection collection = PageableModel.list(page0Params, null);
+    final List<String> ids =
+        collection.autoPagingStream(options).map(PageableModel::getId).collect(Collectors.toList());
+
+    // The size of the pages is unknown without their responses, so the requested limit is kept.
+    assertEquals(5, ids.size());
+    final Map<String, Object> page1Params = new HashMap<>();
+    page1Params.put("limit", 2L);
+    page1Params.put("starting_after", "pm_124");
+    verifyRequest(ApiResource.RequestMethod.GET, "/v1/pageable_models", page1Params);
+    assertEquals(-1, stats.get(0).getResponseBytes());
+    assertEquals(2, stats.get(0).getLimit());
+  }
 }
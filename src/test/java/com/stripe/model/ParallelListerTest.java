@@ -0,0 +1,198 @@
+package com.stripe.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.stripe.BaseStripeTest;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.FakeListEndpoint.FakeObject;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class ParallelListerTest extends BaseStripeTest {
+  /**
+   * Returns an endpoint over objects created at the given times, with a millisecond of latency so
+   * that the requests of the workers interleave.
+   */
+  private static FakeListEndpoint endpoint(List<Long> times) throws StripeException {
+    List<Long> newestFirst = new ArrayList<>(times);
+    newestFirst.sort(Collections.reverseOrder());
+    List<String> objects = new ArrayList<>();
+    for (long time : newestFirst) {
+      objects.add(String.format("{\"id\":\"obj_%d\",\"created\":%d}", time, time));
+    }
+    return new FakeListEndpoint(objects).setLatencyMillis(1).install();
+  }
+
+  private static long createdGte(Map<String, Object> params) {
+    return ((Number) ((Map<?, ?>) params.get("created")).get("gte")).longValue();
+  }
+
+  /** Returns the start of the windows listed, i.e. of the first requests of their paginations. */
+  private static Set<Long> windowStarts(FakeListEndpoint endpoint) {
+    Set<Long> starts = new HashSet<>();
+    for (Map<String, Object> params : endpoint.getRequestParams()) {
+      if (params.get("starting_after") == null) {
+        starts.add(createdGte(params));
+      }
+    }
+    return starts;
+  }
+
+  private static List<Long> skewedTimes() {
+    // Most objects are in the most recent tenth of the range.
+    List<Long> times = new ArrayList<>();
+    for (long time = 0; time < 9000; time += 100) {
+      times.add(time);
+    }
+    for (long time = 9000; time < 10000; time += 2) {
+      times.add(time);
+    }
+    return times;
+  }
+
+  private static ParallelLister.Builder<FakeObject> builder(FakeListEndpoint endpoint) {
+    return ParallelLister.builder(endpoint, FakeObject::getCreated)
+        .setCreatedRange(0, 10000)
+        .setParams(Collections.singletonMap("limit", 10))
+        .setParallelism(4)
+        .setBufferSize(20);
+  }
+
+  private static List<Long> listTimes(ParallelLister<FakeObject> lister) {
+    List<Long> times = new ArrayList<>();
+    for (FakeObject object : lister) {
+      times.add(object.getCreated());
+    }
+    return times;
+  }
+
+  @Test
+  public void testUnordered() throws StripeException {
+    List<Long> expected = skewedTimes();
+    FakeListEndpoint endpoint = endpoint(expected);
+
+    List<Long> times = listTimes(builder(endpoint).build());
+
+    assertEquals(expected.size(), times.size());
+    assertEquals(new HashSet<>(expected), new HashSet<>(times));
+  }
+
+  @Test
+  public void testOrdered() throws StripeException {
+    List<Long> expected = skewedTimes();
+    expected.sort(Collections.reverseOrder());
+    FakeListEndpoint endpoint = endpoint(expected);
+
+    List<Long> times = listTimes(builder(endpoint).setOrdered(true).build());
+
+    assertEquals(expected, times);
+  }
+
+  @Test
+  public void testSplitsDenseWindows() throws StripeException {
+    List<Long> expected = skewedTimes();
+    FakeListEndpoint endpoint = endpoint(expected);
+
+    // The buffers are large enough for the sparse windows to be listed without waiting for the
+    // consumer, which frees their workers.
+    List<Long> times = listTimes(builder(endpoint).setOrdered(true).setBufferSize(1000).build());
+
+    assertEquals(expected.size(), times.size());
+    // The four initial windows start at 0, 2500, 5000 and 7500; the dense newest one is split as
+    // soon as the sparse ones are done.
+    assertTrue(windowStarts(endpoint).size() > 4, windowStarts(endpoint).toString());
+
+    // The split window carries on with its raised lower bound.
+    assertTrue(
+        endpoint.getRequestParams().stream()
+            .anyMatch(params -> params.get("starting_after") != null && createdGte(params) > 7500));
+  }
+
+  @Test
+  public void testDefaultLimit() throws StripeException {
+    List<Long> expected = skewedTimes();
+    FakeListEndpoint endpoint = endpoint(expected);
+
+    List<Long> times =
+        listTimes(
+            ParallelLister.builder(endpoint, FakeObject::getCreated)
+                .setCreatedRange(0, 10000)
+                .build());
+
+    assertEquals(expected.size(), times.size());
+    for (Map<String, Object> params : endpoint.getRequestParams()) {
+      assertEquals(100, params.get("limit"));
+    }
+  }
+
+  @Test
+  public void testEmptyRange() throws StripeException {
+    FakeListEndpoint endpoint = endpoint(Collections.emptyList());
+
+    assertEquals(Collections.emptyList(), listTimes(builder(endpoint).build()));
+  }
+
+  @Test
+  public void testFailure() {
+    ParallelLister<FakeObject> lister =
+        ParallelLister.<FakeObject>builder(
+                (params, options) -> {
+                  throw new ApiConnectionException("Connection reset");
+                },
+                FakeObject::getCreated)
+            .setCreatedRange(0, 10000)
+            .build();
+
+    RuntimeException exception = assertThrows(RuntimeException.class, () -> listTimes(lister));
+    assertTrue(exception.getCause() instanceof ApiConnectionException);
+  }
+
+  @Test
+  public void testClose() throws StripeException {
+    List<Long> expected = skewedTimes();
+    FakeListEndpoint endpoint = endpoint(expected);
+
+    Set<Long> times = new HashSet<>();
+    ParallelLister<FakeObject>.ListingIterator iterator = builder(endpoint).build().iterator();
+    try {
+      for (int i = 0; i < 15; i++) {
+        times.add(iterator.next().getCreated());
+      }
+    } finally {
+      iterator.close();
+    }
+
+    assertEquals(15, times.size());
+
+    // The buffered objects are still returned, then the iteration ends.
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          while (iterator.hasNext()) {
+            times.add(iterator.next().getCreated());
+          }
+        });
+    assertTrue(times.size() < expected.size(), String.valueOf(times.size()));
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  public void testRejectsCursorParams() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            ParallelLister.builder(endpoint(skewedTimes()), FakeObject::getCreated)
+                .setParams(Collections.singletonMap("starting_after", "obj_1")));
+  }
+}
@@ -0,0 +1,93 @@
+package com.stripe.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.stripe.BaseStripeTest;
+import com.stripe.Stripe;
+import com.stripe.net.ApiResource;
+import java.io.StringWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class StripeObjectTest extends BaseStripeTest {
+  private static final String CHARGE_JSON =
+      "{\"id\":\"ch_123\",\"object\":\"charge\",\"amount\":100,\"currency\":\"usd\","
+          + "\"status\":\"succeeded\",\"customer\":\"cus_123\",\"description\":\"A charge\","
+          + "\"metadata\":{\"order_id\":\"6735\"}}";
+
+  private static class TestObject extends StripeObject {
+    @SuppressWarnings("unused")
+    String id = "obj_123";
+
+    @SuppressWarnings("unused")
+    String type = "test";
+
+    @SuppressWarnings("unused")
+    String status;
+  }
+
+  @AfterEach
+  public void tearDownFullToString() {
+    Stripe.setFullToString(false);
+  }
+
+  @Test
+  public void testSummaryToString() {
+    Charge charge = ApiResource.GSON.fromJson(CHARGE_JSON, Charge.class);
+
+    String str = charge.toString();
+
+    assertTrue(str.startsWith("<com.stripe.model.Charge@"));
+    assertTrue(
+        str.endsWith(
+            " id=ch_123 object=charge status=succeeded amount=100 currency=usd customer=cus_123>"),
+        str);
+  }
+
+  @Test
+  public void testSummaryToStringWithoutHasId() {
+    String str = new TestObject().toString();
+
+    assertTrue(str.endsWith(" id=obj_123 type=test>"), str);
+  }
+
+  @Test
+  public void testSummaryToStringTruncatesValues() {
+    Charge charge = ApiResource.GSON.fromJson(CHARGE_JSON, Charge.class);
+    charge.setStatus(new String(new char[100]).replace('\0', 'a'));
+
+    String str = charge.toString();
+
+    assertTrue(
+        str.contains(" status=" + new String(new char[64]).replace('\0', 'a') + "... "), str);
+  }
+
+  @Test
+  public void testFullToString() {
+    Charge charge = ApiResource.GSON.fromJson(CHARGE_JSON, Charge.class);
+    Stripe.setFullToString(true);
+
+    String str = charge.toString();
+
+    assertTrue(str.startsWith("<com.stripe.model.Charge@"));
+    assertTrue(str.contains(" id=ch_123> JSON: {\n  \""), str);
+    assertTrue(str.endsWith(charge.toPrettyJson()));
+  }
+
+  @Test
+  public void testToJson() {
+    Charge charge = ApiResource.GSON.fromJson(CHARGE_JSON, Charge.class);
+
+    String json = charge.toJson();
+    StringWriter writer = new StringWriter();
+    charge.writeJson(writer);
+
+    assertTrue(json.startsWith("{\""), json);
+    assertTrue(json.contains(",\"id\":\"ch_123\",\"invoice\":null,"), json);
+    assertEquals(json, writer.toString());
+    assertEquals(
+        ApiResource.GSON.toJsonTree(ApiResource.GSON.fromJson(json, Charge.class)),
+        ApiResource.GSON.toJsonTree(charge));
+  }
+}
@@ -6,11 +6,14 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.google.gson.annotations.SerializedName;
+import com.stripe.param.PaymentIntentCreateParams;
 import com.stripe.param.common.EmptyParam;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 import org.junit.jupiter.api.Test;
 
 public class ApiRequestParamsConverterTest {
@@ -253,6 +256,76 @@ public class ApiRequestParamsConverterTest {
     assertEquals(featureMap.get("barLong"), null);
   }
 
+  @Test
+  public void testEncodeMatchesConvert() {
+    ModelHasExtraParams fooParams = new ModelHasExtraParams(EmptyParam.EMPTY);
+    fooParams.extraParams.put("root_param[foo][string]", "value_foo");
+    assertEncodedLikeConverted(fooParams);
+    assertEncodedLikeConverted(
+        new RootModelHasNestedExtraParams(ParamCode.ENUM_BAR, new ModelHasExtraParams(null)));
+
+    ModelHasListExtraParams listParams = new ModelHasListExtraParams();
+    listParams.paramFooList =
+        Arrays.asList(
+            new ModelHasExtraParams(ParamCode.ENUM_FOO), new ModelHasExtraParams(EmptyParam.EMPTY));
+    assertEncodedLikeConverted(listParams);
+
+    listParams.paramFooList = Collections.emptyList();
+    assertEquals("param_foo_list=", converter.encode(listParams));
+
+    HasMetadataParams metadataParams = new HasMetadataParams();
+    metadataParams.metadata = new HashMap<>();
+    metadataParams.metadata.put("foo", "1 & 2");
+    metadataParams.metadata.put("bar", null);
+    metadataParams.featureMap = Collections.singletonMap("fooLong", 123L);
+    assertEncodedLikeConverted(metadataParams);
+  }
+
+  @Test
+  public void testEncodeTypedParams() {
+    PaymentIntentCreateParams params =
+        PaymentIntentCreateParams.builder()
+            .setAmount(1000L)
+            .setCurrency("usd")
+            .addPaymentMethodType("card")
+            .addPaymentMethodType("sepa_debit")
+            .setCaptureMethod(PaymentIntentCreateParams.CaptureMethod.MANUAL)
+            .putMetadata("order_id", "6735")
+            .putExtraParam("new_param[nested]", "value")
+            .build();
+
+    assertEquals(
+        "amount=1000&capture_method=manual&currency=usd&new_param[nested]=value"
+            + "&metadata[order_id]=6735&payment_method_types[0]=card"
+            + "&payment_method_types[1]=sepa_debit",
+        converter.encode(params));
+    assertEncodedLikeConverted(params);
+  }
+
+  @Test
+  public void testEncodeIllegalExtraParams() {
+    IllegalModelHasWrongExtraParamsType params = new IllegalModelHasWrongExtraParamsType();
+    params.extraParams = "should have been a map";
+    IllegalStateException illegalStateException =
+        assertThrows(IllegalStateException.class, () -> converter.encode(params));
+    assertTrue(illegalStateException.getMessage().contains("Unexpected schema for extra params"));
+
+    ModelHasExtraParams fooParams = new ModelHasExtraParams(ParamCode.ENUM_FOO);
+    fooParams.extraParams.put("string_value", "my conflicting param value");
+    IllegalArgumentException illegalArgumentException =
+        assertThrows(IllegalArgumentException.class, () -> converter.encode(fooParams));
+    assertTrue(illegalArgumentException.getMessage().contains("Found param key `string_value`."));
+  }
+
+  private void assertEncodedLikeConverted(ApiRequestParams params) {
+    List<String> expected =
+        Arrays.asList(FormEncoder.createQueryString(converter.convert(params)).split("&"));
+    List<String> actual = Arrays.asList(converter.encode(params).split("&"));
+    assertEquals(new TreeSet<>(expected), new TreeSet<>(actual));
+    assertEquals(expected.size(), actual.size());
+    assertEquals(converter.convert(params).keySet(), converter.keys(params));
+  }
+
   private Map<String, Object> toMap(ApiRequestParams params) {
     return converter.convert(params);
   }
@@ -8,9 +8,12 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.annotations.SerializedName;
 import com.stripe.BaseStripeTest;
+import com.stripe.param.PaymentIntentCreateParams;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -660,4 +663,92 @@ public class FormEncoderTest extends BaseStripeTest {
         "legal_entity[additional_owners][0][first_name]=Stripe",
         FormEncoder.createQueryString(params));
   }
+
+  @Test
+  public void testCreateQueryStringMatchesUrlEncoder() throws UnsupportedEncodingException {
+    List<String> values =
+        Arrays.asList(
+            "abcXYZ019-_.*",
+            "~!'()/:;=?@&$,#\"<>{}|\\^`\t\n",
+            "\u007f\u0080\u07ff\u0800\uffff",
+            "\ud83d\ude00 emoji",
+            "lone \ud83d surrogates \ude00",
+            "[brackets] stay");
+
+    for (String value : values) {
+      String expected =
+          URLEncoder.encode(value, StandardCharsets.UTF_8.name())
+              .replaceAll("%5B", "[")
+              .replaceAll("%5D", "]");
+      assertEquals(
+          expected + "=" + expected,
+          FormEncoder.createQueryString(Collections.singletonMap(value, value)));
+    }
+  }
+
+  @Test
+  public void testCreateQueryStringWithPrimitiveArrays() {
+    final Map<String, Object> params = new LinkedHashMap<>();
+    params.put("b", new boolean[] {true, false});
+    params.put("c", new char[] {'a', ' '});
+    params.put("d", new double[] {0.5});
+    params.put("i", new int[] {});
+    params.put("l", new long[] {Long.MAX_VALUE});
+
+    assertEquals(
+        "b[0]=true&b[1]=false&c[0]=a&c[1]=+&d[0]=0.5&i=&l[0]=9223372036854775807",
+        FormEncoder.createQueryString(params));
+    assertEquals(
+        ImmutableList.of(
+            new KeyValuePair<String, Object>("b[0]", "true"),
+            new KeyValuePair<String, Object>("b[1]", "false"),
+            new KeyValuePair<String, Object>("c[0]", "a"),
+            new KeyValuePair<String, Object>("c[1]", " "),
+            new KeyValuePair<String, Object>("d[0]", "0.5"),
+            new KeyValuePair<String, Object>("i", ""),
+            new KeyValuePair<String, Object>("l[0]", "9223372036854775807")),
+        FormEncoder.flattenParams(params));
+  }
+
+  @Test
+  public void testCreateQueryStringWithNestedFormEncodedKeys() {
+    final Map<String, Object> params = new LinkedHashMap<>();
+    params.put("nested", ImmutableMap.of("a[b]", "c", "d e", ImmutableList.of()));
+
+    assertEquals("nested[a][[b]]=c&nested[d+e]=", FormEncoder.createQueryString(params));
+    assertEquals(
+        ImmutableList.of(
+            new KeyValuePair<String, Object>("nested[a][[b]]", "c"),
+            new KeyValuePair<String, Object>("nested[d e]", "")),
+        FormEncoder.flattenParams(params));
+  }
+
+  @Test
+  public void testCreateQueryStringSkipsStreams() {
+    final Map<String, Object> params = new LinkedHashMap<>();
+    params.put("stream", new ByteArrayInputStream(new byte[0]));
+    params.put("streams", ImmutableList.of(new ByteArrayInputStream(new byte[0])));
+    params.put("string", "String!");
+
+    assertEquals("string=String%21", FormEncoder.createQueryString(params));
+  }
+
+  @Test
+  public void testEncodeModifiedTypedParams() throws IOException {
+    Map<String, Object> params =
+        TypedParamsMap.of(
+            PaymentIntentCreateParams.builder().setAmount(1000L).setCurrency("usd").build());
+    assertEquals("amount=1000&currency=usd", FormEncoder.createQueryString(params));
+
+    params.put("description", "Order 6735");
+    params.remove("amount");
+
+    Set<String> expected = new HashSet<>(Arrays.asList("currency=usd", "description=Order+6735"));
+    assertEquals(
+        expected, new HashSet<>(Arrays.asList(FormEncoder.createQueryString(params).split("&"))));
+    assertEquals(
+        expected,
+        new HashSet<>(
+            Arrays.asList(FormEncoder.createHttpContent(params).stringContent().split("&"))));
+  }
 }
@@ -2,6 +2,7 @@ package com.stripe.net;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.withSettings;
@@ -14,6 +15,8 @@ import com.stripe.exception.StripeException;
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -179,4 +182,16 @@ public class HttpClientTest extends BaseStripeTest {
     assertEquals(200, response.code());
     assertEquals(1, response.numRetries());
   }
+
+  @Test
+  public void testGetUserAgentHeaders() {
+    Map<String, List<String>> headers = HttpClient.getUserAgentHeaders();
+
+    assertEquals(
+        Collections.singletonList(HttpClient.buildUserAgentString()), headers.get("User-Agent"));
+    assertEquals(
+        Collections.singletonList(HttpClient.buildXStripeClientUserAgentString()),
+        headers.get("X-Stripe-Client-User-Agent"));
+    assertSame(headers, HttpClient.getUserAgentHeaders());
+  }
 }
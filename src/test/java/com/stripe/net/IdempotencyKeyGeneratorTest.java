@@ -0,0 +1,148 @@
+package com.stripe.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.stripe.BaseStripeTest;
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class IdempotencyKeyGeneratorTest extends BaseStripeTest {
+  @AfterEach
+  public void tearDownGenerator() {
+    Stripe.setIdempotencyKeyGenerator(null);
+  }
+
+  @Test
+  public void testTimeOrderedKeyFormat() {
+    long before = System.currentTimeMillis();
+    UUID uuid = UUID.fromString(IdempotencyKeyGenerator.timeOrdered().generateKey());
+    long after = System.currentTimeMillis();
+
+    assertEquals(7, uuid.version());
+    assertEquals(2, uuid.variant());
+    long timestamp = uuid.getMostSignificantBits() >>> 16;
+    assertTrue(timestamp >= before && timestamp <= after);
+  }
+
+  @Test
+  public void testTimeOrderedKeysAreOrderedByTimestamp() {
+    String first = TimeOrderedIdempotencyKeyGenerator.nextUuid(1_600_000_000_000L).toString();
+    String second = TimeOrderedIdempotencyKeyGenerator.nextUuid(1_600_000_000_001L).toString();
+
+    assertTrue(first.compareTo(second) < 0);
+  }
+
+  @Test
+  public void testTimeOrderedKeysAreUniqueAcrossThreads() throws Exception {
+    Set<String> keys = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int j = 0; j < 10_000; j++) {
+                    keys.add(IdempotencyKeyGenerator.timeOrdered().generateKey());
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(80_000, keys.size());
+  }
+
+  @Test
+  public void testDeriveKey() {
+    String key = IdempotencyKeyGenerator.deriveKey("order_6735");
+
+    assertEquals(key, IdempotencyKeyGenerator.deriveKey("order_6735"));
+    assertEquals(key, IdempotencyKeyGenerator.fromBusinessKey("order_6735").generateKey());
+    assertNotEquals(key, IdempotencyKeyGenerator.deriveKey("order_6736"));
+    assertEquals(3, UUID.fromString(key).version());
+    assertThrows(IllegalArgumentException.class, () -> IdempotencyKeyGenerator.deriveKey(""));
+  }
+
+  @Test
+  public void testRequestUsesOptionsGenerator() throws StripeException {
+    RequestOptions options =
+        RequestOptions.builder()
+            .setIdempotencyKeyGenerator(IdempotencyKeyGenerator.fromBusinessKey("order_6735"))
+            .build();
+    StripeRequest request =
+        new StripeRequest(
+            ApiResource.RequestMethod.POST,
+            "http://example.com/post",
+            ImmutableMap.of("string", "String!"),
+            options);
+
+    assertEquals(
+        IdempotencyKeyGenerator.deriveKey("order_6735"),
+        request.headers().firstValue("Idempotency-Key").get());
+  }
+
+  @Test
+  public void testRequestUsesGlobalGenerator() throws StripeException {
+    Stripe.setIdempotencyKeyGenerator(() -> "global_key");
+
+    StripeRequest request =
+        new StripeRequest(
+            ApiResource.RequestMethod.POST,
+            "http://example.com/post",
+            ImmutableMap.of("string", "String!"),
+            null);
+    StripeRequest requestWithKey =
+        new StripeRequest(
+            ApiResource.RequestMethod.POST,
+            "http://example.com/post",
+            ImmutableMap.of("string", "String!"),
+            RequestOptions.builder().setIdempotencyKey("explicit_key").build());
+
+    assertEquals("global_key", request.headers().firstValue("Idempotency-Key").get());
+    assertEquals("explicit_key", requestWithKey.headers().firstValue("Idempotency-Key").get());
+  }
+
+  @Test
+  public void testRequestRejectsEmptyKey() {
+    RequestOptions options = RequestOptions.builder().setIdempotencyKeyGenerator(() -> "").build();
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            new StripeRequest(
+                ApiResource.RequestMethod.POST,
+                "http://example.com/post",
+                ImmutableMap.of("string", "String!"),
+                options));
+  }
+
+  @Test
+  public void testRandomKeys() {
+    Set<String> keys = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      keys.add(IdempotencyKeyGenerator.random().generateKey());
+    }
+    assertEquals(100, keys.size());
+  }
+}
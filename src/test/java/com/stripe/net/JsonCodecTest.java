@@ -0,0 +1,212 @@
+package com.stripe.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonParseException;
+import com.stripe.BaseStripeTest;
+import com.stripe.Stripe;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.InvalidRequestException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Card;
+import com.stripe.model.Charge;
+import com.stripe.model.Event;
+import com.stripe.model.StripeErrorResponse;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class JsonCodecTest extends BaseStripeTest {
+  /** Codec delegating to the default codec while counting invocations. */
+  private static class CountingJsonCodec extends GsonJsonCodec {
+    final AtomicInteger deserializations = new AtomicInteger();
+
+    @Override
+    public <T> T deserialize(String json, Class<T> clazz) {
+      this.deserializations.incrementAndGet();
+      return super.deserialize(json, clazz);
+    }
+  }
+
+  /** Codec that only implements the interface, recording the classes it deserializes. */
+  private static class RecordingJsonCodec implements JsonCodec {
+    final List<Class<?>> classes = new CopyOnWriteArrayList<>();
+
+    @Override
+    public <T> T deserialize(String json, Class<T> clazz) {
+      this.classes.add(clazz);
+      try {
+        return ApiResource.GSON.fromJson(json, clazz);
+      } catch (JsonParseException e) {
+        throw new JsonCodecException(e.getMessage(), e);
+      }
+    }
+  }
+
+  private static final String CHARGE_JSON =
+      "{\"id\":\"ch_123\",\"object\":\"charge\",\"amount\":1000,\"paid\":true,"
+          + "\"description\":\"caf\\u00e9 \\\"latte\\\"\",\"refunded\":null,"
+          + "\"metadata\":{\"order_id\":\"6735\"},\"payment_method\":\"pm_123\","
+          + "\"customer\":{\"id\":\"cus_123\",\"object\":\"customer\","
+          + "\"email\":\"jenny@example.com\",\"balance\":-500},"
+          + "\"source\":{\"id\":\"card_123\",\"object\":\"card\",\"brand\":\"Visa\","
+          + "\"last4\":\"4242\",\"customer\":\"cus_123\"}}";
+
+  private static void stubResponse(String body) throws StripeException {
+    HttpClient spy = Mockito.spy(new HttpURLConnectionClient());
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(spy));
+    Mockito.doReturn(new StripeResponse(200, HttpHeaders.of(Collections.emptyMap()), body))
+        .when(spy)
+        .requestWithRetries(Mockito.<StripeRequest>any());
+  }
+
+  @AfterEach
+  public void restoreDefaultCodec() {
+    ApiResource.setJsonCodec(null);
+  }
+
+  @Test
+  public void testDefaultCodec() {
+    assertTrue(ApiResource.getJsonCodec() instanceof GsonJsonCodec);
+
+    Charge charge =
+        ApiResource.getJsonCodec()
+            .deserialize("{\"id\":\"ch_123\",\"object\":\"charge\"}", Charge.class);
+    assertEquals("ch_123", charge.getId());
+    assertThrows(
+        JsonCodecException.class,
+        () -> ApiResource.getJsonCodec().deserialize("{\"id\":", Charge.class));
+  }
+
+  @Test
+  public void testResponsesAreDecodedWithCodec() throws StripeException {
+    CountingJsonCodec codec = new CountingJsonCodec();
+    ApiResource.setJsonCodec(codec);
+
+    HttpClient spy = Mockito.spy(new HttpURLConnectionClient());
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(spy));
+    StripeResponse response =
+        new StripeResponse(
+            200,
+            HttpHeaders.of(Collections.emptyMap()),
+            "{\"id\":\"ch_123\",\"object\":\"charge\"}");
+    Mockito.doReturn(response).when(spy).requestWithRetries(Mockito.<StripeRequest>any());
+
+    Charge charge = Charge.retrieve("ch_123");
+
+    assertEquals("ch_123", charge.getId());
+    assertEquals(1, codec.deserializations.get());
+  }
+
+  @Test
+  public void testWebhookEventsAreDecodedWithCodec() throws Exception {
+    CountingJsonCodec codec = new CountingJsonCodec();
+    ApiResource.setJsonCodec(codec);
+
+    String payload = "{\"id\":\"evt_123\",\"object\":\"event\"}";
+    long timestamp = Webhook.Util.getTimeNow();
+    String signature =
+        Webhook.Util.computeHmacSha256("whsec_secret", String.format("%d.%s", timestamp, payload));
+
+    Event event =
+        Webhook.constructEvent(
+            payload, String.format("t=%d,v1=%s", timestamp, signature), "whsec_secret");
+
+    assertEquals("evt_123", event.getId());
+    assertEquals(1, codec.deserializations.get());
+  }
+
+  @Test
+  public void testErrorsAreDecodedWithCodec() throws StripeException {
+    RecordingJsonCodec codec = new RecordingJsonCodec();
+    ApiResource.setJsonCodec(codec);
+
+    HttpClient spy = Mockito.spy(new HttpURLConnectionClient());
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(spy));
+    StripeResponse response =
+        new StripeResponse(
+            404,
+            HttpHeaders.of(Collections.emptyMap()),
+            "{\"error\":{\"type\":\"invalid_request_error\",\"code\":\"resource_missing\"}}");
+    Mockito.doReturn(response).when(spy).requestWithRetries(Mockito.<StripeRequest>any());
+
+    InvalidRequestException exception =
+        assertThrows(InvalidRequestException.class, () -> Charge.retrieve("ch_123"));
+
+    assertEquals("resource_missing", exception.getCode());
+    assertEquals(Collections.singletonList(StripeErrorResponse.class), codec.classes);
+
+    Mockito.doReturn(new StripeResponse(404, HttpHeaders.of(Collections.emptyMap()), "<html>"))
+        .when(spy)
+        .requestWithRetries(Mockito.<StripeRequest>any());
+    assertThrows(ApiException.class, () -> Charge.retrieve("ch_123"));
+  }
+
+  @Test
+  public void testEventDataObjectsAreDecodedWithCodec() {
+    RecordingJsonCodec codec = new RecordingJsonCodec();
+    ApiResource.setJsonCodec(codec);
+
+    Event event =
+        codec.deserialize(
+            String.format(
+                "{\"id\":\"evt_123\",\"object\":\"event\",\"api_version\":\"%s\","
+                    + "\"data\":{\"object\":{\"id\":\"ch_123\",\"object\":\"charge\"}}}",
+                Stripe.API_VERSION),
+            Event.class);
+    Charge charge = (Charge) event.getDataObjectDeserializer().getObject().get();
+
+    assertEquals("ch_123", charge.getId());
+    assertEquals(Arrays.asList(Event.class, Charge.class), codec.classes);
+  }
+
+  @Test
+  public void testNonGsonCodec() throws StripeException {
+    ApiResource.setJsonCodec(new ReflectiveJsonCodec());
+    stubResponse(CHARGE_JSON);
+
+    Charge charge = Charge.retrieve("ch_123");
+
+    assertEquals(1000L, charge.getAmount());
+    assertEquals("caf\u00e9 \"latte\"", charge.getDescription());
+    assertEquals(Collections.singletonMap("order_id", "6735"), charge.getMetadata());
+    assertEquals("pm_123", charge.getPaymentMethod());
+    assertEquals("cus_123", charge.getCustomer());
+    assertEquals("jenny@example.com", charge.getCustomerObject().getEmail());
+    assertEquals(-500L, charge.getCustomerObject().getBalance());
+    Card card = (Card) charge.getSource();
+    assertEquals("4242", card.getLast4());
+    assertEquals("cus_123", card.getCustomer());
+    assertNull(card.getCustomerObject());
+    // The model is the same as with the default codec.
+    assertEquals(
+        ApiResource.GSON.toJsonTree(ApiResource.GSON.fromJson(CHARGE_JSON, Charge.class)),
+        ApiResource.GSON.toJsonTree(charge));
+  }
+
+  @Test
+  public void testNonGsonCodecWithProjection() throws StripeException {
+    ApiResource.setJsonCodec(new ReflectiveJsonCodec());
+    stubResponse(CHARGE_JSON);
+
+    Charge charge =
+        Charge.retrieve(
+            "ch_123",
+            RequestOptions.builder()
+                .setResponseProjection(ResponseProjection.of("customer.email", "source"))
+                .build());
+
+    assertEquals("ch_123", charge.getId());
+    assertNull(charge.getAmount());
+    assertEquals("jenny@example.com", charge.getCustomerObject().getEmail());
+    assertEquals("4242", ((Card) charge.getSource()).getLast4());
+  }
+}
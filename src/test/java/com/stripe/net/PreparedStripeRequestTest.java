@@ -0,0 +1,277 @@
+package com.stripe.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.collect.ImmutableMap;
+import com.stripe.BaseStripeTest;
+import com.stripe.Stripe;
+import com.stripe.exception.AuthenticationException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.PaymentIntentCollection;
+import com.stripe.model.StripeObjectInterface;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.PaymentIntentListParams;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class PreparedStripeRequestTest extends BaseStripeTest {
+  private static final Map<String, Object> CONSTANT_PARAMS =
+      ImmutableMap.of("currency", "usd", "metadata", ImmutableMap.of("source", "batch job"));
+
+  private static Set<String> pairs(String encoded) {
+    return new HashSet<>(Arrays.asList(encoded.split("&")));
+  }
+
+  @Test
+  public void testBindPost() throws StripeException {
+    PreparedStripeRequest<PaymentIntent> prepared =
+        PreparedStripeRequest.builder(
+                ApiResource.RequestMethod.POST,
+                Stripe.getApiBase() + "/v1/payment_intents",
+                PaymentIntent.class)
+            .setParams(CONSTANT_PARAMS)
+            .build();
+    Map<String, Object> params = ImmutableMap.of("amount", 1000, "customer", "cus_123");
+
+    StripeRequest request = prepared.bind(params, null);
+    StripeRequest expected =
+        new StripeRequest(
+            ApiResource.RequestMethod.POST,
+            Stripe.getApiBase() + "/v1/payment_intents",
+            ImmutableMap.<String, Object>builder().putAll(CONSTANT_PARAMS).putAll(params).build(),
+            null);
+
+    assertEquals(expected.url(), request.url());
+    assertEquals(expected.content().contentType(), request.content().contentType());
+    assertEquals(
+        pairs(expected.content().stringContent()), pairs(request.content().stringContent()));
+    assertEquals(expected.params(), request.params());
+    assertEquals(
+        expected.headers().firstValue("Authorization"),
+        request.headers().firstValue("Authorization"));
+
+    String idempotencyKey = request.headers().firstValue("Idempotency-Key").get();
+    assertNotEquals(
+        idempotencyKey, prepared.bind(params, null).headers().firstValue("Idempotency-Key").get());
+    assertEquals(
+        "key_123", prepared.bind(params, "key_123").headers().firstValue("Idempotency-Key").get());
+  }
+
+  @Test
+  public void testBindTypedParams() throws StripeException {
+    PreparedStripeRequest<PaymentIntent> prepared =
+        PreparedStripeRequest.builder(
+                ApiResource.RequestMethod.POST,
+                Stripe.getApiBase() + "/v1/payment_intents",
+                PaymentIntent.class)
+            .setParams(PaymentIntentCreateParams.builder().setCurrency("usd").build())
+            .build();
+
+    StripeRequest request =
+        prepared.bind(PaymentIntentCreateParams.builder().setAmount(1000L).build(), null);
+
+    assertEquals("currency=usd&amount=1000", request.content().stringContent());
+    assertEquals(
+        "currency=usd",
+        prepared.bind(PaymentIntentCreateParams.builder().build(), null).content().stringContent());
+  }
+
+  @Test
+  public void testBindGet() throws StripeException {
+    PreparedStripeRequest<PaymentIntentCollection> prepared =
+        PreparedStripeRequest.builder(
+                ApiResource.RequestMethod.GET,
+                Stripe.getApiBase() + "/v1/payment_intents",
+                PaymentIntentCollection.class)
+            .setParams(Collections.singletonMap("limit", 100))
+            .build();
+
+    StripeRequest request = prepared.bind(Collections.singletonMap("customer", "cus_123"), null);
+    assertEquals(
+        Stripe.getApiBase() + "/v1/payment_intents?limit=100&customer=cus_123",
+        request.url().toString());
+    assertNull(request.content());
+    assertEquals(false, request.headers().firstValue("Idempotency-Key").isPresent());
+    assertEquals(
+        Stripe.getApiBase() + "/v1/payment_intents?limit=100",
+        prepared.bind(PaymentIntentListParams.builder().build(), null).url().toString());
+
+    // Without variable params, the URL built with the template is reused
+    assertSame(
+        prepared.bind((Map<String, Object>) null, null).url(),
+        prepared.bind(Collections.emptyMap(), null).url());
+  }
+
+  @Test
+  public void testInvalidTemplates() {
+    Stripe.apiKey = null;
+    assertThrows(
+        AuthenticationException.class,
+        () ->
+            PreparedStripeRequest.builder(
+                    ApiResource.RequestMethod.POST,
+                    Stripe.getApiBase() + "/v1/payment_intents",
+                    PaymentIntent.class)
+                .build());
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            PreparedStripeRequest.builder(
+                    ApiResource.RequestMethod.POST,
+                    Stripe.getApiBase() + "/v1/payment_intents",
+                    PaymentIntent.class)
+                .setOptions(
+                    RequestOptions.builder()
+                        .setApiKey("sk_test_123")
+                        .setIdempotencyKey("key_123")
+                        .build())
+                .build());
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            PreparedStripeRequest.builder(
+                    ApiResource.RequestMethod.POST,
+                    Stripe.getApiBase() + "/v1/payment_intents",
+                    PaymentIntent.class)
+                .setOptions(
+                    RequestOptions.builder()
+                        .setApiKey("sk_test_123")
+                        .setIdempotencyKeyGenerator(
+                            IdempotencyKeyGenerator.fromBusinessKey("order_6735"))
+                        .build())
+                .build());
+  }
+
+  @Test
+  public void testConflictingParams() throws StripeException {
+    PreparedStripeRequest<PaymentIntent> prepared =
+        PreparedStripeRequest.builder(
+                ApiResource.RequestMethod.POST,
+                Stripe.getApiBase() + "/v1/payment_intents",
+                PaymentIntent.class)
+            .setParams(CONSTANT_PARAMS)
+            .build();
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> prepared.bind(Collections.singletonMap("currency", "eur"), null));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> prepared.bind(PaymentIntentCreateParams.builder().setCurrency("eur").build(), null));
+  }
+
+  @Test
+  public void testRequest() throws StripeException {
+    HttpClient spy = Mockito.spy(new HttpURLConnectionClient());
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(spy));
+    StripeResponse response =
+        new StripeResponse(
+            200,
+            HttpHeaders.of(Collections.emptyMap()),
+            "{\"id\":\"pi_123\",\"object\":\"payment_intent\",\"amount\":1000}");
+    Mockito.doReturn(response).when(spy).requestWithRetries(Mockito.<StripeRequest>any());
+
+    PreparedStripeRequest<PaymentIntent> prepared =
+        PreparedStripeRequest.builder(
+                ApiResource.RequestMethod.POST,
+                Stripe.getApiBase() + "/v1/payment_intents",
+                PaymentIntent.class)
+            .setParams(CONSTANT_PARAMS)
+            .build();
+    PaymentIntent paymentIntent = prepared.request(Collections.singletonMap("amount", 1000));
+
+    assertEquals("pi_123", paymentIntent.getId());
+    assertSame(response, paymentIntent.getLastResponse());
+    Mockito.verify(spy)
+        .requestWithRetries(
+            Mockito.argThat(
+                request ->
+                    pairs(request.content().stringContent())
+                        .equals(pairs("currency=usd&metadata[source]=batch+job&amount=1000"))));
+  }
+
+  /** A response getter that only implements the abstract methods, recording the last request. */
+  private static class RecordingResponseGetter implements StripeResponseGetter {
+    private ApiResource.RequestMethod method;
+    private String url;
+    private Map<String, Object> params;
+    private RequestOptions options;
+
+    @Override
+    public <T extends StripeObjectInterface> T request(
+        ApiResource.RequestMethod method,
+        String url,
+        Map<String, Object> params,
+        Class<T> clazz,
+        RequestOptions options)
+        throws StripeException {
+      this.method = method;
+      this.url = url;
+      this.params = params;
+      this.options = options;
+      return ApiResource.GSON.fromJson("{\"id\":\"pi_123\"}", clazz);
+    }
+
+    @Override
+    public <T extends StripeObjectInterface> T oauthRequest(
+        ApiResource.RequestMethod method,
+        String url,
+        Map<String, Object> params,
+        Class<T> clazz,
+        RequestOptions options) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  @Test
+  public void testRequestWithCustomResponseGetter() throws StripeException {
+    RecordingResponseGetter getter = new RecordingResponseGetter();
+    ApiResource.setStripeResponseGetter(getter);
+    RequestOptions options = RequestOptions.builder().setStripeAccount("acct_123").build();
+
+    PreparedStripeRequest<PaymentIntent> create =
+        PreparedStripeRequest.builder(
+                ApiResource.RequestMethod.POST,
+                Stripe.getApiBase() + "/v1/payment_intents",
+                PaymentIntent.class)
+            .setParams(CONSTANT_PARAMS)
+            .setOptions(options)
+            .build();
+    PaymentIntent paymentIntent =
+        create.request(create.bind(Collections.singletonMap("amount", 1000), "key_123"));
+
+    assertEquals("pi_123", paymentIntent.getId());
+    assertEquals(ApiResource.RequestMethod.POST, getter.method);
+    assertEquals(Stripe.getApiBase() + "/v1/payment_intents", getter.url);
+    assertEquals(
+        ImmutableMap.builder().putAll(CONSTANT_PARAMS).put("amount", 1000).build(), getter.params);
+    assertEquals("acct_123", getter.options.getStripeAccount());
+    assertEquals("key_123", getter.options.getIdempotencyKey());
+
+    PreparedStripeRequest<PaymentIntentCollection> list =
+        PreparedStripeRequest.builder(
+                ApiResource.RequestMethod.GET,
+                Stripe.getApiBase() + "/v1/payment_intents",
+                PaymentIntentCollection.class)
+            .setParams(Collections.singletonMap("customer", "cus_123"))
+            .build();
+    list.request(Collections.singletonMap("limit", 3));
+
+    assertEquals(ApiResource.RequestMethod.GET, getter.method);
+    assertEquals(Stripe.getApiBase() + "/v1/payment_intents", getter.url);
+    assertEquals(ImmutableMap.of("customer", "cus_123", "limit", 3), getter.params);
+    assertNull(getter.options.getIdempotencyKey());
+  }
+}
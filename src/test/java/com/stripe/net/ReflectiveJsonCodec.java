@@ -0,0 +1,324 @@
+package com.stripe.net;
+
+import com.stripe.model.ExpandableField;
+import com.stripe.model.HasId;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link JsonCodec} that does not use Gson, to check that the model classes can be decoded by
+ * other JSON libraries through the codec interface.
+ *
+ * <p>It parses JSON with a minimal recursive-descent parser, and binds the values to the fields of
+ * the model classes by their snake_case names. An {@link ExpandableField} is bound from either an
+ * ID or an expanded object, and a field of an interface type, such as {@link
+ * com.stripe.model.PaymentSource}, from an object of the model class named after its {@code object}
+ * value. Unknown keys are ignored, like with the default codec.
+ */
+final class ReflectiveJsonCodec implements JsonCodec {
+  private static final String MODEL_PACKAGE = "com.stripe.model.";
+
+  @Override
+  public <T> T deserialize(String json, Class<T> clazz) {
+    try {
+      Parser parser = new Parser(json);
+      Object value = parser.parseValue();
+      parser.expectEnd();
+      return clazz.cast(bind(value, clazz));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      throw new JsonCodecException(e.getMessage(), e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object bind(Object value, Type type) throws ReflectiveOperationException {
+    if (value == null) {
+      return null;
+    }
+    Class<?> raw = rawType(type);
+    if (raw == String.class) {
+      return (String) value;
+    } else if (raw == Long.class) {
+      return ((BigDecimal) value).longValueExact();
+    } else if (raw == Integer.class) {
+      return ((BigDecimal) value).intValueExact();
+    } else if (raw == Double.class) {
+      return ((BigDecimal) value).doubleValue();
+    } else if (raw == BigDecimal.class) {
+      return value;
+    } else if (raw == Boolean.class) {
+      return (Boolean) value;
+    } else if (raw == List.class) {
+      List<Object> list = new ArrayList<>();
+      for (Object element : (List<Object>) value) {
+        list.add(bind(element, typeArgument(type, 0)));
+      }
+      return list;
+    } else if (raw == Map.class) {
+      Map<String, Object> map = new LinkedHashMap<>();
+      for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+        map.put(entry.getKey(), bind(entry.getValue(), typeArgument(type, 1)));
+      }
+      return map;
+    } else if (raw == ExpandableField.class) {
+      if (value instanceof String) {
+        return new ExpandableField<>((String) value, null);
+      }
+      HasId expanded = (HasId) bind(value, typeArgument(type, 0));
+      return new ExpandableField<>(expanded.getId(), expanded);
+    }
+    return bindObject((Map<String, Object>) value, raw);
+  }
+
+  private static Object bindObject(Map<String, Object> json, Class<?> type)
+      throws ReflectiveOperationException {
+    if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+      // Polymorphic field, e.g. a payment source with an object of "card" or "bank_account"
+      type =
+          Class.forName(MODEL_PACKAGE + pascalCase((String) json.get("object"))).asSubclass(type);
+    }
+    Constructor<?> constructor = type.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    Object object = constructor.newInstance();
+    Map<String, Field> fields = fields(type);
+    for (Map.Entry<String, Object> entry : json.entrySet()) {
+      Field field = fields.get(entry.getKey());
+      if (field != null) {
+        field.set(object, bind(entry.getValue(), field.getGenericType()));
+      }
+    }
+    return object;
+  }
+
+  /** Returns the instance fields of a class and its superclasses, by snake_case name. */
+  private static Map<String, Field> fields(Class<?> type) {
+    Map<String, Field> fields = new HashMap<>();
+    for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+          continue;
+        }
+        field.setAccessible(true);
+        fields.putIfAbsent(snakeCase(field.getName()), field);
+      }
+    }
+    return fields;
+  }
+
+  private static Class<?> rawType(Type type) {
+    if (type instanceof Class) {
+      return (Class<?>) type;
+    } else if (type instanceof ParameterizedType) {
+      return (Class<?>) ((ParameterizedType) type).getRawType();
+    }
+    throw new IllegalArgumentException("Unsupported type " + type);
+  }
+
+  private static Type typeArgument(Type type, int index) {
+    if (!(type instanceof ParameterizedType)) {
+      throw new IllegalArgumentException("Unsupported raw type " + type);
+    }
+    return ((ParameterizedType) type).getActualTypeArguments()[index];
+  }
+
+  private static String snakeCase(String camelCase) {
+    StringBuilder name = new StringBuilder();
+    for (char c : camelCase.toCharArray()) {
+      if (Character.isUpperCase(c)) {
+        name.append('_').append(Character.toLowerCase(c));
+      } else {
+        name.append(c);
+      }
+    }
+    return name.toString();
+  }
+
+  private static String pascalCase(String snakeCase) {
+    StringBuilder name = new StringBuilder();
+    for (String word : snakeCase.split("_")) {
+      name.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+    }
+    return name.toString();
+  }
+
+  /** Parses JSON text into strings, {@link BigDecimal} numbers, booleans, nulls, lists and maps. */
+  private static final class Parser {
+    private final String json;
+    private int position;
+
+    Parser(String json) {
+      this.json = json;
+    }
+
+    Object parseValue() {
+      skipWhitespace();
+      char c = peek();
+      switch (c) {
+        case '{':
+          return parseObject();
+        case '[':
+          return parseArray();
+        case '"':
+          return parseString();
+        case 't':
+          expectWord("true");
+          return Boolean.TRUE;
+        case 'f':
+          expectWord("false");
+          return Boolean.FALSE;
+        case 'n':
+          expectWord("null");
+          return null;
+        default:
+          return parseNumber();
+      }
+    }
+
+    void expectEnd() {
+      skipWhitespace();
+      if (position != json.length()) {
+        throw error("Expected the end of the JSON text");
+      }
+    }
+
+    private Map<String, Object> parseObject() {
+      Map<String, Object> object = new LinkedHashMap<>();
+      expect('{');
+      skipWhitespace();
+      if (peek() == '}') {
+        position++;
+        return object;
+      }
+      while (true) {
+        skipWhitespace();
+        String name = parseString();
+        skipWhitespace();
+        expect(':');
+        object.put(name, parseValue());
+        skipWhitespace();
+        if (peek() == '}') {
+          position++;
+          return object;
+        }
+        expect(',');
+      }
+    }
+
+    private List<Object> parseArray() {
+      List<Object> array = new ArrayList<>();
+      expect('[');
+      skipWhitespace();
+      if (peek() == ']') {
+        position++;
+        return array;
+      }
+      while (true) {
+        array.add(parseValue());
+        skipWhitespace();
+        if (peek() == ']') {
+          position++;
+          return array;
+        }
+        expect(',');
+      }
+    }
+
+    private String parseString() {
+      expect('"');
+      StringBuilder value = new StringBuilder();
+      while (true) {
+        char c = next();
+        if (c == '"') {
+          return value.toString();
+        } else if (c != '\\') {
+          value.append(c);
+          continue;
+        }
+        char escaped = next();
+        switch (escaped) {
+          case 'b':
+            value.append('\b');
+            break;
+          case 'f':
+            value.append('\f');
+            break;
+          case 'n':
+            value.append('\n');
+            break;
+          case 'r':
+            value.append('\r');
+            break;
+          case 't':
+            value.append('\t');
+            break;
+          case 'u':
+            if (position + 4 > json.length()) {
+              throw error("Unterminated escape sequence");
+            }
+            value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+            position += 4;
+            break;
+          default:
+            value.append(escaped);
+        }
+      }
+    }
+
+    private BigDecimal parseNumber() {
+      int start = position;
+      while (position < json.length() && "+-0123456789.eE".indexOf(json.charAt(position)) >= 0) {
+        position++;
+      }
+      if (start == position) {
+        throw error("Unexpected character");
+      }
+      return new BigDecimal(json.substring(start, position));
+    }
+
+    private void expectWord(String word) {
+      if (!json.startsWith(word, position)) {
+        throw error("Expected " + word);
+      }
+      position += word.length();
+    }
+
+    private void expect(char c) {
+      if (next() != c) {
+        throw error("Expected '" + c + "'");
+      }
+    }
+
+    private char peek() {
+      if (position == json.length()) {
+        throw error("Unexpected end of the JSON text");
+      }
+      return json.charAt(position);
+    }
+
+    private char next() {
+      char c = peek();
+      position++;
+      return c;
+    }
+
+    private void skipWhitespace() {
+      while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+        position++;
+      }
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException(message + " at position " + position);
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package com.stripe.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.JsonObject;
+import com.google.gson.annotations.SerializedName;
+import com.stripe.BaseStripeTest;
+import com.stripe.exception.StripeException;
+import com.stripe.model.BalanceTransaction;
+import com.stripe.model.BalanceTransactionCollection;
+import com.stripe.model.Charge;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class ResponseProjectionTest extends BaseStripeTest {
+  private static final String CHARGE_JSON =
+      "{\"id\":\"ch_123\",\"object\":\"charge\",\"amount\":100,\"currency\":\"usd\","
+          + "\"description\":\"A charge\",\"metadata\":{\"foo\":\"bar\"},"
+          + "\"customer\":{\"id\":\"cus_123\",\"object\":\"customer\","
+          + "\"email\":\"jenny@example.com\",\"name\":\"Jenny\"},"
+          + "\"refunds\":{\"object\":\"list\",\"data\":[{\"id\":\"re_123\",\"object\":\"refund\","
+          + "\"amount\":50,\"reason\":\"duplicate\"}],\"has_more\":false}}";
+
+  private static final String BALANCE_TRANSACTION_LIST_JSON =
+      "{\"object\":\"list\",\"url\":\"/v1/balance_transactions\",\"has_more\":true,\"data\":["
+          + "{\"id\":\"txn_1\",\"object\":\"balance_transaction\",\"amount\":100,\"fee\":3,"
+          + "\"net\":97,\"currency\":\"usd\",\"description\":\"first\"},"
+          + "{\"id\":\"txn_2\",\"object\":\"balance_transaction\",\"amount\":200,\"fee\":6,"
+          + "\"net\":194,\"currency\":\"eur\",\"description\":\"second\"}]}";
+
+  static class AmountView {
+    long amount;
+    String currency;
+    CustomerView customer;
+  }
+
+  static class CustomerView {
+    @SerializedName("email")
+    String emailAddress;
+  }
+
+  @Test
+  public void testProjectObject() {
+    ResponseProjection projection = ResponseProjection.of("amount", "metadata");
+
+    JsonObject projected = projection.project(CHARGE_JSON, false).getAsJsonObject();
+
+    assertEquals(ImmutableSet.of("id", "object", "amount", "metadata"), projected.keySet());
+    assertEquals("bar", projected.getAsJsonObject("metadata").get("foo").getAsString());
+
+    Charge charge = ApiResource.GSON.fromJson(projected, Charge.class);
+    assertEquals("ch_123", charge.getId());
+    assertEquals(Long.valueOf(100), charge.getAmount());
+    assertNull(charge.getCurrency());
+    assertNull(charge.getDescription());
+    assertNull(charge.getCustomer());
+  }
+
+  @Test
+  public void testProjectNestedPaths() {
+    ResponseProjection projection = ResponseProjection.of("customer.email", "refunds.data.amount");
+
+    Charge charge = ApiResource.GSON.fromJson(projection.project(CHARGE_JSON, false), Charge.class);
+
+    assertEquals("cus_123", charge.getCustomer());
+    assertEquals("jenny@example.com", charge.getCustomerObject().getEmail());
+    assertNull(charge.getCustomerObject().getName());
+    assertEquals(1, charge.getRefunds().getData().size());
+    assertEquals("re_123", charge.getRefunds().getData().get(0).getId());
+    assertEquals(Long.valueOf(50), charge.getRefunds().getData().get(0).getAmount());
+    assertNull(charge.getRefunds().getData().get(0).getReason());
+  }
+
+  @Test
+  public void testProjectCollection() {
+    ResponseProjection projection = ResponseProjection.of("amount", "currency");
+
+    BalanceTransactionCollection collection =
+        ApiResource.GSON.fromJson(
+            projection.project(BALANCE_TRANSACTION_LIST_JSON, true),
+            BalanceTransactionCollection.class);
+
+    assertTrue(collection.getHasMore());
+    assertEquals("/v1/balance_transactions", collection.getUrl());
+    List<BalanceTransaction> data = collection.getData();
+    assertEquals(2, data.size());
+    assertEquals("txn_2", data.get(1).getId());
+    assertEquals(Long.valueOf(200), data.get(1).getAmount());
+    assertEquals("eur", data.get(1).getCurrency());
+    assertNull(data.get(1).getFee());
+    assertNull(data.get(1).getDescription());
+  }
+
+  @Test
+  public void testFromView() {
+    ResponseProjection projection = ResponseProjection.fromView(AmountView.class);
+
+    assertEquals(ImmutableSet.of("amount", "currency", "customer.email"), projection.getPaths());
+    assertEquals(ResponseProjection.of("customer.email", "amount", "currency"), projection);
+  }
+
+  @Test
+  public void testInvalidPaths() {
+    assertThrows(IllegalArgumentException.class, () -> ResponseProjection.of());
+    assertThrows(IllegalArgumentException.class, () -> ResponseProjection.of(""));
+    assertThrows(IllegalArgumentException.class, () -> ResponseProjection.of("customer..email"));
+  }
+
+  @Test
+  public void testRequestWithProjection() throws StripeException {
+    HttpClient spy = Mockito.spy(new HttpURLConnectionClient());
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(spy));
+    StripeResponse response =
+        new StripeResponse(200, HttpHeaders.of(Collections.emptyMap()), CHARGE_JSON);
+    Mockito.doReturn(response).when(spy).requestWithRetries(Mockito.<StripeRequest>any());
+
+    RequestOptions options =
+        RequestOptions.builder().setResponseProjection(ResponseProjection.of("amount")).build();
+    Charge charge = Charge.retrieve("ch_123", (Map<String, Object>) null, options);
+
+    assertEquals(Long.valueOf(100), charge.getAmount());
+    assertNull(charge.getDescription());
+    assertFalse(charge.getRawJsonObject().get("description").isJsonNull());
+    assertNotNull(charge.getLastResponse());
+  }
+}
@@ -0,0 +1,102 @@
+package com.stripe.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.stripe.BaseStripeTest;
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Price;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class ResponseRetentionPolicyTest extends BaseStripeTest {
+  private static final String PRICE_JSON =
+      "{\"id\":\"price_123\",\"object\":\"price\",\"currency\":\"usd\",\"unit_amount\":1000}";
+
+  private StripeResponse response;
+
+  @BeforeEach
+  public void setUpResponse() throws StripeException {
+    HttpClient spy = Mockito.spy(new HttpURLConnectionClient());
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(spy));
+    this.response =
+        new StripeResponse(
+            200,
+            HttpHeaders.of(
+                Collections.singletonMap("Request-Id", Collections.singletonList("req_123"))),
+            PRICE_JSON);
+    Mockito.doReturn(this.response).when(spy).requestWithRetries(Mockito.<StripeRequest>any());
+  }
+
+  @AfterEach
+  public void tearDownPolicy() {
+    Stripe.setResponseRetentionPolicy(null);
+  }
+
+  private static Price retrievePrice(RequestOptions options) throws StripeException {
+    return Price.retrieve("price_123", (Map<String, Object>) null, options);
+  }
+
+  @Test
+  public void testFull() throws StripeException {
+    Price price = retrievePrice(null);
+
+    assertSame(this.response, price.getLastResponse());
+    assertEquals("usd", price.getRawJsonObject().get("currency").getAsString());
+  }
+
+  @Test
+  public void testHeadersOnly() throws StripeException {
+    Stripe.setResponseRetentionPolicy(ResponseRetentionPolicy.HEADERS_ONLY);
+
+    Price price = retrievePrice(null);
+
+    assertEquals(Long.valueOf(1000), price.getUnitAmount());
+    assertEquals(200, price.getLastResponse().code());
+    assertEquals("req_123", price.getLastResponse().requestId());
+    assertEquals("", price.getLastResponse().body());
+    assertNull(price.getRawJsonObject());
+  }
+
+  @Test
+  public void testNone() throws StripeException {
+    Stripe.setResponseRetentionPolicy(ResponseRetentionPolicy.NONE);
+
+    Price price = retrievePrice(null);
+
+    assertEquals("price_123", price.getId());
+    assertNull(price.getLastResponse());
+  }
+
+  @Test
+  public void testRequestOptionsOverride() throws StripeException {
+    Stripe.setResponseRetentionPolicy(ResponseRetentionPolicy.NONE);
+    RequestOptions options =
+        RequestOptions.builder()
+            .setResponseRetentionPolicy(ResponseRetentionPolicy.HEADERS_ONLY)
+            .build();
+
+    Price price = retrievePrice(options);
+
+    assertNotNull(price.getLastResponse());
+    assertEquals("req_123", price.getLastResponse().requestId());
+  }
+
+  @Test
+  public void testEstimateRetainedBytes() {
+    long full = this.response.estimateRetainedBytes();
+    long headersOnly =
+        ResponseRetentionPolicy.HEADERS_ONLY.retain(this.response).estimateRetainedBytes();
+
+    assertTrue(full - headersOnly >= PRICE_JSON.length());
+    assertTrue(headersOnly > "Request-Id".length() + "req_123".length());
+  }
+}
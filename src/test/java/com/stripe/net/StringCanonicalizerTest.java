@@ -0,0 +1,82 @@
+package com.stripe.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.stripe.BaseStripeTest;
+import com.stripe.model.BalanceTransaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class StringCanonicalizerTest extends BaseStripeTest {
+  private static final String BALANCE_TRANSACTION_JSON =
+      "{\"id\":\"txn_1HZ2pQ2eZvKYlo2C0nH8n2Ax\",\"object\":\"balance_transaction\","
+          + "\"amount\":100,\"currency\":\"usd\",\"description\":\"Order 6735\","
+          + "\"reporting_category\":\"charge\",\"status\":\"available\",\"type\":\"charge\"}";
+
+  @AfterEach
+  public void tearDownCanonicalizer() {
+    ApiResource.setStringCanonicalizer(null);
+  }
+
+  @Test
+  public void testIsVocabulary() {
+    assertTrue(StringCanonicalizer.isVocabulary("usd"));
+    assertTrue(StringCanonicalizer.isVocabulary("balance_transaction"));
+    assertTrue(StringCanonicalizer.isVocabulary("checkout.session"));
+    assertTrue(StringCanonicalizer.isVocabulary("US"));
+
+    assertFalse(StringCanonicalizer.isVocabulary(""));
+    assertFalse(StringCanonicalizer.isVocabulary("txn_1HZ2pQ2eZvKYlo2C0nH8n2Ax"));
+    assertFalse(StringCanonicalizer.isVocabulary("order_6735"));
+    assertFalse(StringCanonicalizer.isVocabulary("Payment complete."));
+    assertFalse(StringCanonicalizer.isVocabulary("USD1"));
+    assertFalse(StringCanonicalizer.isVocabulary("abcdefghijklmnopqrstuvwxyzabcdefg"));
+  }
+
+  @Test
+  public void testCanonicalize() {
+    StringCanonicalizer canonicalizer = new StringCanonicalizer(2);
+    String usd = new String("usd");
+
+    assertSame(usd, canonicalizer.canonicalize(usd));
+    assertSame(usd, canonicalizer.canonicalize(new String("usd")));
+    String eur = canonicalizer.canonicalize(new String("eur"));
+    assertSame(eur, canonicalizer.canonicalize(new String("eur")));
+    assertEquals(2, canonicalizer.size());
+
+    // The table is full: new strings are returned as-is, known strings are still canonicalized
+    String gbp = new String("gbp");
+    assertSame(gbp, canonicalizer.canonicalize(gbp));
+    assertNotSame(gbp, canonicalizer.canonicalize(new String("gbp")));
+    assertSame(usd, canonicalizer.canonicalize(new String("usd")));
+    assertEquals(2, canonicalizer.size());
+
+    assertNull(canonicalizer.canonicalize(null));
+  }
+
+  @Test
+  public void testDeserialize() {
+    BalanceTransaction first =
+        ApiResource.GSON.fromJson(BALANCE_TRANSACTION_JSON, BalanceTransaction.class);
+    BalanceTransaction second =
+        ApiResource.GSON.fromJson(BALANCE_TRANSACTION_JSON, BalanceTransaction.class);
+    assertNotSame(first.getCurrency(), second.getCurrency());
+
+    ApiResource.setStringCanonicalizer(new StringCanonicalizer());
+    first = ApiResource.GSON.fromJson(BALANCE_TRANSACTION_JSON, BalanceTransaction.class);
+    second = ApiResource.GSON.fromJson(BALANCE_TRANSACTION_JSON, BalanceTransaction.class);
+
+    assertEquals("usd", first.getCurrency());
+    assertSame(first.getCurrency(), second.getCurrency());
+    assertSame(first.getStatus(), second.getStatus());
+    assertSame(first.getType(), second.getReportingCategory());
+    assertSame(first.getObject(), second.getObject());
+    assertNotSame(first.getId(), second.getId());
+    assertNotSame(first.getDescription(), second.getDescription());
+  }
+}
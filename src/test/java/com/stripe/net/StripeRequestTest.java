@@ -3,7 +3,9 @@ package com.stripe.net;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -192,4 +194,34 @@ public class StripeRequestTest extends BaseStripeTest {
     assertTrue(updatedRequest.headers().firstValue("New-Header").isPresent());
     assertEquals("bar", updatedRequest.headers().firstValue("New-Header").get());
   }
+
+  @Test
+  public void testCtorGetRequestWithEmptyQueryString() throws StripeException {
+    StripeRequest request =
+        new StripeRequest(
+            ApiResource.RequestMethod.GET,
+            "http://example.com/get?",
+            ImmutableMap.of("string", "String!"),
+            null);
+
+    assertEquals("http://example.com/get??string=String%21", request.url().toString());
+  }
+
+  @Test
+  public void testHeadersReusedForSameOptions() throws StripeException {
+    StripeRequest request1 =
+        new StripeRequest(ApiResource.RequestMethod.GET, "http://example.com/get", null, null);
+    StripeRequest request2 =
+        new StripeRequest(ApiResource.RequestMethod.GET, "http://example.com/get", null, null);
+    StripeRequest request3 =
+        new StripeRequest(
+            ApiResource.RequestMethod.GET,
+            "http://example.com/get",
+            null,
+            RequestOptions.builder().setStripeAccount("acct_123").build());
+
+    assertSame(request1.headers(), request2.headers());
+    assertNotSame(request1.headers(), request3.headers());
+    assertEquals("acct_123", request3.headers().firstValue("Stripe-Account").orElse(null));
+  }
 }
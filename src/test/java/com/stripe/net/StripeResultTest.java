@@ -0,0 +1,184 @@
+package com.stripe.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.stripe.BaseStripeTest;
+import com.stripe.Stripe;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.AuthenticationException;
+import com.stripe.exception.CardException;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Charge;
+import com.stripe.model.StripeError;
+import com.stripe.model.StripeObjectInterface;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class StripeResultTest extends BaseStripeTest {
+  private static final String CARD_ERROR_JSON =
+      "{\"error\":{\"type\":\"card_error\",\"code\":\"card_declined\","
+          + "\"decline_code\":\"insufficient_funds\",\"message\":\"Your card has insufficient "
+          + "funds.\",\"charge\":\"ch_123\",\"doc_url\":\"https://stripe.com/docs/error-codes/"
+          + "card-declined\"}}";
+
+  private HttpClient httpClient;
+
+  @BeforeEach
+  public void setUpHttpClient() {
+    this.httpClient = Mockito.spy(new HttpURLConnectionClient());
+    ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(this.httpClient));
+  }
+
+  @AfterEach
+  public void tearDownStackTraces() {
+    Stripe.setApiErrorStackTraces(true);
+  }
+
+  private void stubResponse(int code, String body) throws StripeException {
+    StripeResponse response =
+        new StripeResponse(
+            code,
+            HttpHeaders.of(
+                Collections.singletonMap("Request-Id", Collections.singletonList("req_123"))),
+            body);
+    Mockito.doReturn(response)
+        .when(this.httpClient)
+        .requestWithRetries(Mockito.<StripeRequest>any());
+  }
+
+  private static StripeResult<Charge> createCharge() throws StripeException {
+    return ApiResource.requestResult(
+        ApiResource.RequestMethod.POST,
+        Stripe.getApiBase() + "/v1/charges",
+        (Map<String, Object>) null,
+        Charge.class,
+        null);
+  }
+
+  @Test
+  public void testSuccess() throws StripeException {
+    stubResponse(200, "{\"id\":\"ch_123\",\"object\":\"charge\",\"amount\":100}");
+
+    StripeResult<Charge> result = createCharge();
+
+    assertTrue(result.isSuccess());
+    assertEquals("ch_123", result.getValue().getId());
+    assertNotNull(result.getValue().getLastResponse());
+    assertNull(result.getError());
+    assertNull(result.getException());
+    assertSame(result.getValue(), result.getValueOrThrow());
+  }
+
+  @Test
+  public void testFailure() throws StripeException {
+    stubResponse(402, CARD_ERROR_JSON);
+
+    StripeResult<Charge> result = createCharge();
+
+    assertFalse(result.isSuccess());
+    assertNull(result.getValue());
+    StripeError error = result.getError();
+    assertEquals("card_error", error.getType());
+    assertEquals("card_declined", error.getCode());
+    assertEquals("insufficient_funds", error.getDeclineCode());
+    assertEquals("ch_123", error.getCharge());
+    assertEquals(402, error.getLastResponse().code());
+    assertEquals("req_123", error.getLastResponse().requestId());
+
+    CardException exception = (CardException) result.getException();
+    assertSame(exception, result.getException());
+    assertSame(error, exception.getStripeError());
+    assertEquals("insufficient_funds", exception.getDeclineCode());
+    assertEquals("req_123", exception.getRequestId());
+    assertSame(exception, assertThrows(CardException.class, result::getValueOrThrow));
+  }
+
+  @Test
+  public void testDefaultRequestResult() throws StripeException {
+    stubResponse(402, CARD_ERROR_JSON);
+    LiveStripeResponseGetter delegate = new LiveStripeResponseGetter(this.httpClient);
+    StripeResponseGetter getter =
+        new StripeResponseGetter() {
+          @Override
+          public <T extends StripeObjectInterface> T request(
+              ApiResource.RequestMethod method,
+              String url,
+              Map<String, Object> params,
+              Class<T> clazz,
+              RequestOptions options)
+              throws StripeException {
+            return delegate.request(method, url, params, clazz, options);
+          }
+
+          @Override
+          public <T extends StripeObjectInterface> T oauthRequest(
+              ApiResource.RequestMethod method,
+              String url,
+              Map<String, Object> params,
+              Class<T> clazz,
+              RequestOptions options)
+              throws StripeException {
+            return delegate.oauthRequest(method, url, params, clazz, options);
+          }
+        };
+    ApiResource.setStripeResponseGetter(getter);
+
+    StripeResult<Charge> result = createCharge();
+
+    assertFalse(result.isSuccess());
+    assertEquals("insufficient_funds", result.getError().getDeclineCode());
+    assertSame(result.getError(), result.getException().getStripeError());
+
+    // Built requests are sent again through the methods implemented by the getter
+    PreparedStripeRequest<Charge> prepared =
+        PreparedStripeRequest.builder(
+                ApiResource.RequestMethod.POST, Stripe.getApiBase() + "/v1/charges", Charge.class)
+            .build();
+    StripeResult<Charge> preparedResult = prepared.requestResult(Collections.emptyMap());
+
+    assertFalse(preparedResult.isSuccess());
+    assertEquals("insufficient_funds", preparedResult.getError().getDeclineCode());
+  }
+
+  @Test
+  public void testStacklessApiErrors() throws StripeException {
+    stubResponse(402, CARD_ERROR_JSON);
+
+    CardException withStackTrace =
+        assertThrows(CardException.class, () -> Charge.retrieve("ch_123"));
+    Stripe.setApiErrorStackTraces(false);
+    CardException withoutStackTrace =
+        assertThrows(CardException.class, () -> Charge.retrieve("ch_123"));
+
+    assertTrue(withStackTrace.getStackTrace().length > 0);
+    assertEquals(0, withoutStackTrace.getStackTrace().length);
+    assertEquals(withStackTrace.getMessage(), withoutStackTrace.getMessage());
+    assertEquals("insufficient_funds", withoutStackTrace.getDeclineCode());
+    assertEquals("card_declined", withoutStackTrace.getStripeError().getCode());
+    assertEquals(
+        "https://stripe.com/docs/error-codes/card-declined",
+        withoutStackTrace.getStripeError().getDocUrl());
+    // The stack trace starts where the exception is created, not in its constructors
+    assertNotEquals("<init>", withStackTrace.getStackTrace()[0].getMethodName());
+    assertTrue(new ApiConnectionException("Connection refused").getStackTrace().length > 0);
+    assertTrue(
+        new SignatureVerificationException("No signatures found", "t=1").getStackTrace().length
+            > 0);
+    Stripe.apiKey = null;
+    AuthenticationException missingKey =
+        assertThrows(AuthenticationException.class, () -> Charge.retrieve("ch_123"));
+    assertTrue(missingKey.getStackTrace().length > 0);
+  }
+}